@@ -0,0 +1,502 @@
+/*
+/******************************************************************************
+ * Name            : Eric Olaveson
+ * Date            : October 18, 2026
+ *
+ * This program will encode the rule "at most one of these literals is true"
+ *    into CNF clauses in one of several ways. Each way trades auxiliary
+ *    variables against the number of clauses it takes.
+ *****************************************************************************/
+import java.io.IOException;
+
+/* - CLASS -
+/******************************************************************************
+ * Name    : AtMostOne
+ * Purpose : This class is the base of the at-most-one encodings Sudoku uses
+ *           for every tile, row, column and block. An instance belongs to a
+ *           single encoder and keeps its own scratch arrays, so encoding a
+ *           group never allocates. The encodings are:
+ *
+ *              pairwise   -> one binary clause per pair, n(n-1)/2 clauses
+ *              sequential -> Sinz sequential counter, 3n-4 clauses
+ *              commander  -> Klieber-Kwon commanders over groups of three
+ *              product    -> Chen two-product over a sqrt(n) x sqrt(n) grid
+ *****************************************************************************/
+public abstract class AtMostOne
+{
+   /* -CONSTANTS
+   /***************************************************************************
+    * NAMES         : names accepted by create()
+    * PAIRWISE_BASE : groups this small always fall back to pairwise
+    * GROUP_SIZE    : literals under each commander variable
+    **************************************************************************/
+   public static final String[] NAMES = {"pairwise", "sequential",
+                                         "commander", "product"};
+   public static final int PAIRWISE_BASE = 6;
+   public static final int GROUP_SIZE    = 3;
+
+   /* -VARIABLES- */
+   protected int[] work; // ARRY - auxiliary literals of recursive levels
+   protected int[] line; // ARRY - clause longer than two literals
+
+   /* - CONSTRUCTOR -
+   /***************************************************************************
+    * Name       : AtMostOne
+    * Purpose    : Create an encoding for groups of at most size literals.
+    * Parameters : size -> largest group that will be encoded
+    **************************************************************************/
+   protected AtMostOne(int size)
+   {
+      this.work = new int[size + 8];
+      this.line = new int[GROUP_SIZE + 1];
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : create
+    * Purpose    : returns the encoding with the given name
+    * Parameters : name -> one of NAMES
+    *              size -> largest group that will be encoded
+    * Return     : AtMostOne -> new encoding for one encoder
+    **************************************************************************/
+   public static AtMostOne create(String name, int size)
+   {
+      if(name.equals("pairwise"))
+      {
+         return new Pairwise(size);
+      }
+      else if(name.equals("sequential"))
+      {
+         return new Sequential(size);
+      }
+      else if(name.equals("commander"))
+      {
+         return new Commander(size);
+      }
+      else if(name.equals("product"))
+      {
+         return new Product(size);
+      }
+
+      throw new IllegalArgumentException("unknown at-most-one encoding: "
+                                         + name);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : encode
+    * Purpose    : This method adds the clauses that allow at most one of the
+    *                 literals to be true.
+    * Parameters : encoder -> receives clauses and hands out new variables
+    *              group   -> literals of which at most one may be true
+    *              count   -> number of literals used from the array
+    * Return     : void
+    **************************************************************************/
+   public abstract void encode(Sudoku encoder, int[] group, int count)
+      throws IOException;
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : clauses
+    * Purpose    : returns the number of clauses encode() adds for a group
+    * Parameters : count -> number of literals in the group
+    * Return     : int   -> number of clauses
+    **************************************************************************/
+   public abstract int clauses(int count);
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : literals
+    * Purpose    : returns the number of literals encode() adds for a group
+    * Parameters : count -> number of literals in the group
+    * Return     : int   -> number of literals
+    **************************************************************************/
+   public abstract int literals(int count);
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : variables
+    * Purpose    : returns the auxiliary variables encode() adds for a group
+    * Parameters : count -> number of literals in the group
+    * Return     : int   -> number of new variables
+    **************************************************************************/
+   public abstract int variables(int count);
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : pairwise
+    * Purpose    : This method adds a binary clause for every pair of
+    *                 literals, so that no two of them may be true together.
+    * Parameters : encoder -> receives clauses
+    *              lits    -> array holding the group
+    *              from    -> index of the first literal of the group
+    *              count   -> number of literals in the group
+    * Return     : void
+    **************************************************************************/
+   protected static void pairwise(Sudoku encoder, int[] lits, int from,
+                                  int count) throws IOException
+   {
+      // INITIALIZE - element to start at 1
+      int index = from;
+
+      // 2nd TO-DO - ensure each square has only 1 value
+      for(int block = (count - 1); block > 0; --block)
+      {
+         // CALC - increment current element checker
+         int tmp = index + 1;
+
+         // FOR - checks that there are only 1 element at each tile
+         for(int iter = block; iter > 0; --iter)
+         {
+            encoder.addCNF(-lits[index], -lits[tmp]);
+
+            // INCREMENT - to next element to check against
+            ++tmp;
+         }
+
+         // INCREMENT - next level of equality checking
+         ++index;
+      }
+   }
+
+   /* - CLASS -
+   /***************************************************************************
+    * Name    : Pairwise
+    * Purpose : The original encoding, with no auxiliary variables.
+    **************************************************************************/
+   public static class Pairwise extends AtMostOne
+   {
+      public Pairwise(int size)
+      {
+         super(size);
+      }
+
+      public void encode(Sudoku encoder, int[] group, int count)
+         throws IOException
+      {
+         pairwise(encoder, group, 0, count);
+      }
+
+      public int clauses(int count)
+      {
+         return (count * (count - 1)) / 2;
+      }
+
+      public int literals(int count)
+      {
+         return count * (count - 1);
+      }
+
+      public int variables(int count)
+      {
+         return 0;
+      }
+   }
+
+   /* - CLASS -
+   /***************************************************************************
+    * Name    : Sequential
+    * Purpose : Sinz's sequential counter. Auxiliary s(i) is forced true once
+    *           any of the first i literals is true, and literal i + 1 may
+    *           not be true while s(i) is.
+    **************************************************************************/
+   public static class Sequential extends AtMostOne
+   {
+      public Sequential(int size)
+      {
+         super(size);
+      }
+
+      public void encode(Sudoku encoder, int[] group, int count)
+         throws IOException
+      {
+         int last; // CALC - counter variable of the previous literal
+         int next; // CALC - counter variable of the current literal
+
+         // IF - nothing to forbid
+         if(count < 2)
+         {
+            return;
+         }
+
+         // INITIALIZE
+         last = encoder.newVariable();
+         encoder.addCNF(-group[0], last);
+
+         // FOR - each middle literal sets its counter and obeys the last one
+         for(int index = 1; index < count - 1; ++index)
+         {
+            next = encoder.newVariable();
+            encoder.addCNF(-group[index], next);
+            encoder.addCNF(-last, next);
+            encoder.addCNF(-group[index], -last);
+            last = next;
+         }
+
+         encoder.addCNF(-group[count - 1], -last);
+      }
+
+      public int clauses(int count)
+      {
+         return (count < 2) ? 0 : (3 * count) - 4;
+      }
+
+      public int literals(int count)
+      {
+         return 2 * clauses(count);
+      }
+
+      public int variables(int count)
+      {
+         return (count < 2) ? 0 : count - 1;
+      }
+   }
+
+   /* - CLASS -
+   /***************************************************************************
+    * Name    : Commander
+    * Purpose : Klieber and Kwon's commander encoding. Literals are split into
+    *           groups of three, each group gets a commander that is true
+    *           exactly when one of its literals is, and at most one
+    *           commander is allowed, recursively.
+    **************************************************************************/
+   public static class Commander extends AtMostOne
+   {
+      public Commander(int size)
+      {
+         super(size);
+      }
+
+      public void encode(Sudoku encoder, int[] group, int count)
+         throws IOException
+      {
+         commander(encoder, group, 0, count, 0);
+      }
+
+      /* - METHOD -
+       ************************************************************************
+       * Name       : commander
+       * Purpose    : This method encodes one level and recurses on the
+       *                 commanders, which are kept in work from free onward.
+       * Parameters : encoder -> receives clauses and new variables
+       *              lits    -> array holding the group
+       *              from    -> index of the first literal of the group
+       *              count   -> number of literals in the group
+       *              free    -> first unused index of work
+       * Return     : void
+       ***********************************************************************/
+      private void commander(Sudoku encoder, int[] lits, int from, int count,
+                             int free) throws IOException
+      {
+         int start; // CALC - index of this level's first commander
+         int end;   // CALC - one past the last literal of a subgroup
+         int boss;  // CALC - commander of the current subgroup
+
+         // IF - small enough to do directly
+         if(count <= PAIRWISE_BASE)
+         {
+            pairwise(encoder, lits, from, count);
+            return;
+         }
+
+         // INITIALIZE
+         start = free;
+
+         // FOR - each subgroup of three literals
+         for(int first = from; first < from + count; first += GROUP_SIZE)
+         {
+            end  = Math.min(first + GROUP_SIZE, from + count);
+            boss = encoder.newVariable();
+
+            pairwise(encoder, lits, first, end - first);
+
+            // CALC - commander true means one of its literals is true
+            line[0] = -boss;
+            System.arraycopy(lits, first, line, 1, end - first);
+            encoder.addCNF(line, end - first + 1);
+
+            // FOR - any true literal makes its commander true
+            for(int index = first; index < end; ++index)
+            {
+               encoder.addCNF(-lits[index], boss);
+            }
+
+            work[free++] = boss;
+         }
+
+         commander(encoder, work, start, free - start, free);
+      }
+
+      public int clauses(int count)
+      {
+         int total; // CALC - clauses of this level
+
+         if(count <= PAIRWISE_BASE)
+         {
+            return (count * (count - 1)) / 2;
+         }
+
+         // INITIALIZE
+         total = 0;
+
+         // FOR - each subgroup adds its pairs, one long clause and links
+         for(int first = 0; first < count; first += GROUP_SIZE)
+         {
+            int size = Math.min(GROUP_SIZE, count - first);
+            total += ((size * (size - 1)) / 2) + 1 + size;
+         }
+
+         return total + clauses(groups(count));
+      }
+
+      public int literals(int count)
+      {
+         int total; // CALC - literals of this level
+
+         if(count <= PAIRWISE_BASE)
+         {
+            return count * (count - 1);
+         }
+
+         // INITIALIZE
+         total = 0;
+
+         // FOR - each subgroup adds its pairs, one long clause and links
+         for(int first = 0; first < count; first += GROUP_SIZE)
+         {
+            int size = Math.min(GROUP_SIZE, count - first);
+            total += (size * (size - 1)) + (size + 1) + (2 * size);
+         }
+
+         return total + literals(groups(count));
+      }
+
+      public int variables(int count)
+      {
+         if(count <= PAIRWISE_BASE)
+         {
+            return 0;
+         }
+
+         return groups(count) + variables(groups(count));
+      }
+
+      private int groups(int count)
+      {
+         return (count + GROUP_SIZE - 1) / GROUP_SIZE;
+      }
+   }
+
+   /* - CLASS -
+   /***************************************************************************
+    * Name    : Product
+    * Purpose : Chen's product encoding. Literal k is placed at row k / q and
+    *           column k % q of a p x q grid; it implies its row variable
+    *           and its column variable, and at most one row and at most one
+    *           column variable may be true, recursively.
+    **************************************************************************/
+   public static class Product extends AtMostOne
+   {
+      public Product(int size)
+      {
+         super(size);
+      }
+
+      public void encode(Sudoku encoder, int[] group, int count)
+         throws IOException
+      {
+         product(encoder, group, 0, count, 0);
+      }
+
+      /* - METHOD -
+       ************************************************************************
+       * Name       : product
+       * Purpose    : This method encodes one level and recurses on the row
+       *                 and column variables, kept in work from free onward.
+       * Parameters : encoder -> receives clauses and new variables
+       *              lits    -> array holding the group
+       *              from    -> index of the first literal of the group
+       *              count   -> number of literals in the group
+       *              free    -> first unused index of work
+       * Return     : void
+       ***********************************************************************/
+      private void product(Sudoku encoder, int[] lits, int from, int count,
+                           int free) throws IOException
+      {
+         int rows;    // CALC - rows of the grid
+         int cols;    // CALC - columns of the grid
+         int rowBase; // CALC - index of the first row variable in work
+         int colBase; // CALC - index of the first column variable in work
+
+         // IF - small enough to do directly
+         if(count <= PAIRWISE_BASE)
+         {
+            pairwise(encoder, lits, from, count);
+            return;
+         }
+
+         // INITIALIZE
+         rows    = rows(count);
+         cols    = cols(count);
+         rowBase = free;
+         colBase = free + rows;
+
+         // FOR - hand out the row and column variables
+         for(int index = 0; index < rows + cols; ++index)
+         {
+            work[free++] = encoder.newVariable();
+         }
+
+         // FOR - each literal implies its row and its column
+         for(int index = 0; index < count; ++index)
+         {
+            encoder.addCNF(-lits[from + index], work[rowBase + (index / cols)]);
+            encoder.addCNF(-lits[from + index], work[colBase + (index % cols)]);
+         }
+
+         product(encoder, work, rowBase, rows, free);
+         product(encoder, work, colBase, cols, free);
+      }
+
+      public int clauses(int count)
+      {
+         if(count <= PAIRWISE_BASE)
+         {
+            return (count * (count - 1)) / 2;
+         }
+
+         return (2 * count) + clauses(rows(count)) + clauses(cols(count));
+      }
+
+      public int literals(int count)
+      {
+         if(count <= PAIRWISE_BASE)
+         {
+            return count * (count - 1);
+         }
+
+         return (4 * count) + literals(rows(count)) + literals(cols(count));
+      }
+
+      public int variables(int count)
+      {
+         if(count <= PAIRWISE_BASE)
+         {
+            return 0;
+         }
+
+         return rows(count) + cols(count)
+                + variables(rows(count)) + variables(cols(count));
+      }
+
+      private int rows(int count)
+      {
+         return (int)Math.ceil(Math.sqrt(count));
+      }
+
+      private int cols(int count)
+      {
+         return (count + rows(count) - 1) / rows(count);
+      }
+   }
+}
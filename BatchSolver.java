@@ -0,0 +1,556 @@
+/*
+/******************************************************************************
+ * Name            : Eric Olaveson
+ * Date            : October 18, 2026
+ *
+ * This program will solve a file of sudoku puzzles, one per line, in
+ *    parallel and write the solutions one per line in the same order.
+ *****************************************************************************/
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/* - CLASS -
+/******************************************************************************
+ * Name    : BatchSolver
+ * Purpose : This class encapsulates a batch run over a puzzle file. The file
+ *           is memory-mapped and cut into chunks that end on line
+ *           boundaries. Each chunk is solved as one task on a work-stealing
+ *           pool, every worker keeping its own engine per size, and the
+ *           chunks are written back through one buffered stream in the order
+ *           they were read. Only a bounded number of chunks is in flight at
+ *           once, so memory stays flat however large the file is.
+ *
+ *           Each input line is a puzzle in Puzzle's line format. Each output
+ *           line is its solution in the same format, UNSATISFIABLE, or
+ *           INVALID for a line that is not a puzzle. Blank lines are copied.
+ *           With a SolutionCache, each puzzle is looked up by its canonical
+ *           form before it is solved, and what is solved is kept, so files
+ *           full of repeats, or of puzzles alike up to symmetry, solve each
+ *           one once.
+ *****************************************************************************/
+public class BatchSolver
+{
+   /* -CONSTANTS
+   /***************************************************************************
+    * CHUNK_SIZE  : bytes of input per task, before rounding to a line
+    * WINDOW_SIZE : bytes of input mapped at a time
+    * IN_FLIGHT   : chunks queued per worker before the oldest is written
+    * BUFFER_SIZE : bytes buffered before the output is written
+    **************************************************************************/
+   public static final int CHUNK_SIZE  = 256 * 1024;
+   public static final int WINDOW_SIZE = 1 << 30;
+   public static final int IN_FLIGHT   = 4;
+   public static final int BUFFER_SIZE = 1 << 16;
+
+   /* -VARIABLES- */
+   private String        engine;  // STRN - direct engine to solve with
+   private ForkJoinPool  pool;    // CALC - workers solving chunks
+   private long          puzzles; // CALC - puzzles solved so far
+   private SolutionCache cache;   // CALC - solutions shared by the workers,
+                                  //        or null for none
+
+   /* - CONSTRUCTOR -
+   /***************************************************************************
+    * Name       : BatchSolver
+    * Purpose    : Create a batch run on a pool of worker threads.
+    * Parameters : engine  -> "bitboard" or "dlx"
+    *              threads -> number of workers
+    **************************************************************************/
+   public BatchSolver(String engine, int threads)
+   {
+      // IF - not an engine a worker can build
+      if(!engine.equals("bitboard") && !engine.equals("dlx"))
+      {
+         throw new IllegalArgumentException("unknown engine: " + engine);
+      }
+
+      // INITIALIZE
+      this.engine  = engine;
+      this.pool    = new ForkJoinPool(threads);
+      this.puzzles = 0;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : run
+    * Purpose    : This method solves every puzzle of the input file and
+    *                 writes the solutions to the output file in order.
+    * Parameters : input  -> file of puzzles, one per line
+    *              output -> file to write solutions to
+    * Return     : long   -> number of puzzles solved
+    **************************************************************************/
+   public long run(String input, String output) throws IOException
+   {
+      FileChannel                     channel; // CALC - input file
+      OutputStream                    out;     // WRIT - buffered output
+      ArrayDeque<ForkJoinTask<Chunk>> queue;   // LIST - chunks in input order
+      long                            size;    // CALC - bytes in the input
+      long                            offset;  // CALC - start of the window
+
+      // INITIALIZE
+      channel = FileChannel.open(Paths.get(input), StandardOpenOption.READ);
+      out     = new BufferedOutputStream(new FileOutputStream(output),
+                                         BUFFER_SIZE);
+      queue   = new ArrayDeque<ForkJoinTask<Chunk>>();
+      size    = channel.size();
+      offset  = 0;
+
+      // TRY - map the input a window at a time
+      try
+      {
+         while(offset < size)
+         {
+            MappedByteBuffer window; // CALC - mapped part of the input
+            int              start;  // CALC - first byte of the next chunk
+            int              length; // CALC - bytes in this window
+
+            length = (int)Math.min(WINDOW_SIZE, size - offset);
+            window = channel.map(FileChannel.MapMode.READ_ONLY, offset,
+                                 length);
+            start  = 0;
+
+            // WHILE - cut the window into chunks ending on a line
+            while(start < length)
+            {
+               int end = Math.min(start + CHUNK_SIZE, length);
+
+               while(end < length && window.get(end - 1) != '\n')
+               {
+                  ++end;
+               }
+
+               // IF - the window cut a line, leave it for the next window
+               if(end == length && window.get(end - 1) != '\n'
+                  && offset + length < size)
+               {
+                  if(start == 0)
+                  {
+                     throw new IOException("line longer than a window");
+                  }
+
+                  break;
+               }
+
+               queue.add(pool.submit(new Chunk(window.slice(start,
+                                                            end - start))));
+               start = end;
+
+               // IF - enough is in flight, write the oldest chunk
+               if(queue.size() >= IN_FLIGHT * pool.getParallelism())
+               {
+                  write(queue.poll().join(), out);
+               }
+            }
+
+            offset += start;
+         }
+
+         // WHILE - write the chunks still in flight
+         while(!queue.isEmpty())
+         {
+            write(queue.poll().join(), out);
+         }
+      }
+      finally
+      {
+         out.close();
+         channel.close();
+      }
+
+      return puzzles;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : write
+    * Purpose    : This method writes one solved chunk out
+    * Parameters : chunk -> solved chunk
+    *              out   -> buffered output
+    * Return     : void
+    **************************************************************************/
+   private void write(Chunk chunk, OutputStream out) throws IOException
+   {
+      out.write(chunk.result.buffer(), 0, chunk.result.size());
+      puzzles += chunk.puzzles;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : setCache
+    * Purpose    : This method sets the cache the workers look puzzles up in
+    * Parameters : cache -> solutions by canonical form, null for none
+    * Return     : void
+    **************************************************************************/
+   public void setCache(SolutionCache cache)
+   {
+      this.cache = cache;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : shutdown
+    * Purpose    : This method stops the worker threads
+    * Parameters : none
+    * Return     : void
+    **************************************************************************/
+   public void shutdown()
+   {
+      pool.shutdown();
+   }
+
+   /* - CLASS -
+   /***************************************************************************
+    * Name    : Chunk
+    * Purpose : This class is the task for one chunk of lines. Its solutions
+    *           are kept in a byte buffer until the chunk is written.
+    **************************************************************************/
+   private class Chunk extends RecursiveTask<Chunk>
+   {
+      /* -CONSTANTS
+      /************************************************************************
+       * serialVersionUID : tasks are serializable, chunks are never written
+       ***********************************************************************/
+      private static final long serialVersionUID = 1L;
+
+      /* -VARIABLES- */
+      private ByteBuffer lines;   // CALC - bytes of the chunk
+      private Output     result;  // WRIT - solutions of the chunk
+      private int        puzzles; // CALC - puzzles in the chunk
+
+      /* - CONSTRUCTOR -
+      /************************************************************************
+       * Name       : Chunk
+       * Purpose    : Create the task for a chunk of lines.
+       * Parameters : lines -> bytes of whole lines
+       ***********************************************************************/
+      Chunk(ByteBuffer lines)
+      {
+         this.lines   = lines;
+         this.result  = new Output(lines.limit() + 64);
+         this.puzzles = 0;
+      }
+
+      /* - METHOD -
+       ************************************************************************
+       * Name       : compute
+       * Purpose    : This method solves each line of the chunk
+       * Parameters : none
+       * Return     : Chunk -> this chunk, solved
+       ***********************************************************************/
+      protected Chunk compute()
+      {
+         byte[] line;   // ARRY - bytes of the current line
+         int    start;  // CALC - first byte of the current line
+         int    end;    // CALC - byte after the current line
+         int    length; // CALC - bytes of the line without its ending
+
+         // INITIALIZE
+         line  = new byte[64];
+         start = 0;
+
+         // WHILE - each line of the chunk
+         while(start < lines.limit())
+         {
+            end = start;
+
+            while(end < lines.limit() && lines.get(end) != '\n')
+            {
+               ++end;
+            }
+
+            length = end - start;
+
+            if(length > 0 && lines.get(end - 1) == '\r')
+            {
+               --length;
+            }
+
+            if(length > line.length)
+            {
+               line = new byte[Math.max(length, 2 * line.length)];
+            }
+
+            lines.get(start, line, 0, length);
+            solveLine(line, length);
+            result.write('\n');
+            start = end + 1;
+         }
+
+         return this;
+      }
+
+      /* - METHOD -
+       ************************************************************************
+       * Name       : solveLine
+       * Purpose    : This method solves one puzzle line and writes its answer
+       * Parameters : line   -> bytes of the line
+       *              length -> bytes used, without the line ending
+       * Return     : void
+       ***********************************************************************/
+      private void solveLine(byte[] line, int length)
+      {
+         Puzzle     puzzle; // CALC - puzzle on the line
+         GridSolver solver; // CALC - this worker's engine for the size
+         int[]      grid;   // ARRY - solution of the puzzle
+         Symmetry   form;   // CALC - canonical form of the puzzle
+
+         // IF - blank lines are copied
+         if(length == 0)
+         {
+            return;
+         }
+
+         // TRY - read the puzzle
+         try
+         {
+            puzzle = Puzzle.parseLine(new String(line, 0, length,
+                                                 StandardCharsets.US_ASCII));
+         }
+         catch(IllegalArgumentException ex)
+         {
+            result.write("INVALID");
+            return;
+         }
+
+         // INITIALIZE
+         solver = Workers.get().solver(engine, puzzle.size());
+         grid   = Workers.get().grid(puzzle.size());
+         form   = (cache == null) ? null : new Symmetry(puzzle);
+         ++puzzles;
+
+         // IF - not answered by a puzzle alike, solve it
+         if(form == null || !cache.get(form, puzzle, grid))
+         {
+            if(solver.solve(puzzle, 1, grid) == 0)
+            {
+               result.write("UNSATISFIABLE");
+               return;
+            }
+
+            if(form != null)
+            {
+               cache.put(form, grid);
+            }
+         }
+
+         // FOR - write the solution in line format
+         for(int index = 0; index < grid.length; ++index)
+         {
+            result.write(Puzzle.symbol(grid[index]));
+         }
+      }
+   }
+
+   /* - CLASS -
+   /***************************************************************************
+    * Name    : Output
+    * Purpose : This class is a byte buffer a chunk writes its solutions to,
+    *           read back without copying when the chunk is written.
+    **************************************************************************/
+   private static class Output extends ByteArrayOutputStream
+   {
+      /* - CONSTRUCTOR -
+      /************************************************************************
+       * Name       : Output
+       * Purpose    : Create a buffer.
+       * Parameters : size -> bytes to start with
+       ***********************************************************************/
+      Output(int size)
+      {
+         super(size);
+      }
+
+      /* - METHOD -
+       ************************************************************************
+       * Name       : write
+       * Purpose    : This method writes ASCII text
+       * Parameters : text -> text to write
+       * Return     : void
+       ***********************************************************************/
+      void write(String text)
+      {
+         for(int index = 0; index < text.length(); ++index)
+         {
+            write(text.charAt(index));
+         }
+      }
+
+      /* - METHOD -
+       ************************************************************************
+       * Name       : buffer
+       * Purpose    : returns the bytes written, without copying them
+       * Parameters : none
+       * Return     : byte[] -> buffer, valid up to size()
+       ***********************************************************************/
+      byte[] buffer()
+      {
+         return buf;
+      }
+   }
+
+   /* - CLASS -
+   /***************************************************************************
+    * Name    : Workers
+    * Purpose : This class holds what each worker thread keeps between
+    *           chunks: one engine and one solution grid per size.
+    **************************************************************************/
+   private static class Workers
+   {
+      /* -VARIABLES- */
+      private static final ThreadLocal<Workers> LOCAL =
+         ThreadLocal.withInitial(Workers::new);
+
+      private GridSolver[] solvers = new GridSolver[BitboardSolver.MAX_SIZE + 1];
+      private int[][]      grids   = new int[BitboardSolver.MAX_SIZE + 1][];
+
+      /* - METHOD -
+       ************************************************************************
+       * Name       : get
+       * Purpose    : returns the calling thread's state
+       * Parameters : none
+       * Return     : Workers -> state of this thread
+       ***********************************************************************/
+      static Workers get()
+      {
+         return LOCAL.get();
+      }
+
+      /* - METHOD -
+       ************************************************************************
+       * Name       : solver
+       * Purpose    : returns this thread's engine for a size
+       * Parameters : engine -> "bitboard" or "dlx"
+       *              size   -> size of sudoku puzzle
+       * Return     : GridSolver -> engine, built on first use
+       ***********************************************************************/
+      GridSolver solver(String engine, int size)
+      {
+         if(solvers[size] == null)
+         {
+            solvers[size] = engine.equals("dlx") ? new DancingLinks(size)
+                                                 : new BitboardSolver(size);
+         }
+
+         return solvers[size];
+      }
+
+      /* - METHOD -
+       ************************************************************************
+       * Name       : grid
+       * Purpose    : returns this thread's solution grid for a size
+       * Parameters : size  -> size of sudoku puzzle
+       * Return     : int[] -> grid of size squared tiles
+       ***********************************************************************/
+      int[] grid(int size)
+      {
+         if(grids[size] == null)
+         {
+            grids[size] = new int[size * size];
+         }
+
+         return grids[size];
+      }
+   }
+
+   /* - MAIN -
+    ***************************************************************************
+    * Name       : main
+    * Purpose    : This method solves a puzzle file in parallel.
+    * Parameters : args -> -input <file> -output <file> -threads <count>
+    *                      -engine <bitboard|dlx> -cache <bytes>
+    * Return     : void
+    **************************************************************************/
+   public static void main(String[] args)
+   {
+      String        input  = "nxnpuzzles";   // STRN - file of puzzles
+      String        output = "nxnsolutions"; // STRN - file of solutions
+      String        engine = "bitboard";     // STRN - direct engine to use
+      long          budget = 0;              // CALC - bytes of solutions kept
+      SolutionCache cache  = null;           // CALC - solutions, or null
+      int           threads;                 // CALC - number of workers
+      long          start;                   // CALC - time the run began
+      long          solved;                  // CALC - puzzles solved
+      double        seconds;                 // CALC - length of the run
+      BatchSolver   batch;                   // CALC - batch run
+
+      // INITIALIZE
+      threads = Runtime.getRuntime().availableProcessors();
+
+      // FOR - read command line options
+      for(int index = 0; index < args.length; ++index)
+      {
+         if(args[index].equals("-input") && index + 1 < args.length)
+         {
+            input = args[++index];
+         }
+         else if(args[index].equals("-output") && index + 1 < args.length)
+         {
+            output = args[++index];
+         }
+         else if(args[index].equals("-threads") && index + 1 < args.length)
+         {
+            threads = Integer.parseInt(args[++index]);
+         }
+         else if(args[index].equals("-engine") && index + 1 < args.length)
+         {
+            engine = args[++index];
+         }
+         else if(args[index].equals("-cache") && index + 1 < args.length)
+         {
+            budget = Long.parseLong(args[++index]);
+         }
+      }
+
+      // TRY - set up the run
+      try
+      {
+         batch = new BatchSolver(engine, threads);
+      }
+      catch(IllegalArgumentException ex)
+      {
+         System.out.println("~~~~~~~~~~ UNKNOWN ENGINE " + engine
+                            + " ~~~~~~~~~~");
+         return;
+      }
+
+      // INITIALIZE
+      start = System.nanoTime();
+
+      if(budget > 0)
+      {
+         cache = new SolutionCache(budget);
+         batch.setCache(cache);
+      }
+
+      // TRY - solve the file
+      try
+      {
+         solved  = batch.run(input, output);
+         seconds = (System.nanoTime() - start) / 1e9;
+         System.out.printf("%d puzzles in %.3f s, %.0f puzzles/s on %d threads%n",
+                           solved, seconds, solved / seconds, threads);
+
+         if(cache != null)
+         {
+            System.out.println("cache " + cache.summary());
+         }
+      }
+      catch(Exception ex)
+      {
+         System.out.println("~~~~~~~~~~ ERROR WRITING TO FILE ~~~~~~~~~~");
+      }
+      finally
+      {
+         batch.shutdown();
+      }
+   }
+}
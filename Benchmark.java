@@ -0,0 +1,600 @@
+/*
+/******************************************************************************
+ * Name            : Eric Olaveson
+ * Date            : October 18, 2026
+ *
+ * This program will time encoding, decoding and solving so a change can be
+ *    measured against the one before it.
+ *****************************************************************************/
+import java.io.*;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/* - CLASS -
+/******************************************************************************
+ * Name    : Benchmark
+ * Purpose : This class encapsulates a small benchmark harness. Each case is
+ *           one operation run over and over: first for warm-up iterations
+ *           that are thrown away so the JIT settles, then for measured
+ *           iterations of a fixed length. Every operation is timed on its
+ *           own, which gives throughput and latency percentiles, and the
+ *           thread's allocated bytes and the collectors' counts are read
+ *           around the measured iterations. The latency buffer is sized
+ *           from the warm-up rate before measuring, and should it still
+ *           have to grow, the bytes and collections of growing it are left
+ *           out, so only the operation is charged. Cases cover each rule family
+ *           and the whole encoding at sizes 4 to 49, decoding a solver's
+ *           output file, and every engine solving and checking the
+ *           uniqueness of the puzzle corpus in "puzzles":
+ *
+ *              easy9  -> 9x9 puzzles with 36 givens and one solution
+ *              hard9  -> minimal 9x9 puzzles the engines search longest on
+ *              clue17 -> 9x9 puzzles with 17 givens, the fewest possible
+ *              open16 -> 16x16 puzzles with 128 givens and one solution
+ *              open25 -> 25x25 puzzles with 375 givens
+ *****************************************************************************/
+public class Benchmark
+{
+   /* -CONSTANTS
+   /***************************************************************************
+    * MAX_LATENCIES : most latencies the buffer is sized for up front
+    * SIZES         : sizes the encoding cases run at
+    * CORPORA       : puzzle files the solving cases run over
+    * ENGINES       : engines the solving cases run
+    **************************************************************************/
+   public static final int      MAX_LATENCIES = 1 << 24;
+   public static final int[]    SIZES         = {4, 9, 16, 25, 36, 49};
+   public static final String[] CORPORA       = {"easy9", "hard9", "clue17",
+                                                 "open16", "open25"};
+   public static final String[] ENGINES       = {"bitboard", "dlx", "sat"};
+
+   /* -VARIABLES- */
+   private int    warmup;     // CALC - warm-up iterations per case
+   private int    iterations; // CALC - measured iterations per case
+   private long   length;     // CALC - nanoseconds in each iteration
+   private long[] latencies;  // ARRY - time of each measured operation
+   private int    count;      // CALC - measured operations
+   private long   done;       // CALC - operations run, measured or not
+   private long   grown;      // CALC - bytes spent growing latencies
+   private long   grownGcs;   // CALC - collections while growing them
+   private long   sink;       // CALC - results kept so no work is dropped
+   private com.sun.management.ThreadMXBean threads; // CALC - allocation
+
+   /* - CONSTRUCTOR -
+   /***************************************************************************
+    * Name       : Benchmark
+    * Purpose    : Create a harness.
+    * Parameters : warmup     -> warm-up iterations per case
+    *              iterations -> measured iterations per case
+    *              millis     -> length of each iteration in milliseconds
+    **************************************************************************/
+   public Benchmark(int warmup, int iterations, long millis)
+   {
+      // INITIALIZE
+      this.warmup     = warmup;
+      this.iterations = iterations;
+      this.length     = millis * 1000000L;
+      this.latencies  = new long[1 << 16];
+      this.threads    = (com.sun.management.ThreadMXBean)
+                           ManagementFactory.getThreadMXBean();
+   }
+
+   /* - CLASS -
+   /***************************************************************************
+    * Name    : Case
+    * Purpose : This class is one operation to time. The value op() returns
+    *           is summed into the harness so the JIT cannot drop the work.
+    **************************************************************************/
+   public abstract static class Case
+   {
+      /* -VARIABLES- */
+      String name; // STRN - name printed for the case
+
+      /* - CONSTRUCTOR -
+      /************************************************************************
+       * Name       : Case
+       * Purpose    : Create a case.
+       * Parameters : name -> name printed for the case
+       ************************************************************************/
+      public Case(String name)
+      {
+         this.name = name;
+      }
+
+      /* - METHOD -
+       ************************************************************************
+       * Name       : op
+       * Purpose    : This method runs the operation once
+       * Parameters : none
+       * Return     : long -> any result of the operation
+       ************************************************************************/
+      public abstract long op() throws Exception;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : run
+    * Purpose    : This method warms up and measures one case and prints a
+    *                 line of results
+    * Parameters : test -> case to run
+    * Return     : void
+    **************************************************************************/
+   public void run(Case test) throws Exception
+   {
+      long   thread;    // CALC - id of this thread
+      long   needed;    // CALC - latencies the measured iterations want
+      long   allocated; // CALC - bytes allocated before measuring
+      long   gcCount;   // CALC - collections before measuring
+      long   gcTime;    // CALC - collection time before measuring
+      long   elapsed;   // CALC - time spent in measured operations
+      long[] sorted;    // ARRY - measured latencies in order
+
+      // INITIALIZE
+      thread = Thread.currentThread().getId();
+      count  = 0;
+      done   = 0;
+
+      // FOR - warm-up iterations, not recorded
+      for(int index = 0; index < warmup; ++index)
+      {
+         iteration(test, false);
+      }
+
+      // IF - the warm-up rate says the buffer is short, grow it now
+      needed = (warmup == 0) ? 0 : 2 * ((done / warmup) + 1) * iterations;
+
+      if(needed > latencies.length)
+      {
+         latencies = new long[(int)Math.min(needed, MAX_LATENCIES)];
+      }
+
+      // INITIALIZE
+      grown     = 0;
+      grownGcs  = 0;
+      gcCount   = collections();
+      gcTime    = collectionTime();
+      elapsed   = 0;
+      allocated = threads.getThreadAllocatedBytes(thread);
+
+      // FOR - measured iterations
+      for(int index = 0; index < iterations; ++index)
+      {
+         elapsed += iteration(test, true);
+      }
+
+      // INITIALIZE
+      allocated = threads.getThreadAllocatedBytes(thread) - allocated
+                  - grown;
+      gcCount   = collections() - gcCount - grownGcs;
+      gcTime    = collectionTime() - gcTime;
+      sorted    = Arrays.copyOf(latencies, count);
+      Arrays.sort(sorted);
+
+      System.out.printf("%-28s %12.1f %12.3f %12.3f %12.3f %12d %6d %8d%n",
+                        test.name, count / (elapsed / 1e9),
+                        (elapsed / 1e3) / count, percentile(sorted, 0.50),
+                        percentile(sorted, 0.99), allocated / count, gcCount,
+                        gcTime);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : iteration
+    * Purpose    : This method runs a case until an iteration's time is up,
+    *                 and at least once
+    * Parameters : test   -> case to run
+    *              record -> keep each operation's latency
+    * Return     : long   -> nanoseconds spent in the operations
+    **************************************************************************/
+   private long iteration(Case test, boolean record) throws Exception
+   {
+      long start;   // CALC - time the iteration began
+      long before;  // CALC - time the operation began
+      long spent;   // CALC - time of the operation
+      long elapsed; // CALC - time spent in operations
+
+      // INITIALIZE
+      start   = System.nanoTime();
+      elapsed = 0;
+
+      // DO - one operation at a time
+      do
+      {
+         before   = System.nanoTime();
+         sink    += test.op();
+         spent    = System.nanoTime() - before;
+         elapsed += spent;
+         ++done;
+
+         if(record)
+         {
+            if(count == latencies.length)
+            {
+               grow();
+            }
+
+            latencies[count++] = spent;
+         }
+      }
+      while(System.nanoTime() - start < length);
+
+      return elapsed;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : grow
+    * Purpose    : This method doubles the latency buffer, keeping the bytes
+    *                 and collections it costs out of the case's numbers
+    * Parameters : none
+    * Return     : void
+    **************************************************************************/
+   private void grow()
+   {
+      long bytes = threads.getCurrentThreadAllocatedBytes(); // CALC - before
+      long gcs   = collections();                            // CALC - before
+
+      latencies = Arrays.copyOf(latencies, 2 * count);
+      grownGcs += collections() - gcs;
+      grown    += threads.getCurrentThreadAllocatedBytes() - bytes;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : percentile
+    * Purpose    : returns a percentile of sorted latencies in microseconds
+    * Parameters : sorted   -> latencies in nanoseconds, smallest first
+    *              fraction -> percentile as a fraction, 0.5 for the median
+    * Return     : double   -> latency in microseconds
+    **************************************************************************/
+   private static double percentile(long[] sorted, double fraction)
+   {
+      return sorted[(int)Math.min(sorted.length - 1,
+                                  (long)(fraction * sorted.length))] / 1e3;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : collections
+    * Purpose    : returns the collections run by every collector so far
+    * Parameters : none
+    * Return     : long -> collections
+    **************************************************************************/
+   private static long collections()
+   {
+      long total = 0; // CALC - sum over collectors
+
+      for(GarbageCollectorMXBean bean
+             : ManagementFactory.getGarbageCollectorMXBeans())
+      {
+         total += Math.max(0, bean.getCollectionCount());
+      }
+
+      return total;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : collectionTime
+    * Purpose    : returns the milliseconds every collector has run so far
+    * Parameters : none
+    * Return     : long -> milliseconds collecting
+    **************************************************************************/
+   private static long collectionTime()
+   {
+      long total = 0; // CALC - sum over collectors
+
+      for(GarbageCollectorMXBean bean
+             : ManagementFactory.getGarbageCollectorMXBeans())
+      {
+         total += Math.max(0, bean.getCollectionTime());
+      }
+
+      return total;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : encodeCase
+    * Purpose    : returns a case that encodes one rule family, or all of
+    *                 them, into an arena that is reused
+    * Parameters : size   -> size of sudoku puzzle
+    *              family -> "unique", "row", "column", "block" or "all"
+    * Return     : Case   -> the case
+    **************************************************************************/
+   public static Case encodeCase(final int size, final String family)
+   {
+      final ClauseArena arena = new ClauseArena(); // LIST - reused clauses
+
+      return new Case("encode/" + family + "/" + size)
+      {
+         public long op()
+         {
+            Sudoku encoder = new Sudoku(size, arena); // CALC - encoder
+
+            arena.clear();
+
+            if(family.equals("unique"))
+            {
+               encoder.unique();
+            }
+            else if(family.equals("row"))
+            {
+               encoder.row();
+            }
+            else if(family.equals("column"))
+            {
+               encoder.column();
+            }
+            else if(family.equals("block"))
+            {
+               encoder.block();
+            }
+            else
+            {
+               encoder.encode(1);
+            }
+
+            return arena.literalCount();
+         }
+      };
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : decodeCase
+    * Purpose    : returns a case that decodes a solver's output file. The
+    *                 file is written first in minisat's form, every tile
+    *                 variable signed, from a solution the bitboard engine
+    *                 finds for an empty grid.
+    * Parameters : size -> size of sudoku puzzle
+    * Return     : Case -> the case
+    **************************************************************************/
+   public static Case decodeCase(final int size) throws IOException
+   {
+      int[]       grid; // ARRY - solved tiles row by row
+      VariableMap map;  // CALC - numbering of tile variables
+      final File  file; // CALC - output file to decode
+      PrintWriter out;  // WRIT - writes the output file
+
+      // INITIALIZE
+      grid = new int[size * size];
+      map  = new VariableMap(size);
+      file = File.createTempFile("nxnout", null);
+      out  = new PrintWriter(new BufferedWriter(new FileWriter(file)));
+
+      file.deleteOnExit();
+      new BitboardSolver(size).solve(new Puzzle(size, new int[size * size]),
+                                     1, grid);
+      out.print("SAT\n");
+
+      // FOR - every tile variable, true or false
+      for(int var = 1; var <= map.count(); ++var)
+      {
+         out.print(grid[((map.row(var) - 1) * size) + (map.column(var) - 1)]
+                   == map.value(var) ? var : -var);
+         out.print(' ');
+      }
+
+      out.print("0\n");
+      out.close();
+
+      return new Case("decode/" + size)
+      {
+         public long op()
+         {
+            return new SudokuDecode(file.getPath()).grid()[0];
+         }
+      };
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : solveCase
+    * Purpose    : returns a case that solves the next puzzle of a corpus
+    *                 with an engine, going round the corpus
+    * Parameters : engine  -> "bitboard", "dlx" or "sat"
+    *              name    -> name of the corpus
+    *              puzzles -> puzzles of the corpus, all one size
+    * Return     : Case    -> the case
+    **************************************************************************/
+   public static Case solveCase(String engine, String name,
+                                final Puzzle[] puzzles) throws IOException
+   {
+      final int               size;   // CALC - size of the puzzles
+      final int[]             grid;   // ARRY - solved tiles row by row
+      final GridSolver        direct; // CALC - direct engine, if any
+      final IncrementalSolver warm;   // CALC - SAT engine, if any
+
+      // INITIALIZE
+      size   = puzzles[0].size();
+      grid   = new int[size * size];
+      direct = engine.equals("dlx") ? new DancingLinks(size)
+             : engine.equals("bitboard") ? new BitboardSolver(size) : null;
+      warm   = (direct != null) ? null
+             : new IncrementalSolver(RuleTemplate.build(size, "pairwise",
+                                                        "extended"));
+
+      return new Case("solve/" + engine + "/" + name)
+      {
+         int next = 0; // CALC - index of the next puzzle
+
+         public long op()
+         {
+            Puzzle puzzle = puzzles[next]; // CALC - puzzle to solve
+
+            next = (next + 1) % puzzles.length;
+
+            return (direct != null) ? direct.solve(puzzle, 1, grid)
+                                    : warm.solve(puzzle, grid);
+         }
+      };
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : uniqueCase
+    * Purpose    : returns a case that checks the next puzzle of a corpus for
+    *                 a unique solution with an engine, going round the corpus
+    * Parameters : engine  -> "bitboard", "dlx" or "sat"
+    *              name    -> name of the corpus
+    *              puzzles -> puzzles of the corpus
+    * Return     : Case    -> the case
+    **************************************************************************/
+   public static Case uniqueCase(String engine, String name,
+                                 final Puzzle[] puzzles)
+   {
+      final SolutionCounter counter = new SolutionCounter(engine); // CALC -
+                                                                   // engine
+
+      return new Case("unique/" + engine + "/" + name)
+      {
+         int next = 0; // CALC - index of the next puzzle
+
+         public long op() throws IOException
+         {
+            Puzzle puzzle = puzzles[next]; // CALC - puzzle to check
+
+            next = (next + 1) % puzzles.length;
+
+            return counter.count(puzzle, SolutionCounter.UNIQUE, null);
+         }
+      };
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : corpus
+    * Purpose    : This method reads a file of puzzles, one per line
+    * Parameters : file -> corpus file
+    * Return     : Puzzle[] -> puzzles of the file
+    **************************************************************************/
+   public static Puzzle[] corpus(String file) throws IOException
+   {
+      ArrayList<Puzzle> puzzles; // LIST - puzzles read
+      String            line;    // TMP  - line being read
+      BufferedReader    reader;  // READ - reads the corpus
+
+      // INITIALIZE
+      puzzles = new ArrayList<Puzzle>();
+      reader  = new BufferedReader(new FileReader(file));
+
+      // WHILE - a puzzle per non-blank line
+      while((line = reader.readLine()) != null)
+      {
+         if(!line.trim().isEmpty())
+         {
+            puzzles.add(Puzzle.parseLine(line.trim()));
+         }
+      }
+
+      reader.close();
+
+      return puzzles.toArray(new Puzzle[0]);
+   }
+
+   /* - MAIN -
+    ***************************************************************************
+    * Name       : main
+    * Purpose    : This method runs every case whose name contains the
+    *                 filter and prints a line per case.
+    * Parameters : args -> "-filter <text>" picks cases by name,
+    *                         "-warmup <count>" and "-iterations <count>" set
+    *                         the iterations, "-time <ms>" their length,
+    *                         "-corpus <directory>" where the puzzles are
+    * Return     : void
+    **************************************************************************/
+   public static void main(String[] args)
+   {
+      String          filter     = "";        // STRN - part of case names
+      String          directory  = "puzzles"; // STRN - corpus directory
+      int             warmup     = 3;         // CALC - warm-up iterations
+      int             iterations = 5;         // CALC - measured iterations
+      long            millis     = 500;       // CALC - iteration length
+      ArrayList<Case> cases;                  // LIST - cases to run
+      Benchmark       bench;                  // CALC - harness
+
+      // FOR - read command line options
+      for(int index = 0; index < args.length; ++index)
+      {
+         if(args[index].equals("-filter") && index + 1 < args.length)
+         {
+            filter = args[++index];
+         }
+         else if(args[index].equals("-warmup") && index + 1 < args.length)
+         {
+            warmup = Integer.parseInt(args[++index]);
+         }
+         else if(args[index].equals("-iterations") && index + 1 < args.length)
+         {
+            iterations = Integer.parseInt(args[++index]);
+         }
+         else if(args[index].equals("-time") && index + 1 < args.length)
+         {
+            millis = Long.parseLong(args[++index]);
+         }
+         else if(args[index].equals("-corpus") && index + 1 < args.length)
+         {
+            directory = args[++index];
+         }
+      }
+
+      // INITIALIZE
+      cases = new ArrayList<Case>();
+      bench = new Benchmark(warmup, iterations, millis);
+
+      // TRY - build the cases, then run the ones picked
+      try
+      {
+         for(int size : SIZES)
+         {
+            for(String family : new String[] {"unique", "row", "column",
+                                              "block", "all"})
+            {
+               cases.add(encodeCase(size, family));
+            }
+         }
+
+         for(int size : SIZES)
+         {
+            cases.add(decodeCase(size));
+         }
+
+         for(String name : CORPORA)
+         {
+            for(String engine : ENGINES)
+            {
+               if(("solve/" + engine + "/" + name).contains(filter))
+               {
+                  cases.add(solveCase(engine, name,
+                               corpus(new File(directory, name).getPath())));
+               }
+
+               if(("unique/" + engine + "/" + name).contains(filter))
+               {
+                  cases.add(uniqueCase(engine, name,
+                               corpus(new File(directory, name).getPath())));
+               }
+            }
+         }
+
+         System.out.printf("%-28s %12s %12s %12s %12s %12s %6s %8s%n", "case",
+                           "ops/s", "mean us", "p50 us", "p99 us", "B/op",
+                           "gcs", "gc ms");
+
+         for(Case test : cases)
+         {
+            if(test.name.contains(filter))
+            {
+               bench.run(test);
+            }
+         }
+      }
+      catch(Exception ex)
+      {
+         System.out.println("~~~~~~~~~~ ERROR RUNNING BENCHMARK ~~~~~~~~~~");
+      }
+   }
+}
@@ -0,0 +1,487 @@
+/*
+/******************************************************************************
+ * Name            : Eric Olaveson
+ * Date            : October 18, 2026
+ *
+ * This program will solve a sudoku puzzle directly on candidate bitmasks,
+ *    propagating naked and hidden singles before it guesses.
+ *****************************************************************************/
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/* - CLASS -
+/******************************************************************************
+ * Name    : BitboardSolver
+ * Purpose : This class encapsulates a constraint propagation solver. Bit v-1
+ *           of a mask stands for value v; the values placed in each row,
+ *           column and block are kept as one mask per unit, so a tile's
+ *           candidates are the values missing from all three of its units.
+ *
+ *              naked single  -> a tile with one candidate takes it
+ *              hidden single -> a value with one possible tile in a unit
+ *                               goes there
+ *
+ *           When neither applies it branches on the tile with the fewest
+ *           candidates. Every placement is pushed on a trail sized for the
+ *           whole grid up front, and backtracking pops the trail, so search
+ *           allocates nothing. Given a random source it tries a branch
+ *           tile's values in random order instead of lowest first, which
+ *           turns a solve of the empty grid into a random full grid.
+ *****************************************************************************/
+public class BitboardSolver implements GridSolver
+{
+   /* -CONSTANTS
+   /***************************************************************************
+    * MAX_SIZE : largest size whose values fit in a long mask
+    * POLL     : mask of the search nodes between looks at the stop flag
+    **************************************************************************/
+   public static final int MAX_SIZE = 64;
+   public static final int POLL     = 1023;
+
+   /* -VARIABLES- */
+   private int    size;      // CALC - size of sudoku puzzle
+   private int    tiles;     // CALC - number of tiles
+   private long   all;       // CALC - mask holding every value
+   private int[]  rowOf;     // ARRY - row unit of each tile
+   private int[]  colOf;     // ARRY - column unit of each tile
+   private int[]  blockOf;   // ARRY - block unit of each tile
+   private int[]  units;     // ARRY - tiles of each row, column and block
+   private long[] rowUsed;   // ARRY - values placed in each row
+   private long[] colUsed;   // ARRY - values placed in each column
+   private long[] blockUsed; // ARRY - values placed in each block
+   private int[]  grid;      // ARRY - value of each tile, 0 when empty
+   private int[]  trail;     // ARRY - tiles in the order they were placed
+   private int[]  solution;  // ARRY - first solution found
+   private int    top;       // CALC - tiles placed so far
+   private int    found;     // CALC - solutions found so far
+   private int    limit;     // CALC - solutions wanted
+   private long   nodes;     // CALC - search nodes visited
+   private SplittableRandom random; // CALC - orders branch values, or null
+   private AtomicBoolean stop;      // CALC - flag that ends the search, or null
+   private boolean stopped;         // BOOL - search gave up on the flag
+
+   /* - CONSTRUCTOR -
+   /***************************************************************************
+    * Name       : BitboardSolver
+    * Purpose    : Create a solver for n x n puzzles.
+    * Parameters : size -> size of the sudoku puzzle, at most MAX_SIZE
+    **************************************************************************/
+   public BitboardSolver(int size)
+   {
+      int blockSize; // CALC - size of each sudoku block
+      int tile;      // CALC - tile index, row by row
+
+      // IF - values must fit in a mask
+      if(size < 1 || size > MAX_SIZE)
+      {
+         throw new IllegalArgumentException("size out of range: " + size);
+      }
+
+      // INITIALIZE
+      this.size      = size;
+      this.tiles     = size * size;
+      this.all       = (size == 64) ? -1L : (1L << size) - 1;
+      blockSize      = (int)Math.sqrt(size);
+      this.rowOf     = new int[tiles];
+      this.colOf     = new int[tiles];
+      this.blockOf   = new int[tiles];
+      this.units     = new int[3 * tiles];
+      this.rowUsed   = new long[size];
+      this.colUsed   = new long[size];
+      this.blockUsed = new long[size];
+      this.grid      = new int[tiles];
+      this.trail     = new int[tiles];
+      this.solution  = new int[tiles];
+
+      // DOUBLE FOR - each tile's units, and each unit's tiles
+      for(int row = 0; row < size; ++row)
+      {
+         for(int col = 0; col < size; ++col)
+         {
+            int block = ((row / blockSize) * blockSize) + (col / blockSize);
+            int slot  = ((row % blockSize) * blockSize) + (col % blockSize);
+
+            tile          = (row * size) + col;
+            rowOf[tile]   = row;
+            colOf[tile]   = col;
+            blockOf[tile] = block;
+
+            units[(row * size) + col]                  = tile;
+            units[tiles + (col * size) + row]          = tile;
+            units[(2 * tiles) + (block * size) + slot] = tile;
+         }
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : solve
+    * Purpose    : This method searches for solutions of a puzzle, stopping
+    *                 once limit of them are found. The first solution is
+    *                 written into grid.
+    * Parameters : puzzle -> givens to start from
+    *              limit  -> solutions to look for, 1 to just solve
+    *              grid   -> receives the first solution row by row
+    * Return     : int    -> solutions found, at most limit; 0 if none
+    **************************************************************************/
+   public int solve(Puzzle puzzle, int limit, int[] grid)
+   {
+      int[]   givens; // ARRY - the puzzle's tiles
+      boolean legal;  // BOOL - givens do not clash
+
+      // INITIALIZE
+      this.found   = 0;
+      this.limit   = limit;
+      this.stopped = false;
+      givens       = puzzle.tiles();
+      legal      = true;
+
+      // FOR - place the givens, stopping at one that clashes
+      for(int tile = 0; tile < tiles && legal; ++tile)
+      {
+         if(givens[tile] != 0)
+         {
+            legal = (candidates(tile) & bit(givens[tile])) != 0
+                    && this.grid[tile] == 0;
+
+            if(legal)
+            {
+               place(tile, givens[tile]);
+            }
+         }
+      }
+
+      if(legal)
+      {
+         search();
+      }
+
+      undo(0);
+
+      if(found > 0)
+      {
+         System.arraycopy(solution, 0, grid, 0, tiles);
+      }
+
+      return found;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : search
+    * Purpose    : This method propagates singles and then branches on the
+    *                 tile with the fewest candidates.
+    * Parameters : none
+    * Return     : void
+    **************************************************************************/
+   private void search()
+   {
+      int  mark;  // CALC - trail length on entry
+      int  best;  // CALC - tile with the fewest candidates
+      int  least; // CALC - candidates of that tile
+      long left;  // CALC - candidates of that tile still to try
+
+      // INITIALIZE
+      ++nodes;
+
+      // IF - asked to stop; the flag is read every POLL + 1 nodes
+      stopped |= (stop != null && (nodes & POLL) == 0 && stop.get());
+
+      if(stopped)
+      {
+         return;
+      }
+
+      // INITIALIZE
+      mark  = top;
+      best  = -1;
+      least = size + 1;
+
+      // IF - propagation found a contradiction
+      if(!propagate())
+      {
+         undo(mark);
+         return;
+      }
+
+      // IF - every tile is placed, a solution is found
+      if(top == tiles)
+      {
+         if(found++ == 0)
+         {
+            System.arraycopy(grid, 0, solution, 0, tiles);
+         }
+
+         undo(mark);
+         return;
+      }
+
+      // FOR - find the empty tile with the fewest candidates
+      for(int tile = 0; tile < tiles && least > 2; ++tile)
+      {
+         if(grid[tile] == 0)
+         {
+            int count = Long.bitCount(candidates(tile));
+
+            if(count < least)
+            {
+               best  = tile;
+               least = count;
+            }
+         }
+      }
+
+      left = candidates(best);
+
+      // WHILE - try each candidate of the tile
+      while(left != 0 && found < limit && !stopped)
+      {
+         int  branch = top;
+         long value  = (random == null) ? left & -left : pick(left);
+
+         place(best, Long.numberOfTrailingZeros(value) + 1);
+         search();
+         undo(branch);
+         left &= ~value;
+      }
+
+      undo(mark);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : pick
+    * Purpose    : returns one of the candidates of a mask, chosen at random
+    * Parameters : left -> candidates still to try
+    * Return     : long -> mask of the one candidate picked
+    **************************************************************************/
+   private long pick(long left)
+   {
+      // FOR - drop a random number of the lowest candidates
+      for(int skip = random.nextInt(Long.bitCount(left)); skip > 0; --skip)
+      {
+         left &= left - 1;
+      }
+
+      return left & -left;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : setStop
+    * Purpose    : This method sets the flag the search polls every POLL + 1
+    *                 nodes, giving up once it is set
+    * Parameters : stop -> flag that stops the search, or null for none
+    * Return     : void
+    **************************************************************************/
+   public void setStop(AtomicBoolean stop)
+   {
+      this.stop = stop;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : setRandom
+    * Purpose    : This method sets the source that orders branch values
+    * Parameters : random -> random source, or null to try values lowest
+    *                        first
+    * Return     : void
+    **************************************************************************/
+   public void setRandom(SplittableRandom random)
+   {
+      this.random = random;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : propagate
+    * Purpose    : This method places naked and hidden singles until none are
+    *                 left.
+    * Parameters : none
+    * Return     : boolean -> false if some tile or unit has no way out
+    **************************************************************************/
+   private boolean propagate()
+   {
+      boolean changed = true; // BOOL - something was placed this pass
+
+      // WHILE - keep going while singles turn up
+      while(changed && top < tiles)
+      {
+         changed = false;
+
+         // FOR - naked singles
+         for(int tile = 0; tile < tiles; ++tile)
+         {
+            if(grid[tile] == 0)
+            {
+               long mask = candidates(tile);
+
+               if(mask == 0)
+               {
+                  return false;
+               }
+
+               if((mask & (mask - 1)) == 0)
+               {
+                  place(tile, Long.numberOfTrailingZeros(mask) + 1);
+                  changed = true;
+               }
+            }
+         }
+
+         // FOR - hidden singles in each row, column and block
+         for(int unit = 0; unit < 3 * size && top < tiles; ++unit)
+         {
+            long once   = 0; // CALC - values possible in some tile
+            long twice  = 0; // CALC - values possible in two tiles or more
+            long hidden;     // CALC - values possible in exactly one tile
+            int  start  = unit * size;
+
+            // FOR - gather the candidates of the unit's empty tiles
+            for(int slot = start; slot < start + size; ++slot)
+            {
+               if(grid[units[slot]] == 0)
+               {
+                  long mask = candidates(units[slot]);
+
+                  twice |= once & mask;
+                  once  |= mask;
+               }
+            }
+
+            // IF - some value missing from the unit has nowhere to go
+            if((once | used(unit)) != all)
+            {
+               return false;
+            }
+
+            hidden = once & ~twice;
+
+            // WHILE - place each hidden single
+            while(hidden != 0)
+            {
+               long value = hidden & -hidden;
+               int  slot  = start;
+
+               while(slot < start + size && (grid[units[slot]] != 0
+                     || (candidates(units[slot]) & value) == 0))
+               {
+                  ++slot;
+               }
+
+               // IF - another hidden single already took its tile
+               if(slot == start + size)
+               {
+                  return false;
+               }
+
+               place(units[slot], Long.numberOfTrailingZeros(value) + 1);
+               changed = true;
+               hidden &= hidden - 1;
+            }
+         }
+      }
+
+      return true;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : place
+    * Purpose    : This method puts a value in a tile and pushes it on the
+    *                 trail
+    * Parameters : tile  -> tile index, row by row
+    *              value -> value, 1 to size
+    * Return     : void
+    **************************************************************************/
+   private void place(int tile, int value)
+   {
+      long mask = bit(value); // CALC - bit of the value
+
+      grid[tile]                = value;
+      rowUsed[rowOf[tile]]     |= mask;
+      colUsed[colOf[tile]]     |= mask;
+      blockUsed[blockOf[tile]] |= mask;
+      trail[top++]              = tile;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : undo
+    * Purpose    : This method pops placements off the trail
+    * Parameters : mark -> trail length to go back to
+    * Return     : void
+    **************************************************************************/
+   private void undo(int mark)
+   {
+      // WHILE - clear each tile placed since the mark
+      while(top > mark)
+      {
+         int  tile = trail[--top];
+         long mask = ~bit(grid[tile]);
+
+         rowUsed[rowOf[tile]]     &= mask;
+         colUsed[colOf[tile]]     &= mask;
+         blockUsed[blockOf[tile]] &= mask;
+         grid[tile]               = 0;
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : candidates
+    * Purpose    : returns the values a tile can still take
+    * Parameters : tile -> tile index, row by row
+    * Return     : long -> mask of candidate values
+    **************************************************************************/
+   private long candidates(int tile)
+   {
+      return all & ~(rowUsed[rowOf[tile]] | colUsed[colOf[tile]]
+                     | blockUsed[blockOf[tile]]);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : used
+    * Purpose    : returns the values placed in a unit
+    * Parameters : unit -> rows, then columns, then blocks
+    * Return     : long -> mask of placed values
+    **************************************************************************/
+   private long used(int unit)
+   {
+      if(unit < size)
+      {
+         return rowUsed[unit];
+      }
+      else if(unit < 2 * size)
+      {
+         return colUsed[unit - size];
+      }
+
+      return blockUsed[unit - (2 * size)];
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : bit
+    * Purpose    : returns the mask bit of a value
+    * Parameters : value -> value, 1 to size
+    * Return     : long  -> bit value-1 set
+    **************************************************************************/
+   private static long bit(int value)
+   {
+      return 1L << (value - 1);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : nodes
+    * Purpose    : returns the number of search nodes visited so far
+    * Parameters : none
+    * Return     : long -> search nodes
+    **************************************************************************/
+   public long nodes()
+   {
+      return nodes;
+   }
+}
@@ -0,0 +1,322 @@
+/*
+/******************************************************************************
+ * Name            : Eric Olaveson
+ * Date            : October 18, 2026
+ *
+ * This program will read a CNF file written in any of CNFWriter's formats
+ *    back into clauses.
+ *****************************************************************************/
+import java.io.*;
+import java.util.zip.GZIPInputStream;
+
+/* - CLASS -
+/******************************************************************************
+ * Name    : CNFReader
+ * Purpose : This class encapsulates reading a CNF file or stream into a
+ *           ClauseSink. The format is told from the first bytes: gzip's
+ *           magic number, the binary MAGIC, or else DIMACS text. Comment
+ *           lines are skipped.
+ *****************************************************************************/
+public class CNFReader
+{
+   /* -VARIABLES- */
+   private InputStream in;        // READ - bytes of the file
+   private int         variables; // CALC - variables in the header
+   private int         clauses;   // CALC - clauses in the header
+   private int[]       clause;    // ARRY - clause being read
+
+   /* - CONSTRUCTOR -
+   /***************************************************************************
+    * Name       : CNFReader
+    * Purpose    : Create a reader over a CNF file.
+    * Parameters : file -> file to read
+    **************************************************************************/
+   public CNFReader(String file) throws IOException
+   {
+      // INITIALIZE
+      this.in     = new BufferedInputStream(new FileInputStream(file),
+                                            CNFWriter.BUFFER_SIZE);
+      this.clause = new int[16];
+   }
+
+   /* - CONSTRUCTOR -
+   /***************************************************************************
+    * Name       : CNFReader
+    * Purpose    : Create a reader over a stream of CNF, such as a solver's
+    *                 standard input.
+    * Parameters : in -> stream to read, closed once read
+    **************************************************************************/
+   public CNFReader(InputStream in)
+   {
+      // INITIALIZE
+      this.in     = new BufferedInputStream(in, CNFWriter.BUFFER_SIZE);
+      this.clause = new int[16];
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : read
+    * Purpose    : This method hands every clause of the file to a sink and
+    *                 closes the file
+    * Parameters : sink -> sink to copy clauses into
+    * Return     : int  -> number of clauses read
+    **************************************************************************/
+   public int read(ClauseSink sink) throws IOException
+   {
+      int first; // CALC - first byte of the file
+
+      // TRY - read the whole file
+      try
+      {
+         in.mark(4);
+         first = in.read();
+         in.reset();
+
+         // IF - gzip members hold DIMACS text
+         if(first == 0x1f)
+         {
+            in = new BufferedInputStream(new GZIPInputStream(in,
+                                            CNFWriter.BUFFER_SIZE),
+                                         CNFWriter.BUFFER_SIZE);
+         }
+         // ELSE IF - "SDKC" starts little endian with 'C'
+         else if(first == (CNFWriter.MAGIC & 0xff))
+         {
+            return readBinary(sink);
+         }
+
+         return readText(sink);
+      }
+      finally
+      {
+         in.close();
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : readText
+    * Purpose    : This method reads DIMACS text, a clause per 0
+    * Parameters : sink -> sink to copy clauses into
+    * Return     : int  -> number of clauses read
+    **************************************************************************/
+   private int readText(ClauseSink sink) throws IOException
+   {
+      int           next;     // CALC - byte being read
+      int           number;   // CALC - literal being built
+      int           count;    // CALC - literals in the current clause
+      int           read;     // CALC - clauses read
+      boolean       negative; // BOOL - literal has a minus sign
+      StringBuilder line;     // STRN - comment or header line
+      String[]      header;   // ARRY - words of the header line
+
+      // INITIALIZE
+      line  = new StringBuilder();
+      count = 0;
+      read  = 0;
+      next  = in.read();
+
+      // WHILE - each token of the file
+      while(next != -1)
+      {
+         // IF - comment or header line
+         if(next == 'c' || next == 'p')
+         {
+            line.setLength(0);
+
+            while(next != -1 && next != '\n')
+            {
+               line.append((char)next);
+               next = in.read();
+            }
+
+            if(line.charAt(0) == 'p')
+            {
+               header    = line.toString().trim().split("\\s+");
+               variables = Integer.parseInt(header[2]);
+               clauses   = Integer.parseInt(header[3]);
+            }
+         }
+         // ELSE IF - a literal
+         else if(next == '-' || (next >= '0' && next <= '9'))
+         {
+            negative = (next == '-');
+            number   = negative ? 0 : next - '0';
+
+            while((next = in.read()) >= '0' && next <= '9')
+            {
+               number = (number * 10) + (next - '0');
+            }
+
+            // IF - 0 ends the clause
+            if(number == 0)
+            {
+               sink.addClause(clause, count);
+               count = 0;
+               ++read;
+            }
+            else
+            {
+               add(negative ? -number : number, count++);
+            }
+
+            continue;
+         }
+
+         next = in.read();
+      }
+
+      return read;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : readBinary
+    * Purpose    : This method reads the binary format, undoing the varint
+    *                 lengths and zigzag differences
+    * Parameters : sink -> sink to copy clauses into
+    * Return     : int  -> number of clauses read
+    **************************************************************************/
+   private int readBinary(ClauseSink sink) throws IOException
+   {
+      int count; // CALC - literals in the current clause
+      int last;  // CALC - literal before the current one
+      int delta; // CALC - zigzag difference read
+
+      // IF - not a binary CNF this code can read
+      if(readInt() != CNFWriter.MAGIC || readInt() != CNFWriter.VERSION)
+      {
+         throw new IOException("not a binary CNF");
+      }
+
+      // INITIALIZE
+      variables = readInt();
+      clauses   = readInt();
+
+      // FOR - each clause the header promises
+      for(int read = 0; read < clauses; ++read)
+      {
+         count = readVarint();
+         last  = 0;
+
+         for(int index = 0; index < count; ++index)
+         {
+            delta = readVarint();
+            last += (delta >>> 1) ^ -(delta & 1);
+            add(last, index);
+         }
+
+         sink.addClause(clause, count);
+      }
+
+      return clauses;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : readVarint
+    * Purpose    : This method reads a number written by writeVarint()
+    * Parameters : none
+    * Return     : int -> number read
+    **************************************************************************/
+   private int readVarint() throws IOException
+   {
+      int next;   // CALC - byte being read
+      int number; // CALC - number being built
+      int shift;  // CALC - bits already read
+
+      // INITIALIZE
+      number = 0;
+      shift  = 0;
+
+      // DO - seven bits per byte until a byte without the top bit
+      do
+      {
+         next = in.read();
+
+         if(next == -1)
+         {
+            throw new EOFException("binary CNF is truncated");
+         }
+
+         number |= (next & 0x7f) << shift;
+         shift  += 7;
+      }
+      while((next & 0x80) != 0);
+
+      return number;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : readInt
+    * Purpose    : This method reads a little endian int
+    * Parameters : none
+    * Return     : int -> number read
+    **************************************************************************/
+   private int readInt() throws IOException
+   {
+      int number; // CALC - number being built
+      int next;   // CALC - byte being read
+
+      // INITIALIZE
+      number = 0;
+
+      // FOR - low byte first
+      for(int shift = 0; shift < 32; shift += 8)
+      {
+         if((next = in.read()) == -1)
+         {
+            throw new EOFException("binary CNF is truncated");
+         }
+
+         number |= next << shift;
+      }
+
+      return number;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : add
+    * Purpose    : This method puts a literal in the clause, growing it
+    * Parameters : literal -> literal to add
+    *              index   -> position in the clause
+    * Return     : void
+    **************************************************************************/
+   private void add(int literal, int index)
+   {
+      if(index == clause.length)
+      {
+         int[] grown = new int[2 * clause.length];
+         System.arraycopy(clause, 0, grown, 0, clause.length);
+         clause = grown;
+      }
+
+      clause[index] = literal;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : variables
+    * Purpose    : returns the number of variables the header declared
+    * Parameters : none
+    * Return     : int -> number of variables
+    **************************************************************************/
+   public int variables()
+   {
+      return variables;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : clauses
+    * Purpose    : returns the number of clauses the header declared
+    * Parameters : none
+    * Return     : int -> number of clauses
+    **************************************************************************/
+   public int clauses()
+   {
+      return clauses;
+   }
+}
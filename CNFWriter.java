@@ -0,0 +1,575 @@
+/*
+/******************************************************************************
+ * Name            : Eric Olaveson
+ * Date            : October 18, 2026
+ *
+ * This program will stream CNF lines straight to a file through a buffered
+ *    NIO channel so that no clause has to be held in memory before it is
+ *    written out. Literals are formatted straight into the buffer without
+ *    building any Strings, and may be compressed or packed on the way out.
+ *****************************************************************************/
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/* - CLASS -
+/******************************************************************************
+ * Name    : CNFWriter
+ * Purpose : This class encapsulates methods that write CNF lines to a file
+ *           as soon as they are generated. A fixed width "p cnf" header is
+ *           reserved when the file is opened and patched in place once the
+ *           real variable and clause counts are known. A writer can also
+ *           stream to a pipe, which cannot be patched; the counts are then
+ *           given up front and checked when it closes. Four formats are
+ *           written:
+ *
+ *              dimacs  -> DIMACS text with the encoder's comment lines
+ *              compact -> DIMACS text without comment lines
+ *              gzip    -> compact DIMACS in gzip form. The header is its own
+ *                         gzip member, stored uncompressed so its size is
+ *                         fixed and it can still be patched; gzip readers
+ *                         join the members back into one text.
+ *              binary  -> little endian ints MAGIC, VERSION, variables,
+ *                         clauses, then each clause as a varint length and
+ *                         its literals as zigzag varints of the difference
+ *                         from the literal before, the first from 0
+ *****************************************************************************/
+public class CNFWriter implements ClauseSink
+{
+   /* -CONSTANTS
+   /***************************************************************************
+    * BUFFER_SIZE  : size of the direct output buffer in bytes
+    * COUNT_WIDTH  : digits reserved in the header for each count
+    * FORMATS      : names accepted for the output format
+    * DIMACS       : index of DIMACS text with comments in FORMATS
+    * COMPACT      : index of DIMACS text without comments in FORMATS
+    * GZIP         : index of gzip compressed DIMACS in FORMATS
+    * BINARY       : index of the varint format in FORMATS
+    * MAGIC        : first int of a binary CNF file, "SDKC"
+    * VERSION      : layout version of a binary CNF file
+    * GZIP_HEADER  : fixed gzip member header, no name or time
+    **************************************************************************/
+   public static final int      BUFFER_SIZE = 1 << 16;
+   public static final int      COUNT_WIDTH = 10;
+   public static final String[] FORMATS     = {"dimacs", "compact", "gzip",
+                                               "binary"};
+   public static final int      DIMACS      = 0;
+   public static final int      COMPACT     = 1;
+   public static final int      GZIP        = 2;
+   public static final int      BINARY      = 3;
+   public static final int      MAGIC       = 0x53444B43;
+   public static final int      VERSION     = 1;
+   public static final byte[]   GZIP_HEADER = {0x1f, (byte)0x8b, 8, 0, 0, 0,
+                                               0, 0, 0, (byte)0xff};
+
+   /* -VARIABLES- */
+   private int                 format;     // CALC - index into FORMATS
+   private int                 headerSize; // CALC - bytes reserved for the
+                                           //        header
+   private byte[]              digits;     // ARRY - scratch for formatting
+                                           //        an int
+   private ByteBuffer          buffer;     // BUFF - bytes waiting to be
+                                           //        written
+   private WritableByteChannel channel;    // WRIT - channel to the output
+   private FileChannel         file;       // WRIT - the same channel when it
+                                           //        is a file, else null
+   private int[]               declared;   // ARRY - counts sent up front to
+                                           //        a pipe, else null
+   private Deflater            deflater;   // CALC - compresses a gzip body
+   private CRC32               crc;        // CALC - checksum of a gzip body
+   private long                length;     // CALC - bytes of a gzip body
+                                           //        before compression
+   private ByteBuffer          packed;     // BUFF - compressed bytes to write
+   private long                sent;       // CALC - bytes handed to the
+                                           //        channel
+
+   /* - CONSTRUCTOR -
+   /***************************************************************************
+    * Name       : CNFWriter
+    * Purpose    : Open the file to stream to and reserve room for the header.
+    * Parameters : file -> file to write to
+    **************************************************************************/
+   public CNFWriter(String file) throws IOException
+   {
+      this(file, "dimacs");
+   }
+
+   /* - CONSTRUCTOR -
+   /***************************************************************************
+    * Name       : CNFWriter
+    * Purpose    : Open the file to stream to in one of FORMATS and reserve
+    *                 room for the header.
+    * Parameters : file   -> file to write to
+    *              format -> output format name
+    **************************************************************************/
+   public CNFWriter(String file, String format) throws IOException
+   {
+      this(FileChannel.open(Paths.get(file), StandardOpenOption.CREATE,
+                            StandardOpenOption.WRITE,
+                            StandardOpenOption.TRUNCATE_EXISTING),
+           format, null);
+   }
+
+   /* - CONSTRUCTOR -
+   /***************************************************************************
+    * Name       : CNFWriter
+    * Purpose    : Open a stream to a channel that cannot be patched, such as
+    *                 a solver's standard input, writing the real header
+    *                 first. close() fails if the counts turn out different.
+    * Parameters : channel   -> channel to write to
+    *              format    -> output format name
+    *              variables -> number of variables the header declares
+    *              clauses   -> number of clauses that will be written
+    **************************************************************************/
+   public CNFWriter(WritableByteChannel channel, String format, int variables,
+                    int clauses) throws IOException
+   {
+      this(channel, format, new int[] {variables, clauses});
+   }
+
+   /* - CONSTRUCTOR -
+   /***************************************************************************
+    * Name       : CNFWriter
+    * Purpose    : Start the stream on a channel with the header, zeroed to be
+    *                 patched later when no counts are declared.
+    * Parameters : channel  -> channel to write to
+    *              format   -> output format name
+    *              declared -> variables and clauses, or null
+    **************************************************************************/
+   private CNFWriter(WritableByteChannel channel, String format,
+                     int[] declared) throws IOException
+   {
+      ByteBuffer reserved; // BUFF - header to start with
+
+      // INITIALIZE
+      this.format     = format(format);
+      this.channel    = channel;
+      this.file       = (channel instanceof FileChannel)
+                           ? (FileChannel)channel : null;
+      this.declared   = declared;
+      this.buffer     = ByteBuffer.allocateDirect(BUFFER_SIZE);
+      this.digits     = new byte[11];
+      this.sent       = 0;
+      reserved        = (declared == null) ? headerBytes(0, 0)
+                                           : headerBytes(declared[0],
+                                                         declared[1]);
+      this.headerSize = reserved.remaining();
+
+      // the header goes straight to the channel, ahead of the buffer
+      send(reserved);
+
+      // IF - the body is a gzip member of its own
+      if(this.format == GZIP)
+      {
+         this.deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+         this.crc      = new CRC32();
+         this.length   = 0;
+         this.packed   = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+         send(ByteBuffer.wrap(GZIP_HEADER));
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : format
+    * Purpose    : returns the index of an output format name
+    * Parameters : name -> output format name
+    * Return     : int  -> index into FORMATS
+    **************************************************************************/
+   public static int format(String name)
+   {
+      for(int index = 0; index < FORMATS.length; ++index)
+      {
+         if(FORMATS[index].equalsIgnoreCase(name))
+         {
+            return index;
+         }
+      }
+
+      throw new IllegalArgumentException("unknown CNF format: " + name);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : keepsComments
+    * Purpose    : returns true if comment lines reach the file, so the
+    *                 encoder can skip building them when they do not
+    * Parameters : none
+    * Return     : boolean -> comments are written
+    **************************************************************************/
+   public boolean keepsComments()
+   {
+      return format == DIMACS;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : headerBytes
+    * Purpose    : builds the header of the file's format. Its size does not
+    *                 depend on the counts, so it can be patched in place.
+    * Parameters : variables -> number of variables
+    *              clauses   -> number of clauses
+    * Return     : ByteBuffer -> header bytes ready to write
+    **************************************************************************/
+   private ByteBuffer headerBytes(int variables, int clauses)
+      throws IOException
+   {
+      byte[]     text;   // ARRY - "p cnf" line
+      ByteBuffer bytes;  // BUFF - header being built
+      CRC32      check;  // CALC - checksum of the header line
+
+      // IF - four little endian ints
+      if(format == BINARY)
+      {
+         bytes = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+         bytes.putInt(MAGIC).putInt(VERSION).putInt(variables).putInt(clauses);
+         return bytes.flip();
+      }
+
+      // INITIALIZE
+      text = header(variables, clauses).getBytes("US-ASCII");
+
+      // IF - plain text
+      if(format != GZIP)
+      {
+         return ByteBuffer.wrap(text);
+      }
+
+      // INITIALIZE - one stored deflate block: final bit, then its length
+      check = new CRC32();
+      check.update(text);
+      bytes = ByteBuffer.allocate(GZIP_HEADER.length + 5 + text.length + 8)
+                        .order(ByteOrder.LITTLE_ENDIAN);
+
+      bytes.put(GZIP_HEADER).put((byte)1).putShort((short)text.length)
+           .putShort((short)~text.length).put(text)
+           .putInt((int)check.getValue()).putInt(text.length);
+
+      return bytes.flip();
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : header
+    * Purpose    : builds a "p cnf" header with each count padded out to
+    *                 the reserved width with leading zeros, which DIMACS
+    *                 readers parse as the same number
+    * Parameters : variables -> number of variables
+    *              clauses   -> number of clauses
+    * Return     : String    -> header line
+    **************************************************************************/
+   private String header(int variables, int clauses)
+   {
+      return String.format("p cnf %0" + COUNT_WIDTH + "d %0" + COUNT_WIDTH
+                           + "d\n", variables, clauses);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : write
+    * Purpose    : This method copies a CNF line into the output buffer,
+    *                 flushing the buffer to the channel whenever it fills.
+    * Parameters : line -> CNF line to write
+    * Return     : void
+    **************************************************************************/
+   public void write(String line) throws IOException
+   {
+      // FOR - copies each character of the line as a single byte
+      for(int index = 0; index < line.length(); ++index)
+      {
+         if(!buffer.hasRemaining())
+         {
+            flush();
+         }
+
+         buffer.put((byte)line.charAt(index));
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : addClause
+    * Purpose    : This method writes a clause as a DIMACS line ending in 0
+    * Parameters : literals -> literals of the clause
+    *              count    -> number of literals used from the array
+    * Return     : void
+    **************************************************************************/
+   public void addClause(int[] literals, int count) throws IOException
+   {
+      int last; // CALC - literal before the current one
+
+      // IF - varint length, then the difference from each literal before
+      if(format == BINARY)
+      {
+         last = 0;
+         writeVarint(count);
+
+         for(int index = 0; index < count; ++index)
+         {
+            writeVarint((literals[index] - last) << 1
+                        ^ (literals[index] - last) >> 31);
+            last = literals[index];
+         }
+
+         return;
+      }
+
+      // FOR - writes each literal followed by a space
+      for(int index = 0; index < count; ++index)
+      {
+         writeInt(literals[index]);
+         writeByte(' ');
+      }
+
+      writeByte('0');
+      writeByte('\n');
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : addComment
+    * Purpose    : This method writes a comment line
+    * Parameters : comment -> comment line, starting with "c"
+    * Return     : void
+    **************************************************************************/
+   public void addComment(String comment) throws IOException
+   {
+      // IF - only plain DIMACS keeps comments
+      if(format != DIMACS)
+      {
+         return;
+      }
+
+      write(comment);
+      writeByte('\n');
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : writeInt
+    * Purpose    : This method writes the decimal digits of a number into
+    *                 the buffer, last digit first into the scratch array.
+    * Parameters : number -> number to write
+    * Return     : void
+    **************************************************************************/
+   public void writeInt(int number) throws IOException
+   {
+      int  length;   // CALC - digits in scratch array
+      long positive; // CALC - magnitude of the number
+
+      // INITIALIZE
+      length   = 0;
+      positive = Math.abs((long)number);
+
+      if(number < 0)
+      {
+         writeByte('-');
+      }
+
+      // DO - peel off digits from the right
+      do
+      {
+         digits[length++] = (byte)('0' + (positive % 10));
+         positive /= 10;
+      }
+      while(positive > 0);
+
+      // WHILE - copy digits back in reading order
+      while(length > 0)
+      {
+         writeByte(digits[--length]);
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : writeVarint
+    * Purpose    : This method writes a number seven bits at a time, low bits
+    *                 first, with the top bit set on every byte but the last
+    * Parameters : number -> number to write, taken as unsigned
+    * Return     : void
+    **************************************************************************/
+   public void writeVarint(int number) throws IOException
+   {
+      // WHILE - more than seven bits left
+      while((number & ~0x7f) != 0)
+      {
+         writeByte((number & 0x7f) | 0x80);
+         number >>>= 7;
+      }
+
+      writeByte(number);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : writeByte
+    * Purpose    : This method puts one byte into the buffer
+    * Parameters : value -> byte to write
+    * Return     : void
+    **************************************************************************/
+   public void writeByte(int value) throws IOException
+   {
+      if(!buffer.hasRemaining())
+      {
+         flush();
+      }
+
+      buffer.put((byte)value);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : flush
+    * Purpose    : This method writes everything buffered so far to the file
+    * Parameters : none
+    * Return     : void
+    **************************************************************************/
+   public void flush() throws IOException
+   {
+      buffer.flip();
+
+      // IF - compress the buffer rather than write it
+      if(deflater != null)
+      {
+         length += buffer.remaining();
+         crc.update(buffer.duplicate());
+         deflater.setInput(buffer);
+
+         // WHILE - deflater still holds input
+         while(!deflater.needsInput())
+         {
+            deflate(Deflater.NO_FLUSH);
+         }
+      }
+
+      send(buffer);
+      buffer.clear();
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : deflate
+    * Purpose    : This method writes whatever the deflater has ready
+    * Parameters : mode -> Deflater flush mode
+    * Return     : int  -> compressed bytes written
+    **************************************************************************/
+   private int deflate(int mode) throws IOException
+   {
+      int count; // CALC - compressed bytes produced
+
+      // INITIALIZE
+      count = deflater.deflate(packed, mode);
+      packed.flip();
+      send(packed);
+      packed.clear();
+
+      return count;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : send
+    * Purpose    : This method hands bytes to the channel and counts them
+    * Parameters : bytes -> bytes to write
+    * Return     : void
+    **************************************************************************/
+   private void send(ByteBuffer bytes) throws IOException
+   {
+      // WHILE - channel may not take the whole buffer at once
+      while(bytes.hasRemaining())
+      {
+         sent += channel.write(bytes);
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : written
+    * Purpose    : returns the bytes written so far. Bytes still in the
+    *                 buffer count too, unless they are yet to be compressed.
+    * Parameters : none
+    * Return     : long -> bytes written
+    **************************************************************************/
+   public long written()
+   {
+      if(!channel.isOpen())
+      {
+         return sent;
+      }
+
+      return sent + ((deflater == null) ? buffer.position() : 0);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : close
+    * Purpose    : This method flushes the remaining lines, patches the real
+    *                 counts into the reserved header and closes the file. On
+    *                 a pipe the counts are only checked against the header.
+    * Parameters : variables -> number of variables declared in the header
+    *              clauses   -> number of clauses written
+    * Return     : void
+    **************************************************************************/
+   public void close(int variables, int clauses) throws IOException
+   {
+      ByteBuffer patch;   // BUFF - header holding the real counts
+      ByteBuffer trailer; // BUFF - checksum and length ending a gzip body
+
+      // INITIALIZE
+      patch = headerBytes(variables, clauses);
+
+      flush();
+
+      // IF - finish the gzip member of the body
+      if(deflater != null)
+      {
+         // the deflater still points at the cleared buffer, so detach it
+         deflater.setInput(new byte[0]);
+         deflater.finish();
+
+         while(!deflater.finished())
+         {
+            deflate(Deflater.NO_FLUSH);
+         }
+
+         deflater.end();
+         trailer = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+         trailer.putInt((int)crc.getValue()).putInt((int)length).flip();
+         send(trailer);
+      }
+
+      // IF - a pipe's header has already gone out
+      if(file == null)
+      {
+         channel.close();
+
+         if(declared[0] != variables || declared[1] != clauses)
+         {
+            throw new IOException("CNF header declared " + declared[0] + " "
+                                  + declared[1] + " but wrote " + variables
+                                  + " " + clauses);
+         }
+
+         return;
+      }
+
+      // IF - counts are too wide for the room reserved up front
+      if(patch.remaining() != headerSize)
+      {
+         channel.close();
+         throw new IOException("CNF header does not fit: " + variables + " "
+                               + clauses);
+      }
+
+      file.write(patch, 0);
+      channel.close();
+   }
+}
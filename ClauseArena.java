@@ -0,0 +1,292 @@
+/*
+/******************************************************************************
+ * Name            : Eric Olaveson
+ * Date            : October 18, 2026
+ *
+ * This program will hold the clauses of a CNF encoding as primitive int
+ *    literals so that encoding a puzzle does not create an object per
+ *    literal or per clause.
+ *****************************************************************************/
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/* - CLASS -
+/******************************************************************************
+ * Name    : ClauseArena
+ * Purpose : This class encapsulates a growable arena of clauses. Every
+ *           literal of every clause sits back to back in one int array and a
+ *           second int array holds the offset each clause starts at, so
+ *           clause i is literals[start(i)] up to literals[start(i + 1)].
+ *           It is the in-memory model read by the writers and solvers.
+ *           Comment lines are kept too, each with the number of clauses
+ *           that came before it, and handed back in place by writeTo().
+ *****************************************************************************/
+public class ClauseArena implements ClauseSink
+{
+   /* -VARIABLES- */
+   private int               clauses;  // CALC - number of clauses held
+   private int               used;     // CALC - number of literals held
+   private int[]             literals; // ARRY - literals of all clauses,
+                                       //        back to back
+   private int[]             starts;   // ARRY - offset of each clause, plus
+                                       //        one past end
+   private ArrayList<String> notes;    // LIST - comment lines, in order
+   private int[]             noteAt;   // ARRY - clauses before each comment
+
+   /* - CONSTRUCTOR -
+   /***************************************************************************
+    * Name       : ClauseArena
+    * Purpose    : Create an empty arena with a small starting capacity.
+    * Parameters : none
+    **************************************************************************/
+   public ClauseArena()
+   {
+      this(1024, 4096);
+   }
+
+   /* - CONSTRUCTOR -
+   /***************************************************************************
+    * Name       : ClauseArena
+    * Purpose    : Create an empty arena sized for an expected encoding, so
+    *                 that it never has to grow while clauses are added.
+    * Parameters : clauses  -> number of clauses expected
+    *              literals -> number of literals expected
+    **************************************************************************/
+   public ClauseArena(int clauses, int literals)
+   {
+      // INITIALIZE
+      this.clauses  = 0;
+      this.used     = 0;
+      this.literals = new int[Math.max(literals, 1)];
+      this.starts   = new int[Math.max(clauses, 1) + 1];
+      this.notes    = new ArrayList<String>();
+      this.noteAt   = new int[8];
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : addClause
+    * Purpose    : This method copies a clause onto the end of the arena,
+    *                 doubling the arrays if they are full.
+    * Parameters : clause -> literals of the clause, without the 0
+    *              count  -> number of literals used from the array
+    * Return     : void
+    **************************************************************************/
+   public void addClause(int[] clause, int count)
+   {
+      // IF - grow the literal array
+      if(used + count > literals.length)
+      {
+         literals = Arrays.copyOf(literals,
+                       Math.max(literals.length * 2, used + count));
+      }
+
+      // IF - grow the offset array
+      if(clauses + 2 > starts.length)
+      {
+         starts = Arrays.copyOf(starts, starts.length * 2);
+      }
+
+      System.arraycopy(clause, 0, literals, used, count);
+
+      // INCREMENT - close off the clause
+      used += count;
+      ++clauses;
+      starts[clauses] = used;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : reserve
+    * Purpose    : This method makes room for more clauses in one step
+    * Parameters : clauses  -> number of clauses about to be added
+    *              literals -> number of literals about to be added
+    * Return     : void
+    **************************************************************************/
+   public void reserve(int clauses, int literals)
+   {
+      if(used + literals > this.literals.length)
+      {
+         this.literals = Arrays.copyOf(this.literals, used + literals);
+      }
+
+      if(this.clauses + clauses + 1 > starts.length)
+      {
+         starts = Arrays.copyOf(starts, this.clauses + clauses + 1);
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : addComment
+    * Purpose    : This method keeps a comment line and its place among the
+    *                 clauses
+    * Parameters : comment -> comment line
+    * Return     : void
+    **************************************************************************/
+   public void addComment(String comment)
+   {
+      if(notes.size() == noteAt.length)
+      {
+         noteAt = Arrays.copyOf(noteAt, 2 * noteAt.length);
+      }
+
+      noteAt[notes.size()] = clauses;
+      notes.add(comment);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : comments
+    * Purpose    : returns the number of comment lines held
+    * Parameters : none
+    * Return     : int -> number of comments
+    **************************************************************************/
+   public int comments()
+   {
+      return notes.size();
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : comment
+    * Purpose    : returns a comment line
+    * Parameters : index  -> index of the comment
+    * Return     : String -> comment line
+    **************************************************************************/
+   public String comment(int index)
+   {
+      return notes.get(index);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : commentAt
+    * Purpose    : returns where a comment line falls among the clauses
+    * Parameters : index -> index of the comment
+    * Return     : int   -> clauses that came before it
+    **************************************************************************/
+   public int commentAt(int index)
+   {
+      return noteAt[index];
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : size
+    * Purpose    : returns the number of clauses held
+    * Parameters : none
+    * Return     : int -> number of clauses
+    **************************************************************************/
+   public int size()
+   {
+      return clauses;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : literalCount
+    * Purpose    : returns the number of literals held across all clauses
+    * Parameters : none
+    * Return     : int -> number of literals
+    **************************************************************************/
+   public int literalCount()
+   {
+      return used;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : start
+    * Purpose    : returns the offset of the first literal of a clause. The
+    *                 start of clause size() is one past the last literal.
+    * Parameters : clause -> index of the clause
+    * Return     : int    -> offset into literals()
+    **************************************************************************/
+   public int start(int clause)
+   {
+      return starts[clause];
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : length
+    * Purpose    : returns the number of literals in a clause
+    * Parameters : clause -> index of the clause
+    * Return     : int    -> number of literals
+    **************************************************************************/
+   public int length(int clause)
+   {
+      return starts[clause + 1] - starts[clause];
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : literals
+    * Purpose    : returns the backing literal array. Only the first
+    *                 literalCount() entries are in use.
+    * Parameters : none
+    * Return     : int[] -> literals of all clauses
+    **************************************************************************/
+   public int[] literals()
+   {
+      return literals;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : writeTo
+    * Purpose    : This method hands every clause in order to another sink,
+    *                 each comment line ahead of the clauses that followed it
+    * Parameters : sink -> sink to copy clauses into
+    * Return     : void
+    **************************************************************************/
+   public void writeTo(ClauseSink sink) throws IOException
+   {
+      int[] clause;  // ARRY - reused holder for one clause
+      int   comment; // CALC - next comment to hand over
+
+      // INITIALIZE
+      clause  = new int[16];
+      comment = 0;
+
+      // FOR - copies each clause out of the arena
+      for(int index = 0; index < clauses; ++index)
+      {
+         while(comment < notes.size() && noteAt[comment] <= index)
+         {
+            sink.addComment(notes.get(comment++));
+         }
+
+         if(length(index) > clause.length)
+         {
+            clause = new int[length(index)];
+         }
+
+         System.arraycopy(literals, starts[index], clause, 0, length(index));
+         sink.addClause(clause, length(index));
+      }
+
+      // WHILE - comments after the last clause
+      while(comment < notes.size())
+      {
+         sink.addComment(notes.get(comment++));
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : clear
+    * Purpose    : This method empties the arena, comments included, but
+    *                 keeps its capacity
+    * Parameters : none
+    * Return     : void
+    **************************************************************************/
+   public void clear()
+   {
+      clauses = 0;
+      used    = 0;
+      notes.clear();
+   }
+}
@@ -0,0 +1,90 @@
+/*
+/******************************************************************************
+ * Name            : Eric Olaveson
+ * Date            : October 18, 2026
+ *
+ * This program will count the clauses of an encoding without keeping or
+ *    writing any of them.
+ *****************************************************************************/
+
+/* - CLASS -
+/******************************************************************************
+ * Name    : ClauseCounter
+ * Purpose : This class encapsulates a sink that only counts what it is
+ *           handed. Encoding into it first gives the exact header of a CNF
+ *           that has to be streamed somewhere its header cannot be patched.
+ *****************************************************************************/
+public class ClauseCounter implements ClauseSink
+{
+   /* -VARIABLES- */
+   private int  clauses;  // CALC - clauses handed in
+   private long literals; // CALC - literals in those clauses
+   private int  maximum;  // CALC - highest variable seen
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : addClause
+    * Purpose    : This method counts one clause and its literals
+    * Parameters : literals -> literals of the clause
+    *              count    -> number of literals used from the array
+    * Return     : void
+    **************************************************************************/
+   public void addClause(int[] literals, int count)
+   {
+      ++clauses;
+      this.literals += count;
+
+      // FOR - track the highest variable
+      for(int index = 0; index < count; ++index)
+      {
+         maximum = Math.max(maximum, Math.abs(literals[index]));
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : addComment
+    * Purpose    : This method drops the comment
+    * Parameters : comment -> comment line
+    * Return     : void
+    **************************************************************************/
+   public void addComment(String comment)
+   {
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : clauses
+    * Purpose    : returns the number of clauses counted
+    * Parameters : none
+    * Return     : int -> number of clauses
+    **************************************************************************/
+   public int clauses()
+   {
+      return clauses;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : literals
+    * Purpose    : returns the number of literals counted
+    * Parameters : none
+    * Return     : long -> number of literals
+    **************************************************************************/
+   public long literals()
+   {
+      return literals;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : maximum
+    * Purpose    : returns the highest variable any clause used
+    * Parameters : none
+    * Return     : int -> variable number, 0 with no literals
+    **************************************************************************/
+   public int maximum()
+   {
+      return maximum;
+   }
+}
@@ -0,0 +1,41 @@
+/*
+/******************************************************************************
+ * Name            : Eric Olaveson
+ * Date            : October 18, 2026
+ *
+ * This program will define where the CNF clauses of a sudoku encoding go
+ *    once they are generated.
+ *****************************************************************************/
+import java.io.IOException;
+
+/* - INTERFACE -
+/******************************************************************************
+ * Name    : ClauseSink
+ * Purpose : This interface is implemented by everything that consumes the
+ *           clauses Sudoku generates, whether it holds them in memory or
+ *           writes them out. Clauses are passed as int literals; the array
+ *           handed in is reused by the caller, so a sink must copy what it
+ *           wants to keep.
+ *****************************************************************************/
+public interface ClauseSink
+{
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : addClause
+    * Purpose    : This method takes one clause
+    * Parameters : literals -> literals of the clause, without the 0
+    *              count    -> number of literals used from the array
+    * Return     : void
+    **************************************************************************/
+   public void addClause(int[] literals, int count) throws IOException;
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : addComment
+    * Purpose    : This method takes a comment line describing the clauses
+    *                 that follow it. Sinks are free to drop comments.
+    * Parameters : comment -> comment line, starting with "c"
+    * Return     : void
+    **************************************************************************/
+   public void addComment(String comment) throws IOException;
+}
@@ -0,0 +1,458 @@
+/*
+/******************************************************************************
+ * Name            : Eric Olaveson
+ * Date            : October 18, 2026
+ *
+ * This program will solve a sudoku puzzle as an exact cover problem with
+ *    Knuth's Algorithm X and dancing links, as a second engine alongside
+ *    the CNF encoding.
+ *****************************************************************************/
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/* - CLASS -
+/******************************************************************************
+ * Name    : DancingLinks
+ * Purpose : This class encapsulates an exact cover matrix built from the same
+ *           four rule families Sudoku encodes:
+ *
+ *              unique -> tile <r,c> holds exactly one value
+ *              row    -> row r holds value v exactly once
+ *              column -> column c holds value v exactly once
+ *              block  -> block b holds value v exactly once
+ *
+ *           Each of the n cubed candidates (r,c,v) is a matrix row, numbered
+ *           by VariableMap, covering one column of each family. Nodes are
+ *           not objects: their left, right, up and down links, column and
+ *           candidate are parallel int arrays, so the whole matrix is a few
+ *           flat arrays that are built once and reused for every puzzle.
+ *****************************************************************************/
+public class DancingLinks implements GridSolver
+{
+   /* -CONSTANTS
+   /***************************************************************************
+    * ROOT : header node linking the columns still to cover
+    * POLL : mask of the search nodes between looks at the stop flag
+    **************************************************************************/
+   private static final int ROOT = 0;
+   private static final int POLL = 1023;
+
+   /* -VARIABLES- */
+   private int         size;      // CALC - size of sudoku puzzle
+   private int         blockSize; // CALC - size of each sudoku block
+   private int         columns;   // CALC - number of constraint columns
+   private int[]       left;      // ARRY - left link of each node
+   private int[]       right;     // ARRY - right link of each node
+   private int[]       up;        // ARRY - up link of each node
+   private int[]       down;      // ARRY - down link of each node
+   private int[]       column;    // ARRY - column header of each node
+   private int[]       candidate; // ARRY - candidate variable of each node
+   private int[]       count;     // ARRY - nodes left in each column
+   private int[]       first;     // ARRY - first node of each candidate
+   private int[]       chosen;    // ARRY - candidates picked so far
+   private int[]       solution;  // ARRY - candidates of the first solution
+   private int[]       applied;   // ARRY - node of each given selected
+   private int         depth;     // CALC - candidates picked so far
+   private int         found;     // CALC - solutions found so far
+   private int         limit;     // CALC - solutions wanted
+   private long        nodes;     // CALC - search nodes visited
+   private VariableMap map;       // CALC - numbering of candidates
+   private AtomicBoolean stop;    // CALC - flag that ends the search, or null
+   private boolean     stopped;   // BOOL - search gave up on the flag
+
+   /* - CONSTRUCTOR -
+   /***************************************************************************
+    * Name       : DancingLinks
+    * Purpose    : Create the exact cover matrix for an n x n puzzle.
+    * Parameters : size -> size of the sudoku puzzle
+    **************************************************************************/
+   public DancingLinks(int size)
+   {
+      int nodes; // CALC - total nodes, headers first
+
+      // INITIALIZE
+      this.size      = size;
+      this.blockSize = (int)Math.sqrt(size);
+      this.map       = new VariableMap(size);
+      this.columns   = 4 * size * size;
+      nodes          = 1 + columns + (4 * map.count());
+      this.left      = new int[nodes];
+      this.right     = new int[nodes];
+      this.up        = new int[nodes];
+      this.down      = new int[nodes];
+      this.column    = new int[nodes];
+      this.candidate = new int[nodes];
+      this.count     = new int[columns + 1];
+      this.first     = new int[map.count() + 1];
+      this.chosen    = new int[size * size];
+      this.solution  = new int[size * size];
+      this.applied   = new int[size * size];
+
+      // FOR - ring of column headers around the root
+      for(int col = 0; col <= columns; ++col)
+      {
+         left[col]   = (col == 0) ? columns : col - 1;
+         right[col]  = (col == columns) ? 0 : col + 1;
+         up[col]     = col;
+         down[col]   = col;
+         column[col] = col;
+      }
+
+      // TRIPLE FOR - one matrix row per candidate
+      for(int row = 1; row <= size; ++row)
+      {
+         for(int col = 1; col <= size; ++col)
+         {
+            for(int value = 1; value <= size; ++value)
+            {
+               addRow(row, col, value);
+            }
+         }
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : addRow
+    * Purpose    : This method links the four nodes of one candidate into its
+    *                 columns and into a ring of their own.
+    * Parameters : row   -> row of tile
+    *              col   -> column of tile
+    *              value -> value of tile
+    * Return     : void
+    **************************************************************************/
+   private void addRow(int row, int col, int value)
+   {
+      int   variable; // CALC - candidate number
+      int   base;     // CALC - first node of the candidate
+      int   block;    // CALC - block of the tile, 0 based
+      int[] cols;     // ARRY - column of each of the four nodes
+
+      // INITIALIZE
+      variable = map.variable(row, col, value);
+      base     = 1 + columns + (4 * (variable - 1));
+      block    = (((row - 1) / blockSize) * blockSize) + ((col - 1) / blockSize);
+      cols     = new int[] {
+         1 + ((row - 1) * size) + (col - 1),
+         1 + (size * size) + ((row - 1) * size) + (value - 1),
+         1 + (2 * size * size) + ((col - 1) * size) + (value - 1),
+         1 + (3 * size * size) + (block * size) + (value - 1)
+      };
+
+      first[variable] = base;
+
+      // FOR - append each node to the bottom of its column
+      for(int index = 0; index < 4; ++index)
+      {
+         int node = base + index;
+
+         column[node]    = cols[index];
+         candidate[node] = variable;
+         up[node]        = up[cols[index]];
+         down[node]      = cols[index];
+         down[up[node]]  = node;
+         up[cols[index]] = node;
+         left[node]      = base + ((index + 3) % 4);
+         right[node]     = base + ((index + 1) % 4);
+         ++count[cols[index]];
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : cover
+    * Purpose    : This method removes a column and every row that meets it
+    * Parameters : col -> column header
+    * Return     : void
+    **************************************************************************/
+   private void cover(int col)
+   {
+      right[left[col]] = right[col];
+      left[right[col]] = left[col];
+
+      // FOR - each row of the column
+      for(int row = down[col]; row != col; row = down[row])
+      {
+         // FOR - unlink the rest of the row from its columns
+         for(int node = right[row]; node != row; node = right[node])
+         {
+            down[up[node]] = down[node];
+            up[down[node]] = up[node];
+            --count[column[node]];
+         }
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : uncover
+    * Purpose    : This method undoes cover() in exactly the reverse order
+    * Parameters : col -> column header
+    * Return     : void
+    **************************************************************************/
+   private void uncover(int col)
+   {
+      // FOR - each row of the column, bottom up
+      for(int row = up[col]; row != col; row = up[row])
+      {
+         // FOR - relink the rest of the row, right to left
+         for(int node = left[row]; node != row; node = left[node])
+         {
+            ++count[column[node]];
+            down[up[node]] = node;
+            up[down[node]] = node;
+         }
+      }
+
+      right[left[col]] = col;
+      left[right[col]] = col;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : select
+    * Purpose    : This method picks a candidate by covering all its columns
+    * Parameters : node -> any node of the candidate
+    * Return     : void
+    **************************************************************************/
+   private void select(int node)
+   {
+      cover(column[node]);
+
+      for(int other = right[node]; other != node; other = right[other])
+      {
+         cover(column[other]);
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : unselect
+    * Purpose    : This method undoes select()
+    * Parameters : node -> the node select() was given
+    * Return     : void
+    **************************************************************************/
+   private void unselect(int node)
+   {
+      for(int other = left[node]; other != node; other = left[other])
+      {
+         uncover(column[other]);
+      }
+
+      uncover(column[node]);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : solve
+    * Purpose    : This method searches for solutions of a puzzle, stopping
+    *                 once limit of them are found. The first solution is
+    *                 written into grid. The matrix is left as it was found,
+    *                 ready for the next puzzle.
+    * Parameters : puzzle -> givens to start from
+    *              limit  -> solutions to look for, 1 to just solve
+    *              grid   -> receives the first solution row by row
+    * Return     : int    -> solutions found, at most limit; 0 if none
+    **************************************************************************/
+   public int solve(Puzzle puzzle, int limit, int[] grid)
+   {
+      int givens; // CALC - givens selected
+      int value;  // CALC - value of a given
+
+      // INITIALIZE
+      this.found   = 0;
+      this.limit   = limit;
+      this.depth   = 0;
+      this.stopped = false;
+      givens       = 0;
+
+      // DOUBLE FOR - select the givens, stopping at one that clashes
+      for(int row = 1; row <= size && givens >= 0; ++row)
+      {
+         for(int col = 1; col <= size; ++col)
+         {
+            value = puzzle.get(row, col);
+
+            if(value != 0)
+            {
+               int node = first[map.variable(row, col, value)];
+
+               // IF - a given already covered one of this given's columns
+               if(!live(node))
+               {
+                  givens = -givens - 1;
+                  break;
+               }
+
+               select(node);
+               applied[givens++] = node;
+               chosen[depth++]   = candidate[node];
+            }
+         }
+      }
+
+      // IF - givens are consistent, search the rest
+      if(givens >= 0)
+      {
+         search();
+      }
+      else
+      {
+         givens = -givens - 1;
+      }
+
+      // FOR - restore the matrix
+      for(int index = givens - 1; index >= 0; --index)
+      {
+         unselect(applied[index]);
+      }
+
+      // IF - write the first solution out
+      if(found > 0)
+      {
+         for(int index = 0; index < size * size; ++index)
+         {
+            int variable = solution[index];
+
+            grid[((map.row(variable) - 1) * size)
+                 + (map.column(variable) - 1)] = map.value(variable);
+         }
+      }
+
+      return found;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : live
+    * Purpose    : returns true if every column of a candidate is uncovered
+    * Parameters : node -> first node of the candidate
+    * Return     : boolean -> candidate can still be selected
+    **************************************************************************/
+   private boolean live(int node)
+   {
+      int other = node; // CALC - node being checked
+
+      // DO - check each column of the candidate is still in the header ring
+      do
+      {
+         int col = column[other];
+
+         if(right[left[col]] != col)
+         {
+            return false;
+         }
+
+         other = right[other];
+      }
+      while(other != node);
+
+      return true;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : search
+    * Purpose    : This method is Algorithm X: cover the column with the
+    *                 fewest rows and try each of its rows in turn.
+    * Parameters : none
+    * Return     : void
+    **************************************************************************/
+   private void search()
+   {
+      int best; // CALC - column with the fewest rows
+
+      ++nodes;
+
+      // IF - asked to stop; the flag is read every POLL + 1 nodes
+      stopped |= (stop != null && (nodes & POLL) == 0 && stop.get());
+
+      if(stopped)
+      {
+         return;
+      }
+
+      // IF - every column is covered, a solution is found
+      if(right[ROOT] == ROOT)
+      {
+         if(found++ == 0)
+         {
+            System.arraycopy(chosen, 0, solution, 0, depth);
+         }
+
+         return;
+      }
+
+      // INITIALIZE
+      best = right[ROOT];
+
+      // FOR - find the column with the fewest rows
+      for(int col = right[best]; col != ROOT; col = right[col])
+      {
+         if(count[col] < count[best])
+         {
+            best = col;
+
+            if(count[best] <= 1)
+            {
+               break;
+            }
+         }
+      }
+
+      // IF - a column no row can cover
+      if(count[best] == 0)
+      {
+         return;
+      }
+
+      cover(best);
+
+      // FOR - try each row of the column
+      for(int row = down[best]; row != best && found < limit && !stopped;
+          row = down[row])
+      {
+         chosen[depth++] = candidate[row];
+
+         for(int node = right[row]; node != row; node = right[node])
+         {
+            cover(column[node]);
+         }
+
+         search();
+
+         for(int node = left[row]; node != row; node = left[node])
+         {
+            uncover(column[node]);
+         }
+
+         --depth;
+      }
+
+      uncover(best);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : setStop
+    * Purpose    : This method sets the flag the search polls every POLL + 1
+    *                 nodes, giving up once it is set
+    * Parameters : stop -> flag that stops the search, or null for none
+    * Return     : void
+    **************************************************************************/
+   public void setStop(AtomicBoolean stop)
+   {
+      this.stop = stop;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : nodes
+    * Purpose    : returns the number of search nodes visited so far
+    * Parameters : none
+    * Return     : long -> search nodes
+    **************************************************************************/
+   public long nodes()
+   {
+      return nodes;
+   }
+}
@@ -0,0 +1,124 @@
+/*
+/******************************************************************************
+ * Name            : Eric Olaveson
+ * Date            : October 18, 2026
+ *
+ * This program will check that every at-most-one encoding and every profile
+ *    gives an empty 4x4 sudoku its 288 solutions.
+ *****************************************************************************/
+import java.io.*;
+
+/* - CLASS -
+/******************************************************************************
+ * Name    : EncodingCheck
+ * Purpose : This class encodes an empty 4x4 sudoku under each AtMostOne
+ *           encoding and each EncodingProfile into a SatSolver and counts
+ *           its models with blocking clauses over the tile variables only,
+ *           so auxiliary variables cannot make one grid count twice. Every
+ *           pair must count exactly SOLUTIONS; one more is searched for, so
+ *           an encoding that lets a wrong grid through is caught.
+ *****************************************************************************/
+public class EncodingCheck
+{
+   /* -CONSTANTS
+   /***************************************************************************
+    * SIZE      : size of the sudoku counted
+    * SOLUTIONS : solutions of an empty sudoku of that size
+    **************************************************************************/
+   public static final int SIZE      = 4;
+   public static final int SOLUTIONS = 288;
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : count
+    * Purpose    : This method counts the grids an encoding allows
+    * Parameters : amo     -> AtMostOne encoding name
+    *              profile -> EncodingProfile name
+    *              limit   -> grids to stop at
+    * Return     : int     -> grids found, at most limit
+    **************************************************************************/
+   public static int count(String amo, String profile, int limit)
+      throws IOException
+   {
+      SatSolver solver;   // CALC - solver holding the encoding
+      Sudoku    encoder;  // CALC - encodes the rules into the solver
+      int       tiles;    // CALC - tile variables, numbered first
+      int[]     model;    // ARRY - literal of each variable
+      int[]     block;    // ARRY - clause ruling out the grid found
+      int       length;   // CALC - literals in the blocking clause
+      int       found;    // CALC - grids found so far
+
+      // INITIALIZE
+      solver  = new SatSolver();
+      encoder = new Sudoku(SIZE, solver);
+      tiles   = new VariableMap(SIZE).count();
+      block   = new int[tiles];
+      found   = 0;
+
+      encoder.setAtMostOne(amo);
+      encoder.setProfile(profile);
+      encoder.encode(1);
+
+      // WHILE - another grid is allowed
+      while(found < limit && solver.solve() == SatSolver.SAT)
+      {
+         model  = solver.model();
+         length = 0;
+
+         for(int var = 1; var <= tiles; ++var)
+         {
+            if(model[var - 1] > 0)
+            {
+               block[length++] = -var;
+            }
+         }
+
+         solver.addClause(block, length);
+         ++found;
+      }
+
+      return found;
+   }
+
+   /* - MAIN -
+    ***************************************************************************
+    * Name       : main
+    * Purpose    : This method counts every encoding and profile, printing
+    *                 each that is off, and exits 1 if any was.
+    * Parameters : args -> none
+    * Return     : void
+    **************************************************************************/
+   public static void main(String[] args) throws IOException
+   {
+      int    failures = 0; // CALC - pairs that counted wrong
+      int    checked  = 0; // CALC - pairs counted
+      int    found;        // CALC - grids one pair allows
+      String profile;      // STRN - profile name
+
+      // DOUBLE FOR - each encoding under each profile
+      for(String amo : AtMostOne.NAMES)
+      {
+         for(EncodingProfile each : EncodingProfile.values())
+         {
+            profile = each.name().toLowerCase();
+            found   = count(amo, profile, SOLUTIONS + 1);
+            ++checked;
+
+            if(found != SOLUTIONS)
+            {
+               System.out.println(amo + " " + profile + ": " + found
+                                  + " solutions, not " + SOLUTIONS);
+               ++failures;
+            }
+         }
+      }
+
+      System.out.println((checked - failures) + " of " + checked
+                         + " encodings passed");
+
+      if(failures > 0)
+      {
+         System.exit(1);
+      }
+   }
+}
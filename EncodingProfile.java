@@ -0,0 +1,82 @@
+/*
+/******************************************************************************
+ * Name            : Eric Olaveson
+ * Date            : October 18, 2026
+ *
+ * This program will name the sets of clause families a sudoku encoding can
+ *    be built from.
+ *****************************************************************************/
+
+/* - ENUM -
+/******************************************************************************
+ * Name    : EncodingProfile
+ * Purpose : This enum chooses which clause families Sudoku emits. Every
+ *           profile keeps "each tile holds at least one value" and "each
+ *           value appears at most once in a row, column and block", which is
+ *           already enough to pin down a solution; the larger profiles add
+ *           redundant families that can help a solver propagate.
+ *
+ *              minimal   -> tile at-least-one, unit at-most-one
+ *              efficient -> minimal plus tile at-most-one
+ *              extended  -> efficient plus unit at-least-one (the original)
+ *****************************************************************************/
+public enum EncodingProfile
+{
+   MINIMAL(false, false),
+   EFFICIENT(true, false),
+   EXTENDED(true, true);
+
+   /* -VARIABLES- */
+   private final boolean tileAtMostOne;  // BOOL - tiles get at-most-one
+   private final boolean unitAtLeastOne; // BOOL - units get at-least-one
+
+   /* - CONSTRUCTOR -
+   /***************************************************************************
+    * Name       : EncodingProfile
+    * Purpose    : Create a profile from the optional families it emits.
+    * Parameters : tileAtMostOne  -> emit at-most-one for every tile
+    *              unitAtLeastOne -> emit at-least-one for every row, column
+    *                                   and block value
+    **************************************************************************/
+   EncodingProfile(boolean tileAtMostOne, boolean unitAtLeastOne)
+   {
+      this.tileAtMostOne  = tileAtMostOne;
+      this.unitAtLeastOne = unitAtLeastOne;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : tileAtMostOne
+    * Purpose    : returns true if each tile may hold only one value
+    * Parameters : none
+    * Return     : boolean -> emit tile at-most-one clauses
+    **************************************************************************/
+   public boolean tileAtMostOne()
+   {
+      return tileAtMostOne;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : unitAtLeastOne
+    * Purpose    : returns true if every value must appear in each unit
+    * Parameters : none
+    * Return     : boolean -> emit unit at-least-one clauses
+    **************************************************************************/
+   public boolean unitAtLeastOne()
+   {
+      return unitAtLeastOne;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : create
+    * Purpose    : returns the profile with the given lower case name
+    * Parameters : name -> "minimal", "efficient" or "extended"
+    * Return     : EncodingProfile -> matching profile
+    **************************************************************************/
+   public static EncodingProfile create(String name)
+   {
+      return valueOf(name.toUpperCase());
+   }
+}
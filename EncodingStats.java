@@ -0,0 +1,469 @@
+/*
+/******************************************************************************
+ * Name            : Eric Olaveson
+ * Date            : October 18, 2026
+ *
+ * This program will record how time, clauses, bytes and allocation split
+ *    between the phases of a run.
+ *****************************************************************************/
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.management.ObjectName;
+
+/* - CLASS -
+/******************************************************************************
+ * Name    : EncodingStats
+ * Purpose : This class encapsulates per-phase statistics of one run. A phase
+ *           is opened with begin() and closed with end(), each given the
+ *           owner's running clause, literal and byte counts, and the
+ *           difference is charged to the phase along with the wall time and
+ *           the heap allocated in between. Allocation is that of the thread
+ *           opening and closing phases plus whatever other threads report
+ *           with allocate(), since a pool thread that has exited can no
+ *           longer be asked. A phase run more than once adds up. The
+ *           numbers can be watched over JMX while the run goes and written
+ *           as JSON when it ends.
+ *****************************************************************************/
+public class EncodingStats implements EncodingStatsMXBean
+{
+   /* -CONSTANTS
+   /***************************************************************************
+    * FILE   : file the JSON summary of a run is written to
+    * DOMAIN : JMX domain the statistics are registered under
+    **************************************************************************/
+   public static final String FILE   = "nxnstats";
+   public static final String DOMAIN = "Sudoku";
+
+   /* -VARIABLES- */
+   private String            program; // STRN - program the run belongs to
+   private String            current; // STRN - phase running now, or null
+   private long[]            mark;    // ARRY - nanos, clauses, literals,
+                                      //        bytes and allocation when the
+                                      //        phase began
+   private long              started; // CALC - time the run began
+   private ArrayList<String> phases;  // LIST - phase names
+   private ArrayList<long[]> totals;  // LIST - the same five per phase
+   private long              others;  // CALC - allocation other threads
+                                      //        reported so far
+   private LinkedHashMap<String, Object>   info;    // LIST - run settings
+   private com.sun.management.ThreadMXBean threads; // CALC - allocation
+
+   /* - CONSTRUCTOR -
+   /***************************************************************************
+    * Name       : EncodingStats
+    * Purpose    : Create empty statistics for a run.
+    * Parameters : program -> program the run belongs to
+    **************************************************************************/
+   public EncodingStats(String program)
+   {
+      // INITIALIZE
+      this.program = program;
+      this.current = null;
+      this.started = System.nanoTime();
+      this.others  = 0;
+      this.phases  = new ArrayList<String>();
+      this.totals  = new ArrayList<long[]>();
+      this.info    = new LinkedHashMap<String, Object>();
+      this.threads = (com.sun.management.ThreadMXBean)
+                        ManagementFactory.getThreadMXBean();
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : register
+    * Purpose    : This method makes the statistics visible over JMX as
+    *                 "Sudoku:type=EncodingStats,name=<program>". A name that
+    *                 is already taken is replaced.
+    * Parameters : none
+    * Return     : void
+    **************************************************************************/
+   public void register()
+   {
+      ObjectName name; // CALC - name of the bean
+
+      // TRY - register with the platform server
+      try
+      {
+         name = new ObjectName(DOMAIN + ":type=EncodingStats,name=" + program);
+
+         if(ManagementFactory.getPlatformMBeanServer().isRegistered(name))
+         {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+         }
+
+         ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+      }
+      catch(Exception ex)
+      {
+         System.out.println("~~~~~~~~~~ ERROR REGISTERING STATISTICS ~~~~~~~~~~");
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : put
+    * Purpose    : This method records a setting of the run for the summary.
+    *                 Booleans, numbers and null are kept as they are, so
+    *                 the JSON shows them bare; anything else is kept as its
+    *                 string.
+    * Parameters : key   -> name of the setting
+    *              value -> value of the setting
+    * Return     : void
+    **************************************************************************/
+   public synchronized void put(String key, Object value)
+   {
+      info.put(key, (value == null || value instanceof Boolean
+                     || value instanceof Number) ? value : value.toString());
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : begin
+    * Purpose    : This method opens a phase, closing any phase still open
+    * Parameters : phase    -> name of the phase
+    *              clauses  -> clauses generated so far
+    *              literals -> literals generated so far
+    *              bytes    -> bytes written so far
+    * Return     : void
+    **************************************************************************/
+   public synchronized void begin(String phase, long clauses, long literals,
+                                  long bytes)
+   {
+      if(current != null)
+      {
+         end(clauses, literals, bytes);
+      }
+
+      current = phase;
+      mark    = new long[] {System.nanoTime(), clauses, literals, bytes,
+                            allocated()};
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : end
+    * Purpose    : This method closes the open phase and charges it with
+    *                 everything since it began
+    * Parameters : clauses  -> clauses generated so far
+    *              literals -> literals generated so far
+    *              bytes    -> bytes written so far
+    * Return     : void
+    **************************************************************************/
+   public synchronized void end(long clauses, long literals, long bytes)
+   {
+      long[] total; // ARRY - totals of the phase
+      long[] now;   // ARRY - the same five counts now
+
+      // IF - no phase is open
+      if(current == null)
+      {
+         return;
+      }
+
+      // INITIALIZE
+      now   = new long[] {System.nanoTime(), clauses, literals, bytes,
+                          allocated()};
+      total = total(current);
+
+      // FOR - add what changed to the phase
+      for(int index = 0; index < total.length; ++index)
+      {
+         total[index] += now[index] - mark[index];
+      }
+
+      current = null;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : total
+    * Purpose    : returns the totals of a phase, adding it if it is new
+    * Parameters : phase -> name of the phase
+    * Return     : long[] -> nanos, clauses, literals, bytes and allocation
+    **************************************************************************/
+   private long[] total(String phase)
+   {
+      int index = phases.indexOf(phase); // CALC - position of the phase
+
+      if(index < 0)
+      {
+         phases.add(phase);
+         totals.add(new long[5]);
+         index = phases.size() - 1;
+      }
+
+      return totals.get(index);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : allocate
+    * Purpose    : This method charges heap allocated by another thread, such
+    *                 as a worker of a parallel phase, to the open phase
+    * Parameters : bytes -> bytes the thread allocated
+    * Return     : void
+    **************************************************************************/
+   public synchronized void allocate(long bytes)
+   {
+      others += bytes;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : threadAllocated
+    * Purpose    : returns the heap allocated so far by the calling thread,
+    *                 for a worker to measure what it should allocate()
+    * Parameters : none
+    * Return     : long -> bytes allocated, 0 if it cannot be measured
+    **************************************************************************/
+   public static long threadAllocated()
+   {
+      return Math.max(0, ((com.sun.management.ThreadMXBean)
+                          ManagementFactory.getThreadMXBean())
+                         .getCurrentThreadAllocatedBytes());
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : allocated
+    * Purpose    : returns the heap allocated so far by this thread and
+    *                 reported by the others
+    * Parameters : none
+    * Return     : long -> bytes allocated
+    **************************************************************************/
+   private long allocated()
+   {
+      return Math.max(0, threads.getCurrentThreadAllocatedBytes()) + others;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : column
+    * Purpose    : returns one of the five totals of every phase
+    * Parameters : index -> 0 nanos, 1 clauses, 2 literals, 3 bytes,
+    *                       4 allocation
+    * Return     : long[] -> that total per phase
+    **************************************************************************/
+   private synchronized long[] column(int index)
+   {
+      long[] values = new long[totals.size()]; // ARRY - total per phase
+
+      for(int phase = 0; phase < values.length; ++phase)
+      {
+         values[phase] = totals.get(phase)[index];
+      }
+
+      return values;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : getCurrentPhase
+    * Purpose    : returns the phase running now
+    * Parameters : none
+    * Return     : String -> name of the phase, or "" between phases
+    **************************************************************************/
+   public synchronized String getCurrentPhase()
+   {
+      return (current == null) ? "" : current;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : getPhases
+    * Purpose    : returns the names of the phases run so far
+    * Parameters : none
+    * Return     : String[] -> phase names in the order first run
+    **************************************************************************/
+   public synchronized String[] getPhases()
+   {
+      return phases.toArray(new String[0]);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : getWallNanos
+    * Purpose    : returns the wall time of each phase
+    * Parameters : none
+    * Return     : long[] -> nanoseconds per phase
+    **************************************************************************/
+   public long[] getWallNanos()
+   {
+      return column(0);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : getClauses
+    * Purpose    : returns the clauses generated in each phase
+    * Parameters : none
+    * Return     : long[] -> clauses per phase
+    **************************************************************************/
+   public long[] getClauses()
+   {
+      return column(1);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : getLiterals
+    * Purpose    : returns the literals generated in each phase
+    * Parameters : none
+    * Return     : long[] -> literals per phase
+    **************************************************************************/
+   public long[] getLiterals()
+   {
+      return column(2);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : getBytesWritten
+    * Purpose    : returns the bytes written in each phase
+    * Parameters : none
+    * Return     : long[] -> bytes per phase
+    **************************************************************************/
+   public long[] getBytesWritten()
+   {
+      return column(3);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : getAllocatedBytes
+    * Purpose    : returns the heap allocated in each phase
+    * Parameters : none
+    * Return     : long[] -> bytes per phase
+    **************************************************************************/
+   public long[] getAllocatedBytes()
+   {
+      return column(4);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : toJson
+    * Purpose    : returns the program, the settings, the run's wall time
+    *                 and an object per phase as one line of JSON
+    * Parameters : none
+    * Return     : String -> JSON object
+    **************************************************************************/
+   public synchronized String toJson()
+   {
+      StringBuilder json;  // STRN - JSON being built
+      long[]        total; // ARRY - totals of the current phase
+
+      // INITIALIZE
+      json = new StringBuilder("{\"program\":");
+      quote(json, program).append(",\"wallNanos\":")
+                          .append(System.nanoTime() - started);
+
+      // FOR - each setting, null, booleans and finite numbers left bare
+      for(Map.Entry<String, Object> entry : info.entrySet())
+      {
+         quote(json.append(','), entry.getKey()).append(':');
+
+         if(entry.getValue() == null || entry.getValue() instanceof Boolean
+            || (entry.getValue() instanceof Number
+                && Double.isFinite(((Number)entry.getValue()).doubleValue())))
+         {
+            json.append(entry.getValue());
+         }
+         else
+         {
+            quote(json, entry.getValue().toString());
+         }
+      }
+
+      json.append(",\"phases\":[");
+
+      // FOR - each phase
+      for(int phase = 0; phase < phases.size(); ++phase)
+      {
+         total = totals.get(phase);
+
+         quote(json.append(phase == 0 ? "" : ",").append("{\"name\":"),
+               phases.get(phase))
+             .append(",\"wallNanos\":").append(total[0])
+             .append(",\"clauses\":").append(total[1])
+             .append(",\"literals\":").append(total[2])
+             .append(",\"bytesWritten\":").append(total[3])
+             .append(",\"allocatedBytes\":").append(total[4]).append('}');
+      }
+
+      return json.append("]}").toString();
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : quote
+    * Purpose    : This method appends a JSON string, escaping quotes,
+    *                 backslashes and every control character as RFC 8259
+    *                 asks
+    * Parameters : json -> JSON being built
+    *              text -> string to append
+    * Return     : StringBuilder -> json, to chain on
+    **************************************************************************/
+   private static StringBuilder quote(StringBuilder json, String text)
+   {
+      char letter; // CALC - character being appended
+
+      json.append('"');
+
+      // FOR - each character, escaped if it must be
+      for(int index = 0; index < text.length(); ++index)
+      {
+         letter = text.charAt(index);
+
+         if(letter == '"' || letter == '\\')
+         {
+            json.append('\\').append(letter);
+         }
+         else if(letter == '\n')
+         {
+            json.append("\\n");
+         }
+         else if(letter == '\t')
+         {
+            json.append("\\t");
+         }
+         else if(letter == '\r')
+         {
+            json.append("\\r");
+         }
+         else if(letter < 0x20)
+         {
+            json.append(String.format("\\u%04x", (int)letter));
+         }
+         else
+         {
+            json.append(letter);
+         }
+      }
+
+      return json.append('"');
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : write
+    * Purpose    : This method writes the JSON summary to a file
+    * Parameters : file -> file to write
+    * Return     : void
+    **************************************************************************/
+   public void write(String file)
+   {
+      // TRY - one line of JSON
+      try(PrintWriter out = new PrintWriter(new FileWriter(file)))
+      {
+         out.println(toJson());
+      }
+      catch(Exception ex)
+      {
+         System.out.println("~~~~~~~~~~ ERROR WRITING TO FILE ~~~~~~~~~~");
+      }
+   }
+}
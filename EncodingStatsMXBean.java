@@ -0,0 +1,90 @@
+/*
+/******************************************************************************
+ * Name            : Eric Olaveson
+ * Date            : October 18, 2026
+ *
+ * This program will define what a run's phase statistics show over JMX.
+ *****************************************************************************/
+
+/* - INTERFACE -
+/******************************************************************************
+ * Name    : EncodingStatsMXBean
+ * Purpose : This interface is the management view of EncodingStats. Each
+ *           array holds one entry per finished phase, in the order of
+ *           getPhases(), so a JMX console can watch a long encoding move
+ *           from phase to phase.
+ *****************************************************************************/
+public interface EncodingStatsMXBean
+{
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : getCurrentPhase
+    * Purpose    : returns the phase running now
+    * Parameters : none
+    * Return     : String -> name of the phase, or "" between phases
+    **************************************************************************/
+   public String getCurrentPhase();
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : getPhases
+    * Purpose    : returns the names of the finished phases
+    * Parameters : none
+    * Return     : String[] -> phase names in the order first run
+    **************************************************************************/
+   public String[] getPhases();
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : getWallNanos
+    * Purpose    : returns the wall time of each phase
+    * Parameters : none
+    * Return     : long[] -> nanoseconds per phase
+    **************************************************************************/
+   public long[] getWallNanos();
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : getClauses
+    * Purpose    : returns the clauses generated in each phase
+    * Parameters : none
+    * Return     : long[] -> clauses per phase
+    **************************************************************************/
+   public long[] getClauses();
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : getLiterals
+    * Purpose    : returns the literals generated in each phase
+    * Parameters : none
+    * Return     : long[] -> literals per phase
+    **************************************************************************/
+   public long[] getLiterals();
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : getBytesWritten
+    * Purpose    : returns the bytes written to a file in each phase
+    * Parameters : none
+    * Return     : long[] -> bytes per phase
+    **************************************************************************/
+   public long[] getBytesWritten();
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : getAllocatedBytes
+    * Purpose    : returns the heap allocated in each phase
+    * Parameters : none
+    * Return     : long[] -> bytes per phase, summed over live threads
+    **************************************************************************/
+   public long[] getAllocatedBytes();
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : toJson
+    * Purpose    : returns the whole summary as JSON
+    * Parameters : none
+    * Return     : String -> JSON object
+    **************************************************************************/
+   public String toJson();
+}
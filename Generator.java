@@ -0,0 +1,500 @@
+/*
+/******************************************************************************
+ * Name            : Eric Olaveson
+ * Date            : October 18, 2026
+ *
+ * This program will generate sudoku puzzles with exactly one solution, in
+ *    parallel, and write them one per line.
+ *****************************************************************************/
+import java.io.*;
+import java.util.ArrayDeque;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/* - CLASS -
+/******************************************************************************
+ * Name    : Generator
+ * Purpose : This class encapsulates a generator run. A puzzle starts as a
+ *           random full grid: the empty grid solved by BitboardSolver with
+ *           its branch values tried in random order. Its tiles are then
+ *           visited in random order and each is cleared if the puzzle still
+ *           has one solution without it. The full grid is already one
+ *           solution, so the check only asks whether any other value can
+ *           go in the cleared tile: each value no given in its units rules
+ *           out is tried with a search that stops at its first solution.
+ *           A clue that had to stay is still needed once others are gone,
+ *           so one pass leaves a minimal puzzle, unless a clue count is
+ *           asked for, in which case clearing stops there and a grid that
+ *           cannot get that low is thrown away. Minimal 16x16 puzzles take
+ *           long searches to prove; a clue count keeps them quick.
+ *
+ *           Puzzles are made in batches, each a task on a work-stealing
+ *           pool with an engine per worker thread and a SplittableRandom
+ *           split off the seed's in batch order. The batches are written in
+ *           that order too, so a seed makes the same file on any number of
+ *           threads.
+ *****************************************************************************/
+public class Generator
+{
+   /* -CONSTANTS
+   /***************************************************************************
+    * BATCH       : puzzles made by one task
+    * IN_FLIGHT   : batches queued per worker before the oldest is written
+    * BUFFER_SIZE : bytes buffered before the output is written
+    **************************************************************************/
+   public static final int BATCH       = 32;
+   public static final int IN_FLIGHT   = 4;
+   public static final int BUFFER_SIZE = 1 << 16;
+
+   /* -VARIABLES- */
+   private int              size;     // CALC - size of sudoku puzzle
+   private int              clues;    // CALC - givens to stop at, 0 for
+                                      //        minimal puzzles
+   private SplittableRandom seed;     // CALC - source each batch splits from
+   private ForkJoinPool     pool;     // CALC - workers making batches
+   private long             rejected; // CALC - grids thrown away so far
+
+   /* - CONSTRUCTOR -
+   /***************************************************************************
+    * Name       : Generator
+    * Purpose    : Create a generator run on a pool of worker threads.
+    * Parameters : size    -> size of the sudoku puzzles
+    *              clues   -> givens to stop at, 0 for minimal puzzles
+    *              seed    -> seed of the run
+    *              threads -> number of workers
+    **************************************************************************/
+   public Generator(int size, int clues, long seed, int threads)
+   {
+      // INITIALIZE
+      this.size     = size;
+      this.clues    = clues;
+      this.seed     = new SplittableRandom(seed);
+      this.pool     = new ForkJoinPool(threads);
+      this.rejected = 0;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : generate
+    * Purpose    : This method makes one puzzle with one solution
+    * Parameters : solver -> engine for the puzzle's size
+    *              random -> random source of the puzzle
+    *              clues  -> givens to stop at, 0 for a minimal puzzle
+    *              grid   -> scratch of size squared tiles
+    * Return     : Puzzle -> the puzzle, or null if it could not get down
+    *                        to clues givens
+    **************************************************************************/
+   public static Puzzle generate(BitboardSolver solver, SplittableRandom random,
+                                 int clues, int[] grid)
+   {
+      Puzzle puzzle; // CALC - puzzle being cleared
+      int[]  tiles;  // ARRY - its tiles, cleared in place
+      int[]  order;  // ARRY - tiles in the order they are tried
+      int    count;  // CALC - givens left
+      int    keep;   // CALC - value of the tile being tried
+      int    other;  // CALC - value tried in its place
+      int    size;   // CALC - size of sudoku puzzle
+      long   free;   // CALC - values no other given rules out
+
+      // INITIALIZE - a random full grid
+      size   = (int)Math.round(Math.sqrt(grid.length));
+      tiles  = new int[grid.length];
+      puzzle = new Puzzle(size, tiles);
+      order  = new int[grid.length];
+      count  = grid.length;
+
+      solver.setRandom(random);
+      solver.solve(puzzle, 1, tiles);
+      solver.setRandom(null);
+
+      // FOR - shuffle the tiles
+      for(int index = 0; index < order.length; ++index)
+      {
+         int swap = random.nextInt(index + 1);
+
+         order[index] = order[swap];
+         order[swap]  = index;
+      }
+
+      // FOR - clear each tile the solution does not depend on
+      for(int index = 0; index < order.length && count > clues; ++index)
+      {
+         keep  = tiles[order[index]];
+         other = 0;
+         free  = candidates(tiles, order[index], size);
+
+         // WHILE - the puzzle stays unique if no other value can go here
+         while(++other <= size)
+         {
+            tiles[order[index]] = other;
+
+            if(other != keep && (free & (1L << (other - 1))) != 0
+               && solver.solve(puzzle, 1, grid) > 0)
+            {
+               break;
+            }
+         }
+
+         tiles[order[index]] = (other > size) ? 0 : keep;
+         count              -= (other > size) ? 1 : 0;
+      }
+
+      return (count > clues && clues > 0) ? null : puzzle;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : candidates
+    * Purpose    : returns the values no given in a tile's row, column or
+    *                 block rules out, so only those need a search
+    * Parameters : tiles -> tiles row by row, 0 when empty
+    *              tile  -> tile to look at
+    *              size  -> size of sudoku puzzle
+    * Return     : long  -> bit v-1 set for each value v still possible
+    **************************************************************************/
+   private static long candidates(int[] tiles, int tile, int size)
+   {
+      int  row;   // CALC - row of the tile
+      int  col;   // CALC - column of the tile
+      int  side;  // CALC - size of each sudoku block
+      int  first; // CALC - top left tile of the tile's block
+      long used;  // CALC - values the tile's units already hold
+
+      // INITIALIZE
+      row   = tile / size;
+      col   = tile % size;
+      side  = (int)Math.round(Math.sqrt(size));
+      first = ((row - (row % side)) * size) + (col - (col % side));
+      used  = 0;
+
+      // FOR - the tile's row, column and block
+      for(int index = 0; index < size; ++index)
+      {
+         used |= 1L << tiles[(row * size) + index]
+              |  1L << tiles[(index * size) + col]
+              |  1L << tiles[first + ((index / side) * size) + (index % side)];
+      }
+
+      return ~(used >>> 1);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : run
+    * Purpose    : This method makes puzzles and writes them to a file in
+    *                 line format, one per line.
+    * Parameters : count  -> number of puzzles to make
+    *              output -> file to write them to
+    * Return     : long   -> number of puzzles written
+    **************************************************************************/
+   public long run(long count, String output) throws IOException
+   {
+      OutputStream                    out;     // WRIT - buffered output
+      ArrayDeque<ForkJoinTask<Batch>> queue;   // LIST - batches in order
+      long                            written; // CALC - puzzles written
+
+      // INITIALIZE
+      out     = new BufferedOutputStream(new FileOutputStream(output),
+                                         BUFFER_SIZE);
+      queue   = new ArrayDeque<ForkJoinTask<Batch>>();
+      written = 0;
+
+      // TRY - submit batches in order, writing the oldest as the queue fills
+      try
+      {
+         for(long start = 0; start < count; start += BATCH)
+         {
+            queue.add(pool.submit(new Batch((int)Math.min(BATCH, count - start),
+                                            seed.split())));
+
+            if(queue.size() >= IN_FLIGHT * pool.getParallelism())
+            {
+               written += write(queue.poll().join(), out);
+            }
+         }
+
+         // WHILE - write the batches still in flight
+         while(!queue.isEmpty())
+         {
+            written += write(queue.poll().join(), out);
+         }
+      }
+      finally
+      {
+         out.close();
+      }
+
+      return written;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : write
+    * Purpose    : This method writes one finished batch out
+    * Parameters : batch -> finished batch
+    *              out   -> buffered output
+    * Return     : int   -> puzzles written
+    **************************************************************************/
+   private int write(Batch batch, OutputStream out) throws IOException
+   {
+      out.write(batch.lines);
+      rejected += batch.rejected;
+
+      return batch.count;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : rejected
+    * Purpose    : returns the grids thrown away for not reaching the clue
+    *                 count
+    * Parameters : none
+    * Return     : long -> grids thrown away
+    **************************************************************************/
+   public long rejected()
+   {
+      return rejected;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : shutdown
+    * Purpose    : This method stops the worker threads
+    * Parameters : none
+    * Return     : void
+    **************************************************************************/
+   public void shutdown()
+   {
+      pool.shutdown();
+   }
+
+   /* - CLASS -
+   /***************************************************************************
+    * Name    : Batch
+    * Purpose : This class is the task for one batch of puzzles. Its lines
+    *           are kept as bytes until the batch is written.
+    **************************************************************************/
+   private class Batch extends RecursiveTask<Batch>
+   {
+      /* -CONSTANTS
+      /************************************************************************
+       * serialVersionUID : tasks are serializable, batches are never written
+       ***********************************************************************/
+      private static final long serialVersionUID = 1L;
+
+      /* -VARIABLES- */
+      private int              count;    // CALC - puzzles to make
+      private SplittableRandom random;   // CALC - random source of the batch
+      private byte[]           lines;    // ARRY - puzzles made, as lines
+      private long             rejected; // CALC - grids thrown away
+
+      /* - CONSTRUCTOR -
+      /************************************************************************
+       * Name       : Batch
+       * Purpose    : Create a batch.
+       * Parameters : count  -> puzzles to make
+       *              random -> random source of the batch
+       ***********************************************************************/
+      Batch(int count, SplittableRandom random)
+      {
+         this.count  = count;
+         this.random = random;
+      }
+
+      /* - METHOD -
+       ************************************************************************
+       * Name       : compute
+       * Purpose    : This method makes the batch's puzzles on this worker's
+       *                 engine
+       * Parameters : none
+       * Return     : Batch -> this batch, made
+       ***********************************************************************/
+      protected Batch compute()
+      {
+         BitboardSolver solver; // CALC - this worker's engine
+         int[]          grid;   // ARRY - this worker's scratch grid
+         Puzzle         puzzle; // CALC - puzzle made
+         byte[]         text;   // ARRY - lines being built
+         int            used;   // CALC - bytes of text used
+
+         // INITIALIZE
+         solver = Workers.get().solver(size);
+         grid   = Workers.get().grid(size);
+         text   = new byte[count * ((size * size) + 1)];
+         used   = 0;
+
+         // FOR - each puzzle of the batch, retrying grids that fall short
+         for(int made = 0; made < count; ++made)
+         {
+            while((puzzle = generate(solver, random, clues, grid)) == null)
+            {
+               ++rejected;
+            }
+
+            for(int tile : puzzle.tiles())
+            {
+               text[used++] = (byte)Puzzle.symbol(tile);
+            }
+
+            text[used++] = '\n';
+         }
+
+         lines = text;
+
+         return this;
+      }
+   }
+
+   /* - CLASS -
+   /***************************************************************************
+    * Name    : Workers
+    * Purpose : This class holds what each worker thread keeps between
+    *           batches: one engine and one scratch grid per size.
+    **************************************************************************/
+   private static class Workers
+   {
+      /* -VARIABLES- */
+      private static final ThreadLocal<Workers> LOCAL =
+         ThreadLocal.withInitial(Workers::new);
+
+      private BitboardSolver[] solvers =
+         new BitboardSolver[BitboardSolver.MAX_SIZE + 1];
+      private int[][]          grids   = new int[BitboardSolver.MAX_SIZE + 1][];
+
+      /* - METHOD -
+       ************************************************************************
+       * Name       : get
+       * Purpose    : returns the calling thread's state
+       * Parameters : none
+       * Return     : Workers -> state of this thread
+       ***********************************************************************/
+      static Workers get()
+      {
+         return LOCAL.get();
+      }
+
+      /* - METHOD -
+       ************************************************************************
+       * Name       : solver
+       * Purpose    : returns this thread's engine for a size
+       * Parameters : size -> size of sudoku puzzle
+       * Return     : BitboardSolver -> engine, built on first use
+       ***********************************************************************/
+      BitboardSolver solver(int size)
+      {
+         if(solvers[size] == null)
+         {
+            solvers[size] = new BitboardSolver(size);
+         }
+
+         return solvers[size];
+      }
+
+      /* - METHOD -
+       ************************************************************************
+       * Name       : grid
+       * Purpose    : returns this thread's scratch grid for a size
+       * Parameters : size  -> size of sudoku puzzle
+       * Return     : int[] -> grid of size squared tiles
+       ***********************************************************************/
+      int[] grid(int size)
+      {
+         if(grids[size] == null)
+         {
+            grids[size] = new int[size * size];
+         }
+
+         return grids[size];
+      }
+   }
+
+   /* - MAIN -
+    ***************************************************************************
+    * Name       : main
+    * Purpose    : This method makes puzzles and prints how many were made
+    *                 and how fast.
+    * Parameters : args -> "-size <n>" size of the puzzles (9), "-count <n>"
+    *                         puzzles to make (1000), "-clues <n>" givens to
+    *                         stop at instead of minimal puzzles, "-seed <n>"
+    *                         seed of the run, "-threads <n>" workers,
+    *                         "-out <file>" file to write ("nxnpuzzles")
+    * Return     : void
+    **************************************************************************/
+   public static void main(String[] args)
+   {
+      int       size    = Sudoku.N_BY_N_SIZE; // CALC - size of the puzzles
+      long      count   = 1000;               // CALC - puzzles to make
+      int       clues   = 0;                  // CALC - givens to stop at
+      long      seed    = System.nanoTime();  // CALC - seed of the run
+      String    output  = "nxnpuzzles";       // STRN - file to write
+      int       threads;                      // CALC - workers
+      long      start;                        // CALC - time the run began
+      long      made;                         // CALC - puzzles written
+      double    seconds;                      // CALC - time the run took
+      Generator generator;                    // CALC - the run
+
+      // INITIALIZE
+      threads = Runtime.getRuntime().availableProcessors();
+
+      // FOR - read command line options
+      for(int index = 0; index < args.length; ++index)
+      {
+         if(args[index].equals("-size") && index + 1 < args.length)
+         {
+            size = Integer.parseInt(args[++index]);
+         }
+         else if(args[index].equals("-count") && index + 1 < args.length)
+         {
+            count = Long.parseLong(args[++index]);
+         }
+         else if(args[index].equals("-clues") && index + 1 < args.length)
+         {
+            clues = Integer.parseInt(args[++index]);
+         }
+         else if(args[index].equals("-seed") && index + 1 < args.length)
+         {
+            seed = Long.parseLong(args[++index]);
+         }
+         else if(args[index].equals("-threads") && index + 1 < args.length)
+         {
+            threads = Integer.parseInt(args[++index]);
+         }
+         else if(args[index].equals("-out") && index + 1 < args.length)
+         {
+            output = args[++index];
+         }
+      }
+
+      // IF - the puzzles could not be written one per line
+      if(size > Puzzle.MAX_LINE_SIZE)
+      {
+         System.out.println("~~~~~~~~~~ SIZE ABOVE " + Puzzle.MAX_LINE_SIZE
+                            + " ~~~~~~~~~~");
+         return;
+      }
+
+      generator = new Generator(size, clues, seed, threads);
+
+      // TRY - make the puzzles
+      try
+      {
+         start   = System.nanoTime();
+         made    = generator.run(count, output);
+         seconds = (System.nanoTime() - start) / 1e9;
+
+         System.out.printf("%d puzzles of %dx%d in %.2f s, %.0f puzzles/s, "
+                           + "%d grids rejected, seed %d%n", made, size, size,
+                           seconds, made / seconds, generator.rejected(), seed);
+      }
+      catch(Exception ex)
+      {
+         System.out.println("~~~~~~~~~~ ERROR WRITING TO FILE ~~~~~~~~~~");
+      }
+      finally
+      {
+         generator.shutdown();
+      }
+   }
+}
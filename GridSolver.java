@@ -0,0 +1,53 @@
+/*
+/******************************************************************************
+ * Name            : Eric Olaveson
+ * Date            : October 18, 2026
+ *
+ * This program will define the engines that solve a sudoku grid directly,
+ *    without going through a CNF encoding.
+ *****************************************************************************/
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/* - INTERFACE -
+/******************************************************************************
+ * Name    : GridSolver
+ * Purpose : This interface is implemented by every direct solving engine.
+ *           An engine is built once for a size and reused for any number of
+ *           puzzles of that size.
+ *****************************************************************************/
+public interface GridSolver
+{
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : solve
+    * Purpose    : This method searches for solutions of a puzzle, stopping
+    *                 once limit of them are found. The first solution is
+    *                 written into grid.
+    * Parameters : puzzle -> givens to start from
+    *              limit  -> solutions to look for, 1 to just solve
+    *              grid   -> receives the first solution row by row
+    * Return     : int    -> solutions found, at most limit; 0 if none
+    **************************************************************************/
+   public int solve(Puzzle puzzle, int limit, int[] grid);
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : setStop
+    * Purpose    : This method gives the engine a flag it polls while it
+    *                 searches. Once the flag is set, solve() gives up and
+    *                 returns the solutions found so far, so a caller that
+    *                 sets it must not take 0 as proof there are none.
+    * Parameters : stop -> flag that stops the search, or null for none
+    * Return     : void
+    **************************************************************************/
+   public void setStop(AtomicBoolean stop);
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : nodes
+    * Purpose    : returns the number of search nodes visited so far
+    * Parameters : none
+    * Return     : long -> search nodes
+    **************************************************************************/
+   public long nodes();
+}
@@ -0,0 +1,427 @@
+/*
+/******************************************************************************
+ * Name            : Eric Olaveson
+ * Date            : October 18, 2026
+ *
+ * This program will keep one SAT solver loaded with the rules of a size and
+ *    solve puzzle after puzzle, or edit after edit, by assuming the givens.
+ *****************************************************************************/
+import java.io.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/* - CLASS -
+/******************************************************************************
+ * Name    : IncrementalSolver
+ * Purpose : This class encapsulates a warm SatSolver. The rule clauses are
+ *           added once; each puzzle's givens are passed to solve() as
+ *           assumptions rather than clauses, so everything the solver learns
+ *           follows from the rules alone and is kept for the next puzzle.
+ *           Saved phases start the next search from the last solution, which
+ *           is what makes re-solving after a one tile edit fast, and an edit
+ *           the last solution already agrees with needs no search at all.
+ *           Solutions are counted with blocking clauses that are switched on
+ *           by a fresh guard variable per count, assumed true while counting
+ *           and then fixed false, so no count changes the rules for the
+ *           next puzzle.
+ *****************************************************************************/
+public class IncrementalSolver
+{
+   /* -VARIABLES- */
+   private int         size;    // CALC - size of sudoku puzzle
+   private VariableMap map;     // CALC - numbering of tile variables
+   private SatSolver   solver;  // CALC - solver holding the rules
+   private int[]       givens;  // ARRY - current given of each tile
+   private int[]       assumed; // ARRY - literal of each given
+   private int[]       grid;    // ARRY - last solution found
+   private boolean     solved;  // BOOL - grid solves the current givens
+   private int[]       block;   // ARRY - blocking clause being built
+   private int         nextVar; // CALC - next unused guard variable
+
+   /* - CONSTRUCTOR -
+   /***************************************************************************
+    * Name       : IncrementalSolver
+    * Purpose    : Create a solver loaded with the rules of a template.
+    * Parameters : rules -> rule clauses of one size and encoding
+    **************************************************************************/
+   public IncrementalSolver(RuleTemplate rules) throws IOException
+   {
+      // INITIALIZE
+      this.size    = rules.size();
+      this.map     = new VariableMap(size);
+      this.solver  = new SatSolver();
+      this.givens  = new int[size * size];
+      this.assumed = new int[(size * size) + 1];
+      this.grid    = new int[size * size];
+      this.solved  = false;
+      this.block   = new int[(size * size) + 1];
+      this.nextVar = rules.variables() + 1;
+
+      rules.writeTo(solver);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : solve
+    * Purpose    : This method solves a new puzzle
+    * Parameters : puzzle -> givens to start from
+    *              out    -> receives the solution row by row
+    * Return     : int    -> SatSolver.SAT, UNSAT, or UNKNOWN if stopped
+    **************************************************************************/
+   public int solve(Puzzle puzzle, int[] out)
+   {
+      System.arraycopy(puzzle.tiles(), 0, givens, 0, givens.length);
+
+      return resolve(out);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : count
+    * Purpose    : This method counts the solutions of a puzzle, stopping
+    *                 once limit of them are found; a limit of 2 asks whether
+    *                 the solution is unique. After each solution a clause
+    *                 ruling it out is added over the tiles without a given,
+    *                 the only tiles two solutions can differ on.
+    * Parameters : puzzle -> givens to start from
+    *              limit  -> solutions to look for
+    *              out    -> receives the first solution row by row
+    * Return     : int    -> solutions found, at most limit; 0 if none
+    **************************************************************************/
+   public int count(Puzzle puzzle, int limit, int[] out)
+   {
+      int found;  // CALC - solutions found
+      int guard;  // CALC - switches this count's blocking clauses on
+      int count;  // CALC - literals assumed
+      int length; // CALC - literals in the blocking clause
+
+      // INITIALIZE
+      found = (solve(puzzle, out) == SatSolver.SAT) ? 1 : 0;
+
+      // IF - nothing more to look for
+      if(found == 0 || found >= limit)
+      {
+         return found;
+      }
+
+      // INITIALIZE
+      guard            = nextVar++;
+      count            = assume();
+      assumed[count++] = guard;
+
+      // WHILE - rule out the last solution and look for another
+      while(found < limit)
+      {
+         length          = 0;
+         block[length++] = -guard;
+
+         for(int tile = 0; tile < givens.length; ++tile)
+         {
+            if(givens[tile] == 0)
+            {
+               block[length++] = -map.variable((tile / size) + 1,
+                                               (tile % size) + 1, grid[tile]);
+            }
+         }
+
+         // IF - every tile is given, so there is no other solution
+         if(length == 1)
+         {
+            break;
+         }
+
+         solver.addClause(block, length);
+
+         if(solver.solve(assumed, count) != SatSolver.SAT)
+         {
+            break;
+         }
+
+         read();
+         ++found;
+      }
+
+      // retire the blocking clauses and go back to the first solution
+      block[0] = -guard;
+      solver.addClause(block, 1);
+      System.arraycopy(out, 0, grid, 0, grid.length);
+
+      return found;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : edit
+    * Purpose    : This method changes one given of the current puzzle and
+    *                 solves it again.
+    * Parameters : row   -> row of tile, 1 to size
+    *              col   -> column of tile, 1 to size
+    *              value -> new given, 0 to clear the tile
+    *              out   -> receives the solution row by row
+    * Return     : int   -> SatSolver.SAT, UNSAT, or UNKNOWN if stopped
+    **************************************************************************/
+   public int edit(int row, int col, int value, int[] out)
+   {
+      int tile; // CALC - tile index, row by row
+
+      // IF - not a tile of the puzzle, or not a value it can hold
+      if(row < 1 || row > size || col < 1 || col > size)
+      {
+         throw new IllegalArgumentException("no tile " + row + " " + col);
+      }
+      else if(value < 0 || value > size)
+      {
+         throw new IllegalArgumentException("value out of range: " + value);
+      }
+
+      // INITIALIZE
+      tile         = ((row - 1) * size) + (col - 1);
+      givens[tile] = value;
+
+      // IF - the last solution still fits, there is nothing to search
+      if(solved && (value == 0 || grid[tile] == value))
+      {
+         System.arraycopy(grid, 0, out, 0, grid.length);
+         return SatSolver.SAT;
+      }
+
+      return resolve(out);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : resolve
+    * Purpose    : This method solves under the current givens
+    * Parameters : out -> receives the solution row by row
+    * Return     : int -> SatSolver.SAT, UNSAT, or UNKNOWN if stopped
+    **************************************************************************/
+   private int resolve(int[] out)
+   {
+      int status; // CALC - result of the solver
+
+      // INITIALIZE
+      status = solver.solve(assumed, assume());
+      solved = (status == SatSolver.SAT);
+
+      // IF - read each tile's value out of the model
+      if(solved)
+      {
+         read();
+         System.arraycopy(grid, 0, out, 0, grid.length);
+      }
+
+      return status;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : assume
+    * Purpose    : This method fills the assumptions with the current givens
+    * Parameters : none
+    * Return     : int -> givens assumed
+    **************************************************************************/
+   private int assume()
+   {
+      int count = 0; // CALC - givens assumed
+
+      // FOR - assume each given
+      for(int tile = 0; tile < givens.length; ++tile)
+      {
+         if(givens[tile] != 0)
+         {
+            assumed[count++] = map.variable((tile / size) + 1,
+                                            (tile % size) + 1, givens[tile]);
+         }
+      }
+
+      return count;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : read
+    * Purpose    : This method reads each tile's value out of the model
+    * Parameters : none
+    * Return     : void
+    **************************************************************************/
+   private void read()
+   {
+      // FOR - the one true variable of each tile
+      for(int tile = 0; tile < grid.length; ++tile)
+      {
+         int first = map.variable((tile / size) + 1, (tile % size) + 1, 1);
+
+         for(int value = 1; value <= size; ++value)
+         {
+            if(solver.modelValue(first + value - 1))
+            {
+               grid[tile] = value;
+               break;
+            }
+         }
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : setStop
+    * Purpose    : This method sets the flag that ends a solve, see
+    *                 SatSolver.setStop()
+    * Parameters : stop -> flag that ends a solve, or null for none
+    * Return     : void
+    **************************************************************************/
+   public void setStop(AtomicBoolean stop)
+   {
+      solver.setStop(stop);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : conflicts
+    * Purpose    : returns the conflicts the solver has met over all puzzles
+    * Parameters : none
+    * Return     : long -> conflicts
+    **************************************************************************/
+   public long conflicts()
+   {
+      return solver.conflicts();
+   }
+
+   /* - MAIN -
+    ***************************************************************************
+    * Name       : main
+    * Purpose    : This method solves a puzzle and then reads edits from
+    *                 standard input, one "row col value" per line, printing
+    *                 the solution in line format and the time taken after
+    *                 each one. A bad line is reported and skipped.
+    * Parameters : args -> "-puzzle <file>" gives the starting puzzle,
+    *                         "-amo <name>" and "-profile <name>" pick the
+    *                         encoding, "-rules <dir>" keeps its rule
+    *                         template in dir
+    * Return     : void
+    **************************************************************************/
+   public static void main(String[] args)
+   {
+      String            amo    = "pairwise"; // STRN - at-most-one encoding
+      String            family = "extended"; // STRN - encoding profile
+      Puzzle            puzzle = null;       // CALC - starting puzzle
+      int               size;                // CALC - size of sudoku puzzle
+      int[]             out;                 // ARRY - current solution
+      int               status;              // CALC - result of each solve
+      long              start;               // CALC - time an edit began
+      String            line;                // TMP  - edit being read
+      BufferedReader    reader;              // READ - reads the edits
+      IncrementalSolver warm;                // CALC - warm solver
+
+      // FOR - read command line options
+      for(int index = 0; index < args.length; ++index)
+      {
+         if(args[index].equals("-amo") && index + 1 < args.length)
+         {
+            amo = args[++index];
+         }
+         else if(args[index].equals("-rules") && index + 1 < args.length)
+         {
+            TemplateCache.setShared(new TemplateCache(args[++index],
+                                       TemplateCache.DEFAULT_BUDGET));
+         }
+         else if(args[index].equals("-profile") && index + 1 < args.length)
+         {
+            family = args[++index];
+         }
+         else if(args[index].equals("-puzzle") && index + 1 < args.length)
+         {
+            // TRY - read the puzzle's givens
+            try
+            {
+               puzzle = Puzzle.read(args[++index]);
+            }
+            catch(Exception ex)
+            {
+               System.out.println("~~~~~~~~~~ ERROR READING PUZZLE ~~~~~~~~~~");
+               return;
+            }
+         }
+      }
+
+      // TRY - solve, then follow the edits
+      try
+      {
+         size   = (puzzle == null) ? Sudoku.N_BY_N_SIZE : puzzle.size();
+         puzzle = (puzzle == null) ? new Puzzle(size, new int[size * size])
+                                   : puzzle;
+         warm   = new IncrementalSolver(TemplateCache.shared()
+                                        .get(size, amo, family));
+         out    = new int[size * size];
+         reader = new BufferedReader(new InputStreamReader(System.in));
+         start  = System.nanoTime();
+         status = warm.solve(puzzle, out);
+
+         print(status, out, start);
+
+         // WHILE - each edit line
+         while((line = reader.readLine()) != null)
+         {
+            String[] edit = line.trim().split("\\s+");
+
+            if(line.trim().isEmpty())
+            {
+               continue;
+            }
+
+            // TRY - apply the edit, reporting a bad one and reading on
+            try
+            {
+               if(edit.length != 3)
+               {
+                  throw new IllegalArgumentException("not row col value");
+               }
+
+               start  = System.nanoTime();
+               status = warm.edit(Integer.parseInt(edit[0]),
+                                  Integer.parseInt(edit[1]),
+                                  Integer.parseInt(edit[2]), out);
+
+               print(status, out, start);
+            }
+            catch(IllegalArgumentException ex)
+            {
+               System.out.println("~~~~~~~~~~ BAD EDIT \"" + line.trim()
+                                  + "\" ~~~~~~~~~~");
+            }
+         }
+      }
+      catch(Exception ex)
+      {
+         System.out.println("~~~~~~~~~~ ERROR READING EDITS ~~~~~~~~~~");
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : print
+    * Purpose    : This method prints one result of main()
+    * Parameters : status -> result of the solve
+    *              out    -> solution row by row
+    *              start  -> time the solve began
+    * Return     : void
+    **************************************************************************/
+   private static void print(int status, int[] out, long start)
+   {
+      StringBuilder text = new StringBuilder(); // STRN - line to print
+
+      if(status == SatSolver.SAT)
+      {
+         for(int index = 0; index < out.length; ++index)
+         {
+            text.append(Puzzle.symbol(out[index]));
+         }
+      }
+      else
+      {
+         text.append("UNSATISFIABLE");
+      }
+
+      text.append(String.format(" %.3f ms", (System.nanoTime() - start) / 1e6));
+      System.out.println(text);
+   }
+}
@@ -0,0 +1,539 @@
+/*
+/******************************************************************************
+ * Name            : Eric Olaveson
+ * Date            : October 18, 2026
+ *
+ * This program will race several engines on the same puzzle, keep the first
+ *    answer that checks out, and stop the rest.
+ *****************************************************************************/
+import java.io.*;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/* - CLASS -
+/******************************************************************************
+ * Name    : Portfolio
+ * Purpose : This class encapsulates a race between entrants, each running
+ *           one engine on a thread of its own:
+ *
+ *              bitboard  -> BitboardSolver, propagation and search
+ *              dlx       -> DancingLinks, exact cover
+ *              sat       -> IncrementalSolver warm with the cached rules
+ *              sat-<amo> -> the puzzle encoded with that at-most-one
+ *                           encoding, preprocessed, and solved by a fresh
+ *                           SatSolver
+ *
+ *           Every entrant of a race shares one stop flag. The first entrant
+ *           to find a solution that isValid() passes, or to prove there is
+ *           none, wins and sets the flag; the time budget sets it too. The
+ *           engines poll the flag, and so do the encoder and preprocessor of
+ *           a sat-<amo> entrant, so losers give up at their next poll and
+ *           the race returns once they all have. Engines are built once per
+ *           entrant and size and kept for the next race, and each race's
+ *           winner is counted so the default engine can be picked from real
+ *           workloads.
+ *****************************************************************************/
+public class Portfolio
+{
+   /* -CONSTANTS
+   /***************************************************************************
+    * ENGINES : entrants raced when none are named
+    * BUDGET  : time budget of a race in ms when none is given
+    * LOG     : file main() appends each race's winner to
+    **************************************************************************/
+   public static final String[] ENGINES = {"bitboard", "dlx", "sat"};
+   public static final long     BUDGET  = 10000;
+   public static final String   LOG     = "nxnwinners";
+
+   /* -VARIABLES- */
+   private Entrant[]       entrants; // ARRY - one per engine raced
+   private long            budget;   // CALC - time budget in ms, 0 for none
+   private ExecutorService pool;     // CALC - a thread per entrant
+   private Timer           timer;    // CALC - stops a race on time
+   private long[]          wins;     // ARRY - races each entrant won
+   private String          winner;   // STRN - winner of the last race
+   private long            elapsed;  // CALC - nanoseconds of the last race
+
+   /* - CONSTRUCTOR -
+   /***************************************************************************
+    * Name       : Portfolio
+    * Purpose    : Create a portfolio of entrants and their threads.
+    * Parameters : engines -> names of the entrants, see the class comment
+    *              budget  -> time budget of a race in ms, 0 for none
+    **************************************************************************/
+   public Portfolio(String[] engines, long budget)
+   {
+      // INITIALIZE
+      this.entrants = new Entrant[engines.length];
+      this.budget   = budget;
+      this.wins     = new long[engines.length];
+
+      for(int index = 0; index < engines.length; ++index)
+      {
+         entrants[index] = new Entrant(engines[index], index);
+      }
+
+      this.pool  = Executors.newFixedThreadPool(engines.length);
+      this.timer = new Timer("portfolio-deadline", true);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : solve
+    * Purpose    : This method races every entrant on a puzzle and waits
+    *                 until the losers have stopped
+    * Parameters : puzzle -> givens to start from
+    *              grid   -> receives the winner's solution row by row
+    * Return     : int    -> SatSolver.SAT, UNSAT, or UNKNOWN if no entrant
+    *                          answered within the budget
+    **************************************************************************/
+   public int solve(Puzzle puzzle, int[] grid) throws InterruptedException
+   {
+      AtomicBoolean              stop;     // BOOL - ends the race
+      CompletionService<Entrant> done;     // LIST - entrants as they finish
+      TimerTask                  deadline; // CALC - sets stop on time
+      Entrant                    finished; // CALC - entrant that finished
+      int                        status;   // CALC - answer of the race
+      long                       start;    // CALC - time the race began
+
+      // INITIALIZE
+      stop   = new AtomicBoolean();
+      done   = new ExecutorCompletionService<Entrant>(pool);
+      winner = null;
+      status = SatSolver.UNKNOWN;
+      start  = System.nanoTime();
+
+      // FOR - start every entrant
+      for(int index = 0; index < entrants.length; ++index)
+      {
+         entrants[index].enter(puzzle, stop);
+         done.submit(entrants[index]);
+      }
+
+      deadline = new TimerTask()
+      {
+         public void run()
+         {
+            stop.set(true);
+         }
+      };
+
+      if(budget > 0)
+      {
+         timer.schedule(deadline, budget);
+      }
+
+      // FOR - take entrants as they finish; the first answer wins
+      for(int index = 0; index < entrants.length; ++index)
+      {
+         // TRY - an entrant that failed has simply lost
+         try
+         {
+            finished = done.take().get();
+         }
+         catch(ExecutionException ex)
+         {
+            continue;
+         }
+
+         if(winner == null && finished.status != SatSolver.UNKNOWN)
+         {
+            stop.set(true);
+            winner  = finished.name;
+            elapsed = System.nanoTime() - start;
+            status  = finished.status;
+            ++wins[finished.index];
+
+            if(status == SatSolver.SAT)
+            {
+               System.arraycopy(finished.grid, 0, grid, 0, grid.length);
+            }
+         }
+      }
+
+      deadline.cancel();
+
+      if(winner == null)
+      {
+         elapsed = System.nanoTime() - start;
+      }
+
+      return status;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : winner
+    * Purpose    : returns the entrant that won the last race
+    * Parameters : none
+    * Return     : String -> engine name, or null if none answered
+    **************************************************************************/
+   public String winner()
+   {
+      return winner;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : elapsed
+    * Purpose    : returns how long the last race took to be won, or to run
+    *                 out of time
+    * Parameters : none
+    * Return     : long -> nanoseconds
+    **************************************************************************/
+   public long elapsed()
+   {
+      return elapsed;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : summary
+    * Purpose    : returns the races each entrant has won
+    * Parameters : none
+    * Return     : String -> "name=wins" for each entrant
+    **************************************************************************/
+   public String summary()
+   {
+      StringBuilder text = new StringBuilder(); // STRN - summary
+
+      // FOR - each entrant
+      for(int index = 0; index < entrants.length; ++index)
+      {
+         text.append((index == 0) ? "" : " ").append(entrants[index].name)
+             .append('=').append(wins[index]);
+      }
+
+      return text.toString();
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : close
+    * Purpose    : This method stops the threads of the portfolio
+    * Parameters : none
+    * Return     : void
+    **************************************************************************/
+   public void close()
+   {
+      pool.shutdownNow();
+      timer.cancel();
+   }
+
+   /* - MAIN -
+    ***************************************************************************
+    * Name       : main
+    * Purpose    : This method races the entrants on every puzzle of a file,
+    *                 one puzzle per line, printing each solution in line
+    *                 format with its winner and time, and appending
+    *                 "puzzle winner status ms" for each race to LOG.
+    * Parameters : args -> "-puzzles <file>" file to read, "-engines <list>"
+    *                         comma separated entrants, "-budget <ms>" time
+    *                         budget of each race, 0 for none, "-rules <dir>"
+    *                         keeps rule templates in dir
+    * Return     : void
+    **************************************************************************/
+   public static void main(String[] args)
+   {
+      String      file    = null;    // STRN - puzzles to solve
+      String[]    engines = ENGINES; // ARRY - entrants to race
+      long        budget  = BUDGET;  // CALC - time budget of a race in ms
+      Portfolio   portfolio = null;  // CALC - the race
+      Puzzle[]    puzzles;           // ARRY - puzzles of the file
+      int[]       grid;              // ARRY - solution of a race
+      int         status;            // CALC - answer of a race
+      String      answer;            // STRN - solution or status to print
+      PrintWriter log;               // WRIT - appends to LOG
+
+      // FOR - read command line options
+      for(int index = 0; index < args.length; ++index)
+      {
+         if(args[index].equals("-puzzles") && index + 1 < args.length)
+         {
+            file = args[++index];
+         }
+         else if(args[index].equals("-engines") && index + 1 < args.length)
+         {
+            engines = args[++index].split(",");
+         }
+         else if(args[index].equals("-rules") && index + 1 < args.length)
+         {
+            TemplateCache.setShared(new TemplateCache(args[++index],
+                                       TemplateCache.DEFAULT_BUDGET));
+         }
+         else if(args[index].equals("-budget") && index + 1 < args.length)
+         {
+            budget = Long.parseLong(args[++index]);
+         }
+      }
+
+      // TRY - race on every puzzle, then print the wins
+      try
+      {
+         portfolio = new Portfolio(engines, budget);
+         puzzles   = Benchmark.corpus(file);
+         log       = new PrintWriter(new FileWriter(LOG, true));
+
+         for(int index = 0; index < puzzles.length; ++index)
+         {
+            grid   = new int[puzzles[index].tiles().length];
+            status = portfolio.solve(puzzles[index], grid);
+            answer = (status == SatSolver.SAT) ? line(grid)
+                     : (status == SatSolver.UNSAT) ? "UNSATISFIABLE"
+                                                   : "TIMED OUT";
+
+            System.out.printf("%s %s %.3f ms%n", answer,
+                              (portfolio.winner() == null)
+                                 ? "-" : portfolio.winner(),
+                              portfolio.elapsed() / 1e6);
+            log.printf("%s %s %s %.3f%n", line(puzzles[index].tiles()),
+                       (portfolio.winner() == null)
+                          ? "-" : portfolio.winner(),
+                       (status == SatSolver.SAT) ? "SAT"
+                          : (status == SatSolver.UNSAT) ? "UNSAT" : "UNKNOWN",
+                       portfolio.elapsed() / 1e6);
+         }
+
+         log.close();
+         System.out.println(portfolio.summary());
+      }
+      catch(IllegalArgumentException ex)
+      {
+         System.out.println("~~~~~~~~~~ " + ex.getMessage() + " ~~~~~~~~~~");
+      }
+      catch(Exception ex)
+      {
+         System.out.println("~~~~~~~~~~ ERROR READING PUZZLES ~~~~~~~~~~");
+      }
+      finally
+      {
+         if(portfolio != null)
+         {
+            portfolio.close();
+         }
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : line
+    * Purpose    : returns tiles in line format
+    * Parameters : tiles -> value of each tile row by row, 0 for empty
+    * Return     : String -> a symbol per tile
+    **************************************************************************/
+   private static String line(int[] tiles)
+   {
+      StringBuilder text = new StringBuilder(tiles.length); // STRN - line
+
+      // FOR - each tile
+      for(int index = 0; index < tiles.length; ++index)
+      {
+         text.append(Puzzle.symbol(tiles[index]));
+      }
+
+      return text.toString();
+   }
+
+   /* - CLASS -
+   /***************************************************************************
+    * Name    : Entrant
+    * Purpose : This class is one engine of the race. It keeps its engines
+    *           per size from race to race, and is only ever run by one
+    *           thread at a time, since a race waits for every entrant.
+    **************************************************************************/
+   private static class Entrant implements Callable<Entrant>
+   {
+      /* -VARIABLES- */
+      private String              name;   // STRN - engine name
+      private int                 index;  // CALC - place in the portfolio
+      private String              amo;    // STRN - encoding of a fresh SAT
+                                          //        entrant, or null
+      private GridSolver[]        direct; // ARRY - direct engine per size
+      private IncrementalSolver[] warm;   // ARRY - warm SAT engine per size
+      private Puzzle              puzzle; // CALC - puzzle of the race
+      private AtomicBoolean       stop;   // BOOL - ends the race
+      private int                 status; // CALC - answer of this entrant
+      private int[]               grid;   // ARRY - its solution
+
+      /* - CONSTRUCTOR -
+      /************************************************************************
+       * Name       : Entrant
+       * Purpose    : Create an entrant for an engine name.
+       * Parameters : name  -> engine name, see Portfolio
+       *              index -> place in the portfolio
+       ***********************************************************************/
+      Entrant(String name, int index)
+      {
+         // IF - a fresh SAT entrant names its at-most-one encoding
+         if(name.startsWith("sat-"))
+         {
+            this.amo = name.substring(4);
+            AtMostOne.create(amo, Sudoku.N_BY_N_SIZE);
+         }
+         else if(!name.equals("bitboard") && !name.equals("dlx")
+                 && !name.equals("sat"))
+         {
+            throw new IllegalArgumentException("unknown engine: " + name);
+         }
+
+         // INITIALIZE
+         this.name   = name;
+         this.index  = index;
+         this.direct = new GridSolver[BitboardSolver.MAX_SIZE + 1];
+         this.warm   = new IncrementalSolver[BitboardSolver.MAX_SIZE + 1];
+      }
+
+      /* - METHOD -
+       ************************************************************************
+       * Name       : enter
+       * Purpose    : This method sets the entrant up for a race
+       * Parameters : puzzle -> puzzle of the race
+       *              stop   -> flag that ends the race
+       * Return     : void
+       ***********************************************************************/
+      void enter(Puzzle puzzle, AtomicBoolean stop)
+      {
+         this.puzzle = puzzle;
+         this.stop   = stop;
+         this.status = SatSolver.UNKNOWN;
+         this.grid   = new int[puzzle.tiles().length];
+      }
+
+      /* - METHOD -
+       ************************************************************************
+       * Name       : call
+       * Purpose    : This method runs the engine until it answers or the
+       *                 race is stopped. A solution that does not check out
+       *                 is no answer.
+       * Parameters : none
+       * Return     : Entrant -> this entrant, with its status and grid
+       ***********************************************************************/
+      public Entrant call() throws IOException
+      {
+         status = (amo != null) ? fresh()
+                  : name.equals("sat") ? warm() : direct();
+
+         if(status == SatSolver.SAT && !SudokuDecode.isValid(grid, puzzle))
+         {
+            status = SatSolver.UNKNOWN;
+         }
+
+         return this;
+      }
+
+      /* - METHOD -
+       ************************************************************************
+       * Name       : direct
+       * Purpose    : This method solves with a direct engine
+       * Parameters : none
+       * Return     : int -> SatSolver.SAT, UNSAT, or UNKNOWN if stopped
+       ***********************************************************************/
+      private int direct()
+      {
+         int size = puzzle.size(); // CALC - size of the puzzle
+
+         // IF - first puzzle of this size
+         if(direct[size] == null)
+         {
+            direct[size] = name.equals("dlx") ? new DancingLinks(size)
+                                              : new BitboardSolver(size);
+         }
+
+         direct[size].setStop(stop);
+
+         // IF - a search that ran to the end proves there is no solution
+         if(direct[size].solve(puzzle, 1, grid) > 0)
+         {
+            return SatSolver.SAT;
+         }
+
+         return stop.get() ? SatSolver.UNKNOWN : SatSolver.UNSAT;
+      }
+
+      /* - METHOD -
+       ************************************************************************
+       * Name       : warm
+       * Purpose    : This method solves on the warm SAT engine of the size
+       * Parameters : none
+       * Return     : int -> SatSolver.SAT, UNSAT, or UNKNOWN if stopped
+       ***********************************************************************/
+      private int warm() throws IOException
+      {
+         int size = puzzle.size(); // CALC - size of the puzzle
+
+         // IF - first puzzle of this size
+         if(warm[size] == null)
+         {
+            warm[size] = new IncrementalSolver(TemplateCache.shared()
+                            .get(size, "pairwise", "extended"));
+         }
+
+         warm[size].setStop(stop);
+
+         return warm[size].solve(puzzle, grid);
+      }
+
+      /* - METHOD -
+       ************************************************************************
+       * Name       : fresh
+       * Purpose    : This method encodes the puzzle, preprocesses it and
+       *                 solves it on a new SatSolver
+       * Parameters : none
+       * Return     : int -> SatSolver.SAT, UNSAT, or UNKNOWN if stopped
+       ***********************************************************************/
+      private int fresh() throws IOException
+      {
+         Preprocessor pre;     // CALC - simplifies the encoding
+         Sudoku       encoder; // CALC - encodes the puzzle
+         SatSolver    solver;  // CALC - solves what is left
+         int          answer;  // CALC - result of the solver
+
+         // INITIALIZE
+         pre     = new Preprocessor();
+         encoder = new Sudoku(puzzle.size(), pre);
+         encoder.setAtMostOne(amo);
+         encoder.setStop(stop);
+         pre.setStop(stop);
+
+         // TRY - encode, giving up at the first clause after the race ends
+         try
+         {
+            encoder.setPuzzle(puzzle);
+            encoder.encode(1);
+         }
+         catch(CancellationException ex)
+         {
+            return SatSolver.UNKNOWN;
+         }
+
+         pre.run(encoder.variables());
+
+         // IF - the race ended while encoding or preprocessing
+         if(stop.get())
+         {
+            return SatSolver.UNKNOWN;
+         }
+         solver = new SatSolver();
+         solver.setStop(stop);
+         pre.writeTo(solver);
+         answer = solver.solve();
+
+         if(answer == SatSolver.SAT)
+         {
+            System.arraycopy(SudokuDecode.decode(pre.extend(solver.model()),
+                                                 puzzle, puzzle.size()),
+                             0, grid, 0, grid.length);
+         }
+
+         return answer;
+      }
+   }
+}
@@ -0,0 +1,1351 @@
+/*
+/******************************************************************************
+ * Name            : Eric Olaveson
+ * Date            : October 18, 2026
+ *
+ * This program will simplify a CNF encoding before it is written or solved,
+ *    and map a model of the simplified CNF back to the variables it was
+ *    encoded with.
+ *****************************************************************************/
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/* - CLASS -
+/******************************************************************************
+ * Name    : Preprocessor
+ * Purpose : This class encapsulates a sink that holds every clause it is
+ *           handed and simplifies them in run(), in the order:
+ *
+ *              units        -> unit propagation, removing satisfied clauses
+ *                              and false literals
+ *              probing      -> a literal whose propagation conflicts is
+ *                              fixed false, and a literal both values of a
+ *                              variable imply is fixed true
+ *              pure         -> a variable found with one sign only is
+ *                              removed with its clauses, as elimination
+ *                              with no resolvents
+ *              subsumption  -> a clause containing another is dropped, and
+ *                              a clause one resolution step from containing
+ *                              another loses that literal
+ *              elimination  -> a variable whose clauses can be replaced by
+ *                              no more non-tautological resolvents than
+ *                              there were clauses is resolved away
+ *
+ *           Each pure or eliminated variable's clauses go on a reconstruction
+ *           stack.
+ *           extend() gives the fixed variables their value, reads the
+ *           solver's model into the rest, and walks the stack from the top,
+ *           making a clause's eliminated literal true whenever the clause is
+ *           false, so the model satisfies the CNF as it was encoded. The
+ *           variables left are renumbered densely from 1. save() writes what
+ *           extend() needs as little endian ints:
+ *
+ *              header   -> MAGIC, VERSION, variables, kept, fixed, stack
+ *              original -> encoded number of each kept variable
+ *              fixed    -> literal of each fixed variable
+ *              stack    -> each clause's literals, eliminated one first,
+ *                          followed by its length
+ *****************************************************************************/
+public class Preprocessor implements ClauseSink
+{
+   /* -CONSTANTS
+   /***************************************************************************
+    * MAGIC           : first int of a saved reconstruction, "SDKP"
+    * VERSION         : layout version of a saved reconstruction
+    * HEADER          : ints in the header
+    * FILE            : file Sudoku saves the reconstruction of "nxnin" to
+    * PROBE_EFFORT    : clause visits probing may make per literal held
+    * RESOLVENT_LIMIT : longest resolvent elimination may add
+    * PASSES          : rounds of subsumption and elimination
+    **************************************************************************/
+   public static final int    MAGIC           = 0x53444B50;
+   public static final int    VERSION         = 1;
+   public static final int    HEADER          = 6;
+   public static final String FILE            = "nxnmap";
+   public static final int    PROBE_EFFORT    = 20;
+   public static final int    RESOLVENT_LIMIT = 32;
+   public static final int    PASSES          = 3;
+
+   /* -VARIABLES- */
+   private int       variables;    // CALC - variables the CNF was encoded with
+   private int       clauses;      // CALC - clauses held, live or not
+   private int       used;         // CALC - literal memory in use
+   private int[]     memory;       // ARRY - literals of every clause
+   private int[]     start;        // ARRY - first literal of each clause
+   private int[]     length;       // ARRY - literals left in each clause
+   private boolean[] dead;         // BOOL - clause was removed
+   private boolean[] dirty;        // BOOL - clause not yet used to subsume
+   private long[]    signature;    // ARRY - bit of each variable of a clause
+   private int       live;         // CALC - clauses not removed
+   private int[][]   occurs;       // ARRY - clauses each literal is in
+   private int[]     occurCount;   // ARRY - clauses in each occurs list
+   private byte[]    value;        // ARRY - 1 true, -1 false, 0 unfixed
+   private boolean[] eliminated;   // BOOL - variable was resolved away
+   private int[]     queue;        // ARRY - fixed literals, in order
+   private int       queueHead;    // CALC - next literal to propagate
+   private int       queueTail;    // CALC - literals fixed
+   private boolean   conflict;     // BOOL - the CNF is unsatisfiable
+   private int[]     stack;        // ARRY - reconstruction stack
+   private int       stackUsed;    // CALC - ints of the stack in use
+   private int[]     original;     // ARRY - encoded number of kept variables
+   private int[]     compact;      // ARRY - kept number of each variable
+   private int       kept;         // CALC - variables left in the CNF
+   private int[]     mark;         // ARRY - stamp of each literal
+   private int       stamp;        // CALC - current stamp
+   private int[]     scratch;      // ARRY - clause or list being built
+   private long      budget;       // CALC - clause visits probing has left
+   private int       failed;       // CALC - literals found by probing
+   private int       subsumed;     // CALC - clauses dropped as subsumed
+   private int       strengthened; // CALC - literals removed by resolution
+   private int       removed;      // CALC - variables eliminated
+   private int       pures;        // CALC - pure variables removed
+   private AtomicBoolean stop;     // BOOL - ends the passes early, or null
+
+   /* - CONSTRUCTOR -
+   /***************************************************************************
+    * Name       : Preprocessor
+    * Purpose    : Create an empty preprocessor.
+    * Parameters : none
+    **************************************************************************/
+   public Preprocessor()
+   {
+      // INITIALIZE
+      this.memory  = new int[4096];
+      this.start   = new int[1024];
+      this.length  = new int[1024];
+      this.stack   = new int[1024];
+      this.scratch = new int[64];
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : addClause
+    * Purpose    : This method keeps one clause, dropping repeated literals,
+    *                 and drops it altogether if it holds a literal and its
+    *                 negation
+    * Parameters : literals -> literals of the clause
+    *              count    -> number of literals used from the array
+    * Return     : void
+    **************************************************************************/
+   public void addClause(int[] literals, int count)
+   {
+      int size = 0; // CALC - literals kept
+
+      // IF - grow the literal memory
+      if(used + count > memory.length)
+      {
+         memory = Arrays.copyOf(memory, Math.max(2 * memory.length,
+                                                 used + count));
+      }
+
+      // FOR - copy each literal not already in the clause
+      for(int index = 0; index < count; ++index)
+      {
+         int     literal = literals[index]; // CALC - literal to copy
+         boolean repeat  = false;           // BOOL - literal already kept
+
+         for(int other = used; other < used + size; ++other)
+         {
+            if(memory[other] == -literal)
+            {
+               return;
+            }
+
+            repeat |= (memory[other] == literal);
+         }
+
+         if(!repeat)
+         {
+            memory[used + size++] = literal;
+            variables = Math.max(variables, Math.abs(literal));
+         }
+      }
+
+      append(size);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : append
+    * Purpose    : This method closes off the clause just copied to the end
+    *                 of the literal memory
+    * Parameters : size -> literals in the clause
+    * Return     : int  -> index of the clause
+    **************************************************************************/
+   private int append(int size)
+   {
+      // IF - grow the clause arrays
+      if(clauses == start.length)
+      {
+         start  = Arrays.copyOf(start, 2 * clauses);
+         length = Arrays.copyOf(length, 2 * clauses);
+
+         if(dead != null)
+         {
+            dead      = Arrays.copyOf(dead, 2 * clauses);
+            dirty     = Arrays.copyOf(dirty, 2 * clauses);
+            signature = Arrays.copyOf(signature, 2 * clauses);
+         }
+      }
+
+      start[clauses]  = used;
+      length[clauses] = size;
+      used           += size;
+      ++live;
+
+      return clauses++;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : addComment
+    * Purpose    : Comments do not survive preprocessing.
+    * Parameters : comment -> comment line
+    * Return     : void
+    **************************************************************************/
+   public void addComment(String comment)
+   {
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : run
+    * Purpose    : This method simplifies the clauses held and renumbers the
+    *                 variables left. No clause may be added afterwards.
+    * Parameters : declared -> variables the encoder declares, at least the
+    *                          highest one used
+    * Return     : void
+    **************************************************************************/
+   public void run(int declared)
+   {
+      boolean changed; // BOOL - a pass subsumed or eliminated something
+
+      // INITIALIZE
+      variables  = Math.max(variables, declared);
+      occurs     = new int[2 * (variables + 1)][];
+      occurCount = new int[2 * (variables + 1)];
+      value      = new byte[variables + 1];
+      eliminated = new boolean[variables + 1];
+      queue      = new int[variables + 1];
+      mark       = new int[2 * (variables + 1)];
+      dead       = new boolean[start.length];
+      dirty      = new boolean[start.length];
+      signature  = new long[start.length];
+      budget     = (long)PROBE_EFFORT * used;
+
+      // FOR - put each clause in the occurs list of its literals
+      for(int clause = 0; clause < clauses; ++clause)
+      {
+         attach(clause);
+      }
+
+      propagate();
+      probe();
+
+      // FOR - remove pure variables, subsume and eliminate until nothing
+      //       changes
+      for(int pass = 0; pass < PASSES && !conflict && !stopped(); ++pass)
+      {
+         changed = pure();
+         changed = subsume() || changed;
+         changed = eliminate() || changed;
+
+         if(!changed)
+         {
+            break;
+         }
+      }
+
+      renumber();
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : setStop
+    * Purpose    : This method sets a flag that ends probing and the passes
+    *                 early. Every step left done is sound, so what is held
+    *                 is still equivalent, only less simplified.
+    * Parameters : stop -> flag to poll, or null for none
+    * Return     : void
+    **************************************************************************/
+   public void setStop(AtomicBoolean stop)
+   {
+      this.stop = stop;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : stopped
+    * Purpose    : returns whether the stop flag is set
+    * Parameters : none
+    * Return     : boolean -> stop was asked for
+    **************************************************************************/
+   private boolean stopped()
+   {
+      return stop != null && stop.get();
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : attach
+    * Purpose    : This method adds a clause to the occurs lists of its
+    *                 literals, or fixes its literal if it is a unit
+    * Parameters : clause -> index of the clause
+    * Return     : void
+    **************************************************************************/
+   private void attach(int clause)
+   {
+      int code; // CALC - occurs list of a literal
+
+      // INITIALIZE
+      dirty[clause] = true;
+      sign(clause);
+
+      // IF - the empty clause
+      if(length[clause] == 0)
+      {
+         conflict = true;
+      }
+
+      // FOR - each literal of the clause
+      for(int index = start[clause]; index < start[clause] + length[clause];
+          ++index)
+      {
+         code = code(memory[index]);
+
+         if(occurs[code] == null)
+         {
+            occurs[code] = new int[4];
+         }
+         else if(occurCount[code] == occurs[code].length)
+         {
+            occurs[code] = Arrays.copyOf(occurs[code], 2 * occurCount[code]);
+         }
+
+         occurs[code][occurCount[code]++] = clause;
+      }
+
+      if(length[clause] == 1)
+      {
+         assign(memory[start[clause]]);
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : sign
+    * Purpose    : This method sets a bit for each variable of a clause, so
+    *                 a clause whose bits are not all in another's cannot
+    *                 subsume it and is passed over without a look
+    * Parameters : clause -> index of the clause
+    * Return     : void
+    **************************************************************************/
+   private void sign(int clause)
+   {
+      // INITIALIZE
+      signature[clause] = 0;
+
+      // FOR - each literal of the clause
+      for(int index = start[clause]; index < start[clause] + length[clause];
+          ++index)
+      {
+         signature[clause] |= 1L << (Math.abs(memory[index]) & 63);
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : code
+    * Purpose    : returns the occurs list index of a literal
+    * Parameters : literal -> DIMACS literal
+    * Return     : int     -> 2v for v, 2v + 1 for -v
+    **************************************************************************/
+   private static int code(int literal)
+   {
+      return (literal > 0) ? 2 * literal : (-2 * literal) + 1;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : valueOf
+    * Purpose    : returns the fixed value of a literal
+    * Parameters : literal -> DIMACS literal
+    * Return     : int     -> 1 true, -1 false, 0 unfixed
+    **************************************************************************/
+   private int valueOf(int literal)
+   {
+      return (literal > 0) ? value[literal] : -value[-literal];
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : assign
+    * Purpose    : This method fixes a literal true, queueing it to be
+    *                 propagated
+    * Parameters : literal -> literal to fix
+    * Return     : void
+    **************************************************************************/
+   private void assign(int literal)
+   {
+      // IF - already fixed one way or the other
+      if(valueOf(literal) != 0)
+      {
+         conflict |= (valueOf(literal) < 0);
+         return;
+      }
+
+      value[Math.abs(literal)] = (byte)((literal > 0) ? 1 : -1);
+      queue[queueTail++]       = literal;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : propagate
+    * Purpose    : This method removes the clauses each queued literal
+    *                 satisfies and its negation from the rest, fixing the
+    *                 last literal of any clause cut down to one
+    * Parameters : none
+    * Return     : void
+    **************************************************************************/
+   private void propagate()
+   {
+      int literal; // CALC - literal being propagated
+      int code;    // CALC - occurs list being emptied
+
+      // WHILE - literals wait to be propagated
+      while(!conflict && queueHead < queueTail)
+      {
+         literal = queue[queueHead++];
+         code    = code(literal);
+
+         while(occurCount[code] > 0)
+         {
+            remove(occurs[code][occurCount[code] - 1]);
+         }
+
+         code = code(-literal);
+
+         while(!conflict && occurCount[code] > 0)
+         {
+            strengthen(occurs[code][occurCount[code] - 1], -literal);
+         }
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : remove
+    * Purpose    : This method removes a clause and takes it out of the
+    *                 occurs lists of its literals
+    * Parameters : clause -> index of the clause
+    * Return     : void
+    **************************************************************************/
+   private void remove(int clause)
+   {
+      // INITIALIZE
+      dead[clause] = true;
+      --live;
+
+      // FOR - each literal of the clause
+      for(int index = start[clause]; index < start[clause] + length[clause];
+          ++index)
+      {
+         detach(code(memory[index]), clause);
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : detach
+    * Purpose    : This method takes a clause out of one occurs list
+    * Parameters : code   -> occurs list of a literal
+    *              clause -> index of the clause
+    * Return     : void
+    **************************************************************************/
+   private void detach(int code, int clause)
+   {
+      int[] list = occurs[code]; // ARRY - the occurs list
+
+      // FOR - from the end, where the clause most often is
+      for(int index = occurCount[code] - 1; index >= 0; --index)
+      {
+         if(list[index] == clause)
+         {
+            list[index] = list[--occurCount[code]];
+            return;
+         }
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : strengthen
+    * Purpose    : This method removes one literal from a clause, fixing the
+    *                 last literal of a clause cut down to one
+    * Parameters : clause  -> index of the clause
+    *              literal -> literal to remove
+    * Return     : void
+    **************************************************************************/
+   private void strengthen(int clause, int literal)
+   {
+      int first = start[clause];              // CALC - first literal
+      int last  = first + length[clause] - 1; // CALC - last literal
+
+      // FOR - swap the literal with the last one and drop it
+      for(int index = first; index <= last; ++index)
+      {
+         if(memory[index] == literal)
+         {
+            memory[index] = memory[last];
+            memory[last]  = literal;
+            break;
+         }
+      }
+
+      detach(code(literal), clause);
+      --length[clause];
+      dirty[clause] = true;
+      sign(clause);
+
+      // IF - the clause is down to one literal or none
+      if(length[clause] == 1)
+      {
+         assign(memory[first]);
+      }
+      else if(length[clause] == 0)
+      {
+         conflict = true;
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : probe
+    * Purpose    : This method tries both values of each variable until its
+    *                 budget runs out. A value whose propagation conflicts
+    *                 fixes the other one, and a literal both values imply is
+    *                 fixed true.
+    * Parameters : none
+    * Return     : void
+    **************************************************************************/
+   private void probe()
+   {
+      int implied; // CALC - literals the true value implies
+
+      // FOR - each unfixed variable while the budget lasts
+      for(int var = 1; var <= variables && budget > 0 && !conflict
+                       && !stopped(); ++var)
+      {
+         if(value[var] != 0 || occurCount[code(var)] == 0
+            || occurCount[code(-var)] == 0)
+         {
+            continue;
+         }
+
+         // IF - the variable cannot be true
+         if(!trial(var))
+         {
+            ++failed;
+            assign(-var);
+            propagate();
+            continue;
+         }
+
+         // INITIALIZE - mark what the true value implied
+         ++stamp;
+         implied = queueTail - queueHead;
+
+         for(int index = queueHead + 1; index < queueHead + implied; ++index)
+         {
+            mark[code(queue[index])] = stamp;
+         }
+
+         // IF - the variable cannot be false
+         if(!trial(-var))
+         {
+            ++failed;
+            assign(var);
+            propagate();
+            continue;
+         }
+
+         implied = 0;
+
+         for(int index = queueHead + 1; index < queueTail; ++index)
+         {
+            if(mark[code(queue[index])] == stamp)
+            {
+               scratch = grow(scratch, implied + 1);
+               scratch[implied++] = queue[index];
+            }
+         }
+
+         undo();
+
+         // FOR - fix what both values imply
+         for(int index = 0; index < implied; ++index)
+         {
+            ++failed;
+            assign(scratch[index]);
+         }
+
+         propagate();
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : trial
+    * Purpose    : This method fixes a literal for now and propagates it
+    *                 without changing any clause. The literals it implies
+    *                 stay on the queue past queueHead until the next trial
+    *                 or undo().
+    * Parameters : literal -> literal to try
+    * Return     : boolean -> false if propagation conflicts
+    **************************************************************************/
+   private boolean trial(int literal)
+   {
+      int     next;    // CALC - queued literal being propagated
+      int     code;    // CALC - its negation's occurs list
+      int     clause;  // CALC - clause being visited
+      int     unfixed; // CALC - unfixed literals of the clause
+      int     unit;    // CALC - last unfixed literal seen
+      boolean done;    // BOOL - clause is satisfied
+
+      // INITIALIZE
+      undo();
+      assign(literal);
+
+      // FOR - each literal implied so far
+      for(int head = queueHead; head < queueTail; ++head)
+      {
+         next = queue[head];
+         code = code(-next);
+
+         for(int index = 0; index < occurCount[code]; ++index)
+         {
+            clause  = occurs[code][index];
+            unfixed = 0;
+            unit    = 0;
+            done    = false;
+
+            // FOR - until the clause is satisfied or has two unfixed
+            for(int lit = start[clause]; lit < start[clause] + length[clause]
+                && !done && unfixed < 2; ++lit)
+            {
+               --budget;
+               done |= (valueOf(memory[lit]) > 0);
+
+               if(valueOf(memory[lit]) == 0)
+               {
+                  ++unfixed;
+                  unit = memory[lit];
+               }
+            }
+
+            // IF - every literal is false
+            if(!done && unfixed == 0)
+            {
+               undo();
+               return false;
+            }
+
+            if(!done && unfixed == 1)
+            {
+               assign(unit);
+            }
+         }
+      }
+
+      return true;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : undo
+    * Purpose    : This method unfixes the literals of the last trial
+    * Parameters : none
+    * Return     : void
+    **************************************************************************/
+   private void undo()
+   {
+      // WHILE - literals past the propagated ones
+      while(queueTail > queueHead)
+      {
+         value[Math.abs(queue[--queueTail])] = 0;
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : subsume
+    * Purpose    : This method checks every clause added or shortened since
+    *                 the last pass against the clauses it could subsume or
+    *                 strengthen
+    * Parameters : none
+    * Return     : boolean -> some clause was dropped or shortened
+    **************************************************************************/
+   private boolean subsume()
+   {
+      int before = subsumed + strengthened; // CALC - work of earlier passes
+
+      // FOR - each clause not yet used
+      for(int clause = 0; clause < clauses && !conflict && !stopped();
+          ++clause)
+      {
+         if(!dead[clause] && dirty[clause])
+         {
+            dirty[clause] = false;
+            subsume(clause);
+            propagate();
+         }
+      }
+
+      return subsumed + strengthened > before;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : subsume
+    * Purpose    : This method drops every clause that contains a clause and
+    *                 removes the flipped literal from every clause that
+    *                 contains it but for one flipped literal. Any such
+    *                 clause holds the clause's least used variable, so only
+    *                 that variable's occurs lists are searched. They are
+    *                 read from the end, since a clause taken out of a list
+    *                 is replaced by its last one, already read.
+    * Parameters : clause -> index of the clause
+    * Return     : void
+    **************************************************************************/
+   private void subsume(int clause)
+   {
+      int size;    // CALC - literals of the clause
+      int pivot;   // CALC - least used literal of the clause
+      int code;    // CALC - occurs list being read
+      int other;   // CALC - candidate being checked
+      int same;    // CALC - its literals also in the clause
+      int flipped; // CALC - its literals negated in the clause
+      int flip;    // CALC - the last of those
+
+      // INITIALIZE
+      size  = length[clause];
+      pivot = memory[start[clause]];
+      ++stamp;
+
+      for(int index = start[clause]; index < start[clause] + size; ++index)
+      {
+         mark[code(memory[index])] = stamp;
+
+         if(occurCount[code(memory[index])] + occurCount[code(-memory[index])]
+            < occurCount[code(pivot)] + occurCount[code(-pivot)])
+         {
+            pivot = memory[index];
+         }
+      }
+
+      // DOUBLE FOR - each candidate in either list at least as long as the
+      //              clause
+      for(int sign = 0; sign < 2; ++sign)
+      {
+         code = code((sign == 0) ? pivot : -pivot);
+
+         for(int index = occurCount[code] - 1; index >= 0; --index)
+         {
+            other   = occurs[code][index];
+            same    = 0;
+            flipped = 0;
+            flip    = 0;
+
+            if((signature[clause] & ~signature[other]) != 0
+               || length[other] < size || other == clause)
+            {
+               continue;
+            }
+
+            for(int lit = start[other]; lit < start[other] + length[other];
+                ++lit)
+            {
+               if(mark[code(memory[lit])] == stamp)
+               {
+                  ++same;
+               }
+               else if(mark[code(-memory[lit])] == stamp)
+               {
+                  ++flipped;
+                  flip = memory[lit];
+               }
+            }
+
+            // IF - the candidate contains the clause
+            if(flipped == 0 && same == size)
+            {
+               ++subsumed;
+               remove(other);
+            }
+            else if(flipped == 1 && same == size - 1)
+            {
+               ++strengthened;
+               strengthen(other, flip);
+
+               // IF - the shortened candidate now subsumes the clause
+               if(length[other] == size - 1)
+               {
+                  ++subsumed;
+                  remove(clause);
+                  return;
+               }
+            }
+         }
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : pure
+    * Purpose    : This method removes every variable found with one sign
+    *                 only, moving its clauses onto the reconstruction stack
+    *                 so extend() sets it true wherever one would be false
+    * Parameters : none
+    * Return     : boolean -> some variable was removed
+    **************************************************************************/
+   private boolean pure()
+   {
+      int before = pures; // CALC - variables removed by earlier passes
+
+      // FOR - each unfixed variable in the clauses of one sign only
+      for(int var = 1; var <= variables && !conflict && !stopped(); ++var)
+      {
+         if(value[var] == 0 && !eliminated[var]
+            && (occurCount[code(var)] == 0) != (occurCount[code(-var)] == 0))
+         {
+            eliminate(var);
+            ++pures;
+         }
+      }
+
+      return pures > before;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : eliminate
+    * Purpose    : This method resolves away every variable that does not
+    *                 make the CNF grow
+    * Parameters : none
+    * Return     : boolean -> some variable was eliminated
+    **************************************************************************/
+   private boolean eliminate()
+   {
+      int before = removed; // CALC - variables eliminated by earlier passes
+
+      // FOR - each unfixed variable still in some clause
+      for(int var = 1; var <= variables && !conflict && !stopped(); ++var)
+      {
+         if(value[var] == 0 && !eliminated[var]
+            && occurCount[code(var)] + occurCount[code(-var)] > 0
+            && resolvents(var) >= 0)
+         {
+            eliminate(var);
+            ++removed;
+            propagate();
+         }
+      }
+
+      return removed > before;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : resolvents
+    * Purpose    : This method counts the non-tautological resolvents of a
+    *                 variable, giving up once they outnumber its clauses or
+    *                 one is too long
+    * Parameters : var -> variable to resolve on
+    * Return     : int -> resolvents, or -1 if the variable should stay
+    **************************************************************************/
+   private int resolvents(int var)
+   {
+      int limit;  // CALC - clauses the variable is in
+      int count;  // CALC - resolvents so far
+      int size;   // CALC - literals of the resolvent
+      int pos;    // CALC - clause holding the variable
+      int neg;    // CALC - clause holding its negation
+      int lit;    // CALC - literal of neg
+      boolean tautology; // BOOL - resolvent holds a literal and its negation
+
+      // INITIALIZE
+      limit = occurCount[code(var)] + occurCount[code(-var)];
+      count = 0;
+
+      // FOR - each clause holding the variable
+      for(int p = 0; p < occurCount[code(var)]; ++p)
+      {
+         pos = occurs[code(var)][p];
+         ++stamp;
+
+         for(int index = start[pos]; index < start[pos] + length[pos]; ++index)
+         {
+            mark[code(memory[index])] = stamp;
+         }
+
+         // FOR - each clause holding its negation
+         for(int n = 0; n < occurCount[code(-var)]; ++n)
+         {
+            neg       = occurs[code(-var)][n];
+            size      = length[pos] - 1;
+            tautology = false;
+
+            for(int index = start[neg]; index < start[neg] + length[neg]
+                && !tautology; ++index)
+            {
+               lit = memory[index];
+
+               if(lit != -var && mark[code(-lit)] == stamp)
+               {
+                  tautology = true;
+               }
+               else if(lit != -var && mark[code(lit)] != stamp)
+               {
+                  ++size;
+               }
+            }
+
+            // IF - one more clause, and not one too many or too long
+            if(!tautology && (++count > limit || size > RESOLVENT_LIMIT))
+            {
+               return -1;
+            }
+         }
+      }
+
+      return count;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : eliminate
+    * Purpose    : This method replaces a variable's clauses with their
+    *                 resolvents, moving the clauses onto the reconstruction
+    *                 stack
+    * Parameters : var -> variable to resolve away
+    * Return     : void
+    **************************************************************************/
+   private void eliminate(int var)
+   {
+      int[] pos;   // ARRY - clauses holding the variable
+      int[] neg;   // ARRY - clauses holding its negation
+      int   size;  // CALC - literals of the resolvent
+      int   lit;   // CALC - literal of a negative clause
+      boolean tautology; // BOOL - resolvent holds a literal and its negation
+
+      // INITIALIZE
+      pos = occurrences(var);
+      neg = occurrences(-var);
+
+      // FOR - move every clause of the variable onto the stack
+      for(int index = 0; index < pos.length + neg.length; ++index)
+      {
+         push(index < pos.length ? pos[index] : neg[index - pos.length],
+              index < pos.length ? var : -var);
+      }
+
+      // DOUBLE FOR - add each non-tautological resolvent
+      for(int p = 0; p < pos.length; ++p)
+      {
+         for(int n = 0; n < neg.length; ++n)
+         {
+            memory    = grow(memory, used + length[pos[p]] + length[neg[n]]);
+            size      = 0;
+            tautology = false;
+            ++stamp;
+
+            for(int index = start[pos[p]];
+                index < start[pos[p]] + length[pos[p]]; ++index)
+            {
+               if(memory[index] != var)
+               {
+                  mark[code(memory[index])] = stamp;
+                  memory[used + size++]     = memory[index];
+               }
+            }
+
+            for(int index = start[neg[n]];
+                index < start[neg[n]] + length[neg[n]] && !tautology; ++index)
+            {
+               lit        = memory[index];
+               tautology |= (lit != -var && mark[code(-lit)] == stamp);
+
+               if(lit != -var && mark[code(lit)] != stamp)
+               {
+                  memory[used + size++] = lit;
+               }
+            }
+
+            if(!tautology)
+            {
+               attach(append(size));
+            }
+         }
+      }
+
+      // FOR - drop the variable's own clauses
+      for(int index = 0; index < pos.length + neg.length; ++index)
+      {
+         remove(index < pos.length ? pos[index] : neg[index - pos.length]);
+      }
+
+      eliminated[var] = true;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : occurrences
+    * Purpose    : returns a copy of the clauses a literal is in
+    * Parameters : literal -> DIMACS literal
+    * Return     : int[]   -> its clauses, empty if it was never in one
+    **************************************************************************/
+   private int[] occurrences(int literal)
+   {
+      int code = code(literal); // CALC - occurs list of the literal
+
+      return (occurs[code] == null) ? new int[0]
+                : Arrays.copyOf(occurs[code], occurCount[code]);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : push
+    * Purpose    : This method pushes a clause onto the reconstruction stack
+    * Parameters : clause  -> index of the clause
+    *              witness -> eliminated literal of the clause
+    * Return     : void
+    **************************************************************************/
+   private void push(int clause, int witness)
+   {
+      // INITIALIZE
+      stack              = grow(stack, stackUsed + length[clause] + 1);
+      stack[stackUsed++] = witness;
+
+      // FOR - the other literals after the witness
+      for(int index = start[clause]; index < start[clause] + length[clause];
+          ++index)
+      {
+         if(memory[index] != witness)
+         {
+            stack[stackUsed++] = memory[index];
+         }
+      }
+
+      stack[stackUsed++] = length[clause];
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : grow
+    * Purpose    : returns an array with room for at least a number of ints
+    * Parameters : array  -> array to grow
+    *              needed -> ints it must hold
+    * Return     : int[]  -> the array, or a larger copy of it
+    **************************************************************************/
+   private static int[] grow(int[] array, int needed)
+   {
+      return (needed <= array.length) ? array
+                : Arrays.copyOf(array, Math.max(2 * array.length, needed));
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : renumber
+    * Purpose    : This method numbers the variables still in a clause
+    *                 densely from 1
+    * Parameters : none
+    * Return     : void
+    **************************************************************************/
+   private void renumber()
+   {
+      // INITIALIZE
+      compact  = new int[variables + 1];
+      original = new int[variables + 1];
+      kept     = 0;
+
+      // FOR - each variable left in some clause
+      for(int var = 1; var <= variables && !conflict; ++var)
+      {
+         if(occurCount[code(var)] + occurCount[code(-var)] > 0)
+         {
+            compact[var]   = ++kept;
+            original[kept] = var;
+         }
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : writeTo
+    * Purpose    : This method hands every clause left to a sink in the new
+    *                 numbering. An unsatisfiable CNF is written as x and -x.
+    * Parameters : sink -> sink to copy clauses into
+    * Return     : int  -> clauses written
+    **************************************************************************/
+   public int writeTo(ClauseSink sink) throws IOException
+   {
+      int count; // CALC - literals of the current clause
+
+      // IF - nothing can satisfy the CNF
+      if(conflict)
+      {
+         sink.addClause(new int[] {1}, 1);
+         sink.addClause(new int[] {-1}, 1);
+         return 2;
+      }
+
+      // FOR - each live clause
+      for(int clause = 0; clause < clauses; ++clause)
+      {
+         if(dead[clause])
+         {
+            continue;
+         }
+
+         count   = length[clause];
+         scratch = grow(scratch, count);
+
+         for(int index = 0; index < count; ++index)
+         {
+            int literal = memory[start[clause] + index]; // CALC - to renumber
+
+            scratch[index] = (literal > 0) ? compact[literal]
+                                           : -compact[-literal];
+         }
+
+         sink.addClause(scratch, count);
+      }
+
+      return live;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : extend
+    * Purpose    : This method maps a model of the simplified CNF back to
+    *                 the variables it was encoded with. Fixed variables take
+    *                 their value, kept ones the model's, and eliminated ones
+    *                 whatever the reconstruction stack needs; a variable in
+    *                 no clause is false.
+    * Parameters : model -> DIMACS literals of the simplified CNF; a kept
+    *                       variable not listed is false
+    * Return     : int[] -> DIMACS literal of each encoded variable
+    **************************************************************************/
+   public int[] extend(int[] model)
+   {
+      boolean[] truth;     // BOOL - value of each encoded variable
+      int[]     literals;  // ARRY - signed literal of each variable
+      int       top;       // CALC - end of the stack clause being read
+      int       size;      // CALC - its literals
+      boolean   satisfied; // BOOL - it has a true literal
+
+      // INITIALIZE
+      truth    = new boolean[variables + 1];
+      literals = new int[variables];
+
+      for(int index = 0; index < queueTail; ++index)
+      {
+         truth[Math.abs(queue[index])] = (queue[index] > 0);
+      }
+
+      for(int index = 0; index < model.length; ++index)
+      {
+         if(model[index] > 0 && model[index] <= kept)
+         {
+            truth[original[model[index]]] = true;
+         }
+      }
+
+      // FOR - stack clauses from the top, last eliminated first
+      for(top = stackUsed; top > 0; top -= size + 1)
+      {
+         size      = stack[top - 1];
+         satisfied = false;
+
+         for(int index = top - 1 - size; index < top - 1 && !satisfied;
+             ++index)
+         {
+            satisfied = (truth[Math.abs(stack[index])] == (stack[index] > 0));
+         }
+
+         if(!satisfied)
+         {
+            truth[Math.abs(stack[top - 1 - size])] =
+               (stack[top - 1 - size] > 0);
+         }
+      }
+
+      // FOR - the literal of each variable
+      for(int var = 1; var <= variables; ++var)
+      {
+         literals[var - 1] = truth[var] ? var : -var;
+      }
+
+      return literals;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : save
+    * Purpose    : This method writes what extend() needs to a file, so the
+    *                 model of a written CNF can be decoded by another run
+    * Parameters : file -> file to write
+    * Return     : void
+    **************************************************************************/
+   public void save(String file) throws IOException
+   {
+      ByteBuffer bytes; // CALC - the whole file
+      IntBuffer  ints;  // CALC - the file as ints
+
+      // INITIALIZE
+      bytes = ByteBuffer.allocate(4 * (HEADER + kept + queueTail + stackUsed))
+                        .order(ByteOrder.LITTLE_ENDIAN);
+      ints  = bytes.asIntBuffer();
+
+      ints.put(MAGIC).put(VERSION).put(variables).put(kept).put(queueTail)
+          .put(stackUsed);
+      ints.put(original, 1, kept).put(queue, 0, queueTail)
+          .put(stack, 0, stackUsed);
+
+      // TRY - write every byte
+      try(FileChannel channel = FileChannel.open(Paths.get(file),
+                                   StandardOpenOption.CREATE,
+                                   StandardOpenOption.WRITE,
+                                   StandardOpenOption.TRUNCATE_EXISTING))
+      {
+         while(bytes.hasRemaining())
+         {
+            channel.write(bytes);
+         }
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : load
+    * Purpose    : This method reads a reconstruction written by save()
+    * Parameters : file -> file to read
+    * Return     : Preprocessor -> preprocessor that can only extend()
+    **************************************************************************/
+   public static Preprocessor load(String file) throws IOException
+   {
+      IntBuffer    ints;   // CALC - the file as ints
+      Preprocessor loaded; // CALC - the reconstruction
+
+      // TRY - map the whole file; the mapping outlives the channel
+      try(FileChannel channel = FileChannel.open(Paths.get(file),
+                                                 StandardOpenOption.READ))
+      {
+         ints = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+                       .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+      }
+
+      // IF - not a reconstruction this code can read
+      if(ints.limit() < HEADER || ints.get(0) != MAGIC
+         || ints.get(1) != VERSION
+         || ints.limit() < HEADER + ints.get(3) + ints.get(4) + ints.get(5))
+      {
+         throw new IOException("not a preprocessor reconstruction");
+      }
+
+      // INITIALIZE
+      loaded           = new Preprocessor();
+      loaded.variables = ints.get(2);
+      loaded.kept      = ints.get(3);
+      loaded.queueTail = ints.get(4);
+      loaded.stackUsed = ints.get(5);
+      loaded.original  = new int[loaded.kept + 1];
+      loaded.queue     = new int[loaded.queueTail];
+      loaded.stack     = new int[loaded.stackUsed];
+
+      ints.position(HEADER);
+      ints.get(loaded.original, 1, loaded.kept).get(loaded.queue)
+          .get(loaded.stack);
+
+      return loaded;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : conflict
+    * Purpose    : returns true if preprocessing proved the CNF
+    *                 unsatisfiable
+    * Parameters : none
+    * Return     : boolean -> no model exists
+    **************************************************************************/
+   public boolean conflict()
+   {
+      return conflict;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : variables
+    * Purpose    : returns the variables of the simplified CNF
+    * Parameters : none
+    * Return     : int -> number of variables
+    **************************************************************************/
+   public int variables()
+   {
+      return conflict ? 1 : kept;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : clauses
+    * Purpose    : returns the clauses of the simplified CNF
+    * Parameters : none
+    * Return     : int -> number of clauses
+    **************************************************************************/
+   public int clauses()
+   {
+      return conflict ? 2 : live;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : literals
+    * Purpose    : returns the literals of the simplified CNF
+    * Parameters : none
+    * Return     : long -> number of literals
+    **************************************************************************/
+   public long literals()
+   {
+      long count = 0; // CALC - literals of the live clauses
+
+      // FOR - each live clause
+      for(int clause = 0; clause < clauses && !conflict; ++clause)
+      {
+         count += dead[clause] ? 0 : length[clause];
+      }
+
+      return conflict ? 2 : count;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : summary
+    * Purpose    : returns what each technique did, for the run's statistics
+    * Parameters : none
+    * Return     : String -> counts of fixed, probed, pure, subsumed,
+    *                        strengthened and eliminated
+    **************************************************************************/
+   public String summary()
+   {
+      return "fixed=" + queueTail + " probed=" + failed + " pure=" + pures
+             + " subsumed=" + subsumed + " strengthened=" + strengthened
+             + " eliminated=" + removed;
+   }
+}
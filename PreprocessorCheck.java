@@ -0,0 +1,252 @@
+/*
+/******************************************************************************
+ * Name            : Eric Olaveson
+ * Date            : October 18, 2026
+ *
+ * This program will check that a model of a preprocessed CNF, mapped back
+ *    by extend(), satisfies the CNF as it was handed in.
+ *****************************************************************************/
+import java.util.Random;
+
+/* - CLASS -
+/******************************************************************************
+ * Name    : PreprocessorCheck
+ * Purpose : This class runs the Preprocessor on small CNFs, solves what is
+ *           left with a SatSolver and checks the answer against a brute
+ *           force search of the original clauses: an unsatisfiable CNF must
+ *           stay unsatisfiable, and the extended model of a satisfiable one
+ *           must satisfy every original clause. The CNFs are a fixed one
+ *           with pure literals and random ones from a seed.
+ *****************************************************************************/
+public class PreprocessorCheck
+{
+   /* -CONSTANTS
+   /***************************************************************************
+    * PURE     : clauses whose variables 1 and 5 appear with one sign only
+    * ROUNDS   : random CNFs checked by default
+    * MAX_VARS : most variables in a random CNF
+    **************************************************************************/
+   public static final int[][] PURE     = {{-1, 2, 3}, {-1, -2, -3},
+                                           {2, 3, 4}, {-2, -4}, {-3, 4},
+                                           {2, -4, 5}, {-5, -2}};
+   public static final int     ROUNDS   = 2000;
+   public static final int     MAX_VARS = 12;
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : check
+    * Purpose    : This method checks one CNF
+    * Parameters : cnf       -> clauses as DIMACS literals
+    *              variables -> variables of the CNF
+    * Return     : String    -> null if it passed, else what went wrong
+    **************************************************************************/
+   public static String check(int[][] cnf, int variables)
+   {
+      Preprocessor pre;      // CALC - simplifies the CNF
+      SatSolver    solver;   // CALC - solves what is left
+      boolean      sat;      // BOOL - brute force found a model
+      int          answer;   // CALC - result of the solver
+      int[]        extended; // ARRY - model of the original variables
+
+      // INITIALIZE
+      pre = new Preprocessor();
+      sat = brute(cnf, variables);
+
+      for(int[] clause : cnf)
+      {
+         pre.addClause(clause, clause.length);
+      }
+
+      pre.run(variables);
+      solver = new SatSolver();
+
+      // TRY - hand the simplified CNF to the solver
+      try
+      {
+         pre.writeTo(solver);
+      }
+      catch(java.io.IOException ex)
+      {
+         return "solver refused a clause";
+      }
+
+      answer = solver.solve();
+
+      // IF - the answers disagree
+      if(sat != (answer == SatSolver.SAT))
+      {
+         return "brute force " + (sat ? "SAT" : "UNSAT") + ", preprocessed "
+                + ((answer == SatSolver.SAT) ? "SAT" : "UNSAT");
+      }
+      else if(!sat)
+      {
+         return null;
+      }
+
+      extended = pre.extend(solver.model());
+
+      // FOR - every original clause must hold
+      for(int[] clause : cnf)
+      {
+         if(!satisfies(extended, clause))
+         {
+            return "extended model fails a clause, " + pre.summary();
+         }
+      }
+
+      return null;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : brute
+    * Purpose    : returns whether any assignment satisfies a CNF
+    * Parameters : cnf       -> clauses as DIMACS literals
+    *              variables -> variables of the CNF
+    * Return     : boolean   -> a model exists
+    **************************************************************************/
+   public static boolean brute(int[][] cnf, int variables)
+   {
+      int[]   model = new int[variables]; // ARRY - assignment being tried
+      boolean all;                        // BOOL - every clause holds
+
+      // FOR - each assignment
+      for(int bits = 0; bits < (1 << variables); ++bits)
+      {
+         all = true;
+
+         for(int var = 1; var <= variables; ++var)
+         {
+            model[var - 1] = ((bits >> (var - 1) & 1) != 0) ? var : -var;
+         }
+
+         for(int index = 0; index < cnf.length && all; ++index)
+         {
+            all = satisfies(model, cnf[index]);
+         }
+
+         if(all)
+         {
+            return true;
+         }
+      }
+
+      return false;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : satisfies
+    * Purpose    : returns whether a model makes a clause true
+    * Parameters : model   -> literal of variable i at index i - 1
+    *              clause  -> DIMACS literals
+    * Return     : boolean -> some literal is true
+    **************************************************************************/
+   public static boolean satisfies(int[] model, int[] clause)
+   {
+      // FOR - each literal
+      for(int literal : clause)
+      {
+         if(model[Math.abs(literal) - 1] == literal)
+         {
+            return true;
+         }
+      }
+
+      return false;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : random
+    * Purpose    : returns a random CNF of clauses 1 to 4 literals long
+    * Parameters : random    -> source of randomness
+    *              variables -> variables of the CNF
+    * Return     : int[][]   -> clauses as DIMACS literals
+    **************************************************************************/
+   public static int[][] random(Random random, int variables)
+   {
+      int[][] cnf; // ARRY - clauses
+
+      // INITIALIZE
+      cnf = new int[1 + random.nextInt(5 * variables)][];
+
+      // FOR - each clause
+      for(int clause = 0; clause < cnf.length; ++clause)
+      {
+         cnf[clause] = new int[1 + random.nextInt(4)];
+
+         for(int index = 0; index < cnf[clause].length; ++index)
+         {
+            cnf[clause][index] = (1 + random.nextInt(variables))
+                                 * (random.nextBoolean() ? 1 : -1);
+         }
+      }
+
+      return cnf;
+   }
+
+   /* - MAIN -
+    ***************************************************************************
+    * Name       : main
+    * Purpose    : This method checks the fixed CNF and the random ones,
+    *                 printing each failure, and exits 1 if any failed.
+    * Parameters : args -> "-rounds <n>" random CNFs, "-seed <n>" their seed
+    * Return     : void
+    **************************************************************************/
+   public static void main(String[] args)
+   {
+      int     rounds   = ROUNDS; // CALC - random CNFs to check
+      long    seed     = 1;      // CALC - seed of the random CNFs
+      int     failures = 0;      // CALC - CNFs that failed
+      Random  random;            // CALC - makes the random CNFs
+      int     variables;         // CALC - variables of a random CNF
+      int[][] cnf;               // ARRY - a random CNF
+      String  problem;           // STRN - what went wrong, or null
+
+      // FOR - read command line options
+      for(int index = 0; index < args.length; ++index)
+      {
+         if(args[index].equals("-rounds") && index + 1 < args.length)
+         {
+            rounds = Integer.parseInt(args[++index]);
+         }
+         else if(args[index].equals("-seed") && index + 1 < args.length)
+         {
+            seed = Long.parseLong(args[++index]);
+         }
+      }
+
+      // INITIALIZE
+      random  = new Random(seed);
+      problem = check(PURE, 5);
+
+      if(problem != null)
+      {
+         System.out.println("pure literal CNF: " + problem);
+         ++failures;
+      }
+
+      // FOR - each random CNF
+      for(int round = 0; round < rounds; ++round)
+      {
+         variables = 1 + random.nextInt(MAX_VARS);
+         cnf       = random(random, variables);
+         problem   = check(cnf, variables);
+
+         if(problem != null)
+         {
+            System.out.println("round " + round + ": " + problem);
+            ++failures;
+         }
+      }
+
+      System.out.println((rounds + 1 - failures) + " of " + (rounds + 1)
+                         + " CNFs passed");
+
+      if(failures > 0)
+      {
+         System.exit(1);
+      }
+   }
+}
@@ -0,0 +1,317 @@
+/*
+/******************************************************************************
+ * Name            : Eric Olaveson
+ * Date            : October 18, 2026
+ *
+ * This program will read the givens of a sudoku puzzle so they can be
+ *    encoded along with the rules.
+ *****************************************************************************/
+import java.io.*;
+
+/* - CLASS -
+/******************************************************************************
+ * Name    : Puzzle
+ * Purpose : This class encapsulates the givens of one n x n sudoku puzzle.
+ *           Tiles are kept row by row in an int array with 0 for an empty
+ *           tile. Two text formats are read:
+ *
+ *              line -> one token of n squared characters, '.' or '0' for
+ *                      an empty tile, '1' to '9' and then 'A' to 'Z' for
+ *                      values 10 to 35, e.g. the usual 81 character line;
+ *                      so no puzzle above MAX_LINE_SIZE can be written
+ *              grid -> n squared whitespace separated numbers, '.' or 0 for
+ *                      an empty tile, laid out over any number of lines
+ *****************************************************************************/
+public class Puzzle
+{
+   /* -CONSTANTS
+   /***************************************************************************
+    * MAX_VALUE     : largest value with a line format character
+    * MAX_LINE_SIZE : largest size whose values all have one
+    **************************************************************************/
+   public static final int MAX_VALUE     = 35;
+   public static final int MAX_LINE_SIZE = 25;
+
+   /* -VARIABLES- */
+   private int   size;  // CALC - size of sudoku puzzle
+   private int[] tiles; // ARRY - value of each tile, 0 when empty
+
+   /* - CONSTRUCTOR -
+   /***************************************************************************
+    * Name       : Puzzle
+    * Purpose    : Create a puzzle from its tiles.
+    * Parameters : size  -> size of the sudoku puzzle
+    *              tiles -> size squared values row by row, 0 when empty
+    **************************************************************************/
+   public Puzzle(int size, int[] tiles)
+   {
+      // IF - tiles must fill the grid with values in range
+      if(tiles.length != size * size)
+      {
+         throw new IllegalArgumentException("expected " + (size * size)
+                                            + " tiles, found " + tiles.length);
+      }
+
+      for(int index = 0; index < tiles.length; ++index)
+      {
+         if(tiles[index] < 0 || tiles[index] > size)
+         {
+            throw new IllegalArgumentException("tile value out of range: "
+                                               + tiles[index]);
+         }
+      }
+
+      this.size  = size;
+      this.tiles = tiles;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : read
+    * Purpose    : This method reads a puzzle in line or grid format from a
+    *                 file.
+    * Parameters : file   -> file holding one puzzle
+    * Return     : Puzzle -> puzzle read
+    **************************************************************************/
+   public static Puzzle read(String file) throws IOException
+   {
+      String         line;   // TMP  - line of file being read
+      StringBuilder  text;   // STRN - whole file
+      BufferedReader reader; // READ - reads the file
+
+      // INITIALIZE
+      text   = new StringBuilder();
+      reader = new BufferedReader(new FileReader(file));
+
+      // WHILE - read file line by line
+      while((line = reader.readLine()) != null)
+      {
+         text.append(line).append('\n');
+      }
+
+      reader.close();
+
+      return parse(text.toString());
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : parse
+    * Purpose    : This method reads a puzzle in line or grid format. A single
+    *                 token is taken as line format, anything else as grid.
+    * Parameters : text   -> puzzle text
+    * Return     : Puzzle -> puzzle read
+    **************************************************************************/
+   public static Puzzle parse(String text)
+   {
+      String[] tokens; // ARRY - whitespace separated tokens of the text
+
+      // INITIALIZE
+      tokens = text.trim().split("\\s+");
+
+      if(tokens.length == 1)
+      {
+         return parseLine(tokens[0]);
+      }
+
+      return parseGrid(tokens);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : parseLine
+    * Purpose    : This method reads a puzzle written as one character per
+    *                 tile.
+    * Parameters : line   -> n squared characters
+    * Return     : Puzzle -> puzzle read
+    **************************************************************************/
+   public static Puzzle parseLine(String line)
+   {
+      int   size;  // CALC - size of sudoku puzzle
+      int[] tiles; // ARRY - value of each tile
+
+      // INITIALIZE
+      size  = side(line.length());
+      tiles = new int[line.length()];
+
+      // IF - its solution could not be written back as a line
+      if(size > MAX_LINE_SIZE)
+      {
+         throw new IllegalArgumentException("too large for line format: "
+                                            + size);
+      }
+
+      // FOR - convert each character to a value
+      for(int index = 0; index < tiles.length; ++index)
+      {
+         tiles[index] = value(line.charAt(index));
+      }
+
+      return new Puzzle(size, tiles);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : parseGrid
+    * Purpose    : This method reads a puzzle written as one number per tile.
+    * Parameters : tokens -> n squared numbers, "." or "0" when empty
+    * Return     : Puzzle -> puzzle read
+    **************************************************************************/
+   public static Puzzle parseGrid(String[] tokens)
+   {
+      int   size;  // CALC - size of sudoku puzzle
+      int[] tiles; // ARRY - value of each tile
+
+      // INITIALIZE
+      size  = side(tokens.length);
+      tiles = new int[tokens.length];
+
+      // FOR - convert each token to a value
+      for(int index = 0; index < tiles.length; ++index)
+      {
+         if(!tokens[index].equals("."))
+         {
+            tiles[index] = Integer.parseInt(tokens[index]);
+         }
+      }
+
+      return new Puzzle(size, tiles);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : side
+    * Purpose    : returns the size of a puzzle with the given tile count,
+    *                 which must be the fourth power of a whole number
+    * Parameters : tiles -> number of tiles
+    * Return     : int   -> size of sudoku puzzle
+    **************************************************************************/
+   private static int side(int tiles)
+   {
+      int size;  // CALC - side of the grid
+      int block; // CALC - side of each block
+
+      // INITIALIZE
+      size  = (int)Math.round(Math.sqrt(tiles));
+      block = (int)Math.round(Math.sqrt(size));
+
+      if(size * size != tiles || block * block != size)
+      {
+         throw new IllegalArgumentException("not a sudoku grid: " + tiles
+                                            + " tiles");
+      }
+
+      return size;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : value
+    * Purpose    : returns the value of one line format character
+    * Parameters : tile -> '.', '0' to '9', or a letter for 10 onward
+    * Return     : int  -> value, 0 when empty
+    **************************************************************************/
+   private static int value(char tile)
+   {
+      if(tile == '.' || tile == '0')
+      {
+         return 0;
+      }
+      else if(tile >= '1' && tile <= '9')
+      {
+         return tile - '0';
+      }
+      else if(Character.isLetter(tile))
+      {
+         return 10 + (Character.toUpperCase(tile) - 'A');
+      }
+
+      throw new IllegalArgumentException("bad tile character: " + tile);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : symbol
+    * Purpose    : returns the line format character of a value, the reverse
+    *                 of value()
+    * Parameters : value -> value, 0 when empty, at most MAX_VALUE
+    * Return     : char  -> '.', '1' to '9', or a letter for 10 onward
+    **************************************************************************/
+   public static char symbol(int value)
+   {
+      if(value < 0 || value > MAX_VALUE)
+      {
+         throw new IllegalArgumentException("no line format character for "
+                                            + value);
+      }
+      else if(value == 0)
+      {
+         return '.';
+      }
+      else if(value <= 9)
+      {
+         return (char)('0' + value);
+      }
+
+      return (char)('A' + (value - 10));
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : size
+    * Purpose    : returns the size of the puzzle
+    * Parameters : none
+    * Return     : int -> size of sudoku puzzle
+    **************************************************************************/
+   public int size()
+   {
+      return size;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : get
+    * Purpose    : returns the given at a tile
+    * Parameters : row -> row of tile, 1 to size
+    *              col -> column of tile, 1 to size
+    * Return     : int -> value of tile, 0 when empty
+    **************************************************************************/
+   public int get(int row, int col)
+   {
+      return tiles[((row - 1) * size) + (col - 1)];
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : tiles
+    * Purpose    : returns the tiles row by row, 0 when empty
+    * Parameters : none
+    * Return     : int[] -> value of each tile
+    **************************************************************************/
+   public int[] tiles()
+   {
+      return tiles;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : givens
+    * Purpose    : returns the number of tiles that are filled in
+    * Parameters : none
+    * Return     : int -> number of givens
+    **************************************************************************/
+   public int givens()
+   {
+      int count = 0; // CALC - filled tiles so far
+
+      for(int index = 0; index < tiles.length; ++index)
+      {
+         if(tiles[index] != 0)
+         {
+            ++count;
+         }
+      }
+
+      return count;
+   }
+}
@@ -0,0 +1,231 @@
+/*
+/******************************************************************************
+ * Name            : Eric Olaveson
+ * Date            : October 18, 2026
+ *
+ * This program will work out which CNF variables the givens of a puzzle
+ *    already decide, so they can be left out of the encoding altogether.
+ *****************************************************************************/
+
+/* - CLASS -
+/******************************************************************************
+ * Name    : Reduction
+ * Purpose : This class encapsulates the variables fixed by a puzzle's givens.
+ *           A given makes its own variable true, and makes false every
+ *           other value of its tile and its value in every tile of the same
+ *           row, column and block. The variables left free are renumbered
+ *           densely from 1, so Sudoku writes a smaller CNF and SudokuDecode
+ *           can map the solver's model back to tiles.
+ *****************************************************************************/
+public class Reduction
+{
+   /* -CONSTANTS
+   /***************************************************************************
+    * FREE  : variable not decided by the givens
+    * TRUE  : variable made true by a given
+    * FALSE : variable made false by a given
+    **************************************************************************/
+   public static final byte FREE  = 0;
+   public static final byte TRUE  = 1;
+   public static final byte FALSE = -1;
+
+   /* -VARIABLES- */
+   private int         size;     // CALC - size of sudoku puzzle
+   private int         count;    // CALC - number of free variables
+   private boolean     conflict; // BOOL - givens contradict each other
+   private byte[]      state;    // ARRY - FREE, TRUE or FALSE per variable
+   private int[]       compact;  // ARRY - new number of each free variable
+   private int[]       original; // ARRY - old number of each new variable
+   private Puzzle      puzzle;   // CALC - puzzle the givens come from
+   private VariableMap map;      // CALC - numbering of tile variables
+
+   /* - CONSTRUCTOR -
+   /***************************************************************************
+    * Name       : Reduction
+    * Purpose    : Create the reduction for a puzzle's givens.
+    * Parameters : puzzle -> puzzle to reduce
+    **************************************************************************/
+   public Reduction(Puzzle puzzle)
+   {
+      int value; // CALC - given at the current tile
+
+      // INITIALIZE
+      this.puzzle   = puzzle;
+      this.size     = puzzle.size();
+      this.map      = new VariableMap(size);
+      this.state    = new byte[map.count() + 1];
+      this.compact  = new int[map.count() + 1];
+      this.original = new int[map.count() + 1];
+      this.count    = 0;
+      this.conflict = false;
+
+      // DOUBLE FOR - fix the variables touched by each given
+      for(int row = 1; row <= size; ++row)
+      {
+         for(int col = 1; col <= size; ++col)
+         {
+            value = puzzle.get(row, col);
+
+            if(value != 0)
+            {
+               fix(row, col, value);
+            }
+         }
+      }
+
+      // FOR - number the variables that are still free
+      for(int variable = 1; variable <= map.count(); ++variable)
+      {
+         if(state[variable] == FREE)
+         {
+            compact[variable] = ++count;
+            original[count]   = variable;
+         }
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : fix
+    * Purpose    : This method makes a given true and its peers false
+    * Parameters : row   -> row of given
+    *              col   -> column of given
+    *              value -> value of given
+    * Return     : void
+    **************************************************************************/
+   private void fix(int row, int col, int value)
+   {
+      int blockSize; // CALC - size of each sudoku block
+      int startR;    // CALC - first row of the given's block
+      int startC;    // CALC - first column of the given's block
+
+      // INITIALIZE
+      blockSize = (int)Math.sqrt(size);
+      startR    = 1 + (((row - 1) / blockSize) * blockSize);
+      startC    = 1 + (((col - 1) / blockSize) * blockSize);
+
+      set(map.variable(row, col, value), TRUE);
+
+      // FOR - every other value of the tile, and the value along the units
+      for(int other = 1; other <= size; ++other)
+      {
+         if(other != value)
+         {
+            set(map.variable(row, col, other), FALSE);
+         }
+
+         if(other != col)
+         {
+            set(map.variable(row, other, value), FALSE);
+         }
+
+         if(other != row)
+         {
+            set(map.variable(other, col, value), FALSE);
+         }
+      }
+
+      // DOUBLE FOR - the value everywhere else in the block
+      for(int r = startR; r < startR + blockSize; ++r)
+      {
+         for(int c = startC; c < startC + blockSize; ++c)
+         {
+            if(r != row || c != col)
+            {
+               set(map.variable(r, c, value), FALSE);
+            }
+         }
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : set
+    * Purpose    : This method decides a variable, noting a conflict if it
+    *                 was already decided the other way
+    * Parameters : variable -> tile variable
+    *              value    -> TRUE or FALSE
+    * Return     : void
+    **************************************************************************/
+   private void set(int variable, byte value)
+   {
+      if(state[variable] != FREE && state[variable] != value)
+      {
+         conflict = true;
+      }
+
+      state[variable] = value;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : state
+    * Purpose    : returns what the givens say about a tile variable
+    * Parameters : variable -> tile variable, 1 to size cubed
+    * Return     : byte     -> FREE, TRUE or FALSE
+    **************************************************************************/
+   public byte state(int variable)
+   {
+      return state[variable];
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : compact
+    * Purpose    : returns the new number of a free tile variable
+    * Parameters : variable -> free tile variable, 1 to size cubed
+    * Return     : int      -> new number, 1 to count()
+    **************************************************************************/
+   public int compact(int variable)
+   {
+      return compact[variable];
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : original
+    * Purpose    : returns the tile variable a new number stands for
+    * Parameters : variable -> new number, 1 to count()
+    * Return     : int      -> tile variable, 1 to size cubed
+    **************************************************************************/
+   public int original(int variable)
+   {
+      return original[variable];
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : count
+    * Purpose    : returns how many tile variables are left free
+    * Parameters : none
+    * Return     : int -> number of free variables
+    **************************************************************************/
+   public int count()
+   {
+      return count;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : conflict
+    * Purpose    : returns true if two givens share a value in one unit
+    * Parameters : none
+    * Return     : boolean -> givens cannot all hold
+    **************************************************************************/
+   public boolean conflict()
+   {
+      return conflict;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : puzzle
+    * Purpose    : returns the puzzle the givens come from
+    * Parameters : none
+    * Return     : Puzzle -> reduced puzzle
+    **************************************************************************/
+   public Puzzle puzzle()
+   {
+      return puzzle;
+   }
+}
@@ -0,0 +1,383 @@
+/*
+/******************************************************************************
+ * Name            : Eric Olaveson
+ * Date            : October 18, 2026
+ *
+ * This program will keep the rule clauses of one sudoku size in a compact
+ *    binary form that can be saved once and memory-mapped on later runs.
+ *****************************************************************************/
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/* - CLASS -
+/******************************************************************************
+ * Name    : RuleTemplate
+ * Purpose : This class encapsulates the clauses unique(), row(), column() and
+ *           block() generate for one size, at-most-one encoding and profile.
+ *           They are the same for every puzzle, so they are generated once
+ *           and a puzzle only adds a unit clause per given. The binary form
+ *           is little endian ints:
+ *
+ *              header   -> MAGIC, VERSION, size, at-most-one index,
+ *                          profile index, variables, clauses, literals
+ *              starts   -> clauses + 1 offsets into the literals
+ *              literals -> every clause's literals back to back
+ *
+ *           A loaded template reads straight from the mapped file, so it
+ *           costs no heap beyond this object.
+ *****************************************************************************/
+public class RuleTemplate
+{
+   /* -CONSTANTS
+   /***************************************************************************
+    * MAGIC   : first int of a template file, "SDKT"
+    * VERSION : layout version of a template file
+    * HEADER  : ints in the header
+    **************************************************************************/
+   public static final int MAGIC   = 0x53444B54;
+   public static final int VERSION = 1;
+   public static final int HEADER  = 8;
+
+   /* -VARIABLES- */
+   private ByteBuffer bytes;     // CALC - whole template, header first
+   private IntBuffer  starts;    // ARRY - first literal of each clause
+   private IntBuffer  literals;  // ARRY - literals of every clause
+   private int        size;      // CALC - size of sudoku puzzle
+   private int        amo;       // CALC - index into AtMostOne.NAMES
+   private int        profile;   // CALC - ordinal of the EncodingProfile
+   private int        variables; // CALC - variables the rules use
+   private int        clauses;   // CALC - number of rule clauses
+
+   /* - CONSTRUCTOR -
+   /***************************************************************************
+    * Name       : RuleTemplate
+    * Purpose    : Create a template over its binary form.
+    * Parameters : bytes -> template bytes, header first
+    **************************************************************************/
+   private RuleTemplate(ByteBuffer bytes) throws IOException
+   {
+      IntBuffer header; // ARRY - header ints
+      int       count;  // CALC - number of literals
+
+      // INITIALIZE
+      this.bytes = bytes.order(ByteOrder.LITTLE_ENDIAN);
+      header     = this.bytes.duplicate().order(ByteOrder.LITTLE_ENDIAN)
+                             .asIntBuffer();
+
+      // IF - not a template this code can read
+      if(header.limit() < HEADER || header.get(0) != MAGIC
+         || header.get(1) != VERSION)
+      {
+         throw new IOException("not a rule template");
+      }
+
+      this.size      = header.get(2);
+      this.amo       = header.get(3);
+      this.profile   = header.get(4);
+      this.variables = header.get(5);
+      this.clauses   = header.get(6);
+      count          = header.get(7);
+
+      // IF - truncated file
+      if(header.limit() < HEADER + clauses + 1 + count)
+      {
+         throw new IOException("rule template is truncated");
+      }
+
+      this.starts   = slice(header, HEADER, clauses + 1);
+      this.literals = slice(header, HEADER + clauses + 1, count);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : slice
+    * Purpose    : returns part of an int buffer as a buffer of its own
+    * Parameters : buffer -> whole buffer
+    *              from   -> first int of the part
+    *              count  -> ints in the part
+    * Return     : IntBuffer -> the part, indexed from 0
+    **************************************************************************/
+   private static IntBuffer slice(IntBuffer buffer, int from, int count)
+   {
+      return buffer.duplicate().position(from).limit(from + count).slice();
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : build
+    * Purpose    : This method generates the rule clauses for a size and
+    *                 encoding options.
+    * Parameters : size    -> size of sudoku puzzle
+    *              amo     -> at-most-one encoding name
+    *              profile -> encoding profile name
+    * Return     : RuleTemplate -> template held on the heap
+    **************************************************************************/
+   public static RuleTemplate build(int size, String amo, String profile)
+      throws IOException
+   {
+      ClauseArena arena;   // LIST - rule clauses
+      Sudoku      encoder; // CALC - generates the rules
+      ByteBuffer  bytes;   // CALC - binary form
+      IntBuffer   ints;    // CALC - binary form as ints
+
+      // INITIALIZE
+      arena   = new ClauseArena();
+      encoder = new Sudoku(size, arena);
+      encoder.setAtMostOne(amo);
+      encoder.setProfile(profile);
+      encoder.encode(Runtime.getRuntime().availableProcessors());
+      bytes   = ByteBuffer.allocate(4 * (HEADER + arena.size() + 1
+                                         + arena.literalCount()))
+                          .order(ByteOrder.LITTLE_ENDIAN);
+      ints    = bytes.asIntBuffer();
+
+      ints.put(MAGIC).put(VERSION).put(size).put(amoIndex(amo))
+          .put(EncodingProfile.create(profile).ordinal())
+          .put(encoder.variables()).put(arena.size()).put(arena.literalCount());
+
+      // FOR - clause offsets, then the closing offset
+      for(int index = 0; index < arena.size(); ++index)
+      {
+         ints.put(arena.start(index));
+      }
+
+      ints.put(arena.literalCount());
+      ints.put(arena.literals(), 0, arena.literalCount());
+
+      return new RuleTemplate(bytes);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : amoIndex
+    * Purpose    : returns the index of an at-most-one encoding name
+    * Parameters : name -> at-most-one encoding name
+    * Return     : int  -> index into AtMostOne.NAMES
+    **************************************************************************/
+   private static int amoIndex(String name)
+   {
+      for(int index = 0; index < AtMostOne.NAMES.length; ++index)
+      {
+         if(AtMostOne.NAMES[index].equalsIgnoreCase(name))
+         {
+            return index;
+         }
+      }
+
+      throw new IllegalArgumentException("unknown at-most-one encoding: "
+                                         + name);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : load
+    * Purpose    : This method memory-maps a saved template.
+    * Parameters : file -> template file
+    * Return     : RuleTemplate -> template reading from the mapping
+    **************************************************************************/
+   public static RuleTemplate load(String file) throws IOException
+   {
+      // TRY - map the whole file; the mapping outlives the channel
+      try(FileChannel channel = FileChannel.open(Paths.get(file),
+                                                 StandardOpenOption.READ))
+      {
+         return new RuleTemplate(channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                                             channel.size()));
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : save
+    * Purpose    : This method writes the template to a file. It is written
+    *                 under a temporary name and moved into place, so a
+    *                 reader never maps a half written file.
+    * Parameters : file -> template file
+    * Return     : void
+    **************************************************************************/
+   public void save(String file) throws IOException
+   {
+      File       target; // CALC - final file
+      File       temp;   // CALC - file written first
+      ByteBuffer out;    // CALC - bytes left to write
+
+      // INITIALIZE
+      target = new File(file);
+      temp   = new File(file + ".tmp" + Thread.currentThread().getId());
+      out    = bytes.duplicate();
+      out.clear();
+
+      // TRY - write every byte, then move the file into place
+      try(FileChannel channel = FileChannel.open(temp.toPath(),
+                                   StandardOpenOption.CREATE,
+                                   StandardOpenOption.WRITE,
+                                   StandardOpenOption.TRUNCATE_EXISTING))
+      {
+         while(out.hasRemaining())
+         {
+            channel.write(out);
+         }
+      }
+
+      if(!temp.renameTo(target))
+      {
+         temp.delete();
+         throw new IOException("cannot write rule template " + file);
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : writeTo
+    * Purpose    : This method hands every rule clause to a sink
+    * Parameters : sink -> sink to copy clauses into
+    * Return     : void
+    **************************************************************************/
+   public void writeTo(ClauseSink sink) throws IOException
+   {
+      int[] clause; // ARRY - reused holder for one clause
+      int   length; // CALC - literals in the current clause
+
+      // INITIALIZE
+      clause = new int[64];
+
+      // FOR - copies each clause out of the template
+      for(int index = 0; index < clauses; ++index)
+      {
+         length = starts.get(index + 1) - starts.get(index);
+
+         if(length > clause.length)
+         {
+            clause = new int[length];
+         }
+
+         literals.get(starts.get(index), clause, 0, length);
+         sink.addClause(clause, length);
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : writeTo
+    * Purpose    : This method hands the rule clauses and then a unit clause
+    *                 for each of a puzzle's givens to a sink
+    * Parameters : sink   -> sink to copy clauses into
+    *              puzzle -> givens to add, or null for none
+    * Return     : int    -> number of clauses handed over
+    **************************************************************************/
+   public int writeTo(ClauseSink sink, Puzzle puzzle) throws IOException
+   {
+      VariableMap map;   // CALC - numbering of tile variables
+      int[]       unit;  // ARRY - unit clause being built
+      int         value; // CALC - given at the current tile
+
+      writeTo(sink);
+
+      // IF - no givens to add
+      if(puzzle == null)
+      {
+         return clauses;
+      }
+
+      // INITIALIZE
+      map  = new VariableMap(size);
+      unit = new int[1];
+
+      // DOUBLE FOR - a unit clause per given
+      for(int row = 1; row <= size; ++row)
+      {
+         for(int col = 1; col <= size; ++col)
+         {
+            value = puzzle.get(row, col);
+
+            if(value != 0)
+            {
+               unit[0] = map.variable(row, col, value);
+               sink.addClause(unit, 1);
+            }
+         }
+      }
+
+      return clauses + puzzle.givens();
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : matches
+    * Purpose    : returns true if the template was built for these options
+    * Parameters : size    -> size of sudoku puzzle
+    *              amo     -> at-most-one encoding name
+    *              profile -> encoding profile name
+    * Return     : boolean -> template fits the options
+    **************************************************************************/
+   public boolean matches(int size, String amo, String profile)
+   {
+      return this.size == size && this.amo == amoIndex(amo)
+             && this.profile == EncodingProfile.create(profile).ordinal();
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : size
+    * Purpose    : returns the size of puzzle the template is for
+    * Parameters : none
+    * Return     : int -> size of sudoku puzzle
+    **************************************************************************/
+   public int size()
+   {
+      return size;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : variables
+    * Purpose    : returns the number of variables the rules use
+    * Parameters : none
+    * Return     : int -> number of variables
+    **************************************************************************/
+   public int variables()
+   {
+      return variables;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : clauses
+    * Purpose    : returns the number of rule clauses
+    * Parameters : none
+    * Return     : int -> number of clauses
+    **************************************************************************/
+   public int clauses()
+   {
+      return clauses;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : literals
+    * Purpose    : returns the number of literals over all rule clauses
+    * Parameters : none
+    * Return     : int -> number of literals
+    **************************************************************************/
+   public int literals()
+   {
+      return literals.limit();
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : bytes
+    * Purpose    : returns the size of the binary form
+    * Parameters : none
+    * Return     : long -> bytes held or mapped
+    **************************************************************************/
+   public long bytes()
+   {
+      return bytes.capacity();
+   }
+}
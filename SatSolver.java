@@ -0,0 +1,1367 @@
+/*
+/******************************************************************************
+ * Name            : Eric Olaveson
+ * Date            : October 18, 2026
+ *
+ * This program will solve a CNF formula inside the JVM, so a sudoku encoded
+ *    by Sudoku can be solved without writing "nxnin", running minisat and
+ *    reading "nxnout" back.
+ *****************************************************************************/
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/* - CLASS -
+/******************************************************************************
+ * Name    : SatSolver
+ * Purpose : This class encapsulates a conflict driven clause learning SAT
+ *           solver in the style of minisat and glucose:
+ *
+ *              two watched literals with blockers for unit propagation
+ *              first UIP learning with local clause minimization
+ *              VSIDS variable activity kept in a binary heap, with phase
+ *                 saving
+ *              Luby restarts
+ *              solving under assumptions, so one solver can answer many
+ *                 queries and keep what it learnt between them
+ *              deletion of learnt clauses with a high literal block
+ *                 distance (LBD), with compaction of clause memory
+ *
+ *           Clauses arrive through the ClauseSink interface, so Sudoku can
+ *           encode straight into the solver. Literals are stored internally
+ *           as 2 * variable for a positive literal and 2 * variable + 1 for
+ *           a negative one. Every clause lives in one int array: a header of
+ *           its size and its flags, then its literals.
+ *****************************************************************************/
+public class SatSolver implements ClauseSink
+{
+   /* -CONSTANTS
+   /***************************************************************************
+    * SAT, UNSAT, UNKNOWN : results of solve(), using minisat's exit codes
+    * NONE                : no clause, used as the reason of a decision
+    * HEADER              : ints in front of the literals of each clause
+    * LEARNT, DELETED     : flag bits of a clause header
+    * RESTART_BASE        : conflicts in one unit of the Luby sequence
+    * REDUCE_BASE         : conflicts before the first learnt clause cleanup
+    * REDUCE_STEP         : extra conflicts added to each later interval
+    **************************************************************************/
+   public static final int SAT     = 10;
+   public static final int UNSAT   = 20;
+   public static final int UNKNOWN = 0;
+
+   private static final int NONE         = -1;
+   private static final int HEADER       = 2;
+   private static final int LEARNT       = 1;
+   private static final int DELETED      = 2;
+   private static final int RESTART_BASE = 100;
+   private static final int REDUCE_BASE  = 2000;
+   private static final int REDUCE_STEP  = 300;
+
+   /* -VARIABLES- */
+   private boolean  ok;          // BOOL - false once level 0 is contradictory
+   private int      variables;   // CALC - highest variable seen
+   private int[]    mem;         // ARRY - clause memory
+   private int      memUsed;     // CALC - ints of clause memory in use
+   private int      wasted;      // CALC - ints held by deleted clauses
+   private int[]    clauses;     // ARRY - references of original clauses
+   private int      nClauses;    // CALC - original clauses held
+   private int[]    learnts;     // ARRY - references of learnt clauses
+   private int      nLearnts;    // CALC - learnt clauses held
+   private long     nextReduce;  // CALC - conflict count of next cleanup
+   private int      reductions;  // CALC - cleanups so far
+   private int      compactions; // CALC - clause memory compactions so far
+   private byte[]   value;       // ARRY - 1 true, -1 false, 0 free, by literal
+   private int[]    level;       // ARRY - decision level of each variable
+   private int[]    reason;      // ARRY - clause that implied each variable
+   private byte[]   polarity;    // ARRY - last sign each variable had
+   private byte[]   seen;        // ARRY - marks used by conflict analysis
+   private double[] activity;    // ARRY - VSIDS score of each variable
+   private double   varInc;      // CALC - amount a variable is bumped by
+   private int[][]  watches;     // ARRY - (clause, blocker) pairs by literal
+   private int[]    watchCount;  // ARRY - ints used in each watch list
+   private int[]    trail;       // ARRY - assigned literals in order
+   private int      trailSize;   // CALC - literals on the trail
+   private int[]    trailLim;    // ARRY - trail size at each decision
+   private int      decisions;   // CALC - current decision level
+   private int      qhead;       // CALC - next trail literal to propagate
+   private int[]    heap;        // ARRY - free variables by activity
+   private int      heapSize;    // CALC - variables in the heap
+   private int[]    heapIndex;   // ARRY - heap position of each variable
+   private int[]    learnt;      // ARRY - clause being learnt
+   private int      learntSize;  // CALC - literals in learnt clause
+   private int[]    toClear;     // ARRY - marked literals of analysis
+   private int[]    levelStamp;  // ARRY - marks used to count LBD
+   private int      stamp;       // CALC - current LBD mark
+   private int[]    scratch;     // ARRY - clause being added
+   private boolean[] model;      // ARRY - value of each variable if SAT
+   private int[]    assumptions; // ARRY - literals assumed by this solve
+   private int      nAssumptions; // CALC - literals assumed by this solve
+   private long     conflicts;   // CALC - conflicts so far
+   private long     propagations; // CALC - literals propagated so far
+   private AtomicBoolean stop;   // CALC - flag that ends a solve, or null
+
+   /* - CONSTRUCTOR -
+   /***************************************************************************
+    * Name       : SatSolver
+    * Purpose    : Create an empty solver. Variables are added as clauses
+    *                 that mention them arrive.
+    * Parameters : none
+    **************************************************************************/
+   public SatSolver()
+   {
+      // INITIALIZE
+      this.ok         = true;
+      this.variables  = 0;
+      this.mem        = new int[1 << 16];
+      this.clauses    = new int[1024];
+      this.learnts    = new int[1024];
+      this.varInc     = 1.0;
+      this.learnt     = new int[64];
+      this.toClear    = new int[64];
+      this.scratch    = new int[64];
+      this.levelStamp = new int[64];
+      this.assumptions = new int[16];
+
+      grow(64);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : grow
+    * Purpose    : This method makes room for variables up to capacity - 1
+    * Parameters : capacity -> new length of the per variable arrays
+    * Return     : void
+    **************************************************************************/
+   private void grow(int capacity)
+   {
+      int old; // CALC - previous length of the watch arrays
+
+      // INITIALIZE
+      old = (watches == null) ? 0 : watches.length;
+
+      value      = copy(value, 2 * capacity);
+      level      = copy(level, capacity);
+      reason     = copy(reason, capacity);
+      polarity   = copy(polarity, capacity);
+      seen       = copy(seen, capacity);
+      activity   = (activity == null) ? new double[capacity]
+                                      : Arrays.copyOf(activity, capacity);
+      trail      = copy(trail, capacity);
+      trailLim   = copy(trailLim, capacity);
+      heap       = copy(heap, capacity);
+      heapIndex  = copy(heapIndex, capacity);
+      levelStamp = copy(levelStamp, capacity);
+      watchCount = copy(watchCount, 2 * capacity);
+      watches    = (watches == null) ? new int[2 * capacity][]
+                                     : Arrays.copyOf(watches, 2 * capacity);
+
+      // FOR - every new literal starts with a small watch list
+      for(int index = old; index < watches.length; ++index)
+      {
+         watches[index] = new int[8];
+      }
+   }
+
+   private static int[] copy(int[] array, int length)
+   {
+      return (array == null) ? new int[length] : Arrays.copyOf(array, length);
+   }
+
+   private static byte[] copy(byte[] array, int length)
+   {
+      return (array == null) ? new byte[length] : Arrays.copyOf(array, length);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : ensureVariable
+    * Purpose    : This method adds every variable up to the one given
+    * Parameters : variable -> highest variable a clause mentions
+    * Return     : void
+    **************************************************************************/
+   private void ensureVariable(int variable)
+   {
+      // IF - per variable arrays are full
+      if(variable >= heap.length)
+      {
+         grow(Math.max(variable + 1, heap.length * 2));
+      }
+
+      // WHILE - new variables start free, negative, and in the heap
+      while(variables < variable)
+      {
+         ++variables;
+         reason[variables]    = NONE;
+         polarity[variables]  = 1;
+         heapIndex[variables] = -1;
+         heapInsert(variables);
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : addClause
+    * Purpose    : This method adds an original clause. Literals false at
+    *                 level 0 are dropped and clauses already true skipped; a
+    *                 unit clause is assigned and propagated at once.
+    * Parameters : literals -> DIMACS literals of the clause
+    *              count    -> number of literals used from the array
+    * Return     : void
+    **************************************************************************/
+   public void addClause(int[] literals, int count)
+   {
+      addClause(literals, 0, count);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : addClause
+    * Purpose    : This method adds an original clause held anywhere in an
+    *                 array.
+    * Parameters : literals -> array holding the DIMACS literals
+    *              from     -> index of the first literal of the clause
+    *              count    -> number of literals in the clause
+    * Return     : void
+    **************************************************************************/
+   public void addClause(int[] literals, int from, int count)
+   {
+      int size; // CALC - literals kept
+      int lit;  // CALC - internal literal
+
+      // IF - already unsatisfiable
+      if(!ok)
+      {
+         return;
+      }
+
+      cancelUntil(0);
+
+      // IF - scratch array is too small
+      if(count > scratch.length)
+      {
+         scratch = new int[Math.max(count, scratch.length * 2)];
+      }
+
+      // INITIALIZE
+      size = 0;
+
+      // FOR - make sure every variable exists
+      for(int index = from; index < from + count; ++index)
+      {
+         ensureVariable(Math.abs(literals[index]));
+      }
+
+      // FOR - convert, drop false and repeated literals, skip true clauses
+      for(int index = from; index < from + count; ++index)
+      {
+         lit = internal(literals[index]);
+
+         if(value[lit] == 1 || seen[lit >> 1] == ((lit & 1) == 0 ? 2 : 1))
+         {
+            size = -1;
+            break;
+         }
+         else if(value[lit] == 0 && seen[lit >> 1] == 0)
+         {
+            seen[lit >> 1]  = (byte)((lit & 1) == 0 ? 1 : 2);
+            scratch[size++] = lit;
+         }
+      }
+
+      // FOR - clear marks left by the loop above
+      for(int index = from; index < from + count; ++index)
+      {
+         seen[Math.abs(literals[index])] = 0;
+      }
+
+      if(size < 0)
+      {
+         return;
+      }
+      else if(size == 0)
+      {
+         ok = false;
+      }
+      else if(size == 1)
+      {
+         enqueue(scratch[0], NONE);
+         ok = (propagate() == NONE);
+      }
+      else
+      {
+         clauses  = push(clauses, nClauses, attach(alloc(scratch, size, false,
+                                                         0)));
+         ++nClauses;
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : addComment
+    * Purpose    : Comments are of no use to the solver.
+    * Parameters : comment -> comment line
+    * Return     : void
+    **************************************************************************/
+   public void addComment(String comment)
+   {
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : addClauses
+    * Purpose    : This method adds every clause of an arena
+    * Parameters : arena -> clauses to add
+    * Return     : void
+    **************************************************************************/
+   public void addClauses(ClauseArena arena)
+   {
+      int[] literal; // ARRY - literals of the arena
+
+      // INITIALIZE
+      literal = arena.literals();
+
+      // FOR - adds each clause straight out of the arena
+      for(int index = 0; index < arena.size(); ++index)
+      {
+         addClause(literal, arena.start(index), arena.length(index));
+      }
+   }
+
+   private static int internal(int literal)
+   {
+      return (literal > 0) ? (literal << 1) : ((-literal << 1) | 1);
+   }
+
+   private static int[] push(int[] list, int size, int item)
+   {
+      if(size == list.length)
+      {
+         list = Arrays.copyOf(list, size * 2);
+      }
+
+      list[size] = item;
+      return list;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : alloc
+    * Purpose    : This method copies a clause into clause memory
+    * Parameters : lits   -> internal literals
+    *              size   -> number of literals
+    *              isLrnt -> clause was learnt
+    *              lbd    -> literal block distance of a learnt clause
+    * Return     : int    -> reference of the new clause
+    **************************************************************************/
+   private int alloc(int[] lits, int size, boolean isLrnt, int lbd)
+   {
+      int ref; // CALC - offset of the clause in memory
+
+      // IF - clause memory is full
+      if(memUsed + HEADER + size > mem.length)
+      {
+         mem = Arrays.copyOf(mem, Math.max(mem.length * 2,
+                                           memUsed + HEADER + size));
+      }
+
+      // INITIALIZE
+      ref          = memUsed;
+      mem[ref]     = size;
+      mem[ref + 1] = (lbd << 2) | (isLrnt ? LEARNT : 0);
+
+      System.arraycopy(lits, 0, mem, ref + HEADER, size);
+      memUsed += HEADER + size;
+
+      return ref;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : attach
+    * Purpose    : This method watches the first two literals of a clause
+    * Parameters : ref -> clause reference
+    * Return     : int -> the same reference
+    **************************************************************************/
+   private int attach(int ref)
+   {
+      watch(mem[ref + HEADER], ref, mem[ref + HEADER + 1]);
+      watch(mem[ref + HEADER + 1], ref, mem[ref + HEADER]);
+
+      return ref;
+   }
+
+   private void watch(int lit, int ref, int blocker)
+   {
+      if(watchCount[lit] + 2 > watches[lit].length)
+      {
+         watches[lit] = Arrays.copyOf(watches[lit], watches[lit].length * 2);
+      }
+
+      watches[lit][watchCount[lit]++] = ref;
+      watches[lit][watchCount[lit]++] = blocker;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : enqueue
+    * Purpose    : This method makes a literal true at the current level
+    * Parameters : lit  -> internal literal
+    *              from -> clause that implied it, or NONE
+    * Return     : void
+    **************************************************************************/
+   private void enqueue(int lit, int from)
+   {
+      value[lit]          = 1;
+      value[lit ^ 1]      = -1;
+      level[lit >> 1]     = decisions;
+      reason[lit >> 1]    = from;
+      trail[trailSize++]  = lit;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : propagate
+    * Purpose    : This method runs unit propagation over the watch lists
+    *                 until nothing is left to propagate or a clause fails.
+    * Parameters : none
+    * Return     : int -> failed clause, or NONE
+    **************************************************************************/
+   private int propagate()
+   {
+      int   conflict; // CALC - failed clause, if any
+      int   falseLit; // CALC - literal that just became false
+      int[] list;     // ARRY - watch list of falseLit
+      int   end;      // CALC - ints used in the watch list
+      int   kept;     // CALC - ints kept in the watch list
+      int   ref;      // CALC - clause being visited
+      int   first;    // CALC - other watched literal of the clause
+      int   lits;     // CALC - offset of the clause's literals
+      boolean moved;  // BOOL - watch moved to another literal
+
+      // INITIALIZE
+      conflict = NONE;
+
+      // WHILE - literals on the trail still need propagating
+      while(qhead < trailSize)
+      {
+         falseLit = trail[qhead++] ^ 1;
+         list     = watches[falseLit];
+         end      = watchCount[falseLit];
+         kept     = 0;
+         ++propagations;
+
+         // FOR - visit each clause watching the false literal
+         for(int index = 0; index < end; index += 2)
+         {
+            ref = list[index];
+
+            // IF - blocker already satisfies the clause
+            if(value[list[index + 1]] == 1)
+            {
+               list[kept++] = ref;
+               list[kept++] = list[index + 1];
+               continue;
+            }
+
+            // CALC - keep the false literal in the second slot
+            lits = ref + HEADER;
+
+            if(mem[lits] == falseLit)
+            {
+               mem[lits]     = mem[lits + 1];
+               mem[lits + 1] = falseLit;
+            }
+
+            first = mem[lits];
+
+            // IF - other watch satisfies the clause
+            if(value[first] == 1)
+            {
+               list[kept++] = ref;
+               list[kept++] = first;
+               continue;
+            }
+
+            // FOR - look for a literal that is not false to watch instead
+            moved = false;
+
+            for(int k = 2; k < mem[ref]; ++k)
+            {
+               if(value[mem[lits + k]] != -1)
+               {
+                  mem[lits + 1] = mem[lits + k];
+                  mem[lits + k] = falseLit;
+                  watch(mem[lits + 1], ref, first);
+                  moved = true;
+                  break;
+               }
+            }
+
+            if(moved)
+            {
+               continue;
+            }
+
+            // CALC - clause is unit or failed, it keeps this watch
+            list[kept++] = ref;
+            list[kept++] = first;
+
+            if(value[first] == -1)
+            {
+               conflict = ref;
+               qhead    = trailSize;
+
+               // FOR - keep the watches not yet visited
+               for(int rest = index + 2; rest < end; ++rest)
+               {
+                  list[kept++] = list[rest];
+               }
+
+               break;
+            }
+
+            enqueue(first, ref);
+         }
+
+         watchCount[falseLit] = kept;
+      }
+
+      return conflict;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : analyze
+    * Purpose    : This method learns the first UIP clause of a conflict into
+    *                 learnt[], with the asserting literal first and the
+    *                 literal of the next highest level second.
+    * Parameters : conflict -> failed clause
+    * Return     : int      -> level to backtrack to
+    **************************************************************************/
+   private int analyze(int conflict)
+   {
+      int pathCount; // CALC - literals of the current level still to see
+      int lit;       // CALC - literal being resolved on
+      int index;     // CALC - position on the trail
+      int start;     // CALC - first literal of the clause to look at
+      int back;      // CALC - level to backtrack to
+      int size;      // CALC - literals kept after minimization
+      int q;         // CALC - literal of a clause
+
+      // INITIALIZE
+      pathCount  = 0;
+      lit        = -1;
+      index      = trailSize - 1;
+      learntSize = 1;
+
+      // DO - resolve back along the trail to the first UIP
+      do
+      {
+         start = (lit == -1) ? 0 : 1;
+
+         for(int k = start; k < mem[conflict]; ++k)
+         {
+            q = mem[conflict + HEADER + k];
+
+            if(seen[q >> 1] == 0 && level[q >> 1] > 0)
+            {
+               bump(q >> 1);
+               seen[q >> 1] = 1;
+
+               if(level[q >> 1] >= decisions)
+               {
+                  ++pathCount;
+               }
+               else
+               {
+                  learnt = push(learnt, learntSize++, q);
+               }
+            }
+         }
+
+         // WHILE - find the next marked literal on the trail
+         while(seen[trail[index--] >> 1] == 0)
+         {
+         }
+
+         lit          = trail[index + 1];
+         conflict     = reason[lit >> 1];
+         seen[lit >> 1] = 0;
+         --pathCount;
+      }
+      while(pathCount > 0);
+
+      learnt[0] = lit ^ 1;
+
+      // CALC - remember every marked literal before any are dropped
+      if(toClear.length < learntSize)
+      {
+         toClear = new int[learnt.length];
+      }
+
+      System.arraycopy(learnt, 0, toClear, 0, learntSize);
+
+      // FOR - drop literals whose reason is already in the clause
+      size = 1;
+
+      for(int k = 1; k < learntSize; ++k)
+      {
+         if(!redundant(learnt[k]))
+         {
+            learnt[size++] = learnt[k];
+         }
+      }
+
+      // FOR - clear marks
+      for(int k = 1; k < learntSize; ++k)
+      {
+         seen[toClear[k] >> 1] = 0;
+      }
+
+      learntSize = size;
+      back       = 0;
+
+      // FOR - move the highest level literal to the second slot
+      for(int k = 1; k < learntSize; ++k)
+      {
+         if(level[learnt[k] >> 1] > back)
+         {
+            back      = level[learnt[k] >> 1];
+            q         = learnt[1];
+            learnt[1] = learnt[k];
+            learnt[k] = q;
+         }
+      }
+
+      return back;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : redundant
+    * Purpose    : returns true if every other literal of the reason of lit
+    *                 is already in the learnt clause or fixed at level 0
+    * Parameters : lit -> literal of the learnt clause
+    * Return     : boolean -> lit can be dropped
+    **************************************************************************/
+   private boolean redundant(int lit)
+   {
+      int ref; // CALC - reason of the literal's variable
+
+      // INITIALIZE
+      ref = reason[lit >> 1];
+
+      if(ref == NONE)
+      {
+         return false;
+      }
+
+      // FOR - every literal but the implied one
+      for(int k = 1; k < mem[ref]; ++k)
+      {
+         int q = mem[ref + HEADER + k];
+
+         if(seen[q >> 1] == 0 && level[q >> 1] > 0)
+         {
+            return false;
+         }
+      }
+
+      return true;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : lbd
+    * Purpose    : returns the number of distinct levels in the learnt clause
+    * Parameters : none
+    * Return     : int -> literal block distance
+    **************************************************************************/
+   private int lbd()
+   {
+      int count; // CALC - distinct levels seen
+
+      // INITIALIZE
+      count = 0;
+      ++stamp;
+
+      for(int k = 0; k < learntSize; ++k)
+      {
+         int lvl = level[learnt[k] >> 1];
+
+         if(levelStamp[lvl] != stamp)
+         {
+            levelStamp[lvl] = stamp;
+            ++count;
+         }
+      }
+
+      return count;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : cancelUntil
+    * Purpose    : This method undoes every assignment above a level, saving
+    *                 each variable's sign and putting it back in the heap.
+    * Parameters : target -> level to go back to
+    * Return     : void
+    **************************************************************************/
+   private void cancelUntil(int target)
+   {
+      int var; // CALC - variable being unassigned
+
+      // IF - nothing to undo
+      if(decisions <= target)
+      {
+         return;
+      }
+
+      // FOR - undo the trail back to the target level
+      for(int index = trailSize - 1; index >= trailLim[target]; --index)
+      {
+         var             = trail[index] >> 1;
+         value[var << 1] = 0;
+         value[(var << 1) | 1] = 0;
+         reason[var]     = NONE;
+         polarity[var]   = (byte)(trail[index] & 1);
+
+         if(heapIndex[var] < 0)
+         {
+            heapInsert(var);
+         }
+      }
+
+      trailSize = trailLim[target];
+      qhead     = trailSize;
+      decisions = target;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : solve
+    * Purpose    : This method searches for a model, restarting after a Luby
+    *                 sequence of conflict counts.
+    * Parameters : none
+    * Return     : int -> SAT, UNSAT, or UNKNOWN if stopped
+    **************************************************************************/
+   public int solve()
+   {
+      return solve(null, 0);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : solve
+    * Purpose    : This method searches for a model in which every assumed
+    *                 literal is true. Assumptions are taken as the first
+    *                 decisions, so nothing learnt depends on them: learnt
+    *                 clauses are kept for the next call, and UNSAT under
+    *                 assumptions leaves the solver usable.
+    * Parameters : assumed -> DIMACS literals to assume, or null for none
+    *              count   -> number of literals used from the array
+    * Return     : int     -> SAT, UNSAT if no model has them all true, or
+    *                           UNKNOWN if the stop flag ended the search
+    **************************************************************************/
+   public int solve(int[] assumed, int count)
+   {
+      int status;   // CALC - result of the last search
+      int restarts; // CALC - restarts so far
+
+      // INITIALIZE
+      model        = null;
+      status       = UNKNOWN;
+      restarts     = 0;
+      nAssumptions = 0;
+
+      if(!ok)
+      {
+         return UNSAT;
+      }
+
+      cancelUntil(0);
+
+      // IF - assumption array is too small
+      if(count > assumptions.length)
+      {
+         assumptions = new int[count];
+      }
+
+      // FOR - convert each assumption
+      for(int index = 0; index < count; ++index)
+      {
+         ensureVariable(Math.abs(assumed[index]));
+         assumptions[nAssumptions++] = internal(assumed[index]);
+      }
+
+      // IF - an assumption already true still opens a level of its own
+      if(heap.length + count > trailLim.length)
+      {
+         trailLim   = Arrays.copyOf(trailLim, heap.length + count);
+         levelStamp = Arrays.copyOf(levelStamp, heap.length + count);
+      }
+
+      if(nextReduce == 0)
+      {
+         nextReduce = conflicts + REDUCE_BASE;
+      }
+
+      // WHILE - search until an answer is found or the caller gives up
+      while(status == UNKNOWN && (stop == null || !stop.get()))
+      {
+         status = search((int)(luby(restarts++) * RESTART_BASE));
+      }
+
+      if(status == SAT)
+      {
+         model = new boolean[variables + 1];
+
+         for(int var = 1; var <= variables; ++var)
+         {
+            model[var] = (value[var << 1] == 1);
+         }
+      }
+
+      cancelUntil(0);
+      nAssumptions = 0;
+
+      return status;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : search
+    * Purpose    : This method decides and propagates until a model is found,
+    *                 the formula is refuted, or too many conflicts happen.
+    * Parameters : limit -> conflicts allowed before restarting
+    * Return     : int   -> SAT, UNSAT or UNKNOWN to restart
+    **************************************************************************/
+   private int search(int limit)
+   {
+      int conflict; // CALC - failed clause
+      int count;    // CALC - conflicts in this search
+      int back;     // CALC - level to backtrack to
+      int next;     // CALC - next decision literal
+      int ref;      // CALC - new learnt clause
+
+      // INITIALIZE
+      count = 0;
+
+      // WHILE - search
+      while(true)
+      {
+         conflict = propagate();
+
+         if(conflict != NONE)
+         {
+            ++conflicts;
+            ++count;
+
+            if(decisions == 0)
+            {
+               ok = false;
+               return UNSAT;
+            }
+
+            // IF - asked to stop; solve() sees the flag and gives up
+            if(stop != null && stop.get())
+            {
+               cancelUntil(0);
+               return UNKNOWN;
+            }
+
+            back = analyze(conflict);
+            cancelUntil(back);
+
+            if(learntSize == 1)
+            {
+               enqueue(learnt[0], NONE);
+            }
+            else
+            {
+               ref     = attach(alloc(learnt, learntSize, true, lbd()));
+               learnts = push(learnts, nLearnts++, ref);
+               enqueue(learnt[0], ref);
+            }
+
+            varInc /= 0.95;
+         }
+         else
+         {
+            if(count >= limit)
+            {
+               cancelUntil(0);
+               return UNKNOWN;
+            }
+
+            if(conflicts >= nextReduce)
+            {
+               ++reductions;
+               nextReduce = conflicts + REDUCE_BASE
+                            + ((long)REDUCE_STEP * reductions);
+               reduce();
+            }
+
+            next = -1;
+
+            // WHILE - assumptions come first, one level each
+            while(decisions < nAssumptions && next < 0)
+            {
+               int lit = assumptions[decisions]; // CALC - assumed literal
+
+               if(value[lit] == 1)
+               {
+                  trailLim[decisions++] = trailSize;
+               }
+               else if(value[lit] == -1)
+               {
+                  cancelUntil(0);
+                  return UNSAT;
+               }
+               else
+               {
+                  next = lit;
+               }
+            }
+
+            if(next < 0)
+            {
+               next = pickBranch();
+            }
+
+            if(next < 0)
+            {
+               return SAT;
+            }
+
+            trailLim[decisions++] = trailSize;
+            enqueue(next, NONE);
+         }
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : pickBranch
+    * Purpose    : returns the saved sign of the free variable with the
+    *                 highest activity
+    * Parameters : none
+    * Return     : int -> decision literal, or -1 if every variable is set
+    **************************************************************************/
+   private int pickBranch()
+   {
+      int var; // CALC - candidate variable
+
+      // WHILE - heap may still hold assigned variables
+      while(heapSize > 0)
+      {
+         var = heapPop();
+
+         if(value[var << 1] == 0)
+         {
+            return (var << 1) | polarity[var];
+         }
+      }
+
+      return -1;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : reduce
+    * Purpose    : This method deletes the half of the learnt clauses with the
+    *                 highest LBD, keeping binary clauses, clauses with LBD 2
+    *                 and clauses that are the reason of an assignment.
+    * Parameters : none
+    * Return     : void
+    **************************************************************************/
+   private void reduce()
+   {
+      long[] order; // ARRY - (worst LBD first, position) of each learnt
+      int    ref;   // CALC - learnt clause
+      int    kept;  // CALC - learnt clauses kept
+
+      // INITIALIZE
+      order = new long[nLearnts];
+
+      for(int index = 0; index < nLearnts; ++index)
+      {
+         order[index] = ((long)(Integer.MAX_VALUE
+                                - (mem[learnts[index] + 1] >>> 2)) << 32)
+                        | index;
+      }
+
+      Arrays.sort(order);
+
+      // FOR - delete from the worst half
+      for(int index = 0; index < nLearnts / 2; ++index)
+      {
+         ref = learnts[(int)order[index]];
+
+         if(mem[ref] > 2 && (mem[ref + 1] >>> 2) > 2 && !locked(ref))
+         {
+            mem[ref + 1] |= DELETED;
+            wasted += HEADER + mem[ref];
+         }
+      }
+
+      // FOR - keep the rest in their original order
+      kept = 0;
+
+      for(int index = 0; index < nLearnts; ++index)
+      {
+         if((mem[learnts[index] + 1] & DELETED) == 0)
+         {
+            learnts[kept++] = learnts[index];
+         }
+      }
+
+      nLearnts = kept;
+
+      // IF - most of memory is deleted clauses
+      if(wasted > memUsed / 2)
+      {
+         compact();
+      }
+      else
+      {
+         purgeWatches();
+      }
+   }
+
+   private boolean locked(int ref)
+   {
+      int lit = mem[ref + HEADER]; // CALC - implied literal, if any
+
+      return value[lit] == 1 && reason[lit >> 1] == ref;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : purgeWatches
+    * Purpose    : This method drops deleted clauses from every watch list
+    * Parameters : none
+    * Return     : void
+    **************************************************************************/
+   private void purgeWatches()
+   {
+      int kept; // CALC - ints kept in a watch list
+
+      for(int lit = 2; lit < 2 * (variables + 1); ++lit)
+      {
+         kept = 0;
+
+         for(int index = 0; index < watchCount[lit]; index += 2)
+         {
+            if((mem[watches[lit][index] + 1] & DELETED) == 0)
+            {
+               watches[lit][kept++] = watches[lit][index];
+               watches[lit][kept++] = watches[lit][index + 1];
+            }
+         }
+
+         watchCount[lit] = kept;
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : compact
+    * Purpose    : This method copies live clauses into fresh memory, moves
+    *                 the references that point at them and rebuilds the
+    *                 watch lists.
+    * Parameters : none
+    * Return     : void
+    **************************************************************************/
+   private void compact()
+   {
+      int[] fresh; // ARRY - new clause memory
+      int   used;  // CALC - ints of new memory in use
+
+      // INITIALIZE
+      fresh = new int[Math.max(memUsed - wasted + 1024, 1 << 16)];
+      used  = 0;
+
+      // FOR - move each clause, leaving its new reference behind
+      for(int pass = 0; pass < 2; ++pass)
+      {
+         int[] list  = (pass == 0) ? clauses : learnts;
+         int   count = (pass == 0) ? nClauses : nLearnts;
+
+         for(int index = 0; index < count; ++index)
+         {
+            int ref  = list[index];
+            int size = HEADER + mem[ref];
+
+            System.arraycopy(mem, ref, fresh, used, size);
+            mem[ref + 1] = used;
+            list[index]  = used;
+            used        += size;
+         }
+      }
+
+      // FOR - reasons follow their clauses
+      for(int index = 0; index < trailSize; ++index)
+      {
+         int var = trail[index] >> 1;
+
+         if(reason[var] != NONE)
+         {
+            reason[var] = mem[reason[var] + 1];
+         }
+      }
+
+      mem     = fresh;
+      memUsed = used;
+      wasted  = 0;
+      ++compactions;
+
+      // FOR - rebuild watch lists
+      Arrays.fill(watchCount, 0);
+
+      for(int index = 0; index < nClauses; ++index)
+      {
+         attach(clauses[index]);
+      }
+
+      for(int index = 0; index < nLearnts; ++index)
+      {
+         attach(learnts[index]);
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : bump
+    * Purpose    : This method raises a variable's activity, rescaling all
+    *                 activities if they grow too large
+    * Parameters : var -> variable involved in a conflict
+    * Return     : void
+    **************************************************************************/
+   private void bump(int var)
+   {
+      activity[var] += varInc;
+
+      if(activity[var] > 1e100)
+      {
+         for(int index = 1; index <= variables; ++index)
+         {
+            activity[index] *= 1e-100;
+         }
+
+         varInc *= 1e-100;
+      }
+
+      if(heapIndex[var] >= 0)
+      {
+         heapUp(heapIndex[var]);
+      }
+   }
+
+   private static double luby(int index)
+   {
+      int size; // CALC - length of the current Luby block
+      int seq;  // CALC - exponent of the current Luby block
+
+      // INITIALIZE
+      size = 1;
+      seq  = 0;
+
+      while(size < index + 1)
+      {
+         ++seq;
+         size = (2 * size) + 1;
+      }
+
+      while(size - 1 != index)
+      {
+         size   = (size - 1) >> 1;
+         --seq;
+         index  = index % size;
+      }
+
+      return Math.pow(2, seq);
+   }
+
+   private void heapInsert(int var)
+   {
+      heapIndex[var]   = heapSize;
+      heap[heapSize++] = var;
+      heapUp(heapSize - 1);
+   }
+
+   private int heapPop()
+   {
+      int top = heap[0]; // CALC - variable with the highest activity
+
+      heapIndex[top] = -1;
+      --heapSize;
+
+      if(heapSize > 0)
+      {
+         heap[0]            = heap[heapSize];
+         heapIndex[heap[0]] = 0;
+         heapDown(0);
+      }
+
+      return top;
+   }
+
+   private void heapUp(int index)
+   {
+      int var = heap[index]; // CALC - variable moving up
+
+      while(index > 0 && activity[heap[(index - 1) >> 1]] < activity[var])
+      {
+         heap[index]            = heap[(index - 1) >> 1];
+         heapIndex[heap[index]] = index;
+         index                  = (index - 1) >> 1;
+      }
+
+      heap[index]    = var;
+      heapIndex[var] = index;
+   }
+
+   private void heapDown(int index)
+   {
+      int var = heap[index]; // CALC - variable moving down
+      int child;             // CALC - larger child
+
+      while((2 * index) + 1 < heapSize)
+      {
+         child = (2 * index) + 1;
+
+         if(child + 1 < heapSize
+            && activity[heap[child + 1]] > activity[heap[child]])
+         {
+            ++child;
+         }
+
+         if(activity[heap[child]] <= activity[var])
+         {
+            break;
+         }
+
+         heap[index]            = heap[child];
+         heapIndex[heap[index]] = index;
+         index                  = child;
+      }
+
+      heap[index]    = var;
+      heapIndex[var] = index;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : model
+    * Purpose    : returns the model found by the last call to solve() as
+    *                 DIMACS literals, one per variable, or null if the last
+    *                 call did not return SAT
+    * Parameters : none
+    * Return     : int[] -> literal of variable i at index i - 1
+    **************************************************************************/
+   public int[] model()
+   {
+      int[] literals; // ARRY - signed literal of each variable
+
+      if(model == null)
+      {
+         return null;
+      }
+
+      // INITIALIZE
+      literals = new int[variables];
+
+      for(int var = 1; var <= variables; ++var)
+      {
+         literals[var - 1] = model[var] ? var : -var;
+      }
+
+      return literals;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : modelValue
+    * Purpose    : returns the value of a variable in the last model
+    * Parameters : variable -> variable number
+    * Return     : boolean  -> true if the variable is true
+    **************************************************************************/
+   public boolean modelValue(int variable)
+   {
+      return model != null && variable <= variables && model[variable];
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : variables
+    * Purpose    : returns the highest variable the solver knows of
+    * Parameters : none
+    * Return     : int -> number of variables
+    **************************************************************************/
+   public int variables()
+   {
+      return variables;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : setStop
+    * Purpose    : This method sets a flag read at every conflict; once it is
+    *                 set, solve() returns UNKNOWN. Learnt clauses are kept,
+    *                 so the solver can be used again.
+    * Parameters : stop -> flag that ends a solve, or null for none
+    * Return     : void
+    **************************************************************************/
+   public void setStop(AtomicBoolean stop)
+   {
+      this.stop = stop;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : conflicts
+    * Purpose    : returns the number of conflicts found so far
+    * Parameters : none
+    * Return     : long -> conflicts
+    **************************************************************************/
+   public long conflicts()
+   {
+      return conflicts;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : reductions
+    * Purpose    : returns the number of learnt clause cleanups so far
+    * Parameters : none
+    * Return     : int -> cleanups
+    **************************************************************************/
+   public int reductions()
+   {
+      return reductions;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : compactions
+    * Purpose    : returns the number of times clause memory was compacted
+    * Parameters : none
+    * Return     : int -> compactions
+    **************************************************************************/
+   public int compactions()
+   {
+      return compactions;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : propagations
+    * Purpose    : returns the number of literals propagated so far
+    * Parameters : none
+    * Return     : long -> propagations
+    **************************************************************************/
+   public long propagations()
+   {
+      return propagations;
+   }
+}
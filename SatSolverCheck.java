@@ -0,0 +1,454 @@
+/*
+/******************************************************************************
+ * Name            : Eric Olaveson
+ * Date            : October 18, 2026
+ *
+ * This program will check the answers of SatSolver against a brute force
+ *    search, with and without assumptions, and on CNFs hard enough to make
+ *    it clean up its learnt clauses.
+ *****************************************************************************/
+import java.util.Random;
+
+/* - CLASS -
+/******************************************************************************
+ * Name    : SatSolverCheck
+ * Purpose : This class solves small random CNFs with a SatSolver and checks
+ *           each answer against a brute force search: the solver must call
+ *           a CNF satisfiable exactly when a model exists, and the model it
+ *           hands back must satisfy every clause. Each CNF is solved under
+ *           a few random assumptions, which must hold in the model too, and
+ *           then again on the same solver without any, so an assumption
+ *           that lingered as a clause is caught. Small CNFs never reach the
+ *           first cleanup of learnt clauses, so the check also solves random
+ *           3-SAT CNFs with a planted model, which must be satisfiable, and
+ *           a pigeonhole CNF, which must not be, until reduce() and
+ *           compact() have run MIN_REDUCTIONS times between them; each model
+ *           found along the way must still satisfy every clause.
+ *****************************************************************************/
+public class SatSolverCheck
+{
+   /* -CONSTANTS
+   /***************************************************************************
+    * ROUNDS         : random CNFs checked by default
+    * MAX_VARS       : most variables in a random CNF
+    * MAX_ASSUMED    : most literals assumed in one solve
+    * PLANTED_VARS   : variables of a planted 3-SAT CNF
+    * PLANTED_RATIO  : clauses per variable of a planted CNF, near the
+    *                  hardest ratio
+    * MAX_PLANTED    : most planted CNFs solved to reach MIN_REDUCTIONS
+    * HOLES          : holes of the pigeonhole CNF, with one pigeon more
+    * MIN_REDUCTIONS : learnt clause cleanups the hard CNFs must cause
+    **************************************************************************/
+   public static final int    ROUNDS         = 2000;
+   public static final int    MAX_VARS       = 12;
+   public static final int    MAX_ASSUMED    = 3;
+   public static final int    PLANTED_VARS   = 400;
+   public static final double PLANTED_RATIO  = 4.26;
+   public static final int    MAX_PLANTED    = 20;
+   public static final int    HOLES          = 8;
+   public static final int    MIN_REDUCTIONS = 12;
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : check
+    * Purpose    : This method checks one CNF under one set of assumptions,
+    *                 then without them
+    * Parameters : cnf       -> clauses as DIMACS literals
+    *              variables -> variables of the CNF
+    *              assumed   -> literals to assume, possibly none
+    * Return     : String    -> null if it passed, else what went wrong
+    **************************************************************************/
+   public static String check(int[][] cnf, int variables, int[] assumed)
+   {
+      SatSolver solver;  // CALC - solver being checked
+      int[][]   units;   // ARRY - the CNF with the assumptions as units
+      String    problem; // STRN - what went wrong, or null
+
+      // INITIALIZE
+      solver = new SatSolver();
+      units  = new int[cnf.length + assumed.length][];
+
+      for(int[] clause : cnf)
+      {
+         solver.addClause(clause, clause.length);
+      }
+
+      System.arraycopy(cnf, 0, units, 0, cnf.length);
+
+      for(int index = 0; index < assumed.length; ++index)
+      {
+         units[cnf.length + index] = new int[] {assumed[index]};
+      }
+
+      problem = answer(solver, solver.solve(assumed, assumed.length),
+                       units, variables, "assuming " + assumed.length);
+
+      // IF - the assumed solve was right, the plain one must be too
+      if(problem == null)
+      {
+         problem = answer(solver, solver.solve(), cnf, variables, "after");
+      }
+
+      return problem;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : answer
+    * Purpose    : This method checks one answer of the solver
+    * Parameters : solver    -> solver that answered
+    *              answer    -> SAT or UNSAT
+    *              cnf       -> clauses the answer must agree with
+    *              variables -> variables of the CNF
+    *              solve     -> which solve it was, for the message
+    * Return     : String    -> null if it passed, else what went wrong
+    **************************************************************************/
+   private static String answer(SatSolver solver, int answer, int[][] cnf,
+                                int variables, String solve)
+   {
+      boolean sat;   // BOOL - brute force found a model
+      int[]   model; // ARRY - literal of each variable
+
+      // INITIALIZE
+      sat = PreprocessorCheck.brute(cnf, variables);
+
+      // IF - the answers disagree
+      if(sat != (answer == SatSolver.SAT))
+      {
+         return solve + ": brute force " + (sat ? "SAT" : "UNSAT")
+                + ", solver " + ((answer == SatSolver.SAT) ? "SAT" : "UNSAT");
+      }
+      else if(!sat)
+      {
+         return null;
+      }
+
+      model = solver.model();
+
+      // FOR - every clause must hold
+      for(int[] clause : cnf)
+      {
+         if(!PreprocessorCheck.satisfies(model, clause))
+         {
+            return solve + ": model fails a clause";
+         }
+      }
+
+      return null;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : assume
+    * Purpose    : returns random literals of variables the CNF uses
+    * Parameters : random -> source of randomness
+    *              cnf    -> clauses as DIMACS literals
+    * Return     : int[]  -> 0 to MAX_ASSUMED literals
+    **************************************************************************/
+   public static int[] assume(Random random, int[][] cnf)
+   {
+      int[] assumed; // ARRY - literals to assume
+      int[] clause;  // ARRY - clause a literal is taken from
+
+      // INITIALIZE
+      assumed = new int[random.nextInt(MAX_ASSUMED + 1)];
+
+      // FOR - each assumption, a used variable in either sign
+      for(int index = 0; index < assumed.length; ++index)
+      {
+         clause         = cnf[random.nextInt(cnf.length)];
+         assumed[index] = Math.abs(clause[random.nextInt(clause.length)])
+                          * (random.nextBoolean() ? 1 : -1);
+      }
+
+      return assumed;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : hard
+    * Purpose    : This method solves planted CNFs under a few of their
+    *                 planted literals and then without, and a pigeonhole
+    *                 CNF, until enough cleanups have run
+    * Parameters : random -> source of randomness
+    * Return     : String -> null if it passed, else what went wrong
+    **************************************************************************/
+   public static String hard(Random random)
+   {
+      SatSolver solver;      // CALC - solver being checked
+      int[]     planted;     // ARRY - planted literal of each variable
+      int[][]   cnf;         // ARRY - CNF being solved
+      int[]     assumed;     // ARRY - planted literals to assume
+      int       reductions;  // CALC - cleanups so far
+      int       compactions; // CALC - compactions so far
+
+      // INITIALIZE
+      reductions  = 0;
+      compactions = 0;
+      planted     = new int[PLANTED_VARS];
+      assumed     = new int[MAX_ASSUMED];
+
+      // FOR - planted CNFs until enough cleanups have run
+      for(int round = 0; round < MAX_PLANTED
+                         && reductions < MIN_REDUCTIONS; ++round)
+      {
+         cnf    = planted(random, planted);
+         solver = new SatSolver();
+
+         for(int[] clause : cnf)
+         {
+            solver.addClause(clause, clause.length);
+         }
+
+         for(int index = 0; index < assumed.length; ++index)
+         {
+            assumed[index] = planted[random.nextInt(PLANTED_VARS)];
+         }
+
+         // IF - a planted CNF must be satisfiable, assumed or not
+         if(solver.solve(assumed, assumed.length) != SatSolver.SAT
+            || !satisfiesAll(solver.model(), cnf)
+            || !satisfiesAll(solver.model(), units(assumed)))
+         {
+            return "planted " + round + ": no model under its own literals";
+         }
+         else if(solver.solve() != SatSolver.SAT
+                 || !satisfiesAll(solver.model(), cnf))
+         {
+            return "planted " + round + ": no model after assuming";
+         }
+
+         reductions  += solver.reductions();
+         compactions += solver.compactions();
+      }
+
+      // INITIALIZE
+      cnf    = pigeons(HOLES);
+      solver = new SatSolver();
+
+      for(int[] clause : cnf)
+      {
+         solver.addClause(clause, clause.length);
+      }
+
+      // IF - more pigeons than holes can never fit
+      if(solver.solve() != SatSolver.UNSAT)
+      {
+         return "pigeonhole " + HOLES + ": not UNSAT";
+      }
+
+      reductions  += solver.reductions();
+      compactions += solver.compactions();
+
+      // IF - the cleanup paths were not reached after all
+      if(reductions < MIN_REDUCTIONS || compactions == 0)
+      {
+         return "only " + reductions + " reductions and " + compactions
+                + " compactions";
+      }
+
+      return null;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : satisfiesAll
+    * Purpose    : returns whether a model makes every clause true
+    * Parameters : model   -> literal of variable i at index i - 1
+    *              cnf     -> clauses as DIMACS literals
+    * Return     : boolean -> no clause is false
+    **************************************************************************/
+   public static boolean satisfiesAll(int[] model, int[][] cnf)
+   {
+      // FOR - each clause
+      for(int[] clause : cnf)
+      {
+         if(!PreprocessorCheck.satisfies(model, clause))
+         {
+            return false;
+         }
+      }
+
+      return true;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : units
+    * Purpose    : returns literals as one unit clause each
+    * Parameters : literals -> DIMACS literals
+    * Return     : int[][]  -> a clause per literal
+    **************************************************************************/
+   private static int[][] units(int[] literals)
+   {
+      int[][] cnf = new int[literals.length][]; // ARRY - unit clauses
+
+      for(int index = 0; index < literals.length; ++index)
+      {
+         cnf[index] = new int[] {literals[index]};
+      }
+
+      return cnf;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : planted
+    * Purpose    : returns a random 3-SAT CNF that a random model satisfies
+    * Parameters : random  -> source of randomness
+    *              planted -> receives the literal of each variable in the
+    *                            model
+    * Return     : int[][] -> clauses as DIMACS literals
+    **************************************************************************/
+   public static int[][] planted(Random random, int[] planted)
+   {
+      int[][] cnf;  // ARRY - clauses
+      int     var;  // CALC - variable of a literal
+      boolean kept; // BOOL - the clause has a planted literal
+
+      // INITIALIZE
+      cnf = new int[(int)(PLANTED_RATIO * planted.length)][];
+
+      for(int index = 0; index < planted.length; ++index)
+      {
+         planted[index] = (index + 1) * (random.nextBoolean() ? 1 : -1);
+      }
+
+      // FOR - each clause, drawn again until the model satisfies it
+      for(int clause = 0; clause < cnf.length; ++clause)
+      {
+         cnf[clause] = new int[3];
+
+         do
+         {
+            kept = false;
+
+            for(int index = 0; index < 3; ++index)
+            {
+               var                = 1 + random.nextInt(planted.length);
+               cnf[clause][index] = var * (random.nextBoolean() ? 1 : -1);
+               kept = kept || (cnf[clause][index] == planted[var - 1]);
+            }
+         }
+         while(!kept);
+      }
+
+      return cnf;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : pigeons
+    * Purpose    : returns the CNF that puts one pigeon more than there are
+    *                 holes into the holes, no two sharing one
+    * Parameters : holes   -> holes
+    * Return     : int[][] -> clauses as DIMACS literals
+    **************************************************************************/
+   public static int[][] pigeons(int holes)
+   {
+      int[][] cnf;   // ARRY - clauses
+      int     count; // CALC - clauses made
+
+      // INITIALIZE
+      cnf   = new int[(holes + 1) + (holes * holes * (holes + 1) / 2)][];
+      count = 0;
+
+      // FOR - every pigeon sits in some hole
+      for(int pigeon = 0; pigeon <= holes; ++pigeon)
+      {
+         cnf[count] = new int[holes];
+
+         for(int hole = 0; hole < holes; ++hole)
+         {
+            cnf[count][hole] = (pigeon * holes) + hole + 1;
+         }
+
+         ++count;
+      }
+
+      // TRIPLE FOR - no two pigeons share a hole
+      for(int hole = 0; hole < holes; ++hole)
+      {
+         for(int first = 0; first <= holes; ++first)
+         {
+            for(int second = first + 1; second <= holes; ++second)
+            {
+               cnf[count++] = new int[] {-((first * holes) + hole + 1),
+                                         -((second * holes) + hole + 1)};
+            }
+         }
+      }
+
+      return cnf;
+   }
+
+   /* - MAIN -
+    ***************************************************************************
+    * Name       : main
+    * Purpose    : This method checks random CNFs and then the hard ones,
+    *                 printing each failure, and exits 1 if any failed.
+    * Parameters : args -> "-rounds <n>" random CNFs, "-seed <n>" their seed
+    * Return     : void
+    **************************************************************************/
+   public static void main(String[] args)
+   {
+      int     rounds   = ROUNDS; // CALC - random CNFs to check
+      long    seed     = 1;      // CALC - seed of the random CNFs
+      int     failures = 0;      // CALC - CNFs that failed
+      Random  random;            // CALC - makes the random CNFs
+      int     variables;         // CALC - variables of a random CNF
+      int[][] cnf;               // ARRY - a random CNF
+      String  problem;           // STRN - what went wrong, or null
+
+      // FOR - read command line options
+      for(int index = 0; index < args.length; ++index)
+      {
+         if(args[index].equals("-rounds") && index + 1 < args.length)
+         {
+            rounds = Integer.parseInt(args[++index]);
+         }
+         else if(args[index].equals("-seed") && index + 1 < args.length)
+         {
+            seed = Long.parseLong(args[++index]);
+         }
+      }
+
+      // INITIALIZE
+      random = new Random(seed);
+
+      // FOR - each random CNF
+      for(int round = 0; round < rounds; ++round)
+      {
+         variables = 1 + random.nextInt(MAX_VARS);
+         cnf       = PreprocessorCheck.random(random, variables);
+         problem   = check(cnf, variables, assume(random, cnf));
+
+         if(problem != null)
+         {
+            System.out.println("round " + round + ": " + problem);
+            ++failures;
+         }
+      }
+
+      System.out.println((rounds - failures) + " of " + rounds
+                         + " CNFs passed");
+
+      problem = hard(random);
+
+      if(problem != null)
+      {
+         System.out.println("hard CNFs: " + problem);
+         ++failures;
+      }
+      else
+      {
+         System.out.println("hard CNFs passed with at least "
+                            + MIN_REDUCTIONS + " reductions");
+      }
+
+      if(failures > 0)
+      {
+         System.exit(1);
+      }
+   }
+}
@@ -0,0 +1,261 @@
+/*
+/******************************************************************************
+ * Name            : Eric Olaveson
+ * Date            : October 18, 2026
+ *
+ * This program will remember solved puzzles by their canonical form, so a
+ *    repeat, or a puzzle alike up to symmetry, is answered without a solve.
+ *****************************************************************************/
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/* - CLASS -
+/******************************************************************************
+ * Name    : SolutionCache
+ * Purpose : This class encapsulates a bounded cache of solutions keyed by
+ *           the Symmetry key of their puzzle. A solution is kept in the
+ *           canonical form's frame, a byte per tile, and carried back
+ *           through the transform of whichever puzzle looks it up.
+ *           Solutions are kept in least recently used order and the oldest
+ *           are dropped once their bytes pass the budget. A solution carried
+ *           back is checked against the puzzle before it is handed out, and
+ *           one that fails counts as a miss, so a key shared by puzzles that
+ *           are not alike costs a solve rather than a wrong answer.
+ *****************************************************************************/
+public class SolutionCache
+{
+   /* -CONSTANTS
+   /***************************************************************************
+    * DEFAULT_BUDGET : bytes of solutions kept by default
+    * ENTRY_BYTES    : bytes an entry costs besides its key and tiles
+    **************************************************************************/
+   public static final long DEFAULT_BUDGET = 64L * 1024 * 1024;
+   public static final int  ENTRY_BYTES    = 120;
+
+   /* -VARIABLES- */
+   private long budget; // CALC - bytes to keep at most
+   private long used;   // CALC - bytes kept now
+   private long hits;   // CALC - lookups answered
+   private long misses; // CALC - lookups not found, or not valid
+   private LinkedHashMap<String, byte[]> solutions; // LIST - oldest first
+
+   /* - CONSTRUCTOR -
+   /***************************************************************************
+    * Name       : SolutionCache
+    * Purpose    : Create a cache.
+    * Parameters : budget -> bytes of solutions to keep at most
+    **************************************************************************/
+   public SolutionCache(long budget)
+   {
+      // INITIALIZE
+      this.budget    = budget;
+      this.used      = 0;
+      this.solutions = new LinkedHashMap<String, byte[]>(16, 0.75f, true);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : get
+    * Purpose    : This method looks up the solution of a puzzle
+    * Parameters : form    -> canonical form of the puzzle
+    *              puzzle  -> puzzle the solution must keep the givens of
+    *              grid    -> receives the solution row by row on a hit
+    * Return     : boolean -> a valid solution was found
+    **************************************************************************/
+   public synchronized boolean get(Symmetry form, Puzzle puzzle, int[] grid)
+   {
+      byte[] solution = solutions.get(form.key()); // ARRY - canonical tiles
+
+      // IF - not seen before
+      if(solution == null)
+      {
+         ++misses;
+         return false;
+      }
+
+      form.back(solution, grid);
+
+      // IF - carried back, it does not solve this puzzle
+      if(!solves(puzzle, grid))
+      {
+         ++misses;
+         return false;
+      }
+
+      ++hits;
+
+      return true;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : solves
+    * Purpose    : returns whether a grid is a full solution keeping the
+    *                 givens of a puzzle
+    * Parameters : puzzle  -> puzzle solved
+    *              grid    -> value of each tile row by row
+    * Return     : boolean -> the grid is valid and agrees with every given
+    **************************************************************************/
+   private static boolean solves(Puzzle puzzle, int[] grid)
+   {
+      int[] tiles = puzzle.tiles(); // ARRY - givens, 0 when empty
+
+      // IF - not a full solution
+      if(!SudokuDecode.isValid(grid, puzzle.size()))
+      {
+         return false;
+      }
+
+      // FOR - each given
+      for(int tile = 0; tile < tiles.length; ++tile)
+      {
+         if(tiles[tile] != 0 && tiles[tile] != grid[tile])
+         {
+            return false;
+         }
+      }
+
+      return true;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : put
+    * Purpose    : This method keeps the solution of a puzzle
+    * Parameters : form -> canonical form of the puzzle
+    *              grid -> solution row by row
+    * Return     : void
+    **************************************************************************/
+   public synchronized void put(Symmetry form, int[] grid)
+   {
+      String key;      // STRN - canonical form
+      byte[] solution; // ARRY - canonical tiles
+      byte[] old;      // ARRY - solution replaced, if any
+
+      // INITIALIZE
+      key      = form.key();
+      solution = form.forward(grid);
+      old      = solutions.put(key, solution);
+
+      // IF - a puzzle alike was solved meanwhile
+      if(old != null)
+      {
+         used -= bytes(key, old);
+      }
+
+      used += bytes(key, solution);
+      evict();
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : evict
+    * Purpose    : This method drops the least recently used solutions until
+    *                 the rest fit the budget
+    * Parameters : none
+    * Return     : void
+    **************************************************************************/
+   private void evict()
+   {
+      Iterator<Map.Entry<String, byte[]>> oldest; // CALC - oldest first
+      Map.Entry<String, byte[]>           entry;  // CALC - entry dropped
+
+      // INITIALIZE
+      oldest = solutions.entrySet().iterator();
+
+      // WHILE - over budget
+      while(used > budget && oldest.hasNext())
+      {
+         entry = oldest.next();
+         used -= bytes(entry.getKey(), entry.getValue());
+         oldest.remove();
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : bytes
+    * Purpose    : returns the bytes an entry costs
+    * Parameters : key      -> canonical form in line format
+    *              solution -> canonical tiles
+    * Return     : long     -> bytes of the key, the tiles and the entry
+    **************************************************************************/
+   private static long bytes(String key, byte[] solution)
+   {
+      return ENTRY_BYTES + key.length() + solution.length;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : size
+    * Purpose    : returns the number of solutions kept
+    * Parameters : none
+    * Return     : int -> solutions in the cache
+    **************************************************************************/
+   public synchronized int size()
+   {
+      return solutions.size();
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : used
+    * Purpose    : returns the bytes of solutions kept
+    * Parameters : none
+    * Return     : long -> bytes held
+    **************************************************************************/
+   public synchronized long used()
+   {
+      return used;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : hits
+    * Purpose    : returns how many lookups were answered
+    * Parameters : none
+    * Return     : long -> lookups found
+    **************************************************************************/
+   public synchronized long hits()
+   {
+      return hits;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : misses
+    * Purpose    : returns how many lookups were not found or not valid
+    * Parameters : none
+    * Return     : long -> lookups not answered
+    **************************************************************************/
+   public synchronized long misses()
+   {
+      return misses;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : ratio
+    * Purpose    : returns the share of lookups answered
+    * Parameters : none
+    * Return     : double -> hits over lookups, 0 before any
+    **************************************************************************/
+   public synchronized double ratio()
+   {
+      return (hits + misses == 0) ? 0 : (double)hits / (hits + misses);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : summary
+    * Purpose    : returns the counts of the cache
+    * Parameters : none
+    * Return     : String -> "name=value" for each count
+    **************************************************************************/
+   public synchronized String summary()
+   {
+      return String.format("entries=%d bytes=%d hits=%d misses=%d ratio=%.3f",
+                           solutions.size(), used, hits, misses, ratio());
+   }
+}
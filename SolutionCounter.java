@@ -0,0 +1,184 @@
+/*
+/******************************************************************************
+ * Name            : Eric Olaveson
+ * Date            : October 18, 2026
+ *
+ * This program will count the solutions of sudoku puzzles up to a limit, so
+ *    a puzzle can be checked for having exactly one solution.
+ *****************************************************************************/
+import java.io.*;
+
+/* - CLASS -
+/******************************************************************************
+ * Name    : SolutionCounter
+ * Purpose : This class encapsulates counting solutions with any engine. The
+ *           direct engines count natively, backtracking on past the first
+ *           solution until limit are found; "sat" counts on a warm
+ *           IncrementalSolver with blocking clauses. Every search stops as
+ *           soon as the limit is reached, so a uniqueness check (limit 2)
+ *           of a puzzle with many solutions costs little more than solving
+ *           it. One engine is kept per size and reused for every puzzle.
+ *****************************************************************************/
+public class SolutionCounter
+{
+   /* -CONSTANTS
+   /***************************************************************************
+    * UNIQUE  : limit that tells one solution from more than one
+    * ENGINES : engines solutions can be counted with
+    **************************************************************************/
+   public static final int      UNIQUE  = 2;
+   public static final String[] ENGINES = {"bitboard", "dlx", "sat"};
+
+   /* -VARIABLES- */
+   private String              engine; // STRN - engine to count with
+   private GridSolver[]        direct; // ARRY - direct engine of each size
+   private IncrementalSolver[] warm;   // ARRY - SAT engine of each size
+   private int[][]             grids;  // ARRY - scratch solution per size
+
+   /* - CONSTRUCTOR -
+   /***************************************************************************
+    * Name       : SolutionCounter
+    * Purpose    : Create a counter on one of ENGINES.
+    * Parameters : engine -> "bitboard", "dlx" or "sat"
+    **************************************************************************/
+   public SolutionCounter(String engine)
+   {
+      // IF - not an engine this class knows
+      if(!engine.equals("bitboard") && !engine.equals("dlx")
+         && !engine.equals("sat"))
+      {
+         throw new IllegalArgumentException("unknown engine: " + engine);
+      }
+
+      // INITIALIZE
+      this.engine = engine;
+      this.direct = new GridSolver[BitboardSolver.MAX_SIZE + 1];
+      this.warm   = new IncrementalSolver[BitboardSolver.MAX_SIZE + 1];
+      this.grids  = new int[BitboardSolver.MAX_SIZE + 1][];
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : count
+    * Purpose    : This method counts the solutions of a puzzle
+    * Parameters : puzzle -> givens to start from
+    *              limit  -> solutions to look for
+    *              grid   -> receives the first solution row by row, or null
+    * Return     : int    -> solutions found, at most limit; 0 if none
+    **************************************************************************/
+   public int count(Puzzle puzzle, int limit, int[] grid) throws IOException
+   {
+      int size = puzzle.size(); // CALC - size of the puzzle
+
+      // IF - first puzzle of this size
+      if(grids[size] == null)
+      {
+         grids[size] = new int[size * size];
+
+         if(engine.equals("sat"))
+         {
+            warm[size] = new IncrementalSolver(TemplateCache.shared()
+                            .get(size, "pairwise", "extended"));
+         }
+         else
+         {
+            direct[size] = engine.equals("dlx") ? new DancingLinks(size)
+                                                : new BitboardSolver(size);
+         }
+      }
+
+      grid = (grid == null) ? grids[size] : grid;
+
+      return (warm[size] != null) ? warm[size].count(puzzle, limit, grid)
+                                  : direct[size].solve(puzzle, limit, grid);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : isUnique
+    * Purpose    : returns true if a puzzle has exactly one solution
+    * Parameters : puzzle -> givens to check
+    * Return     : boolean -> one solution, no more and no fewer
+    **************************************************************************/
+   public boolean isUnique(Puzzle puzzle) throws IOException
+   {
+      return count(puzzle, UNIQUE, null) == 1;
+   }
+
+   /* - MAIN -
+    ***************************************************************************
+    * Name       : main
+    * Purpose    : This method counts the solutions of every puzzle in a
+    *                 file, one puzzle per line, printing the count of each
+    *                 ("2+" when the limit was reached) and the checks made
+    *                 per second.
+    * Parameters : args -> "-puzzles <file>" file to read, "-limit <k>"
+    *                         solutions to look for (2 by default, a
+    *                         uniqueness check), "-engine <name>" one of
+    *                         ENGINES, "-rules <dir>" keeps rule templates
+    *                         in dir
+    * Return     : void
+    **************************************************************************/
+   public static void main(String[] args)
+   {
+      String          file   = null;       // STRN - puzzles to count
+      int             limit  = UNIQUE;     // CALC - solutions to look for
+      String          engine = "bitboard"; // STRN - engine to count with
+      SolutionCounter counter;             // CALC - the counter
+      Puzzle[]        puzzles;             // ARRY - puzzles of the file
+      int[]           found;               // ARRY - count of each puzzle
+      long            start;               // CALC - time counting began
+      double          seconds;             // CALC - time counting took
+
+      // FOR - read command line options
+      for(int index = 0; index < args.length; ++index)
+      {
+         if(args[index].equals("-puzzles") && index + 1 < args.length)
+         {
+            file = args[++index];
+         }
+         else if(args[index].equals("-limit") && index + 1 < args.length)
+         {
+            limit = Integer.parseInt(args[++index]);
+         }
+         else if(args[index].equals("-rules") && index + 1 < args.length)
+         {
+            TemplateCache.setShared(new TemplateCache(args[++index],
+                                       TemplateCache.DEFAULT_BUDGET));
+         }
+         else if(args[index].equals("-engine") && index + 1 < args.length)
+         {
+            engine = args[++index];
+         }
+      }
+
+      // TRY - count every puzzle, then print the counts
+      try
+      {
+         counter = new SolutionCounter(engine);
+         puzzles = Benchmark.corpus(file);
+         found   = new int[puzzles.length];
+         start   = System.nanoTime();
+
+         for(int index = 0; index < puzzles.length; ++index)
+         {
+            found[index] = counter.count(puzzles[index], limit, null);
+         }
+
+         seconds = (System.nanoTime() - start) / 1e9;
+
+         for(int index = 0; index < puzzles.length; ++index)
+         {
+            System.out.println(found[index] + (found[index] >= limit ? "+"
+                                                                     : ""));
+         }
+
+         System.out.printf("%d puzzles, %.0f checks/s%n", puzzles.length,
+                           puzzles.length / seconds);
+      }
+      catch(Exception ex)
+      {
+         System.out.println("~~~~~~~~~~ ERROR READING PUZZLES ~~~~~~~~~~");
+      }
+   }
+}
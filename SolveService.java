@@ -0,0 +1,539 @@
+/*
+/******************************************************************************
+ * Name            : Eric Olaveson
+ * Date            : October 18, 2026
+ *
+ * This program will keep the solvers running as a local HTTP service, so
+ *    each puzzle pays only for its solve and not for starting a JVM.
+ *****************************************************************************/
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/* - CLASS -
+/******************************************************************************
+ * Name    : SolveService
+ * Purpose : This class encapsulates a daemon that solves puzzles sent over
+ *           HTTP on the loopback address:
+ *
+ *              POST /solve -> body of puzzles in Puzzle's line format, one
+ *                             per line; answers a line per puzzle: its
+ *                             solution in line format, UNSATISFIABLE, or
+ *                             INVALID for a line that is not a puzzle
+ *              POST /count -> the same puzzles; answers each one's number
+ *                             of solutions, with "+" once the limit is
+ *                             reached, as SolutionCounter prints them
+ *              GET  /stats -> counts of the service as JSON
+ *
+ *           "?engine=<bitboard|dlx|sat>" picks the engine and
+ *           "&limit=<k>" the count's limit, 2 by default. Requests run on a
+ *           fixed pool of workers, each keeping a SolutionCounter per engine
+ *           and so a warm engine, and for "sat" a loaded IncrementalSolver,
+ *           per size. At most queue + 1 requests per worker are admitted
+ *           at once; a request past that is turned away at once with 503 and a
+ *           Retry-After header rather than queued without bound, so a
+ *           client under load backs off instead of waiting out a backlog.
+ *           With a cache, /solve looks each puzzle up by its Symmetry key
+ *           first and keeps what it solves, so a repeat, or a puzzle alike
+ *           up to symmetry, costs a canonical form instead of a solve.
+ *****************************************************************************/
+public class SolveService
+{
+   /* -CONSTANTS
+   /***************************************************************************
+    * PORT        : port the service listens on by default
+    * QUEUE       : requests admitted per worker beyond the one it runs
+    * MAX_BODY    : largest request body read, in bytes
+    * RETRY_AFTER : seconds a turned away client is told to wait
+    **************************************************************************/
+   public static final int    PORT        = 8090;
+   public static final int    QUEUE       = 4;
+   public static final int    MAX_BODY    = 16 << 20;
+   public static final String RETRY_AFTER = "1";
+
+   /* -VARIABLES- */
+   private static final ThreadLocal<SolutionCounter[]> COUNTERS =
+      ThreadLocal.withInitial(() ->
+         new SolutionCounter[SolutionCounter.ENGINES.length]);
+   private static final ThreadLocal<Boolean> OVERLOADED =
+      new ThreadLocal<Boolean>();
+
+   private HttpServer      server;    // CALC - listens for requests
+   private ExecutorService pool;      // CALC - workers running requests
+   private Semaphore       admitted;  // CALC - room for more requests
+   private String          engine;    // STRN - engine used by default
+   private SolutionCache   cache;     // CALC - solutions by canonical form,
+                                      //        or null for none
+   private int             threads;   // CALC - number of workers
+   private AtomicLong      requests;  // CALC - requests answered
+   private AtomicLong      puzzles;   // CALC - puzzles answered
+   private AtomicLong      rejected;  // CALC - requests turned away
+   private AtomicLong      busyNanos; // CALC - time spent solving
+   private long            started;   // CALC - time the service started
+
+   /* - CONSTRUCTOR -
+   /***************************************************************************
+    * Name       : SolveService
+    * Purpose    : Create a service bound to a loopback port.
+    * Parameters : port    -> port to listen on
+    *              threads -> number of workers
+    *              queue   -> requests admitted per worker beyond the one it
+    *                         runs
+    *              engine  -> engine used when a request names none
+    *              cache   -> bytes of solutions to keep, 0 for no cache
+    **************************************************************************/
+   public SolveService(int port, int threads, int queue, String engine,
+                       long cache) throws IOException
+   {
+      new SolutionCounter(engine); // rejects an unknown engine up front
+
+      // headers and body go out as two writes; without TCP_NODELAY the body
+      // waits on the client's delayed ACK, some 40 ms per response
+      System.setProperty("sun.net.httpserver.nodelay", "true");
+
+      // INITIALIZE
+      this.engine    = engine;
+      this.cache     = (cache > 0) ? new SolutionCache(cache) : null;
+      this.threads   = threads;
+      this.pool      = Executors.newFixedThreadPool(threads);
+      this.admitted  = new Semaphore(threads * (queue + 1));
+      this.requests  = new AtomicLong();
+      this.puzzles   = new AtomicLong();
+      this.rejected  = new AtomicLong();
+      this.busyNanos = new AtomicLong();
+      this.server    = HttpServer.create(new InetSocketAddress(
+                          InetAddress.getLoopbackAddress(), port), 0);
+
+      server.createContext("/solve", exchange -> handle(exchange, false));
+      server.createContext("/count", exchange -> handle(exchange, true));
+      server.createContext("/stats", this::stats);
+      server.setExecutor(this::dispatch);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : start
+    * Purpose    : This method warms every worker's default engine on an
+    *                 empty 9x9 grid and starts taking requests
+    * Parameters : none
+    * Return     : void
+    **************************************************************************/
+   public void start() throws Exception
+   {
+      final Puzzle empty; // CALC - puzzle the workers warm up on
+
+      // INITIALIZE
+      empty   = new Puzzle(Sudoku.N_BY_N_SIZE,
+                           new int[Sudoku.N_BY_N_SIZE * Sudoku.N_BY_N_SIZE]);
+      started = System.nanoTime();
+
+      // FOR - one warm-up per worker; tasks that land on a warm one are cheap
+      for(int index = 0; index < threads; ++index)
+      {
+         pool.submit(() -> counter(engine).count(empty, 1, null)).get();
+      }
+
+      server.start();
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : stop
+    * Purpose    : This method stops taking requests and lets those running
+    *                 finish
+    * Parameters : none
+    * Return     : void
+    **************************************************************************/
+   public void stop()
+   {
+      server.stop(1);
+      pool.shutdown();
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : dispatch
+    * Purpose    : This method is the server's executor. A request with room
+    *                 goes to the workers; one without is run here, on the
+    *                 server's own thread, marked so its handler only sends
+    *                 503, which costs next to nothing.
+    * Parameters : exchange -> the server's task for one request
+    * Return     : void
+    **************************************************************************/
+   private void dispatch(Runnable exchange)
+   {
+      // IF - no room, turn the request away
+      if(!admitted.tryAcquire())
+      {
+         OVERLOADED.set(Boolean.TRUE);
+
+         try
+         {
+            exchange.run();
+         }
+         finally
+         {
+            OVERLOADED.remove();
+         }
+
+         return;
+      }
+
+      pool.execute(() ->
+      {
+         try
+         {
+            exchange.run();
+         }
+         finally
+         {
+            admitted.release();
+         }
+      });
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : handle
+    * Purpose    : This method answers a /solve or /count request, with 400
+    *                 for a bad engine, limit or puzzle and 500 when solving
+    *                 itself fails
+    * Parameters : exchange -> the request
+    *              count    -> count solutions instead of solving
+    * Return     : void
+    **************************************************************************/
+   private void handle(HttpExchange exchange, boolean count) throws IOException
+   {
+      String        name;   // STRN - engine asked for
+      int           limit;  // CALC - solutions to count up to
+      byte[]        body;   // ARRY - puzzles sent
+      StringBuilder answer; // STRN - a line per puzzle
+      long          start;  // CALC - time solving began
+
+      // IF - no room for the request
+      if(OVERLOADED.get() != null)
+      {
+         rejected.incrementAndGet();
+         exchange.getResponseHeaders().set("Retry-After", RETRY_AFTER);
+         reply(exchange, 503, "BUSY\n");
+         return;
+      }
+
+      // IF - puzzles come in the body
+      if(!exchange.getRequestMethod().equals("POST"))
+      {
+         reply(exchange, 405, "POST puzzles, one per line\n");
+         return;
+      }
+
+      // INITIALIZE
+      body = exchange.getRequestBody().readNBytes(MAX_BODY + 1);
+
+      // IF - more than the service reads
+      if(body.length > MAX_BODY)
+      {
+         reply(exchange, 413, "body over " + MAX_BODY + " bytes\n");
+         return;
+      }
+
+      // TRY - read the parameters, then answer every line
+      try
+      {
+         name  = query(exchange, "engine", engine);
+         limit = Integer.parseInt(query(exchange, "limit",
+                                     String.valueOf(SolutionCounter.UNIQUE)));
+
+         if(limit < 1)
+         {
+            throw new IllegalArgumentException("limit must be at least 1");
+         }
+
+         answer = new StringBuilder(body.length + 64);
+         start  = System.nanoTime();
+
+         for(String line : new String(body, StandardCharsets.US_ASCII)
+                              .split("\n"))
+         {
+            if(!line.trim().isEmpty())
+            {
+               answer.append(answer(line.trim(), counter(name),
+                                    count ? limit : 1, count,
+                                    count ? null : cache)).append('\n');
+               puzzles.incrementAndGet();
+            }
+         }
+
+         busyNanos.addAndGet(System.nanoTime() - start);
+         requests.incrementAndGet();
+         reply(exchange, 200, answer.toString());
+      }
+      catch(NumberFormatException ex)
+      {
+         reply(exchange, 400, "limit is not a number\n");
+      }
+      catch(IllegalArgumentException ex)
+      {
+         reply(exchange, 400, ex.getMessage() + "\n");
+      }
+      catch(IOException | RuntimeException ex)
+      {
+         reply(exchange, 500, "solver failed: " + ex + "\n");
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : answer
+    * Purpose    : returns the answer line of one puzzle
+    * Parameters : line    -> puzzle in line format
+    *              counter -> this worker's counter for the engine
+    *              limit   -> solutions to look for
+    *              count   -> answer the count instead of the solution
+    *              cache   -> solutions by canonical form, or null
+    * Return     : String  -> answer line
+    **************************************************************************/
+   private static String answer(String line, SolutionCounter counter,
+                                int limit, boolean count, SolutionCache cache)
+      throws IOException
+   {
+      Puzzle        puzzle; // CALC - puzzle on the line
+      Symmetry      form;   // CALC - canonical form of the puzzle
+      int[]         grid;   // ARRY - first solution
+      int           found;  // CALC - solutions found
+      StringBuilder text;   // STRN - solution in line format
+
+      // TRY - read the puzzle
+      try
+      {
+         puzzle = Puzzle.parseLine(line);
+      }
+      catch(IllegalArgumentException ex)
+      {
+         return "INVALID";
+      }
+
+      // INITIALIZE
+      grid  = new int[puzzle.size() * puzzle.size()];
+      form  = (cache == null) ? null : new Symmetry(puzzle);
+
+      // IF - answered by a puzzle alike, or solved and kept
+      if(form != null && cache.get(form, puzzle, grid))
+      {
+         found = 1;
+      }
+      else
+      {
+         found = counter.count(puzzle, limit, grid);
+
+         if(form != null && found > 0)
+         {
+            cache.put(form, grid);
+         }
+      }
+
+      if(count)
+      {
+         return found + ((found >= limit) ? "+" : "");
+      }
+      else if(found == 0)
+      {
+         return "UNSATISFIABLE";
+      }
+
+      // INITIALIZE
+      text = new StringBuilder(grid.length);
+
+      // FOR - the solution in line format
+      for(int index = 0; index < grid.length; ++index)
+      {
+         text.append(Puzzle.symbol(grid[index]));
+      }
+
+      return text.toString();
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : counter
+    * Purpose    : returns this worker's counter for an engine
+    * Parameters : name -> one of SolutionCounter.ENGINES
+    * Return     : SolutionCounter -> counter, built on first use
+    **************************************************************************/
+   private static SolutionCounter counter(String name)
+   {
+      SolutionCounter[] counters = COUNTERS.get(); // ARRY - this worker's
+
+      // FOR - find the engine
+      for(int index = 0; index < counters.length; ++index)
+      {
+         if(SolutionCounter.ENGINES[index].equals(name))
+         {
+            if(counters[index] == null)
+            {
+               counters[index] = new SolutionCounter(name);
+            }
+
+            return counters[index];
+         }
+      }
+
+      throw new IllegalArgumentException("unknown engine: " + name);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : stats
+    * Purpose    : This method answers /stats with the service's counts
+    * Parameters : exchange -> the request
+    * Return     : void
+    **************************************************************************/
+   private void stats(HttpExchange exchange) throws IOException
+   {
+      reply(exchange, 200, "{\"uptimeNanos\":" + (System.nanoTime() - started)
+                           + ",\"threads\":" + threads
+                           + ",\"requests\":" + requests.get()
+                           + ",\"puzzles\":" + puzzles.get()
+                           + ",\"rejected\":" + rejected.get()
+                           + ",\"busyNanos\":" + busyNanos.get()
+                           + ",\"room\":" + admitted.availablePermits()
+                           + ((cache == null) ? ""
+                              : ",\"cacheEntries\":" + cache.size()
+                                + ",\"cacheBytes\":" + cache.used()
+                                + ",\"cacheHits\":" + cache.hits()
+                                + ",\"cacheMisses\":" + cache.misses()
+                                + ",\"cacheRatio\":" + cache.ratio())
+                           + "}\n");
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : query
+    * Purpose    : returns a parameter of the request's query string
+    * Parameters : exchange -> the request
+    *              key      -> name of the parameter
+    *              missing  -> value when the parameter is not there
+    * Return     : String   -> value of the parameter
+    **************************************************************************/
+   private static String query(HttpExchange exchange, String key,
+                               String missing)
+   {
+      String query = exchange.getRequestURI().getRawQuery(); // STRN - query
+
+      // IF - no query string at all
+      if(query == null)
+      {
+         return missing;
+      }
+
+      // FOR - each key=value pair
+      for(String pair : query.split("&"))
+      {
+         if(pair.startsWith(key + "="))
+         {
+            return pair.substring(key.length() + 1);
+         }
+      }
+
+      return missing;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : reply
+    * Purpose    : This method sends a plain text response and ends the
+    *                 exchange
+    * Parameters : exchange -> the request
+    *              status   -> HTTP status code
+    *              text     -> body of the response
+    * Return     : void
+    **************************************************************************/
+   private static void reply(HttpExchange exchange, int status, String text)
+      throws IOException
+   {
+      byte[] bytes = text.getBytes(StandardCharsets.US_ASCII); // ARRY - body
+
+      exchange.getResponseHeaders().set("Content-Type", "text/plain");
+      exchange.sendResponseHeaders(status, bytes.length);
+
+      try(OutputStream out = exchange.getResponseBody())
+      {
+         out.write(bytes);
+      }
+   }
+
+   /* - MAIN -
+    ***************************************************************************
+    * Name       : main
+    * Purpose    : This method runs the service until the JVM is stopped.
+    * Parameters : args -> "-port <n>" port on the loopback address,
+    *                         "-threads <n>" workers, "-queue <n>" requests
+    *                         admitted per worker beyond the one it runs,
+    *                         "-engine <name>" engine used by default,
+    *                         "-cache <bytes>" solutions to keep, 0 for none,
+    *                         "-rules <dir>" keeps rule templates in dir
+    * Return     : void
+    **************************************************************************/
+   public static void main(String[] args)
+   {
+      int          port    = PORT;       // CALC - port to listen on
+      int          queue   = QUEUE;      // CALC - requests queued per worker
+      String       engine  = "bitboard"; // STRN - engine used by default
+      long         cache   = 0;          // CALC - bytes of solutions kept
+      int          threads;              // CALC - number of workers
+      SolveService service;              // CALC - the service
+
+      // INITIALIZE
+      threads = Runtime.getRuntime().availableProcessors();
+
+      // FOR - read command line options
+      for(int index = 0; index < args.length; ++index)
+      {
+         if(args[index].equals("-port") && index + 1 < args.length)
+         {
+            port = Integer.parseInt(args[++index]);
+         }
+         else if(args[index].equals("-threads") && index + 1 < args.length)
+         {
+            threads = Integer.parseInt(args[++index]);
+         }
+         else if(args[index].equals("-queue") && index + 1 < args.length)
+         {
+            queue = Integer.parseInt(args[++index]);
+         }
+         else if(args[index].equals("-engine") && index + 1 < args.length)
+         {
+            engine = args[++index];
+         }
+         else if(args[index].equals("-rules") && index + 1 < args.length)
+         {
+            TemplateCache.setShared(new TemplateCache(args[++index],
+                                       TemplateCache.DEFAULT_BUDGET));
+         }
+         else if(args[index].equals("-cache") && index + 1 < args.length)
+         {
+            cache = Long.parseLong(args[++index]);
+         }
+      }
+
+      // TRY - start, and stop cleanly when the JVM is asked to exit
+      try
+      {
+         service = new SolveService(port, threads, queue, engine, cache);
+         service.start();
+         Runtime.getRuntime().addShutdownHook(new Thread(service::stop));
+         System.out.println("listening on " + port + " with " + threads
+                            + " threads");
+      }
+      catch(Exception ex)
+      {
+         System.out.println("~~~~~~~~~~ ERROR STARTING SERVICE ~~~~~~~~~~");
+      }
+   }
+}
@@ -0,0 +1,309 @@
+/*
+/******************************************************************************
+ * Name            : Eric Olaveson
+ * Date            : October 18, 2026
+ *
+ * This program will stream a CNF straight into an external solver process
+ *    and decode the solver's answer from its output, so neither "nxnin" nor
+ *    "nxnout" has to touch the disk.
+ *****************************************************************************/
+import java.io.*;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+/* - CLASS -
+/******************************************************************************
+ * Name    : SolverPipe
+ * Purpose : This class encapsulates one run of a solver process. open()
+ *           starts the process and hands back a sink that writes clauses to
+ *           its standard input, so the solver parses the CNF while it is
+ *           still being encoded. A thread drains its standard output from
+ *           the start, so a solver that reports progress never blocks on a
+ *           full pipe. Because a pipe's header cannot be patched, the exact
+ *           counts have to be known before the first clause is sent.
+ *
+ *           The solver must read DIMACS on standard input and print its
+ *           answer on standard output the way SAT competition solvers do.
+ *           A watchdog stops the process once the time budget runs out;
+ *           the encoder is then stopped at its next clause by a
+ *           CancellationException and the run ends as SatSolver.UNKNOWN.
+ *****************************************************************************/
+public class SolverPipe
+{
+   /* -CONSTANTS
+   /***************************************************************************
+    * STANDIN : command name that runs StandInSolver on this JVM
+    * GRACE   : milliseconds a stopped process gets before it is killed
+    **************************************************************************/
+   public static final String STANDIN = "standin";
+   public static final long   GRACE   = 1000;
+
+   /* -VARIABLES- */
+   private List<String>          command;   // LIST - program and arguments
+   private long                  timeout;   // CALC - time budget in ms, 0 for
+                                            //        none
+   private Puzzle                puzzle;    // CALC - givens the CNF was
+                                            //        reduced by, or null
+   private int                   size;      // CALC - size of sudoku puzzle
+   private Process               process;   // CALC - the solver
+   private CNFWriter             writer;    // WRIT - solver's standard input
+   private FutureTask<SudokuDecode> output; // READ - solver's standard output
+   private Timer                 watchdog;  // CALC - stops the solver on time
+   private Thread                reader;    // READ - drains standard output
+   private int                   clauses;   // CALC - clauses sent
+   private volatile boolean      cancelled; // BOOL - run was stopped
+
+   /* - CONSTRUCTOR -
+   /***************************************************************************
+    * Name       : SolverPipe
+    * Purpose    : Create a pipe to a solver command.
+    * Parameters : command -> program and arguments; a first word of STANDIN
+    *                         runs StandInSolver with the rest
+    *              timeout -> time budget in ms, 0 for none
+    *              puzzle  -> givens the CNF is reduced by, or null
+    *              size    -> size of the sudoku puzzle
+    **************************************************************************/
+   public SolverPipe(List<String> command, long timeout, Puzzle puzzle,
+                     int size)
+   {
+      // INITIALIZE
+      this.command = new ArrayList<String>(command);
+      this.timeout = timeout;
+      this.puzzle  = puzzle;
+      this.size    = size;
+
+      if(!command.isEmpty() && command.get(0).equals(STANDIN))
+      {
+         this.command = StandInSolver.command();
+         this.command.addAll(command.subList(1, command.size()));
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : split
+    * Purpose    : returns a command line split into words at whitespace
+    * Parameters : line -> command line
+    * Return     : List<String> -> program and arguments
+    **************************************************************************/
+   public static List<String> split(String line)
+   {
+      return Arrays.asList(line.trim().split("\\s+"));
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : open
+    * Purpose    : This method starts the solver and its watchdog
+    * Parameters : format    -> CNFWriter format to send
+    *              variables -> number of variables the header declares
+    *              clauses   -> number of clauses that will be sent
+    * Return     : ClauseSink -> sink feeding the solver
+    **************************************************************************/
+   public ClauseSink open(String format, int variables, int clauses)
+      throws IOException
+   {
+      // INITIALIZE
+      process = new ProcessBuilder(command)
+                   .redirectError(ProcessBuilder.Redirect.INHERIT).start();
+      output  = new FutureTask<SudokuDecode>(() ->
+                   new SudokuDecode(process.getInputStream(), puzzle, size));
+      writer  = new CNFWriter(Channels.newChannel(process.getOutputStream()),
+                              format, variables, clauses);
+
+      reader = new Thread(output, "solver-output");
+      reader.setDaemon(true);
+      reader.start();
+
+      // IF - the run has a time budget
+      if(timeout > 0)
+      {
+         watchdog = new Timer("solver-watchdog", true);
+         watchdog.schedule(new TimerTask()
+         {
+            public void run()
+            {
+               SolverPipe.this.cancel();
+            }
+         }, timeout);
+      }
+
+      return new ClauseSink()
+      {
+         public void addClause(int[] literals, int count) throws IOException
+         {
+            send(literals, count);
+         }
+
+         public void addComment(String comment) throws IOException
+         {
+         }
+      };
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : send
+    * Purpose    : This method writes a clause to the solver, stopping the
+    *                 encoder once the run is cancelled
+    * Parameters : literals -> literals of the clause
+    *              count    -> number of literals used from the array
+    * Return     : void
+    **************************************************************************/
+   private void send(int[] literals, int count) throws IOException
+   {
+      if(cancelled)
+      {
+         throw new CancellationException("solver timed out");
+      }
+
+      // TRY - a stopped solver breaks the pipe mid write
+      try
+      {
+         writer.addClause(literals, count);
+         ++clauses;
+      }
+      catch(IOException ex)
+      {
+         if(cancelled)
+         {
+            throw new CancellationException("solver timed out");
+         }
+
+         throw ex;
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : cancel
+    * Purpose    : This method stops the run: the solver is asked to exit and
+    *                 killed if it has not within GRACE
+    * Parameters : none
+    * Return     : void
+    **************************************************************************/
+   public void cancel()
+   {
+      cancelled = true;
+
+      // IF - nothing was started
+      if(process == null)
+      {
+         return;
+      }
+
+      process.destroy();
+
+      // TRY - give the solver its grace period
+      try
+      {
+         if(!process.waitFor(GRACE, TimeUnit.MILLISECONDS))
+         {
+            process.destroyForcibly();
+         }
+      }
+      catch(InterruptedException ex)
+      {
+         process.destroyForcibly();
+         Thread.currentThread().interrupt();
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : finish
+    * Purpose    : This method ends the CNF, checks its header, and waits for
+    *                 the solver's answer
+    * Parameters : variables -> number of variables the encoder used
+    * Return     : SudokuDecode -> the solver's answer, or null if the run
+    *                              was cancelled
+    **************************************************************************/
+   public SudokuDecode finish(int variables) throws IOException
+   {
+      SudokuDecode answer; // CALC - decoded output of the solver
+
+      // TRY - close the input and read the output
+      try
+      {
+         if(!cancelled)
+         {
+            writer.close(variables, clauses);
+         }
+
+         answer = cancelled ? null : output.get();
+
+         // a stopped solver's output ends early, so it is no answer
+         return cancelled ? null : answer;
+      }
+      catch(IOException ex)
+      {
+         if(cancelled)
+         {
+            return null;
+         }
+
+         cancel();
+         throw ex;
+      }
+      catch(InterruptedException ex)
+      {
+         cancel();
+         Thread.currentThread().interrupt();
+         return null;
+      }
+      catch(ExecutionException ex)
+      {
+         if(cancelled)
+         {
+            return null;
+         }
+
+         throw new IOException("solver output unreadable", ex.getCause());
+      }
+      finally
+      {
+         if(watchdog != null)
+         {
+            watchdog.cancel();
+         }
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : abort
+    * Purpose    : This method ends a run the encoder gave up on, stopping
+    *                 the solver and its watchdog
+    * Parameters : none
+    * Return     : void
+    **************************************************************************/
+   public void abort()
+   {
+      cancel();
+
+      if(watchdog != null)
+      {
+         watchdog.cancel();
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : cancelled
+    * Purpose    : returns true if the run was stopped before it answered
+    * Parameters : none
+    * Return     : boolean -> run was cancelled
+    **************************************************************************/
+   public boolean cancelled()
+   {
+      return cancelled;
+   }
+}
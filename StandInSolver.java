@@ -0,0 +1,103 @@
+/*
+/******************************************************************************
+ * Name            : Eric Olaveson
+ * Date            : October 18, 2026
+ *
+ * This program will act as an external SAT solver, reading a CNF on its
+ *    standard input and answering on its standard output, so a solver
+ *    process can be driven without one being installed.
+ *****************************************************************************/
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/* - CLASS -
+/******************************************************************************
+ * Name    : StandInSolver
+ * Purpose : This class encapsulates a solver process built on SatSolver. It
+ *           answers the way SAT competition solvers do: an "s SATISFIABLE"
+ *           or "s UNSATISFIABLE" line, the model on "v" lines ending in 0,
+ *           and an exit code of SatSolver.SAT or SatSolver.UNSAT.
+ *****************************************************************************/
+public class StandInSolver
+{
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : command
+    * Purpose    : returns the command that starts this solver on the running
+    *                 JVM and class path
+    * Parameters : none
+    * Return     : List<String> -> program and its arguments
+    **************************************************************************/
+   public static List<String> command()
+   {
+      return new ArrayList<String>(Arrays.asList(
+         System.getProperty("java.home") + File.separator + "bin"
+            + File.separator + "java",
+         "-cp", System.getProperty("java.class.path"), "StandInSolver"));
+   }
+
+   /* - MAIN -
+    ***************************************************************************
+    * Name       : main
+    * Purpose    : This method solves the CNF on standard input.
+    * Parameters : args -> command line parameters (if desired), "-delay
+    *                         <ms>" waits that long before solving, to stand
+    *                         in for a slow solver
+    * Return     : void
+    **************************************************************************/
+   public static void main(String[] args) throws Exception
+   {
+      long          delay;  // CALC - milliseconds to wait before solving
+      SatSolver     solver; // CALC - solver of the CNF
+      StringBuilder line;   // STRN - "v" line being built
+      PrintStream   out;    // WRIT - buffered standard output
+
+      // INITIALIZE
+      delay  = 0;
+      solver = new SatSolver();
+      out    = new PrintStream(new BufferedOutputStream(System.out,
+                                                        CNFWriter.BUFFER_SIZE));
+
+      // FOR - read command line options
+      for(int index = 0; index < args.length; ++index)
+      {
+         if(args[index].equals("-delay") && index + 1 < args.length)
+         {
+            delay = Long.parseLong(args[++index]);
+         }
+      }
+
+      new CNFReader(System.in).read(solver);
+      Thread.sleep(delay);
+
+      // IF - no model to print
+      if(solver.solve() != SatSolver.SAT)
+      {
+         out.println("s UNSATISFIABLE");
+         out.flush();
+         System.exit(SatSolver.UNSAT);
+      }
+
+      out.println("s SATISFIABLE");
+      line = new StringBuilder("v");
+
+      // FOR - each literal of the model, a line at a time
+      for(int literal : solver.model())
+      {
+         if(line.length() > 70)
+         {
+            out.println(line);
+            line.setLength(0);
+            line.append('v');
+         }
+
+         line.append(' ').append(literal);
+      }
+
+      out.println(line.append(" 0"));
+      out.flush();
+      System.exit(SatSolver.SAT);
+   }
+}
@@ -8,7 +8,13 @@
  *    input file for the minisat solver.
  *****************************************************************************/
 import java.io.*;
-import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /* - CLASS -
 /******************************************************************************
@@ -24,16 +30,43 @@ public class Sudoku
    /* -CONSTANTS
    /***************************************************************************
     * N_BY_N_SIZE : size of each side of sudoku puzzle
+    * AUX_BASE    : first auxiliary variable of a unit encoded on its own,
+    *                  renumbered when the unit is merged
+    * UNIQUE, ROW, COLUMN, BLOCK : rule families, in the order encoded
+    * IN_FLIGHT   : units queued per thread before the oldest is merged
+    * FAMILIES    : phase name of each rule family, by UNIQUE to BLOCK
     **************************************************************************/
    public static final int N_BY_N_SIZE = 9;
+   public static final int AUX_BASE    = 1 << 28;
+   public static final int UNIQUE      = 0;
+   public static final int ROW         = 1;
+   public static final int COLUMN      = 2;
+   public static final int BLOCK       = 3;
+   public static final int IN_FLIGHT   = 4;
+   public static final String[] FAMILIES = {"unique", "row", "column",
+                                            "block"};
 
    /* -VARIABLES- */
    private int         nWidth;    // CALC - width of nth term
    private int         totalCNF;  // CALC - total number of cnf lines
+   private long        totalLiterals; // CALC - literals in those lines
    private int         size;      // CALC - size of sudoku puzzle
    private int         blockSize; // CALC - size of each sudoku block
-   private PrintWriter out;       // WRIT - write to a file
-   private ArrayList<String> myCNF; // LISt - holds all lines to print
+   private int         nextVar;   // CALC - next unused variable number
+   private boolean     comments;  // BOOL - sink keeps comment lines
+   private int[]       clause;    // ARRY - clause being built
+   private int[]       pair;      // ARRY - binary clause being built
+   private CNFWriter   writer;    // WRIT - writes clauses to a file
+   private String      format;    // STRN - CNFWriter format of the file
+   private ClauseSink  sink;      // LIST - receives every clause generated
+   private ClauseArena myCNF;     // LIST - holds all clauses to print
+   private VariableMap map;       // CALC - numbers each tile's values
+   private AtMostOne   amo;       // CALC - encodes "at most one" groups
+   private String      amoName;   // STRN - name of the at-most-one encoding
+   private EncodingProfile profile; // CALC - clause families to emit
+   private Reduction   reduction; // CALC - variables fixed by the givens
+   private EncodingStats stats;   // CALC - time and counts of each phase
+   private AtomicBoolean stop;    // BOOL - ends the encoding, or null
 
    /* - CONSTRUCTOR -
    /***************************************************************************
@@ -44,17 +77,55 @@ public class Sudoku
     **************************************************************************/
    public Sudoku(int size)
    {
+      this(size, false);
+   }
+
+   /* - CONSTRUCTOR -
+   /***************************************************************************
+    * Name       : Sudoku
+    * Purpose    : Create an instance of sudoku solver that either keeps all
+    *                 clauses in memory until printCNF() or streams each line
+    *                 to the file the moment it is generated.
+    * Parameters : size   -> size of the sudoku puzzle
+    *              stream -> true to stream lines instead of holding them
+    **************************************************************************/
+   public Sudoku(int size, boolean stream)
+   {
+      this(size, stream, "dimacs");
+   }
+
+   /* - CONSTRUCTOR -
+   /***************************************************************************
+    * Name       : Sudoku
+    * Purpose    : Create an instance of sudoku solver like Sudoku(size,
+    *                 stream) that writes "nxnin" in one of CNFWriter's
+    *                 formats.
+    * Parameters : size   -> size of the sudoku puzzle
+    *              stream -> true to stream lines instead of holding them
+    *              format -> CNFWriter format name
+    **************************************************************************/
+   public Sudoku(int size, boolean stream, String format)
+   {
+      this(size, (ClauseSink)null);
+
       // INITIALIZE
-      this.size      = size;
-      this.nWidth    = getWidth(size);
-      this.blockSize = (int)Math.sqrt(size);
-      this.totalCNF  = 0;
-      this.myCNF     = new ArrayList<String>();
+      this.format = format;
 
       // TRY - open file to write to
       try
       {
-         this.out = new PrintWriter(new FileWriter("nxnin"), true);
+         if(stream)
+         {
+            this.writer   = new CNFWriter("nxnin", format);
+            this.sink     = writer;
+            this.comments = writer.keepsComments();
+         }
+         else
+         {
+            this.myCNF    = new ClauseArena();
+            this.sink     = myCNF;
+            this.comments = (CNFWriter.format(format) == CNFWriter.DIMACS);
+         }
       }
       catch(Exception EX)
       {
@@ -62,21 +133,406 @@ public class Sudoku
       }
    }
 
+   /* - CONSTRUCTOR -
+   /***************************************************************************
+    * Name       : Sudoku
+    * Purpose    : Create an instance of sudoku solver that hands every clause
+    *                 to a sink supplied by the caller, such as an in-process
+    *                 solver. No file is written.
+    * Parameters : size -> size of the sudoku puzzle
+    *              sink -> receives each clause as it is generated
+    **************************************************************************/
+   public Sudoku(int size, ClauseSink sink)
+   {
+      // INITIALIZE
+      this.size      = size;
+      this.nWidth    = getWidth(size);
+      this.blockSize = (int)Math.sqrt(size);
+      this.map       = new VariableMap(size);
+      this.amo       = AtMostOne.create("pairwise", size);
+      this.amoName   = "pairwise";
+      this.profile   = EncodingProfile.EXTENDED;
+      this.nextVar   = map.count() + 1;
+      this.totalCNF  = 0;
+      this.totalLiterals = 0;
+      this.stats     = new EncodingStats("Sudoku");
+      this.comments  = false;
+      this.format    = "dimacs";
+      this.clause    = new int[size];
+      this.pair      = new int[2];
+      this.sink      = sink;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : addCNF
+    * Purpose    : This method hands a clause to the sink
+    * Parameters : literals -> literals of the clause
+    *              count    -> number of literals used from the array
+    * Return     : void
+    **************************************************************************/
+   public void addCNF(int[] literals, int count) throws IOException
+   {
+      // IF - asked to stop, give up on the rest of the encoding
+      if(stop != null && stop.get())
+      {
+         throw new CancellationException("encoding stopped");
+      }
+
+      ++this.totalCNF;
+      this.totalLiterals += count;
+
+      sink.addClause(literals, count);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : addComment
+    * Purpose    : This method hands a comment line to the sink, if the sink
+    *                 keeps comments at all.
+    * Parameters : tmp -> comment line to add
+    * Return     : void
+    **************************************************************************/
+   public void addComment(String tmp) throws IOException
+   {
+      sink.addComment(tmp);
+   }
+
    /* - METHOD -
     ***************************************************************************
     * Name       : addCNF
-    * Purpose    : This method adds a line to the list of cnf lines
-    * Parameters : tmp -> cnf line to add to list
+    * Purpose    : This method hands a binary clause to the sink
+    * Parameters : first  -> first literal of the clause
+    *              second -> second literal of the clause
+    * Return     : void
+    **************************************************************************/
+   public void addCNF(int first, int second) throws IOException
+   {
+      pair[0] = first;
+      pair[1] = second;
+      addCNF(pair, 2);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : setStop
+    * Purpose    : This method sets a flag polled before each clause; once it
+    *                 is set, encode() and the family methods throw
+    *                 CancellationException
+    * Parameters : stop -> flag to poll, or null for none
+    * Return     : void
+    **************************************************************************/
+   public void setStop(AtomicBoolean stop)
+   {
+      this.stop = stop;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : newVariable
+    * Purpose    : This method hands out an auxiliary variable numbered after
+    *                 every tile variable.
+    * Parameters : none
+    * Return     : int -> new variable number
+    **************************************************************************/
+   public int newVariable()
+   {
+      return nextVar++;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : phase
+    * Purpose    : This method starts charging clauses, literals and bytes
+    *                 to a phase, closing the one before
+    * Parameters : name -> name of the phase
+    * Return     : void
+    **************************************************************************/
+   public void phase(String name)
+   {
+      stats.begin(name, totalCNF, totalLiterals, written());
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : endPhase
+    * Purpose    : This method closes the phase being charged
+    * Parameters : none
+    * Return     : void
+    **************************************************************************/
+   public void endPhase()
+   {
+      stats.end(totalCNF, totalLiterals, written());
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : written
+    * Purpose    : returns the bytes written to "nxnin" so far
+    * Parameters : none
+    * Return     : long -> bytes written, 0 with no file
+    **************************************************************************/
+   private long written()
+   {
+      return (writer == null) ? 0 : writer.written();
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : getStats
+    * Purpose    : returns the statistics of each phase so far
+    * Parameters : none
+    * Return     : EncodingStats -> statistics of the encoder
+    **************************************************************************/
+   public EncodingStats getStats()
+   {
+      return stats;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : setStats
+    * Purpose    : This method charges the encoder's phases to statistics
+    *                 shared with the rest of a run
+    * Parameters : stats -> statistics to add to
+    * Return     : void
+    **************************************************************************/
+   public void setStats(EncodingStats stats)
+   {
+      this.stats = stats;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : setAtMostOne
+    * Purpose    : This method chooses how "at most one" groups are encoded.
+    *                 It must be called before any clauses are generated.
+    * Parameters : name -> one of AtMostOne.NAMES
+    * Return     : void
+    **************************************************************************/
+   public void setAtMostOne(String name)
+   {
+      this.amo     = AtMostOne.create(name, size);
+      this.amoName = name;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : addGroup
+    * Purpose    : This method adds the clauses for one tile, row, column or
+    *                 block group. When a puzzle is set, a group holding a
+    *                 given is already satisfied and left out, variables the
+    *                 givens made false are dropped from the group, and the
+    *                 rest are renumbered.
+    * Parameters : group      -> tile variables of the group
+    *              count      -> number of variables used from the array
+    *              atLeastOne -> add a clause that one of them is true
+    *              atMostOne  -> add clauses that no two of them are true
+    * Return     : void
+    **************************************************************************/
+   public void addGroup(int[] group, int count, boolean atLeastOne,
+                        boolean atMostOne) throws IOException
+   {
+      int kept; // CALC - variables of the group still free
+
+      // IF - reduce the group by the givens
+      if(reduction != null)
+      {
+         // INITIALIZE
+         kept = 0;
+
+         // FOR - keep each free variable under its new number
+         for(int index = 0; index < count; ++index)
+         {
+            if(reduction.state(group[index]) == Reduction.TRUE)
+            {
+               return;
+            }
+            else if(reduction.state(group[index]) == Reduction.FREE)
+            {
+               group[kept++] = reduction.compact(group[index]);
+            }
+         }
+
+         count = kept;
+      }
+
+      if(atLeastOne)
+      {
+         addCNF(group, count);
+      }
+
+      if(atMostOne)
+      {
+         atMostOne(group, count);
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : setPuzzle
+    * Purpose    : This method sets the givens to encode along with the rules.
+    *                 Variables the givens decide are left out and the free
+    *                 ones renumbered, see Reduction. It must be called before
+    *                 any clauses are generated.
+    * Parameters : puzzle -> puzzle of the same size as this encoder
+    * Return     : void
+    **************************************************************************/
+   public void setPuzzle(Puzzle puzzle)
+   {
+      if(puzzle.size() != size)
+      {
+         throw new IllegalArgumentException("puzzle is " + puzzle.size()
+                                            + "x" + puzzle.size()
+                                            + ", encoder is " + size + "x"
+                                            + size);
+      }
+
+      this.reduction = new Reduction(puzzle);
+      this.nextVar   = reduction.count() + 1;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : getReduction
+    * Purpose    : returns the givens' reduction, or null when no puzzle is set
+    * Parameters : none
+    * Return     : Reduction -> variables fixed by the givens
+    **************************************************************************/
+   public Reduction getReduction()
+   {
+      return reduction;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : atMostOne
+    * Purpose    : This method adds the clauses that keep more than one of
+    *                 the literals from being true together.
+    * Parameters : group -> literals of which at most one may be true
+    *              count -> number of literals used from the array
+    * Return     : void
+    **************************************************************************/
+   public void atMostOne(int[] group, int count) throws IOException
+   {
+      amo.encode(this, group, count);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : setProfile
+    * Purpose    : This method chooses which clause families are emitted.
+    *                 It must be called before any clauses are generated.
+    * Parameters : name -> "minimal", "efficient" or "extended"
+    * Return     : void
+    **************************************************************************/
+   public void setProfile(String name)
+   {
+      this.profile = EncodingProfile.create(name);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : reserve
+    * Purpose    : This method grows the arena once for a whole rule family
+    *                 of n squared groups, so it does not grow clause by clause.
+    * Parameters : atLeastOne -> family emits at-least-one clauses
+    *              atMostOne  -> family emits at-most-one clauses
     * Return     : void
     **************************************************************************/
-   public void addCNF(String tmp)
+   private void reserve(boolean atLeastOne, boolean atMostOne)
    {
-      if(tmp.charAt(0) != 'c')
+      if(myCNF != null)
       {
-         ++this.totalCNF;
+         myCNF.reserve(familyCNF(atLeastOne, atMostOne),
+                       familyLiterals(atLeastOne, atMostOne));
       }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : familyCNF
+    * Purpose    : returns the number of clauses one rule family of n squared
+    *                 groups adds
+    * Parameters : atLeastOne -> family emits at-least-one clauses
+    *              atMostOne  -> family emits at-most-one clauses
+    * Return     : int -> number of clauses
+    **************************************************************************/
+   private int familyCNF(boolean atLeastOne, boolean atMostOne)
+   {
+      return size * size * ((atLeastOne ? 1 : 0)
+                            + (atMostOne ? amo.clauses(size) : 0));
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : familyLiterals
+    * Purpose    : returns the number of literals one rule family adds
+    * Parameters : atLeastOne -> family emits at-least-one clauses
+    *              atMostOne  -> family emits at-most-one clauses
+    * Return     : int -> number of literals
+    **************************************************************************/
+   private int familyLiterals(boolean atLeastOne, boolean atMostOne)
+   {
+      return size * size * ((atLeastOne ? size : 0)
+                            + (atMostOne ? amo.literals(size) : 0));
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : expectedCNF
+    * Purpose    : returns the number of clauses the four rule families add,
+    *                 or an upper bound on it once a puzzle is set
+    * Parameters : none
+    * Return     : int -> number of clauses
+    **************************************************************************/
+   public int expectedCNF()
+   {
+      return familyCNF(true, profile.tileAtMostOne())
+             + (3 * familyCNF(profile.unitAtLeastOne(), true));
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : expectedLiterals
+    * Purpose    : returns the number of literals the four rule families add,
+    *                 or an upper bound on it once a puzzle is set
+    * Parameters : none
+    * Return     : int -> number of literals
+    **************************************************************************/
+   public int expectedLiterals()
+   {
+      return familyLiterals(true, profile.tileAtMostOne())
+             + (3 * familyLiterals(profile.unitAtLeastOne(), true));
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : expectedVariables
+    * Purpose    : returns the number of variables once all four rule
+    *                 families are encoded, or an upper bound on it once a
+    *                 puzzle is set
+    * Parameters : none
+    * Return     : int -> number of variables
+    **************************************************************************/
+   public int expectedVariables()
+   {
+      return map.count()
+             + (size * size * amo.variables(size)
+                * (3 + (profile.tileAtMostOne() ? 1 : 0)));
+   }
 
-      this.myCNF.add(tmp);
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : getClauses
+    * Purpose    : returns the clauses held in memory, or null if they were
+    *                 streamed out or handed to a caller's sink
+    * Parameters : none
+    * Return     : ClauseArena -> clauses generated so far
+    **************************************************************************/
+   public ClauseArena getClauses()
+   {
+      return myCNF;
    }
 
    /* - METHOD -
@@ -135,13 +591,39 @@ public class Sudoku
    /* - METHOD -
     ***************************************************************************
     * Name       : closeFile
-    * Purpose    : This method closes the file being written to.
+    * Purpose    : This method closes the file being written to, patching
+    *                 the real counts into its header.
     * Parameters : none
     * Return     : void
     **************************************************************************/
    public void closeFile()
    {
-      out.close();
+      // IF - nothing was written to a file
+      if(writer == null)
+      {
+         return;
+      }
+
+      try
+      {
+         writer.close(variables(), this.totalCNF);
+      }
+      catch(Exception ex)
+      {
+         System.out.println("~~~~~~~~~~ ERROR WRITING TO FILE ~~~~~~~~~~");
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : variables
+    * Purpose    : returns the variable count declared in the cnf header
+    * Parameters : none
+    * Return     : int -> number of variables
+    **************************************************************************/
+   public int variables()
+   {
+      return nextVar - 1;
    }
 
    /* - METHOD -
@@ -153,12 +635,7 @@ public class Sudoku
     **************************************************************************/
    public void block()
    {
-      int startX; // CALC - starting x coordinate entry
-      int startY; // CALC - starting y coordinate entry
-
-      // INITIALIZE
-      startX = 1;
-      startY = 1;
+      reserve(profile.unitAtLeastOne(), true);
 
       // TRY - checks each block and writes data to file
       try
@@ -179,6 +656,10 @@ public class Sudoku
             }          
          }
       }
+      catch(CancellationException ex)
+      {
+         throw ex;
+      }
       catch(Exception ex)
       {
          System.out.println("~~~~~~~~~~ ERROR WRITING TO FILE ~~~~~~~~~~");
@@ -189,38 +670,39 @@ public class Sudoku
     ***************************************************************************
     * Name       : checkBlock
     * Purpose    : This method checks each individual block for unique entries
-    * Parameters : none
+    * Parameters : rBlock  -> row of the block, 1 to blockSize
+    *              cBlock  -> column of the block, 1 to blockSize
+    *              element -> value that must appear once in the block
     * Return     : void
     **************************************************************************/
    public void checkBlock(int rBlock, int cBlock, int element)
+      throws IOException
    {
       /* -VARIABLES- */
       int    startR;  // CALC - start row to check
       int    startC;  // CALC - start column to check
       int    row;     // CALC - current row checking
       int    col;     // CALC - current column checking
-      String tmpLine; // TEMP - line to concat. to send to CNF list
-      ArrayList<String> blockElements; // LIST - all CNF in block
+      int    count;   // CALC - literals in the clause so far
 
       // INITIALIZE
       startR  = 1 + ((rBlock - 1) * blockSize);
       startC  = 1 + ((cBlock - 1) * blockSize);
       row     = startR;
       col     = startC;
-      tmpLine = "";
-      blockElements = new ArrayList<String>();
-     
-      this.addCNF("c check for unique entry in block <"
-                  + buff(cBlock) + "," + buff(rBlock) + "> for \'"
-                  + buff(element) + "\'\n");
+      count   = 0;
+
+      if(comments)
+      {
+         addComment("c check for unique entry in block <"
+                    + buff(cBlock) + "," + buff(rBlock) + "> for \'"
+                    + buff(element) + "\'");
+      }
 
       // WHILE - traverse each element of block
       while(row < startR + blockSize)
       {
-         tmpLine += " " + buff(row) + ""
-                    + buff(col) + "" + buff(element);
-         blockElements.add(buff(row) + "" + buff(col)
-                           + "" + buff(element));
+         clause[count++] = map.variable(row, col, element);
 
          // IF - starts column to beginning of block
          if((col + 1) == startC + blockSize)
@@ -234,31 +716,7 @@ public class Sudoku
          }
       }
 
-      addCNF(tmpLine + " 0\n\n");
-
-      // INITIALIZE - element to start at 1
-      int index = 0;
-
-      // 2nd TO-DO - ensure each square has only 1 value
-      for(int block = (size - 1); block > 0; --block)
-      {
-         // CALC - increment current element checker
-         int tmp = index + 1;
-
-         // FOR - checks that there are only 1 element at each tile
-         for(int iter = block; iter > 0; --iter)
-         {
-            String first  = "-" + blockElements.get(index);
-            String second = "-" + blockElements.get(tmp);
-            addCNF(first + " " + second + " 0\n");
-
-            // INCREMENT - to next element to check against
-            ++tmp;
-         }
-
-         // INCREMENT - next level of equality checking
-         ++index;
-      }
+      addGroup(clause, count, profile.unitAtLeastOne(), true);
    }
 
    /* - METHOD -
@@ -270,8 +728,8 @@ public class Sudoku
     **************************************************************************/
    public void column()
    {
-      String tmpLine; // CALC - tmp line to add to CNF list
- 
+      reserve(profile.unitAtLeastOne(), true);
+
       // TRY - to write to a file column unique-ness cnf equation lines
       try
       {
@@ -281,55 +739,45 @@ public class Sudoku
             // FOR - check that each element occures only once in the column
             for(int z = 1; z <= size; ++z)
             {
-               addCNF("c check for unique entries in column " + buff(col)
-                    + " for \'" + buff(z) + "\'\n");
-
-               // RE-INITIALIZE
-               tmpLine = new String();
-
-               // FOR - set column to hold 'z' in any row
-               for(int element = 1; element <= size; ++element)
-               {
-                  tmpLine += (" " + buff(element) + ""
-                             + buff(col) + "" + buff(z));
-               }
-
-               addCNF(tmpLine + " " + 0 + "\n\n");
-               
-               // INITIALIZE - element to start at 1
-               int x = 1;
-
-               // 2nd TO-DO - ensure each square has only 1 value
-               for(int block = (size - 1); block > 0; --block)
-               {
-                  // CALC - increment current element checker
-                  int tmpX = x + 1;
-
-                  // FOR - checks that there are only 1 element at each tile
-                  for(int iter = block; iter > 0; --iter)
-                  {
-                     String first  = "-" + buff(x)    + ""
-                                     + buff(col) + "" + buff(z);
-                     String second = "-" + buff(tmpX) + ""
-                                     + buff(col) + "" + buff(z);
-                     addCNF(first + " " + second + " 0\n");
-
-                     // INCREMENT - to next element to check against
-                     ++tmpX;
-                  }
-
-                  // INCREMENT - next level of equality checking
-                  ++x;
-               }
+               checkColumn(col, z);
             }
          }
       }
+      catch(CancellationException ex)
+      {
+         throw ex;
+      }
       catch(Exception ex)
       {
          System.out.println("~~~~~~~~~~ ERROR WRITING TO FILE ~~~~~~~~~~");
       }
    }
 
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : checkColumn
+    * Purpose    : This method checks one column for one value
+    * Parameters : col -> column to check
+    *              z   -> value that must appear once in the column
+    * Return     : void
+    **************************************************************************/
+   public void checkColumn(int col, int z) throws IOException
+   {
+      if(comments)
+      {
+         addComment("c check for unique entries in column "
+                    + buff(col) + " for \'" + buff(z) + "\'");
+      }
+
+      // FOR - set column to hold 'z' in any row
+      for(int element = 1; element <= size; ++element)
+      {
+         clause[element - 1] = map.variable(element, col, z);
+      }
+
+      addGroup(clause, size, profile.unitAtLeastOne(), true);
+   }
+
    /* - METHOD -
     ***************************************************************************
     * Name       : row
@@ -340,8 +788,8 @@ public class Sudoku
     **************************************************************************/
    public void row()
    {
-      String tmpLine;
-      
+      reserve(profile.unitAtLeastOne(), true);
+
       // TRY - to write to a file the row unique-ness cnf equation lines
       try
       {
@@ -351,50 +799,13 @@ public class Sudoku
             // FOR - check that each element only ocurrs once each row
             for(int z = 1; z <= size; ++z)
             {
-               addCNF("c check for unique entries in row " + buff(row)
-                    + " for \'" + buff(z) + "\'\n");
-
-               // RE-INITIALIZE
-               tmpLine = new String();
-
-               // FOR - set row able to contain 'z' in any column
-               for(int element = 1; element <= size; ++element)
-               {
-                  tmpLine += (" " + buff(row) + "" 
-                             + buff(element) + "" + buff(z));
-               }
-
-               addCNF(tmpLine + " " + 0 + "\n\n");
-
-               // INITIALIZE - element to start at 1
-               int y = 1;
-
-               // 2nd TO-DO - ensure each square has only 1 value
-               for(int block = (size - 1); block > 0; --block)
-               {
-                  // CALC - increment current element checker
-                  int tmpY = y + 1;
-
-                  // FOR - checks that there are only 1 element at each tile
-                  for(int iter = block; iter > 0; --iter)
-                  {
-                     String first  = "-" + buff(row) + ""
-                                     + buff(y) + "" + buff(z);
-                     String second = "-" + buff(row) + "" 
-                                     + buff(tmpY) + "" + buff(z);
-
-                     addCNF(first + " " + second + " 0\n");
-
-                     // INCREMENT - to next element to check against
-                     ++tmpY;
-                  }
-
-                  // INCREMENT - next level of equality checking
-                  ++y;
-               }
+               checkRow(row, z);
             }
          }
-         
+      }
+      catch(CancellationException ex)
+      {
+         throw ex;
       }
       catch(Exception Ex)
       {
@@ -402,6 +813,31 @@ public class Sudoku
       }
    }
 
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : checkRow
+    * Purpose    : This method checks one row for one value
+    * Parameters : row -> row to check
+    *              z   -> value that must appear once in the row
+    * Return     : void
+    **************************************************************************/
+   public void checkRow(int row, int z) throws IOException
+   {
+      if(comments)
+      {
+         addComment("c check for unique entries in row "
+                    + buff(row) + " for \'" + buff(z) + "\'");
+      }
+
+      // FOR - set row able to contain 'z' in any column
+      for(int element = 1; element <= size; ++element)
+      {
+         clause[element - 1] = map.variable(row, element, z);
+      }
+
+      addGroup(clause, size, profile.unitAtLeastOne(), true);
+   }
+
    /* - METHOD -
     ***************************************************************************
     * Name       : unique
@@ -412,80 +848,568 @@ public class Sudoku
     **************************************************************************/
    public void unique()
    {
-      String tmpLine; // TEMP - tmp line to add to CNF list
+      reserve(true, profile.tileAtMostOne());
 
       // TRY - to write to a file the unique CNF equation
       try
       {
+         // IF - givens contradict each other, so nothing can satisfy them
+         if(reduction != null && reduction.conflict())
+         {
+            addCNF(clause, 0);
+         }
+
          // DOUBLE FOR - These 2 outter loops check that each tile of the
          //              sudoku puzzle are a single value, unique to themselves
          for(int x = 1; x <= size; ++x)
          {
             for(int y = 1; y <= size; ++y)
             {
-               addCNF("c check for unique entry at <" 
-                      + buff(x) + "," + buff(y)  + ">\n");
+               checkTile(x, y);
+            }
+         }
+      }
+      catch(CancellationException ex)
+      {
+         throw ex;
+      }
+      catch(Exception EX)
+      {
+         System.out.println("~~~~~~~~~~ ERROR WRITING TO FILE ~~~~~~~~~~");
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : checkTile
+    * Purpose    : This method checks that one tile holds a single value
+    * Parameters : x -> row of the tile
+    *              y -> column of the tile
+    * Return     : void
+    **************************************************************************/
+   public void checkTile(int x, int y) throws IOException
+   {
+      if(comments)
+      {
+         addComment("c check for unique entry at <"
+                    + buff(x) + "," + buff(y) + ">");
+      }
 
-               // INITIALIZE
-               tmpLine = new String();
+      // 1st TO-DO - set tile's domain to 1 - 9 possibility
+      for(int z = 1; z <= size; ++z)
+      {
+         clause[z - 1] = map.variable(x, y, z);
+      }
 
-               // 1st TO-DO - set tile's domain to 1 - 9 possibility
-               for(int z = 1; z <= size; ++z)
-               {
-                  tmpLine += (" " + buff(x) + "" + buff(y) + "" + buff(z));
-               }
+      addGroup(clause, size, true, profile.tileAtMostOne());
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : encode
+    * Purpose    : This method adds all four rule families. With more than one
+    *                 thread each family is split into its n units (a row of
+    *                 tiles, a row, a column or a block, over every value),
+    *                 each unit is encoded as a fork-join task into a buffer of
+    *                 its own, and the buffers are merged in the order the
+    *                 single threaded loops would have made them. A unit
+    *                 numbers its auxiliary variables from AUX_BASE and the
+    *                 merge moves them after the ones before it, so the
+    *                 output is the same, byte for byte, on any number of
+    *                 threads.
+    * Parameters : threads -> threads to encode on, 1 to stay on this one
+    * Return     : void
+    **************************************************************************/
+   public void encode(int threads)
+   {
+      ForkJoinPool                         pool;  // CALC - encoding threads
+      ArrayDeque<ForkJoinTask<UnitBuffer>> queue; // LIST - units in order
+
+      // IF - one thread, encode in place
+      if(threads <= 1)
+      {
+         phase(FAMILIES[UNIQUE]);
+         unique();
+         phase(FAMILIES[ROW]);
+         row();
+         phase(FAMILIES[COLUMN]);
+         column();
+         phase(FAMILIES[BLOCK]);
+         block();
+         endPhase();
+         return;
+      }
+
+      // INITIALIZE
+      pool  = new ForkJoinPool(threads);
+      queue = new ArrayDeque<ForkJoinTask<UnitBuffer>>();
 
-               addCNF(tmpLine + " " + 0 + "\n\n");
+      // TRY - submit units in order, merging the oldest as the queue fills
+      try
+      {
+         phase(FAMILIES[UNIQUE]);
+
+         // IF - givens contradict each other, so nothing can satisfy them
+         if(reduction != null && reduction.conflict())
+         {
+            addCNF(clause, 0);
+         }
+
+         // DOUBLE FOR - each unit of each family
+         for(int family = UNIQUE; family <= BLOCK; ++family)
+         {
+            reserve(family == UNIQUE || profile.unitAtLeastOne(),
+                    family != UNIQUE || profile.tileAtMostOne());
 
-               // INITIALIZE - element to start at 1
-               int z = 1;
+            for(int unit = 0; unit < size; ++unit)
+            {
+               queue.add(pool.submit(new UnitTask(this, family, unit)));
 
-               // 2nd TO-DO - ensure each square has only 1 value
-               for(int block = (size - 1); block > 0; --block)
+               if(queue.size() >= IN_FLIGHT * threads)
                {
-                  // CALC - increment current element checker
-                  int tmpZ = z +1;
-
-                  // FOR - checks that there are only 1 element at each tile
-                  for(int iter = block; iter > 0; --iter)
-                  {
-                     String first  = "-" + buff(x) + "" + buff(y) + "" + buff(z);
-                     String second = "-" + buff(x) + "" + buff(y) + "" + buff(tmpZ);
-                     
-                     addCNF(first + " " + second + " 0\n");
-
-                     // INCREMENT - to next element to check against
-                     ++tmpZ;
-                  }
-
-                  // INCREMENT - next level of equality checking
-                  ++z;
+                  merge(queue.poll().join());
                }
             }
          }
+
+         // WHILE - merge the units still in flight
+         while(!queue.isEmpty())
+         {
+            merge(queue.poll().join());
+         }
+
+         endPhase();
       }
-      catch(Exception EX)
+      catch(CancellationException ex)
+      {
+         throw ex;
+      }
+      catch(Exception ex)
       {
          System.out.println("~~~~~~~~~~ ERROR WRITING TO FILE ~~~~~~~~~~");
       }
+      finally
+      {
+         pool.shutdown();
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : encodeUnit
+    * Purpose    : This method adds every group of one unit of a family
+    * Parameters : family -> UNIQUE, ROW, COLUMN or BLOCK
+    *              unit   -> unit of the family, 0 to size - 1
+    * Return     : void
+    **************************************************************************/
+   private void encodeUnit(int family, int unit) throws IOException
+   {
+      // FOR - each group of the unit, in the order the family loops use
+      for(int other = 1; other <= size; ++other)
+      {
+         if(family == UNIQUE)
+         {
+            checkTile(unit + 1, other);
+         }
+         else if(family == ROW)
+         {
+            checkRow(unit + 1, other);
+         }
+         else if(family == COLUMN)
+         {
+            checkColumn(unit + 1, other);
+         }
+         else
+         {
+            checkBlock((unit / blockSize) + 1, (unit % blockSize) + 1, other);
+         }
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : merge
+    * Purpose    : This method hands a unit's comments and clauses to the
+    *                 sink, moving its auxiliary variables after the ones
+    *                 already handed out, and charges the heap its pool
+    *                 thread allocated to the unit's family
+    * Parameters : unit -> buffer of one encoded unit
+    * Return     : void
+    **************************************************************************/
+   private void merge(UnitBuffer unit) throws IOException
+   {
+      int[] literals; // ARRY - literals of the unit
+      int   comment;  // CALC - next comment to hand over
+      int   shift;    // CALC - moves a unit variable to its real number
+
+      // INITIALIZE
+      literals = unit.literals();
+      comment  = 0;
+      shift    = nextVar - AUX_BASE;
+
+      // IF - the first unit of the next family ends the one before
+      if(!stats.getCurrentPhase().equals(FAMILIES[unit.family]))
+      {
+         phase(FAMILIES[unit.family]);
+      }
+
+      stats.allocate(unit.allocated);
+
+      // FOR - renumber the auxiliary variables in place
+      for(int index = 0; index < unit.literalCount(); ++index)
+      {
+         if(literals[index] >= AUX_BASE)
+         {
+            literals[index] += shift;
+         }
+         else if(literals[index] <= -AUX_BASE)
+         {
+            literals[index] -= shift;
+         }
+      }
+
+      // FOR - each clause, after the comments that came before it
+      for(int index = 0; index < unit.size(); ++index)
+      {
+         while(comment < unit.comments() && unit.commentAt(comment) <= index)
+         {
+            addComment(unit.comment(comment++));
+         }
+
+         if(unit.length(index) > clause.length)
+         {
+            clause = new int[unit.length(index)];
+         }
+
+         System.arraycopy(literals, unit.start(index), clause, 0,
+                          unit.length(index));
+         addCNF(clause, unit.length(index));
+      }
+
+      // WHILE - comments after the last clause
+      while(comment < unit.comments())
+      {
+         addComment(unit.comment(comment++));
+      }
+
+      nextVar += unit.variables;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : solveDirect
+    * Purpose    : This method solves a puzzle with a direct engine and
+    *                 writes the grid to "nxnsolution" the way SudokuDecode
+    *                 writes a solver's model.
+    * Parameters : engine -> direct engine for the puzzle's size
+    *              puzzle -> givens to start from
+    *              stats  -> statistics of the run
+    * Return     : void
+    **************************************************************************/
+   private static void solveDirect(GridSolver engine, Puzzle puzzle,
+                                   EncodingStats stats)
+   {
+      int   size; // CALC - size of sudoku puzzle
+      int[] grid; // ARRY - solved tiles row by row
+
+      // INITIALIZE
+      size = puzzle.size();
+      grid = new int[size * size];
+
+      stats.begin("solve", 0, 0, 0);
+
+      if(engine.solve(puzzle, 1, grid) == 0)
+      {
+         stats.end(0, 0, 0);
+         System.out.println("UNSATISFIABLE");
+         return;
+      }
+
+      stats.begin("write", 0, 0, 0);
+
+      // TRY - write the grid
+      try
+      {
+         SudokuDecode.writeGrid(grid, size);
+      }
+      catch(Exception ex)
+      {
+         System.out.println("~~~~~~~~~~ ERROR WRITING TO FILE ~~~~~~~~~~");
+      }
+
+      stats.end(0, 0, new File("nxnsolution").length());
    }
 
    /* - METHOD -
     ***************************************************************************
     * Name       : printCNF
-    * Purpose    : This method will print all of the CNF lines to the file
+    * Purpose    : This method will print all of the CNF lines to the file.
+    *                 Clauses held in memory are only turned into DIMACS text
+    *                 here; streamed lines are already written.
     * Parameters : none
     * Return     : void  
     **************************************************************************/
    public void printCNF()
    {
-      out.write("p cnf " + size + "" + size
-                + "" + size + " " + this.totalCNF + "\n");
+      // IF - clauses were streamed out or handed to a caller's sink
+      if(myCNF == null)
+      {
+         return;
+      }
 
-      for(int index = 0; index < myCNF.size(); ++index)
+      // TRY - serialize the arena to the file
+      try
       {
-         out.write(myCNF.get(index));
-         
+         this.writer = new CNFWriter("nxnin", format);
+         myCNF.writeTo(writer);
+      }
+      catch(Exception ex)
+      {
+         System.out.println("~~~~~~~~~~ ERROR WRITING TO FILE ~~~~~~~~~~");
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : encodeTemplate
+    * Purpose    : This method encodes a puzzle from the cached rule template
+    *                 of its size, building and saving the template on the
+    *                 first run. The CNF keeps the full variable numbering,
+    *                 with the givens as unit clauses.
+    * Parameters : size   -> size of the sudoku puzzle
+    *              amo    -> at-most-one encoding name
+    *              family -> encoding profile name
+    *              puzzle -> givens to add, or null for none
+    *              solve  -> solve in memory instead of writing "nxnin"
+    *              format -> CNFWriter format of "nxnin"
+    *              stats  -> statistics of the run
+    * Return     : void
+    **************************************************************************/
+   private static void encodeTemplate(int size, String amo, String family,
+                                      Puzzle puzzle, boolean solve,
+                                      String format, EncodingStats stats)
+   {
+      RuleTemplate rules;    // CALC - rule clauses of the size
+      SatSolver    solver;   // CALC - in memory solver, if solving
+      CNFWriter    writer;   // WRIT - writes "nxnin", if not solving
+      int          clauses;  // CALC - clauses handed over
+      long         literals; // CALC - literals handed over
+
+      // TRY - encode, then write or solve
+      try
+      {
+         stats.begin("template", 0, 0, 0);
+         rules = TemplateCache.shared().get(size, amo, family);
+
+         if(!solve)
+         {
+            stats.begin("write", 0, 0, 0);
+            writer  = new CNFWriter("nxnin", format);
+            clauses = rules.writeTo(writer, puzzle);
+            writer.close(rules.variables(), clauses);
+            stats.end(clauses, rules.literals() + clauses - rules.clauses(),
+                      writer.written());
+            return;
+         }
+
+         stats.begin("load", 0, 0, 0);
+         solver   = new SatSolver();
+         clauses  = rules.writeTo(solver, puzzle);
+         literals = rules.literals() + clauses - rules.clauses();
+         stats.begin("solve", clauses, literals, 0);
+
+         if(solver.solve() != SatSolver.SAT)
+         {
+            stats.end(clauses, literals, 0);
+            System.out.println("UNSATISFIABLE");
+            return;
+         }
+
+         stats.begin("decode", clauses, literals, 0);
+         SudokuDecode.writeGrid(SudokuDecode.decode(solver.model(), null,
+                                                    size), size);
+         stats.end(clauses, literals, new File("nxnsolution").length());
+      }
+      catch(Exception ex)
+      {
+         System.out.println("~~~~~~~~~~ ERROR WRITING TO FILE ~~~~~~~~~~");
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : preprocess
+    * Purpose    : This method simplifies an encoding held by a Preprocessor
+    *                 and either loads it into a SatSolver or writes it to
+    *                 "nxnin", saving the reconstruction SudokuDecode needs to
+    *                 Preprocessor.FILE.
+    * Parameters : pre       -> preprocessor holding the encoding
+    *              variables -> variables the encoder declares
+    *              solve     -> load a solver instead of writing "nxnin"
+    *              format    -> CNFWriter format of "nxnin"
+    *              stats     -> statistics of the run
+    * Return     : SatSolver -> solver loaded with the simplified CNF, or
+    *                              null when writing or on an error
+    **************************************************************************/
+   private static SatSolver preprocess(Preprocessor pre, int variables,
+                                       boolean solve, String format,
+                                       EncodingStats stats)
+   {
+      SatSolver solver; // CALC - in memory solver, if solving
+      CNFWriter writer; // WRIT - writes "nxnin", if not solving
+
+      // TRY - simplify, then load or write what is left
+      try
+      {
+         stats.begin("preprocess", 0, 0, 0);
+         pre.run(variables);
+         stats.end(pre.clauses(), pre.literals(), 0);
+         stats.put("preprocess", pre.summary());
+
+         if(solve)
+         {
+            stats.begin("load", 0, 0, 0);
+            solver = new SatSolver();
+            pre.writeTo(solver);
+            stats.end(pre.clauses(), pre.literals(), 0);
+            return solver;
+         }
+
+         stats.begin("write", 0, 0, 0);
+         writer = new CNFWriter("nxnin", format);
+         pre.writeTo(writer);
+         writer.close(pre.variables(), pre.clauses());
+         pre.save(Preprocessor.FILE);
+         stats.end(pre.clauses(), pre.literals(), writer.written());
+      }
+      catch(Exception ex)
+      {
+         System.out.println("~~~~~~~~~~ ERROR WRITING TO FILE ~~~~~~~~~~");
+      }
+
+      return null;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : solvePiped
+    * Purpose    : This method encodes a puzzle straight into a solver
+    *                 process and writes its answer to "nxnsolution". The
+    *                 encoding is first run into a ClauseCounter, since the
+    *                 header has to be exact before the first clause goes
+    *                 down the pipe, then run again into the solver, which
+    *                 parses it while it is being made. A preprocessed
+    *                 encoding needs no dry run: its counts are known once
+    *                 it is simplified, and it is sent from memory.
+    * Parameters : size    -> size of the sudoku puzzle
+    *              amo     -> at-most-one encoding name
+    *              family  -> encoding profile name
+    *              puzzle  -> givens to reduce by, or null for none
+    *              threads -> threads to encode on
+    *              format  -> CNFWriter format to send
+    *              command -> solver command line, see SolverPipe
+    *              timeout -> time budget in ms, 0 for none
+    *              pre     -> preprocessor to simplify with, or null
+    *              stats   -> statistics of the run
+    * Return     : void
+    **************************************************************************/
+   private static void solvePiped(int size, String amo, String family,
+                                  Puzzle puzzle, int threads, String format,
+                                  String command, long timeout,
+                                  Preprocessor pre, EncodingStats stats)
+   {
+      ClauseCounter counter;  // CALC - counts of the dry run
+      ClauseSink    sink;     // LIST - receives the encoding
+      Sudoku        mySudoku; // CALC - encoder
+      SolverPipe    pipe;     // CALC - the solver process
+      SudokuDecode  answer;   // CALC - the solver's answer
+      int[]         grid;     // ARRY - solved tiles row by row
+
+      // INITIALIZE
+      pipe = new SolverPipe(SolverPipe.split(command), timeout, puzzle, size);
+      sink = pre;
+
+      // TRY - encode into the solver, then decode what it answers
+      try
+      {
+         // IF - the dry run fixes the header
+         if(pre == null)
+         {
+            stats.begin("count", 0, 0, 0);
+            counter  = new ClauseCounter();
+            mySudoku = new Sudoku(size, counter);
+            mySudoku.setAtMostOne(amo);
+            mySudoku.setProfile(family);
+
+            if(puzzle != null)
+            {
+               mySudoku.setPuzzle(puzzle);
+            }
+
+            mySudoku.encode(threads);
+            stats.end(counter.clauses(), counter.literals(), 0);
+            sink = pipe.open(format, mySudoku.variables(), counter.clauses());
+         }
+
+         mySudoku = new Sudoku(size, sink);
+         mySudoku.setStats(stats);
+         mySudoku.setAtMostOne(amo);
+         mySudoku.setProfile(family);
+
+         if(puzzle != null)
+         {
+            mySudoku.phase("reduce");
+            mySudoku.setPuzzle(puzzle);
+         }
+
+         mySudoku.encode(threads);
+
+         // IF - simplify, then send what is left
+         if(pre != null)
+         {
+            mySudoku.phase("preprocess");
+            pre.run(mySudoku.variables());
+            stats.put("preprocess", pre.summary());
+            mySudoku.phase("send");
+            pre.writeTo(pipe.open(format, pre.variables(), pre.clauses()));
+         }
+
+         mySudoku.phase("solve");
+         answer = pipe.finish((pre == null) ? mySudoku.variables()
+                                            : pre.variables());
+         mySudoku.phase("decode");
+         grid = (answer == null) ? null : answer.restore(pre).grid();
+
+         if(answer == null)
+         {
+            System.out.println("TIMED OUT");
+         }
+         else if(answer.status() == SatSolver.UNSAT)
+         {
+            System.out.println("UNSATISFIABLE");
+         }
+         else if(grid == null || !(puzzle == null
+                                   ? SudokuDecode.isValid(grid, size)
+                                   : SudokuDecode.isValid(grid, puzzle)))
+         {
+            System.out.println("~~~~~~~~~~ INVALID SOLUTION ~~~~~~~~~~");
+         }
+         else
+         {
+            SudokuDecode.writeGrid(grid, size);
+         }
+
+         mySudoku.endPhase();
+      }
+      catch(CancellationException ex)
+      {
+         stats.end(0, 0, 0);
+         System.out.println("TIMED OUT");
+      }
+      catch(Exception ex)
+      {
+         pipe.abort();
+         System.out.println("~~~~~~~~~~ ERROR WRITING TO SOLVER ~~~~~~~~~~");
       }
    }
 
@@ -494,18 +1418,339 @@ public class Sudoku
     * Name       : main 
     * Purpose    : This method will call methods of Sudoku to solve a sudoku
     *                 puzzle of n x n size.
-    * Parameters : args -> command line parameters (if desired)
+    * Parameters : args -> command line parameters (if desired), "-stream"
+    *                         writes each line as soon as it is generated,
+    *                         "-amo <name>" picks the at-most-one encoding,
+    *                         "-profile <name>" picks the clause families,
+    *                         "-puzzle <file>" encodes a puzzle's givens,
+    *                         "-solve" solves in memory with SatSolver and
+    *                         writes "nxnsolution" without "nxnin"/"nxnout",
+    *                         "-dlx" or "-bitboard" solves directly without
+    *                         any CNF, "-template" encodes from the rules of
+    *                         the size plus a unit clause per given, "-rules
+    *                         <dir>" saves and maps those rules in dir,
+    *                         "-threads <count>" encodes on that many threads,
+    *                         "-format <name>" writes "nxnin" as dimacs,
+    *                         compact, gzip or binary, "-pipe <command>"
+    *                         streams the CNF into a solver process instead
+    *                         of "nxnin" ("standin" runs StandInSolver),
+    *                         "-timeout <ms>" stops that solver after ms,
+    *                         "-preprocess" simplifies the CNF before it is
+    *                         written, solved or piped, saving what
+    *                         SudokuDecode needs to map the model back to
+    *                         "nxnmap"
     * Return     : void  
     **************************************************************************/
    public static void main(String[] args)
    {
-      Sudoku mySudoku = new Sudoku(N_BY_N_SIZE);
+      boolean stream = false;      // BOOL - stream lines instead of holding
+      String  amo    = "pairwise"; // STRN - at-most-one encoding to use
+      String  family = "extended"; // STRN - encoding profile to use
+      Puzzle  puzzle = null;       // CALC - givens to encode, if any
+      boolean solve  = false;      // BOOL - solve in memory instead
+      String  engine = null;       // STRN - direct engine to solve with
+      boolean cached = false;      // BOOL - encode from a rule template
+      String  format = "dimacs";   // STRN - CNFWriter format of "nxnin"
+      String  command = null;      // STRN - solver to pipe the CNF into
+      long    timeout = 0;         // CALC - solver time budget in ms
+      boolean simplify = false;    // BOOL - preprocess the CNF
+      Preprocessor pre = null;     // CALC - preprocessor, if simplifying
+      int     threads;             // CALC - threads to encode on
+      int     size;                // CALC - size of sudoku puzzle
+      Sudoku  mySudoku;            // CALC - encoder
+      SatSolver solver = null;     // CALC - in memory solver, if solving
+      EncodingStats stats;         // CALC - statistics of the run
+
+      // INITIALIZE
+      threads = Runtime.getRuntime().availableProcessors();
+
+      // FOR - read command line options
+      for(int index = 0; index < args.length; ++index)
+      {
+         if(args[index].equals("-stream"))
+         {
+            stream = true;
+         }
+         else if(args[index].equals("-solve"))
+         {
+            solve = true;
+         }
+         else if(args[index].equals("-dlx"))
+         {
+            engine = "dlx";
+         }
+         else if(args[index].equals("-bitboard"))
+         {
+            engine = "bitboard";
+         }
+         else if(args[index].equals("-template"))
+         {
+            cached = true;
+         }
+         else if(args[index].equals("-preprocess"))
+         {
+            simplify = true;
+         }
+         else if(args[index].equals("-threads") && index + 1 < args.length)
+         {
+            threads = Integer.parseInt(args[++index]);
+         }
+         else if(args[index].equals("-format") && index + 1 < args.length)
+         {
+            format = args[++index];
+         }
+         else if(args[index].equals("-pipe") && index + 1 < args.length)
+         {
+            command = args[++index];
+         }
+         else if(args[index].equals("-timeout") && index + 1 < args.length)
+         {
+            timeout = Long.parseLong(args[++index]);
+         }
+         else if(args[index].equals("-rules") && index + 1 < args.length)
+         {
+            TemplateCache.setShared(new TemplateCache(args[++index],
+                                       TemplateCache.DEFAULT_BUDGET));
+         }
+         else if(args[index].equals("-amo") && index + 1 < args.length)
+         {
+            amo = args[++index];
+         }
+         else if(args[index].equals("-profile") && index + 1 < args.length)
+         {
+            family = args[++index];
+         }
+         else if(args[index].equals("-puzzle") && index + 1 < args.length)
+         {
+            // TRY - read the puzzle's givens
+            try
+            {
+               puzzle = Puzzle.read(args[++index]);
+            }
+            catch(Exception ex)
+            {
+               System.out.println("~~~~~~~~~~ ERROR READING PUZZLE ~~~~~~~~~~");
+               return;
+            }
+         }
+      }
+
+      // INITIALIZE
+      size = (puzzle == null) ? N_BY_N_SIZE : puzzle.size();
+      CNFWriter.format(format); // rejects an unknown format before encoding
+
+      stats = new EncodingStats("Sudoku");
+      stats.put("size", size);
+      stats.put("threads", threads);
+      stats.put("amo", amo);
+      stats.put("profile", family);
+      stats.put("format", format);
+      stats.put("givens", (puzzle == null) ? 0 : puzzle.givens());
+      stats.put("preprocessed", simplify);
+      stats.register();
+      pre = simplify ? new Preprocessor() : null;
+
+      // IF - skip the CNF and solve the puzzle directly
+      if(engine != null)
+      {
+         stats.put("engine", engine);
+         solveDirect(engine.equals("dlx") ? new DancingLinks(size)
+                                          : new BitboardSolver(size),
+                     puzzle == null ? new Puzzle(size, new int[size * size])
+                                    : puzzle, stats);
+         stats.write(EncodingStats.FILE);
+         return;
+      }
+
+      // IF - reuse the rules of this size and append the givens
+      if(cached)
+      {
+         stats.put("engine", solve ? "template-sat" : "template");
+         encodeTemplate(size, amo, family, puzzle, solve, format, stats);
+         stats.write(EncodingStats.FILE);
+         return;
+      }
+
+      // IF - encode straight into a solver process
+      if(command != null)
+      {
+         stats.put("engine", "pipe");
+         stats.put("command", command);
+         stats.put("timeout", timeout);
+         solvePiped(size, amo, family, puzzle, threads, format, command,
+                    timeout, pre, stats);
+         stats.write(EncodingStats.FILE);
+         return;
+      }
+
+      stats.put("engine", solve ? "sat" : "none");
+
+      if(pre != null)
+      {
+         mySudoku = new Sudoku(size, pre);
+      }
+      else if(solve)
+      {
+         solver   = new SatSolver();
+         mySudoku = new Sudoku(size, solver);
+      }
+      else
+      {
+         mySudoku = new Sudoku(size, stream, format);
+      }
+
+      mySudoku.setStats(stats);
+      mySudoku.setAtMostOne(amo);
+      mySudoku.setProfile(family);
+
+      if(puzzle != null)
+      {
+         mySudoku.phase("reduce");
+         mySudoku.setPuzzle(puzzle);
+      }
+
+      mySudoku.encode(threads);
+
+      // IF - simplify before writing or solving
+      if(pre != null)
+      {
+         solver = preprocess(pre, mySudoku.variables(), solve, format, stats);
+      }
+      else
+      {
+         mySudoku.phase("write");
+         mySudoku.printCNF();
+         mySudoku.closeFile();
+         mySudoku.endPhase();
+      }
+
+      // IF - solve in memory and hand the model straight to the decoder
+      if(solver != null)
+      {
+         mySudoku.phase("solve");
+
+         if(solver.solve() != SatSolver.SAT)
+         {
+            System.out.println("UNSATISFIABLE");
+         }
+         else
+         {
+            mySudoku.phase("decode");
+
+            // TRY - write the decoded grid
+            try
+            {
+               SudokuDecode.writeGrid(SudokuDecode.decode((pre == null)
+                                         ? solver.model()
+                                         : pre.extend(solver.model()),
+                                         puzzle, size), size);
+            }
+            catch(Exception ex)
+            {
+               System.out.println("~~~~~~~~~~ ERROR WRITING TO FILE ~~~~~~~~~~");
+            }
+         }
+
+         mySudoku.endPhase();
+      }
+
+      stats.write(EncodingStats.FILE);
+   }
+
+   /* - CLASS -
+   /***************************************************************************
+    * Name    : UnitBuffer
+    * Purpose : This class holds the clauses of one unit encoded on its own,
+    *           along with its comments and where they fell between the
+    *           clauses, and the auxiliary variables it used.
+    **************************************************************************/
+   private static class UnitBuffer extends ClauseArena
+   {
+      /* -VARIABLES- */
+      private int  variables; // CALC - auxiliary variables used
+      private int  family;    // CALC - family of the unit
+      private long allocated; // CALC - heap a pool thread allocated for it
+   }
+
+   /* - CLASS -
+   /***************************************************************************
+    * Name    : UnitTask
+    * Purpose : This class is the fork-join task for one unit. It encodes on
+    *           an encoder of its own that shares the parent's settings but
+    *           has its own scratch arrays, at-most-one encoder and buffer.
+    **************************************************************************/
+   private static class UnitTask extends RecursiveTask<UnitBuffer>
+   {
+      /* -CONSTANTS
+      /************************************************************************
+       * serialVersionUID : tasks are serializable, units are never written
+       ***********************************************************************/
+      private static final long serialVersionUID = 1L;
+
+      /* -VARIABLES- */
+      private Sudoku parent; // CALC - encoder whose settings are used
+      private int    family; // CALC - UNIQUE, ROW, COLUMN or BLOCK
+      private int    unit;   // CALC - unit of the family
+
+      /* - CONSTRUCTOR -
+      /************************************************************************
+       * Name       : UnitTask
+       * Purpose    : Create the task for one unit.
+       * Parameters : parent -> encoder whose settings are used
+       *              family -> UNIQUE, ROW, COLUMN or BLOCK
+       *              unit   -> unit of the family, 0 to size - 1
+       ***********************************************************************/
+      UnitTask(Sudoku parent, int family, int unit)
+      {
+         this.parent = parent;
+         this.family = family;
+         this.unit   = unit;
+      }
+
+      /* - METHOD -
+       ************************************************************************
+       * Name       : compute
+       * Purpose    : This method encodes the unit into a buffer
+       * Parameters : none
+       * Return     : UnitBuffer -> clauses of the unit
+       ***********************************************************************/
+      protected UnitBuffer compute()
+      {
+         UnitBuffer buffer; // LIST - clauses of the unit
+         Sudoku     worker; // CALC - encoder for this unit
+         long       start;  // CALC - heap this thread allocated before it
 
-      mySudoku.unique();
-      mySudoku.row();
-      mySudoku.column();
-      mySudoku.block();
-      mySudoku.printCNF();
-      mySudoku.closeFile();
+         // INITIALIZE
+         start            = EncodingStats.threadAllocated();
+         buffer           = new UnitBuffer();
+         worker           = new Sudoku(parent.size, buffer);
+         worker.amo       = AtMostOne.create(parent.amoName, parent.size);
+         worker.amoName   = parent.amoName;
+         worker.profile   = parent.profile;
+         worker.reduction = parent.reduction;
+         worker.comments  = parent.comments;
+         worker.nextVar   = AUX_BASE;
+
+         // TRY - encode the unit
+         try
+         {
+            worker.encodeUnit(family, unit);
+         }
+         catch(IOException ex)
+         {
+            throw new UncheckedIOException(ex);
+         }
+
+         buffer.variables = worker.nextVar - AUX_BASE;
+         buffer.family    = family;
+
+         // IF - on a pool thread, which the statistics cannot see
+         if(Thread.currentThread() instanceof ForkJoinWorkerThread)
+         {
+            buffer.allocated = EncodingStats.threadAllocated() - start;
+         }
+
+         return buffer;
+      }
    }
 }
@@ -10,7 +10,12 @@
 
 import java.io.*;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 
 /* - CLASS -
 /******************************************************************************
@@ -22,7 +27,11 @@ public class SudokuDecode
 {
    int size;   // CALC - size of sukoku puzzle
    int nWidth; // CALC - width of size variable for sudoku puzzle
-   ArrayList<String> myElements; // LIST - holds all CNF variables
+   VariableMap map; // CALC - numbering of the CNF variables
+   Reduction reduction; // CALC - givens left out of the CNF, if any
+   int[] myElements; // ARRY - true CNF variables of the model
+   int elements; // CALC - true variables held
+   int status; // CALC - SatSolver.SAT, UNSAT or UNKNOWN
 
    /* - CONSTRUCTOR -
    /***************************************************************************
@@ -34,7 +43,9 @@ public class SudokuDecode
    public SudokuDecode(String file)
    {
       // INITIALIZE
-      myElements = new ArrayList<String>();
+      myElements = new int[64];
+      elements   = 0;
+      status     = SatSolver.UNKNOWN;
 
       // TRY - to read file of CNF variables
       try
@@ -47,125 +58,580 @@ public class SudokuDecode
       }
 
       // INITIALIZE
-      this.size   = (int)Math.sqrt((double)myElements.size());
+      this.size   = inferSize();
       this.nWidth = getWidth(size);
+      this.map    = new VariableMap(size);
+   }
+
+   /* - CONSTRUCTOR -
+   /***************************************************************************
+    * Name       : SudokuDecode
+    * Purpose    : Create an instance of SudokuDecode for a model of a CNF
+    *                 that Sudoku reduced by a puzzle's givens. The givens
+    *                 are put back on the board and the free variables are
+    *                 mapped back to tiles.
+    * Parameters : file   -> file of CNF variables to read
+    *              puzzle -> puzzle the CNF was encoded from
+    **************************************************************************/
+   public SudokuDecode(String file, Puzzle puzzle)
+   {
+      this(file);
+
+      // INITIALIZE
+      this.size      = puzzle.size();
+      this.nWidth    = getWidth(size);
+      this.map       = new VariableMap(size);
+      this.reduction = new Reduction(puzzle);
+   }
+
+   /* - CONSTRUCTOR -
+   /***************************************************************************
+    * Name       : SudokuDecode
+    * Purpose    : Create an instance of SudokuDecode for a model held in
+    *                 memory, such as one found by SatSolver, so nothing has
+    *                 to be read from a file.
+    * Parameters : model  -> DIMACS literal of each variable
+    *              puzzle -> puzzle the CNF was reduced by, or null
+    *              size   -> size of the sudoku puzzle
+    **************************************************************************/
+   public SudokuDecode(int[] model, Puzzle puzzle, int size)
+   {
+      // INITIALIZE
+      myElements = new int[Math.max(model.length, 1)];
+      elements   = 0;
+      status     = SatSolver.SAT;
+
+      // FOR - keep each true variable
+      for(int index = 0; index < model.length; ++index)
+      {
+         if(model[index] > 0)
+         {
+            myElements[elements++] = model[index];
+         }
+      }
+
+      this.size      = size;
+      this.nWidth    = getWidth(size);
+      this.map       = new VariableMap(size);
+      this.reduction = (puzzle == null) ? null : new Reduction(puzzle);
+   }
+
+   /* - CONSTRUCTOR -
+   /***************************************************************************
+    * Name       : SudokuDecode
+    * Purpose    : Create an instance of SudokuDecode for a solver's output
+    *                 read from a stream, such as a solver process' standard
+    *                 output, so nothing has to be read from a file.
+    * Parameters : in     -> solver's output, read to its end
+    *              puzzle -> puzzle the CNF was reduced by, or null
+    *              size   -> size of the sudoku puzzle
+    **************************************************************************/
+   public SudokuDecode(InputStream in, Puzzle puzzle, int size)
+      throws IOException
+   {
+      // INITIALIZE
+      myElements = new int[64];
+      elements   = 0;
+      status     = SatSolver.UNKNOWN;
+
+      parse(ByteBuffer.wrap(in.readAllBytes()));
+
+      this.size      = size;
+      this.nWidth    = getWidth(size);
+      this.map       = new VariableMap(size);
+      this.reduction = (puzzle == null) ? null : new Reduction(puzzle);
    }
 
    /* - METHOD -
     ***************************************************************************
     * Name       : readFile
-    * Purpose    : This method will read a file of CNF variables and store
-    *                 them into a list.
+    * Purpose    : This method will read a solver's output file and store
+    *                 its true variables. The file is memory-mapped and
+    *                 parsed byte by byte, so no String is made per variable.
+    *                 Both minisat's "SAT"/"UNSAT" first line and the
+    *                 competition "s SATISFIABLE" and "v ..." lines are read;
+    *                 see parse().
     * Parameters : file -> file to read
     * Return     : void
     **************************************************************************/
-   public void readFile(String file) throws Exception
+   public void readFile(String file) throws IOException
+   {
+      MappedByteBuffer bytes; // CALC - the mapped file
+
+      // TRY - map the whole file; the mapping outlives the channel
+      try(FileChannel channel = FileChannel.open(Paths.get(file),
+                                                 StandardOpenOption.READ))
+      {
+         bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                             channel.size());
+      }
+
+      parse(bytes);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : parse
+    * Purpose    : This method reads a solver's output and stores its true
+    *                 variables. Status words set the status, "s" and "v"
+    *                 prefixes are passed over, and a line starting with any
+    *                 other word, such as a "c" comment or a solver's
+    *                 progress report, is skipped. False literals and the 0
+    *                 terminator are dropped.
+    * Parameters : bytes -> the solver's output
+    * Return     : void
+    **************************************************************************/
+   private void parse(ByteBuffer bytes)
    {
-      boolean        skip;   // BOOL - tells to skip variable or not
-      char[]         lineAr; // ARRY - holds all sudoku variables
-      String         line;   // TMP  - holds line in file being read
-      String         tmp;    // TMP  - hold tmp variabl being built
-      BufferedReader reader; // READ - reads the file
+      int     index;    // CALC - byte being read
+      int     start;    // CALC - first byte of the current token
+      int     number;   // CALC - number being built
+      boolean negative; // BOOL - number has a minus sign
+      boolean first;    // BOOL - next token starts a line
+      byte    next;     // CALC - byte at index
 
       // INITIALIZE
-      skip   = false;
-      line   = null;
-      tmp    = new String();
-      reader = new BufferedReader(new FileReader(file));
-      
-      // WHILE - read file line by line
-      while((line = reader.readLine()) != null)
+      index = 0;
+      first = true;
+
+      // WHILE - each token of the file
+      while(index < bytes.limit())
       {
-         // RE - INITIALIZE
-         lineAr = line.toCharArray();
+         next = bytes.get(index);
 
-         // FOR - iterates the tmp line of file
-         for(int index = 0; index < lineAr.length; ++index)
+         // IF - whitespace between tokens
+         if(next <= ' ')
+         {
+            first = first || next == '\n';
+            ++index;
+         }
+         // ELSE IF - a literal, kept only when positive
+         else if(next == '-' || (next >= '0' && next <= '9'))
          {
-            if(lineAr[index] == '-')
+            negative = (next == '-');
+            number   = 0;
+            index    = negative ? index + 1 : index;
+
+            while(index < bytes.limit() && bytes.get(index) >= '0'
+                  && bytes.get(index) <= '9')
+            {
+               number = (number * 10) + (bytes.get(index++) - '0');
+            }
+
+            if(!negative && number > 0)
+            {
+               addElement(number);
+            }
+
+            first = false;
+         }
+         // ELSE - a word: a status, an "s" or "v" prefix, or anything else
+         else
+         {
+            start = index;
+
+            while(index < bytes.limit() && bytes.get(index) > ' ')
+            {
+               ++index;
+            }
+
+            if(isWord(bytes, start, index, "s")
+               || isWord(bytes, start, index, "v"))
+            {
+               first = false;
+            }
+            else if(isWord(bytes, start, index, "UNSAT")
+                    || isWord(bytes, start, index, "UNSATISFIABLE"))
             {
-               skip = true;
+               status = SatSolver.UNSAT;
             }
-            else if(lineAr[index] == ' ')
-            {  
-               if(!skip)
+            else if(isWord(bytes, start, index, "SAT")
+                    || isWord(bytes, start, index, "SATISFIABLE"))
+            {
+               status = SatSolver.SAT;
+            }
+            else if(first)
+            {
+               while(index < bytes.limit() && bytes.get(index) != '\n')
                {
-                  myElements.add(tmp);
+                  ++index;
                }
-
-               // RE-INITIALIZE
-               tmp  = new String();
-               skip = false;
             }
 
-            if(!skip && lineAr[index] != ' ')
+            first = false;
+         }
+      }
+
+      // IF - a bare model without a status line
+      if(status == SatSolver.UNKNOWN && elements > 0)
+      {
+         status = SatSolver.SAT;
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : isWord
+    * Purpose    : returns true if a token of the file is the given word
+    * Parameters : bytes -> the mapped file
+    *              start -> first byte of the token
+    *              end   -> byte after the token
+    *              word  -> word to compare with
+    * Return     : boolean -> token and word are the same
+    **************************************************************************/
+   private static boolean isWord(ByteBuffer bytes, int start, int end,
+                                 String word)
+   {
+      if(end - start != word.length())
+      {
+         return false;
+      }
+
+      for(int index = 0; index < word.length(); ++index)
+      {
+         if(bytes.get(start + index) != word.charAt(index))
+         {
+            return false;
+         }
+      }
+
+      return true;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : addElement
+    * Purpose    : This method keeps one true variable
+    * Parameters : variable -> true variable
+    * Return     : void
+    **************************************************************************/
+   private void addElement(int variable)
+   {
+      if(elements == myElements.length)
+      {
+         myElements = Arrays.copyOf(myElements, 2 * elements);
+      }
+
+      myElements[elements++] = variable;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : restore
+    * Purpose    : This method maps a model of a preprocessed CNF back to
+    *                 the variables Sudoku encoded, so grid() can decode it
+    * Parameters : preprocessor -> preprocessor the CNF went through, or
+    *                                 null if it went through none
+    * Return     : SudokuDecode -> this decoder
+    **************************************************************************/
+   public SudokuDecode restore(Preprocessor preprocessor)
+   {
+      int[] model; // ARRY - literal of each encoded variable
+
+      // IF - nothing to map back
+      if(preprocessor == null || status != SatSolver.SAT)
+      {
+         return this;
+      }
+
+      // INITIALIZE
+      model    = preprocessor.extend(Arrays.copyOf(myElements, elements));
+      elements = 0;
+
+      // FOR - keep each true variable
+      for(int index = 0; index < model.length; ++index)
+      {
+         if(model[index] > 0)
+         {
+            addElement(model[index]);
+         }
+      }
+
+      // IF - the size was inferred from the preprocessed numbering
+      if(reduction == null)
+      {
+         this.size   = inferSize();
+         this.nWidth = getWidth(size);
+         this.map    = new VariableMap(size);
+      }
+
+      return this;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : status
+    * Purpose    : returns what the model says about the CNF
+    * Parameters : none
+    * Return     : int -> SatSolver.SAT, UNSAT, or UNKNOWN when the file
+    *                        holds neither a status nor a model
+    **************************************************************************/
+   public int status()
+   {
+      return status;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : inferSize
+    * Purpose    : This method finds the size of the puzzle from the true
+    *                 variables. Auxiliary variables are numbered after the
+    *                 n cubed tile variables, so the size is the n for which
+    *                 exactly n squared true variables fall in 1 to n cubed.
+    * Parameters : none
+    * Return     : int -> size of the sudoku puzzle
+    **************************************************************************/
+   public int inferSize()
+   {
+      int count; // CALC - true variables at or below n cubed
+
+      // FOR - tries each size until the tile variables add up
+      for(int n = 1; n * n <= elements; ++n)
+      {
+         count = 0;
+
+         for(int index = 0; index < elements; ++index)
+         {
+            if(myElements[index] >= 1 && myElements[index] <= n * n * n)
             {
-               tmp += lineAr[index];
+               ++count;
             }
          }
+
+         if(count == n * n)
+         {
+            return n;
+         }
       }
+
+      return (int)Math.sqrt((double)elements);
    }
 
    /* - METHOD -
     ***************************************************************************
-    * Name       : displayElements
-    * Purpose    : This method outputs the sudoku matrix to the file
+    * Name       : grid
+    * Purpose    : This method decodes the model into the solved tiles,
+    *                 with the givens put back when the CNF was reduced
     * Parameters : none
-    * Return     : void
+    * Return     : int[] -> value of each tile row by row, 0 for a tile the
+    *                          model leaves empty, or null if there is no
+    *                          model
     **************************************************************************/
-   public void displayElements() throws Exception
+   public int[] grid()
    {
-      int         tmpIndex;  // CALC - current index
-      int         row;       // CALC - current row
-      int         col;       // CALC - current column
-      int         tmpLength; // TMP  - temporary length of variable
-      String[][]  sudoku;    // ARRY - holds all elements of sudoku puzzle
-      String      tmp;       // TMP  - temp string to read into
-      String      current;   // TMP  - current line to look at
-      PrintWriter out;       // OUT  - outputs to file
+      int   variable; // CALC - current CNF variable
+      int[] grid;     // ARRY - value of each tile row by row
 
-      // INIIALIZE
-      row    = 0;
-      col    = 0;
-      tmp    = new String();
-      sudoku = new String[this.size][this.size];
-      out    = new PrintWriter(new FileWriter("nxnsolution"), true);
+      // IF - the solver found no model
+      if(status != SatSolver.SAT)
+      {
+         return null;
+      }
+
+      // INITIALIZE
+      grid = new int[size * size];
 
       // FOR - traverse each CNF variable
-      for(int index = 0; index < myElements.size(); ++index)
+      for(int index = 0; index < elements; ++index)
       {
          // RE-INITIALIZE
-         current = myElements.get(index);
-         tmp     = current.substring(current.length() - nWidth);
-         
-         // TRY - parse variable into row/col/elements
-         try
+         variable = myElements[index];
+
+         // IF - free variables were renumbered by the givens
+         if(reduction != null)
          {
-            tmpIndex = current.length() - (2 * nWidth);
-            col      = Integer.parseInt((current.substring(tmpIndex,
-                                         tmpIndex + nWidth)));
-            tmpIndex = current.length() - (3 * nWidth);
-            row      = Integer.parseInt((current.substring(0,
-                                         tmpIndex + nWidth)));
+            if(variable < 1 || variable > reduction.count())
+            {
+               continue;
+            }
+
+            variable = reduction.original(variable);
          }
-         catch(Exception ex)
+
+         // IF - only tile variables belong on the board
+         if(variable < 1 || variable > map.count())
+         {
+            continue;
+         }
+
+         grid[((map.row(variable) - 1) * size) + (map.column(variable) - 1)]
+            = map.value(variable);
+      }
+
+      // FOR - put the givens back on the board
+      for(int index = 0; reduction != null && index < grid.length; ++index)
+      {
+         if(reduction.puzzle().tiles()[index] != 0)
+         {
+            grid[index] = reduction.puzzle().tiles()[index];
+         }
+      }
+
+      return grid;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : decode
+    * Purpose    : This method decodes a model held in memory straight to
+    *                 the solved tiles, without any file
+    * Parameters : model  -> DIMACS literal of each variable
+    *              puzzle -> puzzle the CNF was reduced by, or null
+    *              size   -> size of the sudoku puzzle
+    * Return     : int[]  -> value of each tile row by row
+    **************************************************************************/
+   public static int[] decode(int[] model, Puzzle puzzle, int size)
+   {
+      return new SudokuDecode(model, puzzle, size).grid();
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : isValid
+    * Purpose    : This method checks a grid is a full solution. Each row,
+    *                 column and block keeps a bitmask of the values it has
+    *                 seen, so every tile costs one test and one set.
+    * Parameters : grid -> value of each tile row by row
+    *              size -> size of the sudoku puzzle
+    * Return     : boolean -> every tile is filled and no row, column or
+    *                            block repeats a value
+    **************************************************************************/
+   public static boolean isValid(int[] grid, int size)
+   {
+      int    width; // CALC - width of a block
+      int    words; // CALC - longs in each unit's mask
+      long[] rows;  // ARRY - values seen in each row
+      long[] cols;  // ARRY - values seen in each column
+      long[] boxes; // ARRY - values seen in each block
+      int    value; // CALC - value of the current tile, from 0
+      int    word;  // CALC - long holding the value's bit
+      long   bit;   // CALC - the value's bit in that long
+
+      // INITIALIZE
+      width = (int)Math.round(Math.sqrt(size));
+      words = (size + 63) / 64;
+      rows  = new long[size * words];
+      cols  = new long[size * words];
+      boxes = new long[size * words];
+
+      // IF - not a grid of this size
+      if(grid == null || grid.length != size * size || width * width != size)
+      {
+         return false;
+      }
+
+      // DOUBLE FOR - test and set each tile's bit in its three units
+      for(int row = 0; row < size; ++row)
+      {
+         for(int col = 0; col < size; ++col)
+         {
+            value = grid[(row * size) + col] - 1;
+
+            if(value < 0 || value >= size)
+            {
+               return false;
+            }
+
+            word = value >>> 6;
+            bit  = 1L << value;
+
+            if(((rows[(row * words) + word] | cols[(col * words) + word]
+                 | boxes[((((row / width) * width) + (col / width)) * words)
+                         + word]) & bit) != 0)
+            {
+               return false;
+            }
+
+            rows[(row * words) + word]  |= bit;
+            cols[(col * words) + word]  |= bit;
+            boxes[((((row / width) * width) + (col / width)) * words) + word]
+               |= bit;
+         }
+      }
+
+      return true;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : isValid
+    * Purpose    : This method checks a grid is a full solution that keeps
+    *                 every given of a puzzle
+    * Parameters : grid   -> value of each tile row by row
+    *              puzzle -> givens the grid must keep
+    * Return     : boolean -> grid solves the puzzle
+    **************************************************************************/
+   public static boolean isValid(int[] grid, Puzzle puzzle)
+   {
+      // IF - not a full solution
+      if(!isValid(grid, puzzle.size()))
+      {
+         return false;
+      }
+
+      // FOR - each given must be kept
+      for(int index = 0; index < grid.length; ++index)
+      {
+         if(puzzle.tiles()[index] != 0 && puzzle.tiles()[index] != grid[index])
          {
-            System.out.println("Invalid parse Int");
+            return false;
          }
+      }
 
-         // ADD - element to sudoku board
-         sudoku[row - 1][col - 1] = tmp;
+      return true;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : displayElements
+    * Purpose    : This method outputs the sudoku matrix to the file
+    * Parameters : none
+    * Return     : void
+    **************************************************************************/
+   public void displayElements() throws Exception
+   {
+      // IF - the solver found no model, so there is no board to write
+      if(status != SatSolver.SAT)
+      {
+         System.out.println(status == SatSolver.UNSAT ? "UNSATISFIABLE"
+                                                      : "NO MODEL FOUND");
+         return;
       }
 
+      writeGrid(grid(), size);
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : writeGrid
+    * Purpose    : This method outputs a grid to "nxnsolution", each value
+    *                 padded to the width of the size
+    * Parameters : grid -> value of each tile row by row
+    *              size -> size of the sudoku puzzle
+    * Return     : void
+    **************************************************************************/
+   public static void writeGrid(int[] grid, int size) throws Exception
+   {
+      String        format; // STRN - format of one value
+      StringBuilder line;   // STRN - row being written
+      PrintWriter   out;    // OUT  - outputs to file
+
+      // INIIALIZE
+      format = " %0" + getWidth(size) + "d";
+      line   = new StringBuilder();
+      out    = new PrintWriter(new FileWriter("nxnsolution"), true);
+
       // DOUBLE FOR - print all elements of sudoku
-      for(int i = 0; i < sudoku.length; ++i)
+      for(int i = 0; i < size; ++i)
       {
-         for(int j = 0; j < sudoku[i].length; ++j)
+         line.setLength(0);
+
+         for(int j = 0; j < size; ++j)
          {
-            out.write(" " + sudoku[i][j]);
+            line.append(String.format(format, grid[(i * size) + j]));
          }
 
-         out.write("\n");
+         out.write(line.append('\n').toString());
       }
 
       out.close();
@@ -179,7 +645,7 @@ public class SudokuDecode
     * Parameters : number -> number to find width of
     * Return     : width  -> width of number passed in
     **************************************************************************/
-   public int getWidth(int number)
+   public static int getWidth(int number)
    {
       int width; // CALC - width of number
 
@@ -203,12 +669,58 @@ public class SudokuDecode
     * Name       : main
     * Purpose    : This method encapulates methods that will allow us to 
     *                 decode a CNF form of a Sudoku solution
-    * Parameters : args -> command line parameters if desired
+    * Parameters : args -> command line parameters if desired,
+    *                         "-puzzle <file>" for a CNF Sudoku reduced by
+    *                         that puzzle's givens, "-preprocess" for a CNF
+    *                         Sudoku preprocessed, mapped back through the
+    *                         reconstruction it saved to "nxnmap"
     * Return     : void
     **************************************************************************/
    public static void main(String[] args)
    {
-      SudokuDecode decoder = new SudokuDecode("nxnout");
+      Puzzle        puzzle = null; // CALC - givens the CNF was reduced by
+      Preprocessor  pre    = null; // CALC - reconstruction of the CNF
+      SudokuDecode  decoder;       // CALC - decoder of the model
+      EncodingStats stats;         // CALC - statistics of the run
+
+      // INITIALIZE
+      stats = new EncodingStats("SudokuDecode");
+      stats.register();
+      stats.begin("read", 0, 0, 0);
+
+      // FOR - read command line options
+      for(int index = 0; index < args.length; ++index)
+      {
+         // TRY - read the file the option names
+         try
+         {
+            if(args[index].equals("-puzzle") && index + 1 < args.length)
+            {
+               puzzle = Puzzle.read(args[++index]);
+            }
+            else if(args[index].equals("-preprocess"))
+            {
+               pre = Preprocessor.load(Preprocessor.FILE);
+            }
+         }
+         catch(Exception ex)
+         {
+            System.out.println(args[index].equals("-preprocess")
+                               ? "ERROR READING RECONSTRUCTION"
+                               : "ERROR READING PUZZLE");
+            return;
+         }
+      }
+
+      decoder = (puzzle == null) ? new SudokuDecode("nxnout")
+                                 : new SudokuDecode("nxnout", puzzle);
+      decoder.restore(pre);
+
+      // INITIALIZE - the read phase is charged with the true variables kept
+      stats.begin("decode", 0, decoder.elements, 0);
+      stats.put("size", decoder.size);
+      stats.put("status", decoder.status);
+      stats.put("inputBytes", new File("nxnout").length());
 
       try
       {
@@ -218,5 +730,9 @@ public class SudokuDecode
       {
          System.out.println("Error cannot open file");
       }
+
+      stats.end(0, decoder.elements, (decoder.status == SatSolver.SAT)
+                                     ? new File("nxnsolution").length() : 0);
+      stats.write(EncodingStats.FILE + "-decode");
    }
 }
@@ -0,0 +1,629 @@
+/*
+/******************************************************************************
+ * Name            : Eric Olaveson
+ * Date            : October 18, 2026
+ *
+ * This program will map a sudoku puzzle to a canonical form, so puzzles
+ *    that differ only by a symmetry of the grid are recognised as one.
+ *****************************************************************************/
+import java.util.Arrays;
+
+/* - CLASS -
+/******************************************************************************
+ * Name    : Symmetry
+ * Purpose : This class encapsulates a puzzle's canonical form and the
+ *           transform that takes the puzzle to it. The transform is a
+ *           transposition, an order of the bands and of the rows in each,
+ *           an order of the stacks and of the columns in each, and a
+ *           relabeling of the values. None of these changes whether a grid
+ *           is a solution, so a solution of the canonical form carried back
+ *           through the transform solves the puzzle.
+ *
+ *           When a box is 3 wide or less the canonical form is the
+ *           lexicographically least tile order, empty tiles first, with
+ *           values numbered in order of first appearance, found by a branch
+ *           and bound search of the rows under every column order. Wider
+ *           boxes have far too many orders to search, so their bands, rows,
+ *           stacks and columns are only sorted by givens, ties kept in
+ *           place, before the values are numbered. So the form is exact
+ *           only for boxes 3 wide or less: every relabeling of a wider
+ *           puzzle still meets, but only some of its other symmetries do,
+ *           e.g. 195 of 1220 transformed 16x16 puzzles missed their key.
+ *****************************************************************************/
+public class Symmetry
+{
+   /* -CONSTANTS
+   /***************************************************************************
+    * SEARCH_BOX : widest box whose column orders are all searched
+    **************************************************************************/
+   public static final int SEARCH_BOX = 3;
+
+   /* -VARIABLES- */
+   private int       size;      // CALC - size of sudoku puzzle
+   private int       box;       // CALC - width of a box
+   private int[]     tiles;     // ARRY - tiles of the puzzle
+   private boolean   transpose; // BOOL - canonical form is transposed
+   private int[]     rows;      // ARRY - puzzle row of each canonical row
+   private int[]     cols;      // ARRY - puzzle column of each canonical one
+   private int[]     labels;    // ARRY - canonical value of each value
+   private int[]     values;    // ARRY - value of each canonical value
+   private int[]     form;      // ARRY - canonical tiles
+   private String    key;       // STRN - canonical tiles in line format
+
+   private int[]     source;    // ARRY - tiles, transposed or not
+   private int[]     current;   // ARRY - tiles of the order being tried
+   private int[]     order;     // ARRY - rows of the order being tried
+   private int[]     columns;   // ARRY - columns of the order being tried
+   private int[]     map;       // ARRY - label of each value, 0 if none yet
+   private int[]     assigned;  // ARRY - values labeled, in order
+   private int       next;      // CALC - labels handed out
+   private boolean   less;      // BOOL - order is less than the best so far
+   private boolean   found;     // BOOL - a best order exists
+   private boolean   flipped;   // BOOL - source is transposed
+   private boolean[] used;      // ARRY - rows already placed
+   private int[]     rowCount;  // ARRY - givens in each row of the source
+   private int[]     bandCount; // ARRY - givens in each band of the source
+   private int[][]   perms;     // ARRY - orders of box positions
+
+   /* - CONSTRUCTOR -
+   /***************************************************************************
+    * Name       : Symmetry
+    * Purpose    : Create the canonical form of a puzzle.
+    * Parameters : puzzle -> puzzle to map
+    **************************************************************************/
+   public Symmetry(Puzzle puzzle)
+   {
+      // INITIALIZE
+      this.size  = puzzle.size();
+      this.box   = (int)Math.sqrt(size);
+      this.tiles = puzzle.tiles();
+
+      // IF - canonical forms need square boxes
+      if(box * box != size)
+      {
+         throw new IllegalArgumentException("size is not a square: " + size);
+      }
+
+      this.rows     = new int[size];
+      this.cols     = new int[size];
+      this.labels   = new int[size + 1];
+      this.form     = new int[size * size];
+      this.current  = new int[size * size];
+      this.order    = new int[size];
+      this.columns  = new int[size];
+      this.map      = new int[size + 1];
+      this.assigned = new int[size];
+      this.used     = new boolean[size];
+      this.perms    = (box <= SEARCH_BOX) ? permutations(box) : null;
+      this.found    = false;
+
+      // IF - search the puzzle as it is, then transposed
+      if(perms != null)
+      {
+         for(int flip = 0; flip < 2; ++flip)
+         {
+            transpose(flip == 1);
+            stacks(0, new boolean[box]);
+         }
+      }
+      else
+      {
+         transpose(false);
+         sort();
+      }
+
+      finish();
+
+      // release what only the search needed
+      source = current = order = columns = map = assigned = null;
+      rowCount = bandCount = null;
+      used     = null;
+      perms    = null;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : transpose
+    * Purpose    : This method sets the source tiles the search reads
+    * Parameters : flip -> read the puzzle transposed
+    * Return     : void
+    **************************************************************************/
+   private void transpose(boolean flip)
+   {
+      // INITIALIZE
+      flipped   = flip;
+      source    = new int[size * size];
+      rowCount  = new int[size];
+      bandCount = new int[box];
+
+      // FOR - each tile
+      for(int row = 0; row < size; ++row)
+      {
+         for(int col = 0; col < size; ++col)
+         {
+            source[row * size + col] = flip ? tiles[col * size + row]
+                                            : tiles[row * size + col];
+
+            if(source[row * size + col] != 0)
+            {
+               ++rowCount[row];
+               ++bandCount[row / box];
+            }
+         }
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : stacks
+    * Purpose    : This method tries every column order from a stack on,
+    *                 searching the rows under each one
+    * Parameters : stack -> position of the stack to place
+    *              taken -> stacks already placed
+    * Return     : void
+    **************************************************************************/
+   private void stacks(int stack, boolean[] taken)
+   {
+      // IF - every stack placed
+      if(stack == box)
+      {
+         less = !found;
+         place(0);
+         return;
+      }
+
+      // FOR - each stack not yet placed, in each of its column orders
+      for(int choice = 0; choice < box; ++choice)
+      {
+         if(!taken[choice])
+         {
+            taken[choice] = true;
+
+            for(int[] perm : perms)
+            {
+               for(int col = 0; col < box; ++col)
+               {
+                  columns[stack * box + col] = choice * box + perm[col];
+               }
+
+               stacks(stack + 1, taken);
+            }
+
+            taken[choice] = false;
+         }
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : sortLines
+    * Purpose    : This method orders groups of lines, bands or stacks, and
+    *                 the lines in each, by their givens, fewest first,
+    *                 breaking ties by position
+    * Parameters : lineCount  -> givens in each line
+    *              groupCount -> givens in each group
+    *              result     -> receives the line at each position
+    * Return     : void
+    **************************************************************************/
+   private void sortLines(int[] lineCount, int[] groupCount, int[] result)
+   {
+      Integer[] groups; // ARRY - groups, sorted
+      Integer[] lines;  // ARRY - lines of a group, sorted
+
+      // INITIALIZE
+      groups = new Integer[box];
+      lines  = new Integer[box];
+
+      for(int group = 0; group < box; ++group)
+      {
+         groups[group] = group;
+      }
+
+      Arrays.sort(groups, (a, b) -> groupCount[a] - groupCount[b]);
+
+      // FOR - each group in order, its lines in order
+      for(int group = 0; group < box; ++group)
+      {
+         for(int line = 0; line < box; ++line)
+         {
+            lines[line] = groups[group] * box + line;
+         }
+
+         Arrays.sort(lines, (a, b) -> lineCount[a] - lineCount[b]);
+
+         for(int line = 0; line < box; ++line)
+         {
+            result[group * box + line] = lines[line];
+         }
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : sort
+    * Purpose    : This method takes the order of rows and columns sorted by
+    *                 their givens as the canonical one
+    * Parameters : none
+    * Return     : void
+    **************************************************************************/
+   private void sort()
+   {
+      int[] colCount   = new int[size]; // ARRY - givens in each column
+      int[] stackCount = new int[box];  // ARRY - givens in each stack
+
+      // FOR - count the givens of each column
+      for(int index = 0; index < source.length; ++index)
+      {
+         if(source[index] != 0)
+         {
+            ++colCount[index % size];
+            ++stackCount[(index % size) / box];
+         }
+      }
+
+      sortLines(colCount, stackCount, columns);
+      sortLines(rowCount, bandCount, order);
+      less = true;
+
+      for(int depth = 0; depth < size; ++depth)
+      {
+         emit(depth, order[depth]);
+      }
+
+      keep();
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : place
+    * Purpose    : This method tries each row that may come next, keeping
+    *                 the rows whose tiles are no greater than the best
+    *                 order's so far. Empty rows of a band, and empty bands,
+    *                 are alike, so only the first of them is tried.
+    * Parameters : depth -> canonical row to place
+    * Return     : void
+    **************************************************************************/
+   private void place(int depth)
+   {
+      boolean start;     // BOOL - depth starts a band
+      int     first;     // CALC - first row that may come next
+      int     last;      // CALC - row past the last that may come next
+      boolean emptyRow;  // BOOL - an empty row was already tried
+      boolean emptyBand; // BOOL - an empty band was already tried
+      int     saved;     // CALC - labels before this row
+
+      // IF - every row placed
+      if(depth == size)
+      {
+         if(less)
+         {
+            keep();
+         }
+
+         return;
+      }
+
+      // INITIALIZE
+      start     = (depth % box == 0);
+      first     = start ? 0 : (order[depth - 1] / box) * box;
+      last      = start ? size : first + box;
+      emptyRow  = false;
+      emptyBand = false;
+
+      // FOR - each row that may come next
+      for(int row = first; row < last; ++row)
+      {
+         if(used[row])
+         {
+            continue;
+         }
+
+         // IF - an empty band, or an empty row, alike one already tried
+         if(start && bandCount[row / box] == 0)
+         {
+            if(emptyBand || row % box != 0)
+            {
+               continue;
+            }
+
+            emptyBand = true;
+         }
+         else if(rowCount[row] == 0)
+         {
+            if(start ? emptyFirst(row) : emptyRow)
+            {
+               continue;
+            }
+
+            emptyRow = !start;
+         }
+
+         // INITIALIZE
+         saved = next;
+
+         if(emit(depth, row))
+         {
+            used[row] = true;
+            order[depth] = row;
+            place(depth + 1);
+            used[row] = false;
+         }
+
+         // WHILE - forget the labels of this row
+         while(next > saved)
+         {
+            map[assigned[--next]] = 0;
+         }
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : keep
+    * Purpose    : This method keeps the order being tried as the best
+    * Parameters : none
+    * Return     : void
+    **************************************************************************/
+   private void keep()
+   {
+      System.arraycopy(current, 0, form, 0, form.length);
+      System.arraycopy(order, 0, rows, 0, size);
+      System.arraycopy(columns, 0, cols, 0, size);
+      System.arraycopy(map, 0, labels, 0, map.length);
+      transpose = flipped;
+      found     = true;
+      less      = false;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : emptyFirst
+    * Purpose    : returns whether an earlier row of the same band is empty,
+    *                 making an empty row at the start of a band a repeat
+    * Parameters : row     -> empty row
+    * Return     : boolean -> an earlier empty row of its band exists
+    **************************************************************************/
+   private boolean emptyFirst(int row)
+   {
+      // FOR - earlier rows of the band
+      for(int other = (row / box) * box; other < row; ++other)
+      {
+         if(rowCount[other] == 0)
+         {
+            return true;
+         }
+      }
+
+      return false;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : emit
+    * Purpose    : This method writes a row as the canonical row at depth,
+    *                 labeling its values, and compares it with the best
+    *                 order's row unless the order is already less
+    * Parameters : depth   -> canonical row
+    *              row     -> source row
+    * Return     : boolean -> the order may still be no greater than the best
+    **************************************************************************/
+   private boolean emit(int depth, int row)
+   {
+      int base  = depth * size; // CALC - first canonical tile of the row
+      int value;                // CALC - source value of a tile
+      int label;                // CALC - canonical value of the tile
+
+      // FOR - each tile of the row
+      for(int col = 0; col < size; ++col)
+      {
+         value = source[row * size + columns[col]];
+         label = 0;
+
+         if(value != 0)
+         {
+            if(map[value] == 0)
+            {
+               assigned[next] = value;
+               map[value]     = ++next;
+            }
+
+            label = map[value];
+         }
+
+         current[base + col] = label;
+
+         if(!less)
+         {
+            if(label > form[base + col])
+            {
+               return false;
+            }
+            else if(label < form[base + col])
+            {
+               less = true;
+            }
+         }
+      }
+
+      return true;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : finish
+    * Purpose    : This method labels the values that are not given, in
+    *                 order, and builds the key and the reverse labels
+    * Parameters : none
+    * Return     : void
+    **************************************************************************/
+   private void finish()
+   {
+      StringBuilder text; // STRN - key
+      int           last; // CALC - labels handed out
+
+      // INITIALIZE
+      values = new int[size + 1];
+      last   = 0;
+
+      for(int value = 1; value <= size; ++value)
+      {
+         last = Math.max(last, labels[value]);
+      }
+
+      // FOR - each value, labeling those not given
+      for(int value = 1; value <= size; ++value)
+      {
+         if(labels[value] == 0)
+         {
+            labels[value] = ++last;
+         }
+
+         values[labels[value]] = value;
+      }
+
+      text = new StringBuilder(form.length);
+
+      for(int index = 0; index < form.length; ++index)
+      {
+         text.append(Puzzle.symbol(form[index]));
+      }
+
+      key = text.toString();
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : permutations
+    * Purpose    : returns every order of box positions
+    * Parameters : count   -> positions
+    * Return     : int[][] -> each order
+    **************************************************************************/
+   private static int[][] permutations(int count)
+   {
+      int[][] result; // ARRY - orders found
+      int[][] fewer;  // ARRY - orders of one position fewer
+      int     index;  // CALC - next order to fill
+
+      if(count == 1)
+      {
+         return new int[][] {{0}};
+      }
+
+      // INITIALIZE
+      fewer  = permutations(count - 1);
+      result = new int[fewer.length * count][];
+      index  = 0;
+
+      // FOR - the last position inserted at each place of each shorter order
+      for(int[] shorter : fewer)
+      {
+         for(int at = 0; at < count; ++at)
+         {
+            result[index] = new int[count];
+
+            for(int pos = 0, from = 0; pos < count; ++pos)
+            {
+               result[index][pos] = (pos == at) ? count - 1 : shorter[from++];
+            }
+
+            ++index;
+         }
+      }
+
+      return result;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : key
+    * Purpose    : returns the canonical form in line format
+    * Parameters : none
+    * Return     : String -> the same for every puzzle the search maps alike
+    **************************************************************************/
+   public String key()
+   {
+      return key;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : tiles
+    * Purpose    : returns the canonical tiles row by row, 0 when empty
+    * Parameters : none
+    * Return     : int[] -> value of each tile
+    **************************************************************************/
+   public int[] tiles()
+   {
+      return form;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : size
+    * Purpose    : returns the size of the puzzle
+    * Parameters : none
+    * Return     : int -> size of sudoku puzzle
+    **************************************************************************/
+   public int size()
+   {
+      return size;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : forward
+    * Purpose    : returns a grid of the puzzle in the canonical form's frame
+    * Parameters : grid   -> tiles of the puzzle's frame row by row
+    * Return     : byte[] -> canonical tiles row by row
+    **************************************************************************/
+   public byte[] forward(int[] grid)
+   {
+      byte[] result = new byte[size * size]; // ARRY - canonical tiles
+
+      // FOR - each canonical tile
+      for(int row = 0; row < size; ++row)
+      {
+         for(int col = 0; col < size; ++col)
+         {
+            result[row * size + col] = (byte)labels[grid[index(row, col)]];
+         }
+      }
+
+      return result;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : back
+    * Purpose    : This method carries a grid of the canonical form's frame
+    *                 back to the puzzle's frame
+    * Parameters : canonical -> canonical tiles row by row
+    *              grid      -> receives the tiles of the puzzle's frame
+    * Return     : void
+    **************************************************************************/
+   public void back(byte[] canonical, int[] grid)
+   {
+      // FOR - each canonical tile
+      for(int row = 0; row < size; ++row)
+      {
+         for(int col = 0; col < size; ++col)
+         {
+            grid[index(row, col)] = values[canonical[row * size + col]];
+         }
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : index
+    * Purpose    : returns the puzzle tile a canonical tile comes from
+    * Parameters : row -> canonical row
+    *              col -> canonical column
+    * Return     : int -> index of the tile row by row
+    **************************************************************************/
+   private int index(int row, int col)
+   {
+      return transpose ? cols[col] * size + rows[row]
+                       : rows[row] * size + cols[col];
+   }
+}
@@ -0,0 +1,321 @@
+/*
+/******************************************************************************
+ * Name            : Eric Olaveson
+ * Date            : October 18, 2026
+ *
+ * This program will hand out rule templates, building each one only the
+ *    first time it is needed.
+ *****************************************************************************/
+import java.io.*;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/* - CLASS -
+/******************************************************************************
+ * Name    : TemplateCache
+ * Purpose : This class encapsulates a bounded cache of RuleTemplates keyed
+ *           by size, at-most-one encoding and profile. Templates are kept in
+ *           least recently used order and the oldest are dropped once their
+ *           bytes pass the budget. With a directory, a missing template is
+ *           looked for on disk and memory-mapped before it is built, and a
+ *           built one is saved there for the next run. The engines of a
+ *           process share one cache, shared(), so a template is made once
+ *           per process however many workers ask for it; a program that
+ *           wants templates kept on disk injects one with setShared().
+ *****************************************************************************/
+public class TemplateCache
+{
+   /* -CONSTANTS
+   /***************************************************************************
+    * DEFAULT_BUDGET : bytes of templates kept by default
+    * PREFIX         : start of a template file name
+    **************************************************************************/
+   public static final long   DEFAULT_BUDGET = 256L * 1024 * 1024;
+   public static final String PREFIX         = "nxnrules-";
+
+   /* -VARIABLES- */
+   private String directory; // STRN - template files, or null
+   private long   budget;    // CALC - bytes to keep at most
+   private long   used;      // CALC - bytes kept now
+   private long   hits;      // CALC - lookups found in memory
+   private long   misses;    // CALC - lookups that loaded or built
+   private LinkedHashMap<String, RuleTemplate> templates; // LIST - oldest first
+   private HashMap<String, FutureTask<RuleTemplate>> building; // LIST - builds
+                                                               //   under way
+   private static TemplateCache shared; // CALC - cache of this process
+
+   /* - CONSTRUCTOR -
+   /***************************************************************************
+    * Name       : TemplateCache
+    * Purpose    : Create a cache.
+    * Parameters : directory -> where template files live, null for memory
+    *                              only
+    *              budget    -> bytes of templates to keep at most
+    **************************************************************************/
+   public TemplateCache(String directory, long budget)
+   {
+      // INITIALIZE
+      this.directory = directory;
+      this.budget    = budget;
+      this.used      = 0;
+      this.templates = new LinkedHashMap<String, RuleTemplate>(16, 0.75f,
+                                                               true);
+      this.building  = new HashMap<String, FutureTask<RuleTemplate>>();
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : shared
+    * Purpose    : returns the cache every engine of this process shares,
+    *                 keeping templates in memory only until setShared()
+    *                 gives it a directory
+    * Parameters : none
+    * Return     : TemplateCache -> the shared cache
+    **************************************************************************/
+   public static synchronized TemplateCache shared()
+   {
+      // IF - first use, nothing injected
+      if(shared == null)
+      {
+         shared = new TemplateCache(null, DEFAULT_BUDGET);
+      }
+
+      return shared;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : setShared
+    * Purpose    : This method replaces the cache every engine of this
+    *                 process shares
+    * Parameters : cache -> cache to share, such as one with a directory
+    * Return     : void
+    **************************************************************************/
+   public static synchronized void setShared(TemplateCache cache)
+   {
+      shared = cache;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : get
+    * Purpose    : This method returns the template for a size and options,
+    *                 from memory, from disk, or by building it. The first
+    *                 caller for a key loads or builds it outside the lock;
+    *                 callers for the same key meanwhile wait on that build
+    *                 only, and callers for other keys do not wait at all.
+    * Parameters : size    -> size of sudoku puzzle
+    *              amo     -> at-most-one encoding name
+    *              profile -> encoding profile name
+    * Return     : RuleTemplate -> rule clauses for the options
+    **************************************************************************/
+   public RuleTemplate get(int size, String amo, String profile)
+      throws IOException
+   {
+      String                   key;      // STRN - name of the template
+      RuleTemplate             template; // CALC - template found or built
+      FutureTask<RuleTemplate> task;     // CALC - build of the template
+      boolean                  owner;    // BOOL - this call runs the build
+
+      // INITIALIZE
+      key   = size + "-" + amo.toLowerCase() + "-" + profile.toLowerCase();
+      owner = false;
+
+      synchronized(this)
+      {
+         template = templates.get(key);
+
+         // IF - already in memory
+         if(template != null)
+         {
+            ++hits;
+            return template;
+         }
+
+         task = building.get(key);
+
+         // IF - nobody is building it yet
+         if(task == null)
+         {
+            ++misses;
+            task  = new FutureTask<RuleTemplate>(() ->
+                       make(size, amo, profile, key));
+            owner = true;
+            building.put(key, task);
+         }
+         else
+         {
+            ++hits;
+         }
+      }
+
+      // TRY - build it, or wait for the build under way
+      try
+      {
+         if(owner)
+         {
+            task.run();
+         }
+
+         template = task.get();
+      }
+      catch(InterruptedException ex)
+      {
+         Thread.currentThread().interrupt();
+         throw new InterruptedIOException("interrupted waiting for " + key);
+      }
+      catch(ExecutionException ex)
+      {
+         if(ex.getCause() instanceof IOException)
+         {
+            throw (IOException)ex.getCause();
+         }
+         else if(ex.getCause() instanceof RuntimeException)
+         {
+            throw (RuntimeException)ex.getCause();
+         }
+
+         throw new IOException("template " + key + " not built",
+                               ex.getCause());
+      }
+      finally
+      {
+         // IF - the build is over, keep what it made
+         if(owner)
+         {
+            synchronized(this)
+            {
+               building.remove(key);
+
+               if(task.isDone() && template != null)
+               {
+                  templates.put(key, template);
+                  used += template.bytes();
+                  evict();
+               }
+            }
+         }
+      }
+
+      return template;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : make
+    * Purpose    : This method maps a saved template, or builds one and saves
+    *                 it when the cache has a directory
+    * Parameters : size    -> size of sudoku puzzle
+    *              amo     -> at-most-one encoding name
+    *              profile -> encoding profile name
+    *              key     -> name of the template
+    * Return     : RuleTemplate -> rule clauses for the options
+    **************************************************************************/
+   private RuleTemplate make(int size, String amo, String profile,
+                             String key) throws IOException
+   {
+      RuleTemplate template; // CALC - template found or built
+      File         file;     // CALC - template file, if any
+
+      // INITIALIZE
+      template = null;
+      file     = (directory == null) ? null
+                                     : new File(directory, PREFIX + key);
+
+      // IF - map a saved template, ignoring one that does not fit
+      if(file != null && file.isFile())
+      {
+         // TRY - load the template
+         try
+         {
+            template = RuleTemplate.load(file.getPath());
+
+            if(!template.matches(size, amo, profile))
+            {
+               template = null;
+            }
+         }
+         catch(IOException ex)
+         {
+            template = null;
+         }
+      }
+
+      // IF - nothing usable on disk, build it
+      if(template == null)
+      {
+         template = RuleTemplate.build(size, amo, profile);
+
+         if(file != null)
+         {
+            template.save(file.getPath());
+         }
+      }
+
+      return template;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : evict
+    * Purpose    : This method drops the least recently used templates until
+    *                 the rest fit the budget, always keeping the newest
+    * Parameters : none
+    * Return     : void
+    **************************************************************************/
+   private void evict()
+   {
+      Iterator<Map.Entry<String, RuleTemplate>> oldest; // CALC - oldest first
+
+      // INITIALIZE
+      oldest = templates.entrySet().iterator();
+
+      // WHILE - over budget and more than one template left
+      while(used > budget && templates.size() > 1)
+      {
+         used -= oldest.next().getValue().bytes();
+         oldest.remove();
+      }
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : used
+    * Purpose    : returns the bytes of templates kept
+    * Parameters : none
+    * Return     : long -> bytes held or mapped
+    **************************************************************************/
+   public synchronized long used()
+   {
+      return used;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : hits
+    * Purpose    : returns how many lookups were served from memory, or
+    *                 from another caller's build
+    * Parameters : none
+    * Return     : long -> lookups that did not load or build
+    **************************************************************************/
+   public synchronized long hits()
+   {
+      return hits;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : misses
+    * Purpose    : returns how many lookups loaded or built a template
+    * Parameters : none
+    * Return     : long -> lookups not found in memory
+    **************************************************************************/
+   public synchronized long misses()
+   {
+      return misses;
+   }
+}
@@ -0,0 +1,179 @@
+/*
+/******************************************************************************
+ * Name            : Eric Olaveson
+ * Date            : October 18, 2026
+ *
+ * This program will check that Sudoku writes the same "nxnin", byte for
+ *    byte, on one thread and on several.
+ *****************************************************************************/
+import java.io.*;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/* - CLASS -
+/******************************************************************************
+ * Name    : ThreadsCheck
+ * Purpose : This class runs Sudoku as a child process, once with
+ *           "-threads 1" and once with more, for each puzzle, at-most-one
+ *           encoding and way of writing, and compares the two "nxnin"
+ *           files. Each run has a scratch directory of its own, so the
+ *           files of the directory it is started from are left alone.
+ *****************************************************************************/
+public class ThreadsCheck
+{
+   /* -CONSTANTS
+   /***************************************************************************
+    * THREADS : threads compared with one by default
+    * PUZZLES : empty 4x4, a 9x9 with givens and an empty 16x16
+    * MODES   : extra arguments of each way of writing
+    **************************************************************************/
+   public static final int        THREADS = 4;
+   public static final String[]   PUZZLES = {".".repeat(16),
+      "8..........36......7..9.2...5...7.......457.....1...3...1....68..85..."
+      + "1..9....4..", ".".repeat(256)};
+   public static final String[][] MODES   = {{}, {"-stream"},
+                                             {"-format", "binary"}};
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : run
+    * Purpose    : This method runs Sudoku in a scratch directory
+    * Parameters : puzzle  -> puzzle in line format
+    *              threads -> threads to encode on
+    *              amo     -> AtMostOne encoding name
+    *              mode    -> extra arguments
+    * Return     : byte[]  -> "nxnin" as written
+    **************************************************************************/
+   public static byte[] run(String puzzle, int threads, String amo,
+                            String[] mode)
+      throws IOException, InterruptedException
+   {
+      File              dir;     // CALC - scratch directory of the run
+      ArrayList<String> command; // LIST - java command line
+      Process           child;   // CALC - the Sudoku run
+      byte[]            cnf;     // ARRY - "nxnin" it wrote
+
+      // INITIALIZE
+      dir     = Files.createTempDirectory("threadscheck").toFile();
+      command = new ArrayList<String>();
+
+      Files.write(new File(dir, "puzzle").toPath(), puzzle.getBytes("UTF-8"));
+
+      command.add(System.getProperty("java.home") + File.separator + "bin"
+                  + File.separator + "java");
+      command.add("-cp");
+      command.add(classPath());
+      command.add("Sudoku");
+      command.addAll(Arrays.asList("-puzzle", "puzzle", "-amo", amo,
+                                   "-threads", String.valueOf(threads)));
+      command.addAll(Arrays.asList(mode));
+
+      // TRY - run it and read what it wrote, then clear the directory
+      try
+      {
+         child = new ProcessBuilder(command).directory(dir)
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+         child.getOutputStream().close();
+         child.waitFor();
+         cnf = Files.readAllBytes(new File(dir, "nxnin").toPath());
+      }
+      finally
+      {
+         for(File file : dir.listFiles())
+         {
+            file.delete();
+         }
+
+         dir.delete();
+      }
+
+      return cnf;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : classPath
+    * Purpose    : returns this program's class path with absolute entries,
+    *                 so a child started elsewhere finds the same classes
+    * Parameters : none
+    * Return     : String -> class path
+    **************************************************************************/
+   private static String classPath()
+   {
+      StringBuilder path = new StringBuilder(); // STRN - class path
+
+      // FOR - each entry
+      for(String entry : System.getProperty("java.class.path")
+                               .split(File.pathSeparator))
+      {
+         if(path.length() > 0)
+         {
+            path.append(File.pathSeparator);
+         }
+
+         path.append(new File(entry).getAbsolutePath());
+      }
+
+      return path.toString();
+   }
+
+   /* - MAIN -
+    ***************************************************************************
+    * Name       : main
+    * Purpose    : This method compares every puzzle, encoding and mode,
+    *                 printing each that differs, and exits 1 if any did.
+    * Parameters : args -> "-threads <n>" threads compared with one
+    * Return     : void
+    **************************************************************************/
+   public static void main(String[] args) throws Exception
+   {
+      int    threads  = THREADS; // CALC - threads compared with one
+      int    failures = 0;       // CALC - runs that differed
+      int    checked  = 0;       // CALC - runs compared
+      byte[] single;             // ARRY - "nxnin" on one thread
+      byte[] many;               // ARRY - "nxnin" on several
+
+      // FOR - read command line options
+      for(int index = 0; index < args.length; ++index)
+      {
+         if(args[index].equals("-threads") && index + 1 < args.length)
+         {
+            threads = Integer.parseInt(args[++index]);
+         }
+      }
+
+      // TRIPLE FOR - each puzzle, encoding and mode
+      for(String puzzle : PUZZLES)
+      {
+         for(String amo : AtMostOne.NAMES)
+         {
+            for(String[] mode : MODES)
+            {
+               single = run(puzzle, 1, amo, mode);
+               many   = run(puzzle, threads, amo, mode);
+               ++checked;
+
+               if(single.length == 0 || !Arrays.equals(single, many))
+               {
+                  System.out.println(Puzzle.parseLine(puzzle).size() + "x"
+                                     + Puzzle.parseLine(puzzle).size() + " "
+                                     + amo + " " + String.join(" ", mode)
+                                     + ": " + single.length + " bytes on 1, "
+                                     + many.length + " on " + threads);
+                  ++failures;
+               }
+            }
+         }
+      }
+
+      System.out.println((checked - failures) + " of " + checked
+                         + " runs matched");
+
+      if(failures > 0)
+      {
+         System.exit(1);
+      }
+   }
+}
@@ -0,0 +1,96 @@
+/*
+/******************************************************************************
+ * Name            : Eric Olaveson
+ * Date            : October 18, 2026
+ *
+ * This program will map every (row, column, value) triple of an n x n sudoku
+ *    puzzle onto a dense CNF variable number and back again.
+ *****************************************************************************/
+
+/* - CLASS -
+/******************************************************************************
+ * Name    : VariableMap
+ * Purpose : This class encapsulates the numbering of CNF variables shared by
+ *           Sudoku and SudokuDecode. Rows, columns and values all run from 1
+ *           to size and are packed into the variables 1 to size cubed, so a
+ *           solver never allocates room for numbers that are not used.
+ *****************************************************************************/
+public class VariableMap
+{
+   /* -VARIABLES- */
+   private int size; // CALC - size of sudoku puzzle
+
+   /* - CONSTRUCTOR -
+   /***************************************************************************
+    * Name       : VariableMap
+    * Purpose    : Create a variable numbering for a puzzle of n x n size.
+    * Parameters : size -> size of the sudoku puzzle
+    **************************************************************************/
+   public VariableMap(int size)
+   {
+      this.size = size;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : variable
+    * Purpose    : returns the variable that is true when the tile at
+    *                 <row,col> holds value
+    * Parameters : row   -> row of tile, 1 to size
+    *              col   -> column of tile, 1 to size
+    *              value -> value of tile, 1 to size
+    * Return     : int   -> variable number, 1 to size cubed
+    **************************************************************************/
+   public int variable(int row, int col, int value)
+   {
+      return (((row - 1) * size) + (col - 1)) * size + value;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : row
+    * Purpose    : returns the row a variable refers to
+    * Parameters : variable -> variable number, 1 to size cubed
+    * Return     : int      -> row, 1 to size
+    **************************************************************************/
+   public int row(int variable)
+   {
+      return ((variable - 1) / (size * size)) + 1;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : column
+    * Purpose    : returns the column a variable refers to
+    * Parameters : variable -> variable number, 1 to size cubed
+    * Return     : int      -> column, 1 to size
+    **************************************************************************/
+   public int column(int variable)
+   {
+      return (((variable - 1) / size) % size) + 1;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : value
+    * Purpose    : returns the value a variable refers to
+    * Parameters : variable -> variable number, 1 to size cubed
+    * Return     : int      -> value, 1 to size
+    **************************************************************************/
+   public int value(int variable)
+   {
+      return ((variable - 1) % size) + 1;
+   }
+
+   /* - METHOD -
+    ***************************************************************************
+    * Name       : count
+    * Purpose    : returns how many variables the puzzle uses
+    * Parameters : none
+    * Return     : int -> size cubed
+    **************************************************************************/
+   public int count()
+   {
+      return size * size * size;
+   }
+}